@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link EvaluatorBenchmark} class measures the condition evaluators of the
+ * {@code operators} package in isolation.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class EvaluatorBenchmark {
+
+    @Param({"GREATER_THAN", "BETWEEN", "DDOS"})
+    public EvaluatorType evaluator;
+
+    private ConditionEvaluator conditionEvaluator;
+
+    private IMetricsCollector collector;
+
+    @Setup
+    public void setUp() {
+        conditionEvaluator = evaluator.newEvaluator();
+        collector = evaluator.newCollector(0);
+    }
+
+    /**
+     * Evaluates the condition against the next synthetic value.
+     *
+     * @return the verdict, consumed by JMH.
+     */
+    @Benchmark
+    public boolean test() {
+        return conditionEvaluator.test(collector.get());
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.adaptiflow.operators.BetweenEvaluator;
+import tools.spirals.cerberus237.adaptiflow.operators.DDoSEvaluator;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+import tools.spirals.cerberus237.metricscollectorbase.models.ServiceMetrics;
+
+/**
+ * The {@link EvaluatorType} enum lists the condition evaluators benchmarked,
+ * each with a synthetic collector making it match one observation out of five.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@SuppressWarnings({"rawtypes"})
+public enum EvaluatorType {
+    /** {@link GreaterThanEvaluator} over a {@code Double}. */
+    GREATER_THAN {
+        @Override
+        public ConditionEvaluator newEvaluator() {
+            return new GreaterThanEvaluator<>(80.0);
+        }
+
+        @Override
+        public Object[] newValues() {
+            return SequenceCollector.sawToothValues(VALUES, Double[]::new, Double::valueOf);
+        }
+    },
+    /** {@link BetweenEvaluator} over a {@code Double}. */
+    BETWEEN {
+        @Override
+        public ConditionEvaluator newEvaluator() {
+            return new BetweenEvaluator<>(40.0, 60.0);
+        }
+
+        @Override
+        public Object[] newValues() {
+            return SequenceCollector.sawToothValues(VALUES, Double[]::new, Double::valueOf);
+        }
+    },
+    /** {@link DDoSEvaluator} over {@link ServiceMetrics}. */
+    DDOS {
+        @Override
+        public ConditionEvaluator newEvaluator() {
+            return new DDoSEvaluator(() -> 80.0, 60_000L);
+        }
+
+        @Override
+        public Object[] newValues() {
+            return SequenceCollector.sawToothValues(VALUES, ServiceMetrics[]::new, SyntheticServiceMetrics::new);
+        }
+    };
+
+    /**
+     * The number of distinct values of the synthetic collectors.
+     */
+    static final int VALUES = 1024;
+
+    /**
+     * Creates the evaluator.
+     *
+     * @return a new evaluator.
+     */
+    public abstract ConditionEvaluator newEvaluator();
+
+    /**
+     * Computes the values of a synthetic collector, matching one observation out of five.
+     *
+     * @return the values collected in a loop.
+     */
+    public abstract Object[] newValues();
+
+    /**
+     * Creates a synthetic collector of values the evaluator accepts.
+     *
+     * @param phase the index of the first value collected.
+     * @return a new collector.
+     */
+    public IMetricsCollector newCollector(int phase) {
+        return new SequenceCollector<>(newValues(), phase);
+    }
+}
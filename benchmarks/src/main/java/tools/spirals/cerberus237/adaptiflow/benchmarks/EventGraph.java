@@ -0,0 +1,122 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * The {@link EventGraph} class builds a synthetic set of events and subscribers
+ * on top of the real AdaptiFlow classes.
+ * <p>
+ * Each event is a {@link ConditionalEvent} guarded by an evaluator of the given
+ * {@link EvaluatorType} and fed by a synthetic collector. Each subscriber is an
+ * {@link EventSubscriber} performing its own {@link NoOpAction}.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class EventGraph {
+
+    /**
+     * The phase shift between the collectors of consecutive events, so that
+     * events do not all trigger during the same ticks.
+     */
+    private static final int PHASE_STEP = 97;
+
+    private final List<Event> events;
+
+    private final List<NoOpAction> actions;
+
+    private EventGraph(List<Event> events, List<NoOpAction> actions) {
+        this.events = Collections.unmodifiableList(events);
+        this.actions = Collections.unmodifiableList(actions);
+    }
+
+    /**
+     * Builds a graph.
+     *
+     * @param eventCount the number of events.
+     * @param subscribersPerEvent the number of subscribers of each event.
+     * @param evaluatorType the evaluator guarding each event.
+     * @return the graph.
+     */
+    public static EventGraph build(int eventCount, int subscribersPerEvent, EvaluatorType evaluatorType) {
+        return build(eventCount, subscribersPerEvent, evaluatorType, evaluatorType::newCollector);
+    }
+
+    /**
+     * Builds a graph whose collectors all share the same values, with different
+     * phases, so that the footprint of the graph is that of AdaptiFlow and not
+     * that of the synthetic values.
+     *
+     * @param eventCount the number of events.
+     * @param subscribersPerEvent the number of subscribers of each event.
+     * @param evaluatorType the evaluator guarding each event.
+     * @return the graph.
+     */
+    public static EventGraph buildSharingValues(int eventCount, int subscribersPerEvent,
+                                                EvaluatorType evaluatorType) {
+        Object[] values = evaluatorType.newValues();
+        return build(eventCount, subscribersPerEvent, evaluatorType, phase -> new SequenceCollector<>(values, phase));
+    }
+
+    private static EventGraph build(int eventCount, int subscribersPerEvent, EvaluatorType evaluatorType,
+                                    IntFunction<IMetricsCollector> collectors) {
+        List<Event> events = new ArrayList<>(eventCount);
+        List<NoOpAction> actions = new ArrayList<>(eventCount * subscribersPerEvent);
+        for (int e = 0; e < eventCount; e++) {
+            ConditionalEvent event = new ConditionalEvent("event-" + e, collectors.apply(e * PHASE_STEP),
+                    evaluatorType.newEvaluator());
+            for (int s = 0; s < subscribersPerEvent; s++) {
+                NoOpAction action = new NoOpAction("action-" + e + "-" + s);
+                actions.add(action);
+                List<IAdaptationAction> subscriberActions = List.of(action);
+                event.subscribe(new EventSubscriber(subscriberActions));
+            }
+            events.add(event);
+        }
+        return new EventGraph(events, actions);
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    public List<NoOpAction> getActions() {
+        return actions;
+    }
+
+    /**
+     * Returns the number of actions performed so far by all subscribers.
+     *
+     * @return the number of performed actions.
+     */
+    public long getPerformedActions() {
+        long performed = 0;
+        for (NoOpAction action : actions) {
+            performed += action.getPerformed();
+        }
+        return performed;
+    }
+}
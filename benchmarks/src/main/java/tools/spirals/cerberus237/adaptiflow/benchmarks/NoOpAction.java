@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+
+/**
+ * The {@link NoOpAction} class is an adaptation action that only counts how
+ * many times it has been performed.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class NoOpAction implements IAdaptationAction {
+
+    private final String actionId;
+
+    private long performed = 0;
+
+    public NoOpAction(String actionId) {
+        this.actionId = actionId;
+    }
+
+    @Override
+    public AdaptationActionResult perform() {
+        performed++;
+        return AdaptationActionResult.SUCCESS;
+    }
+
+    @Override
+    public String getActionId() {
+        return actionId;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Benchmark action " + actionId;
+    }
+
+    @Override
+    public boolean canPerform() {
+        return true;
+    }
+
+    @Override
+    public AdaptationActionResult rollback() {
+        return AdaptationActionResult.NOT_SUPPORTED;
+    }
+
+    @Override
+    public boolean supportsRollback() {
+        return false;
+    }
+
+    public long getPerformed() {
+        return performed;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ObservationBenchmark} class measures the observation hot path:
+ * collecting a value, evaluating the event and subscriber conditions, and
+ * notifying the subscribers that perform their actions.
+ * <p>
+ * {@link #observe(Graph)} measures a single {@link Event#observe()}, cycling
+ * through the events of the graph; {@link #tick(Ticks)} measures a full
+ * scheduler tick over all of them, for each scheduler type. Run with
+ * {@code -prof gc} to report the allocation rate per operation.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("rawtypes")
+public class ObservationBenchmark {
+
+    /**
+     * The event graph observed by both benchmarks.
+     */
+    @State(Scope.Thread)
+    public static class Graph {
+
+        @Param({"1", "100", "1000"})
+        public int events;
+
+        @Param({"1", "10"})
+        public int subscribers;
+
+        @Param({"GREATER_THAN", "BETWEEN", "DDOS"})
+        public EvaluatorType evaluator;
+
+        private List<Event> built;
+
+        private Event[] graphEvents;
+
+        private int next = 0;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            built = EventGraph.build(events, subscribers, evaluator).getEvents();
+            graphEvents = built.toArray(new Event[0]);
+        }
+    }
+
+    /**
+     * The scheduler ticking over the graph, only used by {@link #tick(Ticks)} so
+     * that {@link #observe(Graph)} does not run once per scheduler type.
+     */
+    @State(Scope.Thread)
+    public static class Ticks {
+
+        @Param({"SINGLE", "CONTINUOUS"})
+        public SchedulerType scheduler;
+
+        private SchedulerType.TickDriver driver;
+
+        @Setup(Level.Trial)
+        public void setUp(Graph graph) {
+            driver = scheduler.newDriver(graph.built);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            driver.close();
+        }
+    }
+
+    /**
+     * Observes one event.
+     *
+     * @param graph the event graph.
+     */
+    @Benchmark
+    public void observe(Graph graph) {
+        Event event = graph.graphEvents[graph.next];
+        graph.next = graph.next + 1 == graph.graphEvents.length ? 0 : graph.next + 1;
+        event.observe();
+    }
+
+    /**
+     * Runs one scheduler tick over all the events.
+     *
+     * @param ticks the scheduler of the event graph.
+     */
+    @Benchmark
+    public void tick(Ticks ticks) {
+        ticks.driver.tick();
+    }
+}
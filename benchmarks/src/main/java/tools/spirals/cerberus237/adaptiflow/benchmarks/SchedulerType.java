@@ -0,0 +1,104 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.ContinuousObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+
+import java.util.List;
+
+/**
+ * The {@link SchedulerType} enum lists the observation schedulers benchmarked.
+ * <p>
+ * Benchmarks drive the ticks themselves, on the benchmark thread, so that JMH
+ * measures one tick per invocation: the continuous scheduler is never started
+ * and its ticks are triggered directly. The cost of the periodic scheduling
+ * itself is measured by the end-to-end harness.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@SuppressWarnings("rawtypes")
+public enum SchedulerType {
+    /** {@link SingleObservationScheduler}, one tick per {@code start()}. */
+    SINGLE {
+        @Override
+        public TickDriver newDriver(List<Event> events) {
+            SingleObservationScheduler scheduler = new SingleObservationScheduler(events);
+            return new TickDriver() {
+                @Override
+                public void tick() {
+                    scheduler.start();
+                }
+
+                @Override
+                public void close() {
+                    scheduler.stop();
+                }
+            };
+        }
+    },
+    /** {@link ContinuousObservationScheduler}, ticks triggered directly. */
+    CONTINUOUS {
+        @Override
+        public TickDriver newDriver(List<Event> events) {
+            DrivenScheduler scheduler = new DrivenScheduler(events);
+            return new TickDriver() {
+                @Override
+                public void tick() {
+                    scheduler.tick();
+                }
+
+                @Override
+                public void close() {
+                    scheduler.shutdown();
+                }
+            };
+        }
+    };
+
+    /**
+     * Creates a driver ticking a new scheduler of this type over the given events.
+     *
+     * @param events the events observed at each tick.
+     * @return the driver.
+     */
+    public abstract TickDriver newDriver(List<Event> events);
+
+    /**
+     * Runs the ticks of a scheduler on the calling thread.
+     */
+    public interface TickDriver extends AutoCloseable {
+
+        /**
+         * Runs one tick.
+         */
+        void tick();
+
+        @Override
+        void close();
+    }
+
+    private static final class DrivenScheduler extends ContinuousObservationScheduler {
+
+        private DrivenScheduler(List<Event> events) {
+            super(events, 1000);
+        }
+
+        private void tick() {
+            runTick();
+        }
+    }
+}
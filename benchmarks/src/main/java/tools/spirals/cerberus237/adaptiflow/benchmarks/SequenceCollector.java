@@ -0,0 +1,90 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks;
+
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.function.DoubleFunction;
+import java.util.function.IntFunction;
+
+/**
+ * The {@link SequenceCollector} class is an in-memory metrics collector
+ * returning precomputed values in a loop.
+ * <p>
+ * Values are computed and boxed once, so that a benchmark measures AdaptiFlow
+ * and not the collector. The sequence is long enough for the JIT not to treat
+ * the collected value as a constant.
+ * </p>
+ *
+ * @param <T> the type of the collected values.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class SequenceCollector<T> implements IMetricsCollector<T> {
+
+    private final T[] values;
+
+    private int index;
+
+    /**
+     * Constructs a {@code SequenceCollector}.
+     *
+     * @param values the values returned in a loop.
+     * @param start the index of the first value returned.
+     */
+    public SequenceCollector(T[] values, int start) {
+        this.values = values;
+        this.index = Math.floorMod(start, values.length);
+    }
+
+    /**
+     * Creates a collector cycling through a saw-tooth between 0 and 100, so that
+     * a threshold of 80 matches one observation out of five.
+     *
+     * @param length the number of distinct values.
+     * @param phase the index of the first value returned, to desynchronise collectors.
+     * @param arrayFactory the function creating the array of values.
+     * @param factory the function turning a value between 0 and 100 into a metric.
+     * @param <T> the type of the collected values.
+     * @return the collector.
+     */
+    public static <T> SequenceCollector<T> sawTooth(int length, int phase, IntFunction<T[]> arrayFactory,
+                                                    DoubleFunction<T> factory) {
+        return new SequenceCollector<>(sawToothValues(length, arrayFactory, factory), phase);
+    }
+
+    /**
+     * Computes the values of a saw-tooth between 0 and 100, which several
+     * collectors may share with different phases.
+     *
+     * @param length the number of distinct values.
+     * @param arrayFactory the function creating the array of values.
+     * @param factory the function turning a value between 0 and 100 into a metric.
+     * @param <T> the type of the collected values.
+     * @return the values.
+     */
+    public static <T> T[] sawToothValues(int length, IntFunction<T[]> arrayFactory, DoubleFunction<T> factory) {
+        T[] values = arrayFactory.apply(length);
+        for (int i = 0; i < length; i++) {
+            values[i] = factory.apply(100.0 * i / length);
+        }
+        return values;
+    }
+
+    @Override
+    public T get() {
+        T value = values[index];
+        index = index + 1 == values.length ? 0 : index + 1;
+        return value;
+    }
+}
@@ -0,0 +1,249 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.actions.RetryPolicy;
+import tools.spirals.cerberus237.adaptiflow.actions.RetryingActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.metrics.LatencyHistogram;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.ContinuousObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongFunction;
+
+/**
+ * The {@link AdaptationLatencyHarness} class measures the detection-to-action
+ * latency of the full adaptation loop: the time between the moment a metric
+ * crosses its threshold and the moment the adaptation action starts to run.
+ * <p>
+ * Each trial wires a fresh {@link ContinuousObservationScheduler}, a
+ * {@link ConditionalEvent} triggering above {@value #THRESHOLD}, fed by a
+ * {@link SyntheticCollector}, and an {@link EventSubscriber} performing an
+ * {@link InstrumentedAction}. The crossing happens at a random phase of the
+ * scheduler interval, after a few ticks below the threshold. A trial whose
+ * action does not run before the timeout is counted as a miss: with direct
+ * execution, an exception escaping a tick cancels the periodic observations.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * java -cp target/benchmarks.jar \
+ *     tools.spirals.cerberus237.adaptiflow.benchmarks.e2e.AdaptationLatencyHarness \
+ *     --trials=30 --intervals=10,100
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class AdaptationLatencyHarness {
+
+    /**
+     * The threshold above which the action must run, as a percentage of CPU.
+     */
+    public static final double THRESHOLD = 80.0;
+
+    private static final RetryPolicy RETRY_POLICY = new RetryPolicy(5, 5, 100, 2.0, 0.2);
+
+    private final int trials;
+
+    private final long timeoutMillis;
+
+    private final Random random = new Random(7L);
+
+    /**
+     * Constructs an {@code AdaptationLatencyHarness}.
+     *
+     * @param trials the number of trials per scenario.
+     * @param timeoutMillis how long to wait for the action after the crossing, in milliseconds.
+     */
+    public AdaptationLatencyHarness(int trials, long timeoutMillis) {
+        this.trials = trials;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs the trials of a scenario.
+     *
+     * @param scenario the scenario.
+     * @return the latency distribution of the scenario.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public Result run(Scenario scenario) throws InterruptedException {
+        Result result = new Result(scenario);
+        for (int i = 0; i < trials; i++) {
+            runTrial(scenario, result);
+        }
+        return result;
+    }
+
+    private void runTrial(Scenario scenario, Result result) throws InterruptedException {
+        int interval = scenario.getIntervalMillis();
+        long crossingAtMillis = 2L * interval + random.nextInt(interval);
+        Signal signal = scenario.newSignal(crossingAtMillis);
+        SyntheticCollector collector = new SyntheticCollector(signal, scenario.getCollectorFaults().copy());
+        InstrumentedAction action = new InstrumentedAction("low-power-mode", scenario.getActionFaults().copy());
+
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", collector, new GreaterThanEvaluator<>(THRESHOLD));
+        List<IAdaptationAction> actions = List.of(action);
+        EventSubscriber<Double> subscriber = new EventSubscriber<>(actions);
+        RetryingActionExecutor executor = null;
+        if (scenario.getExecution() == Scenario.Execution.RETRYING) {
+            executor = new RetryingActionExecutor(1, RETRY_POLICY, null);
+            subscriber.setActionExecutor(executor);
+        }
+        event.subscribe(subscriber);
+        ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(List.of(event), interval);
+
+        long startNanos = collector.start();
+        scheduler.start();
+        try {
+            long performedAt = action.awaitPerformed(crossingAtMillis + timeoutMillis);
+            if (performedAt < 0) {
+                result.misses++;
+            } else {
+                long crossedAt = startNanos + signal.crossingNanos(THRESHOLD);
+                result.latency.record(performedAt - crossedAt);
+                result.attempts += action.getAttemptsToSuccess();
+            }
+        } finally {
+            scheduler.shutdown();
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Builds the default scenarios: every signal shape, with and without faults,
+     * for each scheduler interval.
+     *
+     * @param intervals the scheduler intervals, in milliseconds.
+     * @return the scenarios.
+     */
+    public static List<Scenario> defaultScenarios(int[] intervals) {
+        List<Scenario> scenarios = new ArrayList<>();
+        for (int interval : intervals) {
+            LongFunction<Signal> step = at -> Signal.step(50, 95, at);
+            scenarios.add(scenario("step", step, interval));
+            scenarios.add(scenario("ramp", at -> Signal.ramp(50, 100, at - 300, 500), interval));
+            scenarios.add(scenario("spike", at -> Signal.spike(50, 95, at, interval * 3L / 2), interval));
+            scenarios.add(scenario("noisy", at -> Signal.noisy(Signal.step(50, 95, at), 5.0, at), interval));
+            scenarios.add(new Scenario("step", step, interval, Scenario.Execution.DIRECT,
+                    new FaultInjection(5, 0.0), FaultInjection.NONE));
+            scenarios.add(new Scenario("step", step, interval, Scenario.Execution.DIRECT,
+                    FaultInjection.NONE, new FaultInjection(20, 0.0)));
+            scenarios.add(new Scenario("step", step, interval, Scenario.Execution.RETRYING,
+                    FaultInjection.NONE, new FaultInjection(0, 0.3)));
+            scenarios.add(new Scenario("step", step, interval, Scenario.Execution.DIRECT,
+                    new FaultInjection(0, 0.05), FaultInjection.NONE));
+        }
+        return scenarios;
+    }
+
+    private static Scenario scenario(String name, LongFunction<Signal> signal, int interval) {
+        return new Scenario(name, signal, interval, Scenario.Execution.DIRECT,
+                FaultInjection.NONE, FaultInjection.NONE);
+    }
+
+    /**
+     * Runs the default scenarios and prints their latency distribution.
+     *
+     * @param args {@code --trials=N}, {@code --intervals=a,b,c} and {@code --timeout=millis}.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int trials = 20;
+        int[] intervals = {10, 50, 200};
+        long timeout = 2000;
+        for (String arg : args) {
+            if (arg.startsWith("--trials=")) {
+                trials = Integer.parseInt(arg.substring("--trials=".length()));
+            } else if (arg.startsWith("--intervals=")) {
+                String[] values = arg.substring("--intervals=".length()).split(",");
+                intervals = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    intervals[i] = Integer.parseInt(values[i].trim());
+                }
+            } else if (arg.startsWith("--timeout=")) {
+                timeout = Long.parseLong(arg.substring("--timeout=".length()));
+            } else {
+                System.err.println("Unknown argument " + arg);
+                return;
+            }
+        }
+
+        AdaptationLatencyHarness harness = new AdaptationLatencyHarness(trials, timeout);
+        Result.printHeader(System.out);
+        for (Scenario scenario : defaultScenarios(intervals)) {
+            harness.run(scenario).print(System.out);
+        }
+    }
+
+    /**
+     * The {@link Result} class holds the latency distribution of one scenario.
+     */
+    public static final class Result {
+        private final Scenario scenario;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private int misses;
+        private long attempts;
+
+        private Result(Scenario scenario) {
+            this.scenario = scenario;
+        }
+
+        public Scenario getScenario() {
+            return scenario;
+        }
+
+        /**
+         * Returns the detection-to-action latencies of the trials whose action ran.
+         *
+         * @return the latency histogram, in nanoseconds.
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Returns the number of trials whose action did not run before the timeout.
+         *
+         * @return the number of misses.
+         */
+        public int getMisses() {
+            return misses;
+        }
+
+        static void printHeader(PrintStream out) {
+            out.printf("%-12s %8s %-9s %-22s %-22s %6s %6s %9s %9s %9s %9s %8s%n", "signal", "interval", "execution",
+                    "collector faults", "action faults", "runs", "misses", "p50 ms", "p90 ms", "p99 ms", "max ms",
+                    "attempts");
+        }
+
+        void print(PrintStream out) {
+            long runs = latency.getCount();
+            out.printf("%-12s %8d %-9s %-22s %-22s %6d %6d %9.2f %9.2f %9.2f %9.2f %8.2f%n",
+                    scenario.getSignalName(), scenario.getIntervalMillis(), scenario.getExecution(),
+                    scenario.getCollectorFaults(), scenario.getActionFaults(), runs, misses,
+                    latency.getPercentile(50) / 1e6, latency.getPercentile(90) / 1e6,
+                    latency.getPercentile(99) / 1e6, latency.getMax() / 1e6,
+                    runs == 0 ? 0.0 : (double) attempts / runs);
+        }
+    }
+}
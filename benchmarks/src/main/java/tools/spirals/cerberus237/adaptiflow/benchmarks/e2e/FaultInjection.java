@@ -0,0 +1,112 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link FaultInjection} class delays and fails the calls of a synthetic
+ * collector or action.
+ * <p>
+ * Every call first waits for the configured delay, then fails with an
+ * {@link InjectedFailure} with the configured probability.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class FaultInjection {
+
+    private static final AtomicLong SEED_SEQUENCE = new AtomicLong(42L);
+
+    /**
+     * No delay and no failure.
+     */
+    public static final FaultInjection NONE = new FaultInjection(0L, 0.0);
+
+    private final long delayMillis;
+
+    private final double failureRate;
+
+    private final Random random;
+
+    /**
+     * Constructs a {@code FaultInjection}.
+     *
+     * @param delayMillis the delay added to every call, in milliseconds.
+     * @param failureRate the probability that a call fails, between 0 and 1.
+     * @throws IllegalArgumentException if a parameter is out of range.
+     */
+    public FaultInjection(long delayMillis, double failureRate) {
+        this(delayMillis, failureRate, SEED_SEQUENCE.getAndIncrement());
+    }
+
+    /**
+     * Constructs a {@code FaultInjection} with a given random seed, for reproducible runs.
+     *
+     * @param delayMillis the delay added to every call, in milliseconds.
+     * @param failureRate the probability that a call fails, between 0 and 1.
+     * @param seed the seed deciding which calls fail.
+     * @throws IllegalArgumentException if a parameter is out of range.
+     */
+    public FaultInjection(long delayMillis, double failureRate, long seed) {
+        if (delayMillis < 0 || failureRate < 0.0 || failureRate > 1.0) {
+            throw new IllegalArgumentException("Invalid fault injection: delay " + delayMillis
+                    + "ms, failure rate " + failureRate);
+        }
+        this.delayMillis = delayMillis;
+        this.failureRate = failureRate;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Applies the delay, then fails if the dice say so.
+     *
+     * @param what the name of the faulty component, used in the failure message.
+     * @throws InjectedFailure if the call fails.
+     */
+    public void apply(String what) {
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failureRate > 0.0 && nextDouble() < failureRate) {
+            throw new InjectedFailure("Injected failure of " + what);
+        }
+    }
+
+    private synchronized double nextDouble() {
+        return random.nextDouble();
+    }
+
+    /**
+     * Returns a new injection with the same parameters and a different random sequence.
+     *
+     * @return the copy.
+     */
+    public FaultInjection copy() {
+        return new FaultInjection(delayMillis, failureRate);
+    }
+
+    @Override
+    public String toString() {
+        if (delayMillis == 0 && failureRate == 0.0) {
+            return "none";
+        }
+        return "delay=" + delayMillis + "ms,fail=" + Math.round(failureRate * 100) + "%";
+    }
+}
@@ -0,0 +1,29 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+/**
+ * The {@link InjectedFailure} exception is thrown by collectors and actions
+ * when a {@link FaultInjection} decides to fail.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class InjectedFailure extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InjectedFailure(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link InstrumentedAction} class is a fake adaptation action recording
+ * when it first ran successfully, with injectable delays and failures.
+ * <p>
+ * The recorded time is the start of the first attempt that did not fail, which
+ * is the moment the real action would have started to adapt the system. The
+ * number of attempts made up to that one is recorded with it, since the
+ * observations keep triggering the action afterwards.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class InstrumentedAction implements IAdaptationAction {
+
+    private final String actionId;
+
+    private final FaultInjection faults;
+
+    private final CountDownLatch performed = new CountDownLatch(1);
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private final AtomicLong performedAtNanos = new AtomicLong(-1L);
+
+    private volatile int attemptsToSuccess;
+
+    /**
+     * Constructs an {@code InstrumentedAction}.
+     *
+     * @param actionId the identifier of the action.
+     * @param faults the delays and failures injected into each attempt.
+     */
+    public InstrumentedAction(String actionId, FaultInjection faults) {
+        this.actionId = actionId;
+        this.faults = faults;
+    }
+
+    @Override
+    public AdaptationActionResult perform() {
+        long enteredAt = System.nanoTime();
+        int attempt = attempts.incrementAndGet();
+        faults.apply("action " + actionId);
+        if (performedAtNanos.compareAndSet(-1L, enteredAt)) {
+            attemptsToSuccess = attempt;
+            performed.countDown();
+        }
+        return AdaptationActionResult.SUCCESS;
+    }
+
+    /**
+     * Waits until the action has run successfully once.
+     *
+     * @param timeoutMillis the maximum time to wait, in milliseconds.
+     * @return the time the successful attempt started, as given by
+     *         {@link System#nanoTime()}, or -1 on timeout.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public long awaitPerformed(long timeoutMillis) throws InterruptedException {
+        return performed.await(timeoutMillis, TimeUnit.MILLISECONDS) ? performedAtNanos.get() : -1L;
+    }
+
+    /**
+     * Returns the number of attempts made so far, failed ones included.
+     *
+     * @return the number of attempts.
+     */
+    public int getAttempts() {
+        return attempts.get();
+    }
+
+    /**
+     * Returns the number of attempts made up to the first successful one, included.
+     *
+     * @return the number of attempts, or 0 if the action has not run successfully yet.
+     */
+    public int getAttemptsToSuccess() {
+        return attemptsToSuccess;
+    }
+
+    @Override
+    public String getActionId() {
+        return actionId;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Instrumented action " + actionId;
+    }
+
+    @Override
+    public boolean canPerform() {
+        return true;
+    }
+
+    @Override
+    public AdaptationActionResult rollback() {
+        return AdaptationActionResult.NOT_SUPPORTED;
+    }
+
+    @Override
+    public boolean supportsRollback() {
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+import java.util.function.LongFunction;
+
+/**
+ * The {@link Scenario} class describes one configuration of the end-to-end
+ * latency harness: the shape of the metric, the scheduler interval, how the
+ * actions are executed and the faults injected.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class Scenario {
+
+    /**
+     * How the subscriber executes its action.
+     */
+    public enum Execution {
+        /** On the observation thread, exactly once (the default of AdaptiFlow). */
+        DIRECT,
+        /** On a retrying executor thread. */
+        RETRYING
+    }
+
+    private final String signalName;
+
+    private final LongFunction<Signal> signalFactory;
+
+    private final int intervalMillis;
+
+    private final Execution execution;
+
+    private final FaultInjection collectorFaults;
+
+    private final FaultInjection actionFaults;
+
+    /**
+     * Constructs a {@code Scenario}.
+     *
+     * @param signalName the name of the signal shape.
+     * @param signalFactory creates the signal given the time, in milliseconds
+     *                      after its start, at which it should cross the threshold.
+     * @param intervalMillis the interval of the observation scheduler.
+     * @param execution how the subscriber executes its action.
+     * @param collectorFaults the faults injected into the collector.
+     * @param actionFaults the faults injected into the action.
+     */
+    public Scenario(String signalName, LongFunction<Signal> signalFactory, int intervalMillis, Execution execution,
+                    FaultInjection collectorFaults, FaultInjection actionFaults) {
+        this.signalName = signalName;
+        this.signalFactory = signalFactory;
+        this.intervalMillis = intervalMillis;
+        this.execution = execution;
+        this.collectorFaults = collectorFaults;
+        this.actionFaults = actionFaults;
+    }
+
+    Signal newSignal(long crossingAtMillis) {
+        return signalFactory.apply(crossingAtMillis);
+    }
+
+    public String getSignalName() {
+        return signalName;
+    }
+
+    public int getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public FaultInjection getCollectorFaults() {
+        return collectorFaults;
+    }
+
+    public FaultInjection getActionFaults() {
+        return actionFaults;
+    }
+}
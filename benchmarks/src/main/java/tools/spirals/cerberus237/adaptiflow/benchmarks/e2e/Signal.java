@@ -0,0 +1,185 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link Signal} interface describes a synthetic metric as a function of the
+ * time elapsed since the signal started.
+ * <p>
+ * Each signal knows when it first crosses a threshold, which is the reference
+ * point of the detection-to-action latency.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface Signal {
+
+    /**
+     * Returns the value of the signal.
+     *
+     * @param elapsedNanos the time elapsed since the signal started, in nanoseconds.
+     * @return the value of the metric.
+     */
+    double valueAt(long elapsedNanos);
+
+    /**
+     * Returns when the signal first rises above the threshold.
+     *
+     * @param threshold the threshold.
+     * @return the time elapsed since the signal started, in nanoseconds, or -1 if it never does.
+     */
+    long crossingNanos(double threshold);
+
+    /**
+     * Returns a short description of the signal.
+     *
+     * @return the description.
+     */
+    String describe();
+
+    /**
+     * A signal jumping from one level to another.
+     *
+     * @param before the level before the step.
+     * @param after the level after the step.
+     * @param atMillis when the step happens.
+     * @return the signal.
+     */
+    static Signal step(double before, double after, long atMillis) {
+        long at = TimeUnit.MILLISECONDS.toNanos(atMillis);
+        return new Signal() {
+            @Override
+            public double valueAt(long elapsedNanos) {
+                return elapsedNanos < at ? before : after;
+            }
+
+            @Override
+            public long crossingNanos(double threshold) {
+                return before > threshold ? 0L : after > threshold ? at : -1L;
+            }
+
+            @Override
+            public String describe() {
+                return "step";
+            }
+        };
+    }
+
+    /**
+     * A signal rising linearly from one level to another, then staying there.
+     *
+     * @param from the initial level.
+     * @param to the final level.
+     * @param startMillis when the ramp starts.
+     * @param durationMillis how long the ramp lasts.
+     * @return the signal.
+     */
+    static Signal ramp(double from, double to, long startMillis, long durationMillis) {
+        long start = TimeUnit.MILLISECONDS.toNanos(startMillis);
+        long duration = Math.max(1L, TimeUnit.MILLISECONDS.toNanos(durationMillis));
+        return new Signal() {
+            @Override
+            public double valueAt(long elapsedNanos) {
+                if (elapsedNanos <= start) {
+                    return from;
+                }
+                if (elapsedNanos >= start + duration) {
+                    return to;
+                }
+                return from + (to - from) * (elapsedNanos - start) / duration;
+            }
+
+            @Override
+            public long crossingNanos(double threshold) {
+                if (from > threshold) {
+                    return 0L;
+                }
+                if (to <= threshold) {
+                    return -1L;
+                }
+                // First instant strictly above the threshold
+                return start + (long) Math.floor((threshold - from) / (to - from) * duration) + 1;
+            }
+
+            @Override
+            public String describe() {
+                return "ramp";
+            }
+        };
+    }
+
+    /**
+     * A signal briefly jumping to a peak, then back to its base level.
+     *
+     * @param base the base level.
+     * @param peak the level during the spike.
+     * @param atMillis when the spike starts.
+     * @param widthMillis how long the spike lasts.
+     * @return the signal.
+     */
+    static Signal spike(double base, double peak, long atMillis, long widthMillis) {
+        long at = TimeUnit.MILLISECONDS.toNanos(atMillis);
+        long width = TimeUnit.MILLISECONDS.toNanos(widthMillis);
+        return new Signal() {
+            @Override
+            public double valueAt(long elapsedNanos) {
+                return elapsedNanos >= at && elapsedNanos < at + width ? peak : base;
+            }
+
+            @Override
+            public long crossingNanos(double threshold) {
+                return base > threshold ? 0L : peak > threshold ? at : -1L;
+            }
+
+            @Override
+            public String describe() {
+                return "spike(" + widthMillis + "ms)";
+            }
+        };
+    }
+
+    /**
+     * A signal adding uniform noise to another one. The crossing of the noisy
+     * signal is the crossing of the underlying one; the amplitude should stay
+     * below the distance between the levels of the underlying signal and the
+     * threshold.
+     *
+     * @param signal the underlying signal.
+     * @param amplitude the maximum absolute value of the noise.
+     * @param seed the seed of the noise.
+     * @return the signal.
+     */
+    static Signal noisy(Signal signal, double amplitude, long seed) {
+        Random random = new Random(seed);
+        return new Signal() {
+            @Override
+            public double valueAt(long elapsedNanos) {
+                return signal.valueAt(elapsedNanos) + amplitude * (2 * random.nextDouble() - 1);
+            }
+
+            @Override
+            public long crossingNanos(double threshold) {
+                return signal.crossingNanos(threshold);
+            }
+
+            @Override
+            public String describe() {
+                return "noisy-" + signal.describe();
+            }
+        };
+    }
+}
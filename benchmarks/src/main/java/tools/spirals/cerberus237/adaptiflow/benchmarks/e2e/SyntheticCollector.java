@@ -0,0 +1,60 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.e2e;
+
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+/**
+ * The {@link SyntheticCollector} class is a metrics collector sampling a
+ * {@link Signal}, with injectable delays and failures.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class SyntheticCollector implements IMetricsCollector<Double> {
+
+    private final Signal signal;
+
+    private final FaultInjection faults;
+
+    private volatile long startNanos;
+
+    /**
+     * Constructs a {@code SyntheticCollector}.
+     *
+     * @param signal the sampled signal.
+     * @param faults the delays and failures injected into each collection.
+     */
+    public SyntheticCollector(Signal signal, FaultInjection faults) {
+        this.signal = signal;
+        this.faults = faults;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Restarts the signal.
+     *
+     * @return the time the signal started, as given by {@link System#nanoTime()}.
+     */
+    public long start() {
+        long now = System.nanoTime();
+        startNanos = now;
+        return now;
+    }
+
+    @Override
+    public Double get() {
+        faults.apply("collector");
+        return signal.valueAt(System.nanoTime() - startNanos);
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.load;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+/**
+ * The {@link HeapProbe} class measures the heap retained by a set of objects,
+ * as the difference of the used heap after garbage collections.
+ * <p>
+ * {@link System#gc()} is only a hint: the used heap is sampled after several
+ * collections and the lowest value is kept. The result is an estimate, reliable
+ * for large object graphs, where the noise is small compared to their size.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class HeapProbe {
+
+    private static final int COLLECTIONS = 4;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private HeapProbe() {
+    }
+
+    /**
+     * Collects garbage and returns the used heap.
+     *
+     * @return the used heap in bytes.
+     */
+    public static long usedHeapAfterGc() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < COLLECTIONS; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            used = Math.min(used, MEMORY.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    /**
+     * Returns the total time spent in garbage collection since the JVM started.
+     *
+     * @return the collection time in milliseconds.
+     */
+    public static long gcTimeMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0L, collector.getCollectionTime());
+        }
+        return total;
+    }
+}
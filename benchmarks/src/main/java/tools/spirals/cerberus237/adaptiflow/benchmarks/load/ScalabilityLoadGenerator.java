@@ -0,0 +1,309 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.load;
+
+import tools.spirals.cerberus237.adaptiflow.benchmarks.EvaluatorType;
+import tools.spirals.cerberus237.adaptiflow.benchmarks.EventGraph;
+import tools.spirals.cerberus237.adaptiflow.metrics.AdaptiFlowMetrics;
+import tools.spirals.cerberus237.adaptiflow.metrics.LatencyHistogram;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.ContinuousObservationScheduler;
+
+import java.io.PrintStream;
+import java.lang.ref.Reference;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ScalabilityLoadGenerator} class measures how the adaptation loop
+ * scales with the number of events and subscribers.
+ * <p>
+ * For each graph size, it builds an {@link EventGraph} of real
+ * {@code ConditionalEvent}s and {@code EventSubscriber}s, estimates its heap
+ * footprint, then runs it under a {@link ContinuousObservationScheduler} for a
+ * fixed duration after a warm-up. Each size gives one point of the scaling
+ * curve: tick duration percentiles, overruns, CPU time per tick and per event,
+ * heap bytes per event and per subscriber, actions performed and garbage
+ * collection time.
+ * </p>
+ * <p>
+ * The scheduler runs untraced, unless {@code --traced} is given, in which case
+ * an {@link AdaptiFlowMetrics} is installed to measure the cost of the
+ * instrumentation as well.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * java -Xmx2g -cp target/benchmarks.jar \
+ *     tools.spirals.cerberus237.adaptiflow.benchmarks.load.ScalabilityLoadGenerator \
+ *     --events=100,1000,5000,20000 --subscribers=20 --interval=100 --duration=30
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ScalabilityLoadGenerator {
+
+    private final int subscribersPerEvent;
+
+    private final EvaluatorType evaluatorType;
+
+    private final int intervalMillis;
+
+    private final long warmupMillis;
+
+    private final long durationMillis;
+
+    private final boolean traced;
+
+    /**
+     * Constructs a {@code ScalabilityLoadGenerator}.
+     *
+     * @param subscribersPerEvent the number of subscribers of each event.
+     * @param evaluatorType the evaluator guarding each event.
+     * @param intervalMillis the scheduler interval in milliseconds.
+     * @param warmupMillis how long the scheduler runs before measuring, in milliseconds.
+     * @param durationMillis how long the scheduler is measured, in milliseconds.
+     * @param traced whether to install an {@link AdaptiFlowMetrics} during the run.
+     */
+    public ScalabilityLoadGenerator(int subscribersPerEvent, EvaluatorType evaluatorType, int intervalMillis,
+                                    long warmupMillis, long durationMillis, boolean traced) {
+        this.subscribersPerEvent = subscribersPerEvent;
+        this.evaluatorType = evaluatorType;
+        this.intervalMillis = intervalMillis;
+        this.warmupMillis = warmupMillis;
+        this.durationMillis = durationMillis;
+        this.traced = traced;
+    }
+
+    /**
+     * Measures one point of the scaling curve.
+     *
+     * @param eventCount the number of events of the graph.
+     * @return the measurements.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public Result run(int eventCount) throws InterruptedException {
+        Result result = new Result(eventCount, subscribersPerEvent);
+
+        // Footprint of the events alone, then of the events and their subscribers
+        long base = HeapProbe.usedHeapAfterGc();
+        EventGraph bare = EventGraph.buildSharingValues(eventCount, 0, evaluatorType);
+        long eventsBytes = HeapProbe.usedHeapAfterGc() - base;
+        Reference.reachabilityFence(bare);
+        bare = null;
+        base = HeapProbe.usedHeapAfterGc();
+        EventGraph graph = EventGraph.buildSharingValues(eventCount, subscribersPerEvent, evaluatorType);
+        long graphBytes = HeapProbe.usedHeapAfterGc() - base;
+        result.bytesPerEvent = (double) eventsBytes / eventCount;
+        long subscriberCount = (long) eventCount * subscribersPerEvent;
+        result.bytesPerSubscriber = subscriberCount == 0 ? 0.0 : (double) (graphBytes - eventsBytes) / subscriberCount;
+
+        ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(graph.getEvents(),
+                intervalMillis);
+        TickRecorder recorder = new TickRecorder(intervalMillis);
+        scheduler.addTickListener(recorder);
+        AdaptiFlowMetrics metrics = traced ? new AdaptiFlowMetrics(false) : null;
+        if (metrics != null) {
+            metrics.install();
+        }
+        long performedBefore;
+        long gcBefore;
+        long elapsed;
+        try {
+            scheduler.start();
+            Thread.sleep(warmupMillis);
+            performedBefore = graph.getPerformedActions();
+            gcBefore = HeapProbe.gcTimeMillis();
+            recorder.begin();
+            long start = System.nanoTime();
+            Thread.sleep(durationMillis);
+            recorder.end();
+            elapsed = System.nanoTime() - start;
+        } finally {
+            scheduler.shutdown();
+            if (metrics != null) {
+                metrics.uninstall();
+            }
+        }
+
+        result.elapsedNanos = elapsed;
+        result.expectedTicks = elapsed / TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        result.duration = recorder.getDuration();
+        result.overruns = recorder.getOverruns();
+        result.cpuNanos = recorder.getCpuNanos();
+        result.performedActions = graph.getPerformedActions() - performedBefore;
+        result.gcMillis = HeapProbe.gcTimeMillis() - gcBefore;
+        return result;
+    }
+
+    /**
+     * Runs the load generator over a range of graph sizes and prints the scaling curve.
+     *
+     * @param args {@code --events=a,b,c}, {@code --subscribers=N}, {@code --interval=millis},
+     *             {@code --warmup=seconds}, {@code --duration=seconds},
+     *             {@code --evaluator=GREATER_THAN|BETWEEN|DDOS}, {@code --traced} and {@code --csv}.
+     * @throws InterruptedException if the calling thread is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int[] sizes = {100, 1000, 5000, 10000};
+        int subscribers = 20;
+        int interval = 100;
+        long warmup = 3;
+        long duration = 10;
+        EvaluatorType evaluator = EvaluatorType.GREATER_THAN;
+        boolean traced = false;
+        boolean csv = false;
+        for (String arg : args) {
+            if (arg.startsWith("--events=")) {
+                String[] values = arg.substring("--events=".length()).split(",");
+                sizes = new int[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    sizes[i] = Integer.parseInt(values[i].trim());
+                }
+            } else if (arg.startsWith("--subscribers=")) {
+                subscribers = Integer.parseInt(arg.substring("--subscribers=".length()));
+            } else if (arg.startsWith("--interval=")) {
+                interval = Integer.parseInt(arg.substring("--interval=".length()));
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Long.parseLong(arg.substring("--warmup=".length()));
+            } else if (arg.startsWith("--duration=")) {
+                duration = Long.parseLong(arg.substring("--duration=".length()));
+            } else if (arg.startsWith("--evaluator=")) {
+                evaluator = EvaluatorType.valueOf(arg.substring("--evaluator=".length()));
+            } else if ("--traced".equals(arg)) {
+                traced = true;
+            } else if ("--csv".equals(arg)) {
+                csv = true;
+            } else {
+                System.err.println("Unknown argument " + arg);
+                return;
+            }
+        }
+
+        ScalabilityLoadGenerator generator = new ScalabilityLoadGenerator(subscribers, evaluator, interval,
+                TimeUnit.SECONDS.toMillis(warmup), TimeUnit.SECONDS.toMillis(duration), traced);
+        Result.printHeader(System.out, csv);
+        for (int size : sizes) {
+            generator.run(size).print(System.out, csv);
+        }
+    }
+
+    /**
+     * The {@link Result} class holds the measurements of one graph size.
+     */
+    public static final class Result {
+        private final int events;
+        private final int subscribersPerEvent;
+        private LatencyHistogram duration;
+        private long elapsedNanos;
+        private long expectedTicks;
+        private long overruns;
+        private long cpuNanos;
+        private long performedActions;
+        private long gcMillis;
+        private double bytesPerEvent;
+        private double bytesPerSubscriber;
+
+        private Result(int events, int subscribersPerEvent) {
+            this.events = events;
+            this.subscribersPerEvent = subscribersPerEvent;
+        }
+
+        public int getEvents() {
+            return events;
+        }
+
+        public int getSubscribersPerEvent() {
+            return subscribersPerEvent;
+        }
+
+        /**
+         * Returns the wall-clock durations of the measured ticks.
+         *
+         * @return the duration histogram, in nanoseconds.
+         */
+        public LatencyHistogram getDuration() {
+            return duration;
+        }
+
+        /**
+         * Returns the number of ticks the scheduler should have run during the
+         * measurement; fewer ticks were run if they overran the interval.
+         *
+         * @return the expected number of ticks.
+         */
+        public long getExpectedTicks() {
+            return expectedTicks;
+        }
+
+        public long getOverruns() {
+            return overruns;
+        }
+
+        /**
+         * Returns the mean CPU time of one observation, that is one event in one tick.
+         *
+         * @return the CPU time per event in nanoseconds.
+         */
+        public double getCpuNanosPerEvent() {
+            long ticks = duration.getCount();
+            return ticks == 0 ? 0.0 : (double) cpuNanos / ticks / events;
+        }
+
+        /**
+         * Returns the share of one core used by the scheduler thread during the measurement.
+         *
+         * @return the CPU load, 1.0 for a saturated core.
+         */
+        public double getCpuLoad() {
+            return elapsedNanos == 0 ? 0.0 : (double) cpuNanos / elapsedNanos;
+        }
+
+        public double getBytesPerEvent() {
+            return bytesPerEvent;
+        }
+
+        public double getBytesPerSubscriber() {
+            return bytesPerSubscriber;
+        }
+
+        public long getPerformedActions() {
+            return performedActions;
+        }
+
+        public long getGcMillis() {
+            return gcMillis;
+        }
+
+        static void printHeader(PrintStream out, boolean csv) {
+            if (csv) {
+                out.println("events,subscribers,ticks,expected_ticks,p50_ms,p90_ms,p99_ms,max_ms,overruns,"
+                        + "cpu_load,cpu_ns_per_event,bytes_per_event,bytes_per_subscriber,actions_per_s,gc_ms");
+                return;
+            }
+            out.printf("%8s %6s %7s %8s %8s %8s %8s %8s %8s %8s %9s %9s %9s %10s %7s%n", "events", "subs",
+                    "ticks", "expected", "p50 ms", "p90 ms", "p99 ms", "max ms", "overruns", "cpu load",
+                    "cpu ns/ev", "B/event", "B/sub", "actions/s", "gc ms");
+        }
+
+        void print(PrintStream out, boolean csv) {
+            double actionsPerSecond = elapsedNanos == 0 ? 0.0 : performedActions * 1e9 / elapsedNanos;
+            String format = csv
+                    ? "%d,%d,%d,%d,%.3f,%.3f,%.3f,%.3f,%d,%.3f,%.1f,%.1f,%.1f,%.1f,%d%n"
+                    : "%8d %6d %7d %8d %8.2f %8.2f %8.2f %8.2f %8d %8.2f %9.1f %9.1f %9.1f %10.1f %7d%n";
+            out.printf(format, events, subscribersPerEvent, duration.getCount(), expectedTicks,
+                    duration.getPercentile(50) / 1e6, duration.getPercentile(90) / 1e6,
+                    duration.getPercentile(99) / 1e6, duration.getMax() / 1e6, overruns, getCpuLoad(),
+                    getCpuNanosPerEvent(), bytesPerEvent, bytesPerSubscriber, actionsPerSecond, gcMillis);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.benchmarks.load;
+
+import tools.spirals.cerberus237.adaptiflow.interfaces.TickListener;
+import tools.spirals.cerberus237.adaptiflow.metrics.LatencyHistogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link TickRecorder} class is a {@link TickListener} measuring the wall-clock
+ * duration and the CPU time of the ticks of a scheduler.
+ * <p>
+ * The CPU time is that of the thread running the tick, as reported by the
+ * {@link ThreadMXBean}. Ticks are only recorded between {@link #begin()} and
+ * {@link #end()}, so that warm-up ticks can be left out.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class TickRecorder implements TickListener {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long budgetNanos;
+
+    private final LatencyHistogram duration = new LatencyHistogram();
+
+    private final LongAdder cpuNanos = new LongAdder();
+
+    private final LongAdder overruns = new LongAdder();
+
+    private volatile boolean recording;
+
+    /*
+     * Only touched by the thread running the ticks.
+     */
+    private long tickStart;
+
+    private long tickCpuStart;
+
+    /**
+     * Constructs a {@code TickRecorder}.
+     *
+     * @param intervalMillis the scheduler interval: a longer tick is counted as an overrun.
+     */
+    public TickRecorder(int intervalMillis) {
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        if (THREADS.isCurrentThreadCpuTimeSupported() && !THREADS.isThreadCpuTimeEnabled()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    @Override
+    public void onTickStart(long tick) {
+        tickCpuStart = THREADS.getCurrentThreadCpuTime();
+        tickStart = System.nanoTime();
+    }
+
+    @Override
+    public void onTickEnd(long tick) {
+        long elapsed = System.nanoTime() - tickStart;
+        long cpu = THREADS.getCurrentThreadCpuTime() - tickCpuStart;
+        if (!recording) {
+            return;
+        }
+        duration.record(elapsed);
+        cpuNanos.add(Math.max(0L, cpu));
+        if (elapsed > budgetNanos) {
+            overruns.increment();
+        }
+    }
+
+    /**
+     * Starts recording the ticks, discarding those recorded so far.
+     */
+    public void begin() {
+        duration.reset();
+        cpuNanos.reset();
+        overruns.reset();
+        recording = true;
+    }
+
+    /**
+     * Stops recording the ticks.
+     */
+    public void end() {
+        recording = false;
+    }
+
+    /**
+     * Returns the wall-clock durations of the recorded ticks.
+     *
+     * @return the duration histogram, in nanoseconds.
+     */
+    public LatencyHistogram getDuration() {
+        return duration;
+    }
+
+    /**
+     * Returns the CPU time spent by the recorded ticks.
+     *
+     * @return the CPU time in nanoseconds, 0 if the JVM does not measure thread CPU time.
+     */
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    /**
+     * Returns the number of recorded ticks that lasted longer than the interval.
+     *
+     * @return the number of overruns.
+     */
+    public long getOverruns() {
+        return overruns.sum();
+    }
+}
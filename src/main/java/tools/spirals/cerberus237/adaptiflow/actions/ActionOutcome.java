@@ -0,0 +1,190 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
+
+/**
+ * The {@link ActionOutcome} class is an immutable record of how an adaptation
+ * action ended.
+ * <p>
+ * It captures the result returned by the last attempt (or the error it threw),
+ * the number of attempts made, the latency of the last {@code perform()} call and
+ * the total time elapsed since the action was first submitted, as well as the
+ * correlation identifier of the observation that triggered the action.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class ActionOutcome {
+
+    /**
+     * The action this outcome relates to.
+     */
+    private final IAdaptationAction action;
+
+    /**
+     * The result returned by the last attempt, or {@code null} if it threw.
+     */
+    private final AdaptationActionResult result;
+
+    /**
+     * The error thrown by the last attempt, or {@code null} if it returned normally.
+     */
+    private final Throwable error;
+
+    /**
+     * The number of attempts made, including the first one.
+     */
+    private final int attempts;
+
+    /**
+     * The duration of the last {@code perform()} call, in nanoseconds.
+     */
+    private final long latencyNanos;
+
+    /**
+     * The time elapsed between the submission of the action and this outcome, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * The correlation identifier of the observation that triggered the action.
+     */
+    private final long correlationId;
+
+    /**
+     * Constructs an {@code ActionOutcome} correlated with the current observation
+     * of the calling thread.
+     *
+     * @param action the action this outcome relates to.
+     * @param result the result returned by the last attempt, or {@code null} if it threw.
+     * @param error the error thrown by the last attempt, or {@code null}.
+     * @param attempts the number of attempts made.
+     * @param latencyNanos the duration of the last attempt, in nanoseconds.
+     * @param elapsedNanos the total time elapsed since submission, in nanoseconds.
+     */
+    public ActionOutcome(IAdaptationAction action, AdaptationActionResult result, Throwable error,
+                         int attempts, long latencyNanos, long elapsedNanos) {
+        this(action, result, error, attempts, latencyNanos, elapsedNanos, CorrelationContext.currentId());
+    }
+
+    /**
+     * Constructs an {@code ActionOutcome}.
+     *
+     * @param action the action this outcome relates to.
+     * @param result the result returned by the last attempt, or {@code null} if it threw.
+     * @param error the error thrown by the last attempt, or {@code null}.
+     * @param attempts the number of attempts made.
+     * @param latencyNanos the duration of the last attempt, in nanoseconds.
+     * @param elapsedNanos the total time elapsed since submission, in nanoseconds.
+     * @param correlationId the correlation identifier of the triggering observation,
+     *                      or {@link CorrelationContext#NONE}.
+     */
+    public ActionOutcome(IAdaptationAction action, AdaptationActionResult result, Throwable error,
+                         int attempts, long latencyNanos, long elapsedNanos, long correlationId) {
+        this.action = action;
+        this.result = result;
+        this.error = error;
+        this.attempts = attempts;
+        this.latencyNanos = latencyNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * Returns the action this outcome relates to.
+     *
+     * @return the adaptation action.
+     */
+    public IAdaptationAction getAction() {
+        return action;
+    }
+
+    /**
+     * Returns the result returned by the last attempt.
+     *
+     * @return the result, or {@code null} if the last attempt threw.
+     */
+    public AdaptationActionResult getResult() {
+        return result;
+    }
+
+    /**
+     * Returns the error thrown by the last attempt.
+     *
+     * @return the error, or {@code null} if the last attempt returned normally.
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Returns the number of attempts made, including the first one.
+     *
+     * @return the number of attempts.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Returns the duration of the last {@code perform()} call.
+     *
+     * @return the latency of the last attempt, in nanoseconds.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Returns the time elapsed between the submission of the action and this outcome.
+     *
+     * @return the elapsed time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the correlation identifier of the observation that triggered the action.
+     *
+     * @return the correlation identifier, or {@link CorrelationContext#NONE}.
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Indicates whether the action eventually succeeded.
+     *
+     * @return {@code true} if the last attempt returned {@link AdaptationActionResult#SUCCESS}.
+     */
+    public boolean isSuccess() {
+        return result == AdaptationActionResult.SUCCESS;
+    }
+
+    @Override
+    public String toString() {
+        return "ActionOutcome{action=" + action.getActionId()
+                + ", result=" + result
+                + ", error=" + error
+                + ", attempts=" + attempts
+                + ", latencyNanos=" + latencyNanos
+                + ", elapsedNanos=" + elapsedNanos
+                + ", correlationId=" + correlationId + '}';
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.interfaces.TickListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * The {@link ActionPlanner} class collects the actions requested by all subscribers
+ * during an observation tick and executes only the net set once the tick is over.
+ * <p>
+ * Actions are identified by a key, by default their {@link IAdaptationAction#getActionId()
+ * action identifier}, so that two instances of one action class configured
+ * differently are both executed. At the end of the tick the planner:
+ * </p>
+ * <ol>
+ *     <li>keeps a single instance of identical actions requested several times;</li>
+ *     <li>resolves every declared conflict whose two actions were both requested,
+ *     according to its {@link ConflictResolution};</li>
+ *     <li>hands the remaining actions, in request order, to the delegate executor,
+ *     each under the correlation identifier of the observation that requested it.</li>
+ * </ol>
+ * <p>
+ * The planner must be registered as a tick listener of the scheduler. A tick is
+ * tracked per thread, so that one planner can be shared by several schedulers:
+ * only the actions requested by the thread running a tick are planned for the
+ * end of that tick. Actions requested outside of a tick are passed straight to
+ * the delegate.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ActionPlanner planner = new ActionPlanner(DirectActionExecutor.INSTANCE);
+ * planner.declareConflict("enable-cache", "disable-cache", ConflictResolution.CANCEL_OUT);
+ * scheduler.addTickListener(planner);
+ * subscribers.forEach(subscriber -&gt; subscriber.setActionExecutor(planner));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionPlanner implements ActionExecutor, TickListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionPlanner.class);
+
+    /**
+     * A conflict declared between two action keys.
+     */
+    private static final class Conflict {
+        private final String first;
+        private final String second;
+        private final ConflictResolution resolution;
+
+        private Conflict(String first, String second, ConflictResolution resolution) {
+            this.first = first;
+            this.second = second;
+            this.resolution = resolution;
+        }
+    }
+
+    /**
+     * The executor receiving the net set of actions.
+     */
+    private final ActionExecutor delegate;
+
+    /**
+     * The function computing the key identifying an action.
+     */
+    private final Function<IAdaptationAction, String> keyFunction;
+
+    /**
+     * The declared conflicts.
+     */
+    private final List<Conflict> conflicts = new ArrayList<>();
+
+    /**
+     * The priority of each action key, used by {@link ConflictResolution#PRIORITY}.
+     */
+    private final Map<String, Integer> priorities = new HashMap<>();
+
+    /**
+     * The actions planned during the tick run by each thread, {@code null} outside of a tick.
+     */
+    private final ThreadLocal<Plan> currentPlan = new ThreadLocal<>();
+
+    private final LongAdder deduplicated = new LongAdder();
+
+    private final LongAdder suppressed = new LongAdder();
+
+    /**
+     * Constructs an {@code ActionPlanner} identifying actions by their action identifier.
+     *
+     * @param delegate the executor receiving the net set of actions.
+     */
+    public ActionPlanner(ActionExecutor delegate) {
+        this(delegate, IAdaptationAction::getActionId);
+    }
+
+    /**
+     * Constructs an {@code ActionPlanner} with a custom action key function.
+     *
+     * @param delegate the executor receiving the net set of actions.
+     * @param keyFunction the function computing the key identifying an action.
+     */
+    public ActionPlanner(ActionExecutor delegate, Function<IAdaptationAction, String> keyFunction) {
+        this.delegate = delegate;
+        this.keyFunction = keyFunction;
+    }
+
+    /**
+     * Declares that the two actions must not both be executed in the same tick.
+     *
+     * @param firstKey the key of the first action.
+     * @param secondKey the key of the second action.
+     * @param resolution how to resolve the conflict when both are requested.
+     */
+    public synchronized void declareConflict(String firstKey, String secondKey, ConflictResolution resolution) {
+        conflicts.add(new Conflict(firstKey, secondKey, resolution));
+    }
+
+    /**
+     * Sets the priority of an action, used by {@link ConflictResolution#PRIORITY}.
+     * Actions without explicit priority have priority 0.
+     *
+     * @param key the key of the action.
+     * @param priority the priority, higher wins.
+     */
+    public synchronized void setPriority(String key, int priority) {
+        priorities.put(key, priority);
+    }
+
+    /**
+     * Plans the action for the end of the tick run by the calling thread, or
+     * executes it immediately when this thread is not running a tick.
+     *
+     * @param action the adaptation action to be executed.
+     */
+    @Override
+    public void execute(IAdaptationAction action) {
+        Plan plan = currentPlan.get();
+        if (plan == null) {
+            delegate.execute(action);
+            return;
+        }
+        String key = keyFunction.apply(action);
+        if (plan.planned.remove(key) != null) {
+            deduplicated.increment();
+        }
+        plan.planned.put(key, action);
+        plan.correlations.put(action, CorrelationContext.currentId());
+    }
+
+    @Override
+    public void onTickStart(long tick) {
+        currentPlan.set(new Plan());
+    }
+
+    @Override
+    public void onTickEnd(long tick) {
+        Plan plan = currentPlan.get();
+        currentPlan.remove();
+        if (plan == null || plan.planned.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            resolveConflicts(plan.planned);
+        }
+        List<IAdaptationAction> net = new ArrayList<>(plan.planned.values());
+        long[] netCorrelations = new long[net.size()];
+        for (int i = 0; i < net.size(); i++) {
+            netCorrelations[i] = plan.correlations.get(net.get(i));
+        }
+        for (int i = 0; i < net.size(); i++) {
+            IAdaptationAction action = net.get(i);
+            long previous = CorrelationContext.enter(netCorrelations[i]);
+            try {
+                delegate.execute(action);
+            } catch (RuntimeException e) {
+                LOG.warn("Planned action {} failed", action.getActionId(), e);
+            } finally {
+                CorrelationContext.exit(previous);
+            }
+        }
+    }
+
+    private void resolveConflicts(LinkedHashMap<String, IAdaptationAction> planned) {
+        for (Conflict conflict : conflicts) {
+            if (!planned.containsKey(conflict.first) || !planned.containsKey(conflict.second)) {
+                continue;
+            }
+            switch (conflict.resolution) {
+                case CANCEL_OUT:
+                    drop(planned, conflict.first);
+                    drop(planned, conflict.second);
+                    break;
+                case PRIORITY:
+                    int firstPriority = priorities.getOrDefault(conflict.first, 0);
+                    int secondPriority = priorities.getOrDefault(conflict.second, 0);
+                    if (firstPriority != secondPriority) {
+                        drop(planned, firstPriority > secondPriority ? conflict.second : conflict.first);
+                    } else {
+                        // Same priority: fall back to the last writer
+                        dropFirstPlanned(planned, conflict);
+                    }
+                    break;
+                case LAST_WRITER:
+                default:
+                    dropFirstPlanned(planned, conflict);
+                    break;
+            }
+        }
+    }
+
+    private void dropFirstPlanned(LinkedHashMap<String, IAdaptationAction> planned, Conflict conflict) {
+        drop(planned, plannedBefore(planned, conflict.first, conflict.second) ? conflict.first : conflict.second);
+    }
+
+    private static boolean plannedBefore(LinkedHashMap<String, IAdaptationAction> planned,
+                                         String first, String second) {
+        for (String key : planned.keySet()) {
+            if (key.equals(first)) {
+                return true;
+            }
+            if (key.equals(second)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private void drop(LinkedHashMap<String, IAdaptationAction> planned, String key) {
+        IAdaptationAction action = planned.remove(key);
+        if (action != null) {
+            suppressed.increment();
+            LOG.debug("Suppressed conflicting action {}", key);
+        }
+    }
+
+    /**
+     * Returns the number of duplicate requests merged since creation.
+     *
+     * @return the number of deduplicated actions.
+     */
+    public long getDeduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    /**
+     * Returns the number of actions dropped by conflict resolution since creation.
+     *
+     * @return the number of suppressed actions.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * The actions planned during one tick.
+     */
+    private static final class Plan {
+
+        /**
+         * The planned actions, ordered by last request.
+         */
+        private final LinkedHashMap<String, IAdaptationAction> planned = new LinkedHashMap<>();
+
+        /**
+         * The correlation identifier of the observation that requested each planned action.
+         */
+        private final Map<IAdaptationAction, Long> correlations = new IdentityHashMap<>();
+    }
+}
@@ -0,0 +1,38 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+/**
+ * The {@link ConflictResolution} enum lists the strategies an {@link ActionPlanner}
+ * can apply when two conflicting actions are planned in the same tick.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public enum ConflictResolution {
+
+    /**
+     * Keeps the action that was planned last.
+     */
+    LAST_WRITER,
+
+    /**
+     * Keeps the action with the highest priority; on a tie, keeps the one planned last.
+     */
+    PRIORITY,
+
+    /**
+     * Drops both actions.
+     */
+    CANCEL_OUT
+}
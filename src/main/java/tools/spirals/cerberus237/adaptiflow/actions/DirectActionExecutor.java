@@ -0,0 +1,84 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionOutcomeListener;
+
+/**
+ * The {@link DirectActionExecutor} class performs adaptation actions
+ * synchronously, on the calling thread, exactly once.
+ * <p>
+ * This is the default executor of every subscriber and preserves the historical
+ * behaviour of AdaptiFlow: exceptions thrown by an action are propagated to the
+ * caller. An optional {@link ActionOutcomeListener}, as well as the listeners
+ * registered in {@link ObservationHooks}, are informed of each outcome.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class DirectActionExecutor implements ActionExecutor {
+
+    /**
+     * Shared executor without outcome listener.
+     */
+    public static final DirectActionExecutor INSTANCE = new DirectActionExecutor(null);
+
+    /**
+     * The listener informed of each outcome, may be {@code null}.
+     */
+    private final ActionOutcomeListener outcomeListener;
+
+    /**
+     * Constructs a {@code DirectActionExecutor} reporting outcomes to the given listener.
+     *
+     * @param outcomeListener the listener informed of each outcome, may be {@code null}.
+     */
+    public DirectActionExecutor(ActionOutcomeListener outcomeListener) {
+        this.outcomeListener = outcomeListener;
+    }
+
+    /**
+     * Performs the action on the calling thread.
+     *
+     * @param action the adaptation action to be executed.
+     */
+    @Override
+    public void execute(IAdaptationAction action) {
+        if (outcomeListener == null && !ObservationHooks.isActive()) {
+            action.perform();
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            AdaptationActionResult result = action.perform();
+            long latency = System.nanoTime() - start;
+            report(new ActionOutcome(action, result, null, 1, latency, latency));
+        } catch (RuntimeException e) {
+            long latency = System.nanoTime() - start;
+            report(new ActionOutcome(action, null, e, 1, latency, latency));
+            throw e;
+        }
+    }
+
+    private void report(ActionOutcome outcome) {
+        if (outcomeListener != null) {
+            outcomeListener.onOutcome(outcome);
+        }
+        ObservationHooks.fireActionCompleted(outcome);
+    }
+}
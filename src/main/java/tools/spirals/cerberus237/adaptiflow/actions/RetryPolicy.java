@@ -0,0 +1,144 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The {@link RetryPolicy} class describes how failed adaptation actions are retried.
+ * <p>
+ * The delay before attempt {@code n + 1} grows exponentially
+ * ({@code initialDelay * multiplier^(n - 1)}), is capped at {@code maxDelay}, and is
+ * then reduced by a random jitter of up to {@code jitter} (a fraction between 0 and 1)
+ * so that replicas retrying the same failed endpoint do not synchronise.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * // 5 attempts, 200ms, 400ms, 800ms, 1600ms between them, up to 50% jitter
+ * RetryPolicy policy = new RetryPolicy(5, 200, 5000, 2.0, 0.5);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class RetryPolicy {
+
+    /**
+     * The maximum number of attempts, including the first one.
+     */
+    private final int maxAttempts;
+
+    /**
+     * The delay before the first retry, in milliseconds.
+     */
+    private final long initialDelayMillis;
+
+    /**
+     * The upper bound of any retry delay, in milliseconds.
+     */
+    private final long maxDelayMillis;
+
+    /**
+     * The factor applied to the delay after each failed attempt.
+     */
+    private final double multiplier;
+
+    /**
+     * The maximum fraction of the delay removed at random.
+     */
+    private final double jitter;
+
+    /**
+     * Constructs a {@code RetryPolicy}.
+     *
+     * @param maxAttempts the maximum number of attempts, including the first one (at least 1).
+     * @param initialDelayMillis the delay before the first retry, in milliseconds.
+     * @param maxDelayMillis the upper bound of any retry delay, in milliseconds.
+     * @param multiplier the factor applied to the delay after each failed attempt (at least 1).
+     * @param jitter the maximum fraction of the delay removed at random, between 0 and 1.
+     */
+    public RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis,
+                       double multiplier, double jitter) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        }
+        if (initialDelayMillis < 0 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Invalid delays: initial=" + initialDelayMillis + ", max=" + maxDelayMillis);
+        }
+        if (multiplier < 1.0) {
+            throw new IllegalArgumentException("multiplier must be at least 1: " + multiplier);
+        }
+        if (jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1: " + jitter);
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Returns a policy suitable for remote {@code /adapt} calls: 4 attempts,
+     * starting at 250ms, doubling up to 10s, with up to 50% jitter.
+     *
+     * @return the default retry policy.
+     */
+    public static RetryPolicy defaultPolicy() {
+        return new RetryPolicy(4, 250, 10_000, 2.0, 0.5);
+    }
+
+    /**
+     * Returns a policy that never retries.
+     *
+     * @return a single-attempt policy.
+     */
+    public static RetryPolicy noRetry() {
+        return new RetryPolicy(1, 0, 0, 1.0, 0.0);
+    }
+
+    /**
+     * Computes the delay to wait after the given failed attempt.
+     *
+     * @param failedAttempt the number of the attempt that just failed, starting at 1.
+     * @return the delay before the next attempt, in milliseconds.
+     */
+    public long delayAfterAttempt(int failedAttempt) {
+        double delay = initialDelayMillis * Math.pow(multiplier, failedAttempt - 1);
+        long capped = (long) Math.min(delay, maxDelayMillis);
+        if (jitter == 0.0 || capped == 0) {
+            return capped;
+        }
+        return capped - (long) (capped * jitter * ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Indicates whether another attempt is allowed after the given failed attempt.
+     *
+     * @param failedAttempt the number of the attempt that just failed, starting at 1.
+     * @return {@code true} if the action may be attempted again.
+     */
+    public boolean canRetry(int failedAttempt) {
+        return failedAttempt < maxAttempts;
+    }
+
+    /**
+     * Returns the maximum number of attempts, including the first one.
+     *
+     * @return the maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
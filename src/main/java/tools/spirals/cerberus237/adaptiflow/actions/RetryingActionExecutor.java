@@ -0,0 +1,290 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionOutcomeListener;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemTimer;
+import tools.spirals.cerberus237.adaptiflow.time.Timer;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link RetryingActionExecutor} class performs adaptation actions
+ * asynchronously and retries the failed ones according to a {@link RetryPolicy}.
+ * <p>
+ * An attempt fails when {@code perform()} throws or returns anything other than
+ * {@link AdaptationActionResult#SUCCESS}. {@link AdaptationActionResult#NOT_SUPPORTED}
+ * is considered permanent and is never retried. Retries are scheduled on the
+ * executor's own threads, so the observation thread only pays for the submission.
+ * They can be scheduled on a given {@link Timer} instead, for instance a
+ * {@link tools.spirals.cerberus237.adaptiflow.time.ManualClock} on which the
+ * retry delays elapse without waiting. Once an action has completed, its
+ * {@link ActionOutcome} is handed to the configured {@link ActionOutcomeListener}.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * RetryingActionExecutor executor = new RetryingActionExecutor(2, RetryPolicy.defaultPolicy(),
+ *         outcome -&gt; LOG.info("{}", outcome));
+ * EventSubscriber&lt;Double&gt; subscriber = new EventSubscriber&lt;&gt;(List.of(new LowPowerMode()));
+ * subscriber.setActionExecutor(executor);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class RetryingActionExecutor implements ActionExecutor {
+    private static final Logger LOG = LoggerFactory.getLogger(RetryingActionExecutor.class);
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    /**
+     * The policy deciding whether and when failed actions are retried.
+     */
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * The listener informed of each final outcome, may be {@code null}.
+     */
+    private final ActionOutcomeListener outcomeListener;
+
+    /**
+     * The timer running the actions and their retries.
+     */
+    private final Timer timer;
+
+    /**
+     * The clock measuring the latency of the actions.
+     */
+    private final Clock clock;
+
+    /**
+     * The threads performing the actions and their retries, {@code null} if the timer was given.
+     */
+    private final ScheduledThreadPoolExecutor executor;
+
+    private volatile boolean shutdown = false;
+
+    /**
+     * The number of actions submitted whose outcome is not yet known.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * The actions submitted whose outcome is not yet known.
+     */
+    private final Set<Submission> outstanding = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a {@code RetryingActionExecutor}.
+     *
+     * @param threads the number of threads performing actions.
+     * @param retryPolicy the policy deciding whether and when failed actions are retried.
+     * @param outcomeListener the listener informed of each final outcome, may be {@code null}.
+     */
+    public RetryingActionExecutor(int threads, RetryPolicy retryPolicy, ActionOutcomeListener outcomeListener) {
+        this.retryPolicy = retryPolicy;
+        this.outcomeListener = outcomeListener;
+        String prefix = "adaptiflow-action-" + POOL_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.setRemoveOnCancelPolicy(true);
+        this.timer = new SystemTimer(executor);
+        this.clock = timer.getClock();
+    }
+
+    /**
+     * Constructs a {@code RetryingActionExecutor} performing the actions and their
+     * retries on the given timer. The timer is not released by {@link #shutdown()}.
+     *
+     * @param retryPolicy the policy deciding whether and when failed actions are retried.
+     * @param outcomeListener the listener informed of each final outcome, may be {@code null}.
+     * @param timer the timer running the actions and their retries.
+     */
+    public RetryingActionExecutor(RetryPolicy retryPolicy, ActionOutcomeListener outcomeListener, Timer timer) {
+        this.retryPolicy = retryPolicy;
+        this.outcomeListener = outcomeListener;
+        this.executor = null;
+        this.timer = timer;
+        this.clock = timer.getClock();
+    }
+
+    /**
+     * Constructs a {@code RetryingActionExecutor} with a single thread and the default retry policy.
+     *
+     * @param outcomeListener the listener informed of each final outcome, may be {@code null}.
+     */
+    public RetryingActionExecutor(ActionOutcomeListener outcomeListener) {
+        this(1, RetryPolicy.defaultPolicy(), outcomeListener);
+    }
+
+    /**
+     * Submits the action for asynchronous execution and returns immediately.
+     *
+     * @param action the adaptation action to be executed.
+     */
+    @Override
+    public void execute(IAdaptationAction action) {
+        submit(action);
+    }
+
+    /**
+     * Submits the action for asynchronous execution.
+     *
+     * @param action the adaptation action to be executed.
+     * @return a future completed with the final outcome of the action.
+     */
+    public CompletableFuture<ActionOutcome> submit(IAdaptationAction action) {
+        Submission submission = new Submission(action, clock.nanoTime(), CorrelationContext.currentId());
+        outstanding.add(submission);
+        pending.incrementAndGet();
+        try {
+            schedule(() -> attempt(submission, 1), 0L);
+        } catch (RejectedExecutionException e) {
+            complete(submission, new ActionOutcome(action, null, e, 0, 0, clock.nanoTime() - submission.submittedAt,
+                    submission.correlationId));
+        }
+        return submission.future;
+    }
+
+    private void attempt(Submission submission, int attempt) {
+        IAdaptationAction action = submission.action;
+        submission.attempts = attempt;
+        AdaptationActionResult result = null;
+        Throwable error = null;
+        long start = clock.nanoTime();
+        try {
+            result = action.perform();
+        } catch (Throwable e) {
+            // Errors too, such as a LinkageError from a plugin action, must not leave the future pending
+            error = e;
+        }
+        long latency = clock.nanoTime() - start;
+
+        boolean permanent = result == AdaptationActionResult.SUCCESS
+                || result == AdaptationActionResult.NOT_SUPPORTED;
+        if (!permanent && retryPolicy.canRetry(attempt)) {
+            long delay = retryPolicy.delayAfterAttempt(attempt);
+            LOG.debug("Action {} failed on attempt {} ({}), retrying in {}ms",
+                    action.getActionId(), attempt, error != null ? error : result, delay);
+            try {
+                schedule(() -> attempt(submission, attempt + 1), delay);
+                return;
+            } catch (RejectedExecutionException e) {
+                error = e;
+            }
+        }
+        complete(submission, new ActionOutcome(action, result, error, attempt, latency,
+                clock.nanoTime() - submission.submittedAt, submission.correlationId));
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        if (shutdown) {
+            throw new RejectedExecutionException("The executor was shut down");
+        }
+        timer.schedule(() -> {
+            // A given timer keeps running after shutdown: abandon the task as shutdownNow() would
+            if (!shutdown) {
+                task.run();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void complete(Submission submission, ActionOutcome outcome) {
+        // The outcome of an action abandoned by shutdown() is already known
+        if (!outstanding.remove(submission)) {
+            return;
+        }
+        pending.decrementAndGet();
+        if (!outcome.isSuccess()) {
+            LOG.warn("Action {} failed after {} attempt(s): {}", outcome.getAction().getActionId(),
+                    outcome.getAttempts(), outcome.getError() != null ? outcome.getError() : outcome.getResult());
+        }
+        if (outcomeListener != null) {
+            try {
+                outcomeListener.onOutcome(outcome);
+            } catch (RuntimeException e) {
+                LOG.warn("Action outcome listener failed", e);
+            }
+        }
+        ObservationHooks.fireActionCompleted(outcome);
+        submission.future.complete(outcome);
+    }
+
+    /**
+     * Returns the number of actions submitted whose outcome is not yet known,
+     * including those waiting for a retry.
+     *
+     * @return the number of pending actions.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Stops accepting new actions and abandons pending retries. The actions whose
+     * outcome is not yet known are completed with a
+     * {@link RejectedExecutionException} as error.
+     */
+    public void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Submission submission : outstanding) {
+            complete(submission, new ActionOutcome(submission.action, null,
+                    new RejectedExecutionException("The executor was shut down"), submission.attempts, 0L,
+                    clock.nanoTime() - submission.submittedAt, submission.correlationId));
+        }
+    }
+
+    /**
+     * An action submitted whose outcome is not yet known.
+     */
+    private static final class Submission {
+
+        private final IAdaptationAction action;
+
+        private final long submittedAt;
+
+        private final long correlationId;
+
+        private final CompletableFuture<ActionOutcome> future = new CompletableFuture<>();
+
+        private volatile int attempts;
+
+        private Submission(IAdaptationAction action, long submittedAt, long correlationId) {
+            this.action = action;
+            this.submittedAt = submittedAt;
+            this.correlationId = correlationId;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link AggregateCollector} class is a metrics collector that queries
+ * several collectors concurrently, typically one per instance of a service, and
+ * combines their values with an {@link AggregateReducer}.
+ * <p>
+ * Each call of {@link #get()} queries every child in parallel and waits for them
+ * until a shared deadline, so that it lasts as long as the slowest child that
+ * answers in time and never much longer than the deadline. Children that throw
+ * or return {@code null} are reported as failed; children that have not answered
+ * at the deadline are interrupted and reported as stragglers. The aggregate is
+ * computed from the values received, and {@link #getLastReport()} tells which
+ * children contributed to it. A child still busy with a previous call is not
+ * queried again and is reported as a straggler, so that a hung instance never
+ * holds more than one thread.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * AggregateCollector&lt;Double, Double&gt; latency = new AggregateCollector&lt;&gt;(
+ *         List.of(new LatencyCollector("node-1"), new LatencyCollector("node-2")),
+ *         AggregateReducer.percentile(95), 200);
+ * Event&lt;Double&gt; slow = new Event&lt;&gt;("SlowService", latency, new GreaterThanEvaluator(500.0));
+ * </pre>
+ *
+ * @param <T> the type of the values of the children.
+ * @param <R> the type of the aggregate value.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class AggregateCollector<T, R> implements IMetricsCollector<R> {
+    private static final Logger LOG = LoggerFactory.getLogger(AggregateCollector.class);
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final List<IMetricsCollector<T>> children;
+
+    private final AggregateReducer<T, R> reducer;
+
+    private final long deadlineNanos;
+
+    private final ExecutorService executor;
+
+    /**
+     * The executor created by this collector, {@code null} if the executor was given.
+     */
+    private final ExecutorService ownedExecutor;
+
+    /**
+     * Whether each child is still busy with a call.
+     */
+    private final AtomicBoolean[] inFlight;
+
+    private final LongAdder partialCount = new LongAdder();
+
+    private final LongAdder stragglerCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private volatile AggregateReport lastReport;
+
+    /**
+     * Constructs an {@code AggregateCollector} querying its children on its own
+     * threads, one per child. They are released by {@link #shutdown()}.
+     *
+     * @param children the collectors to be queried.
+     * @param reducer the function combining their values.
+     * @param deadlineMillis the time the children are given to answer, in milliseconds.
+     */
+    public AggregateCollector(List<? extends IMetricsCollector<T>> children, AggregateReducer<T, R> reducer,
+                              long deadlineMillis) {
+        this(children, reducer, deadlineMillis, newExecutor(children.size()), true);
+    }
+
+    /**
+     * Constructs an {@code AggregateCollector} querying its children on the given
+     * executor. The executor is not released by {@link #shutdown()}.
+     *
+     * @param children the collectors to be queried.
+     * @param reducer the function combining their values.
+     * @param deadlineMillis the time the children are given to answer, in milliseconds.
+     * @param executor the executor running the queries.
+     */
+    public AggregateCollector(List<? extends IMetricsCollector<T>> children, AggregateReducer<T, R> reducer,
+                              long deadlineMillis, ExecutorService executor) {
+        this(children, reducer, deadlineMillis, executor, false);
+    }
+
+    private AggregateCollector(List<? extends IMetricsCollector<T>> children, AggregateReducer<T, R> reducer,
+                               long deadlineMillis, ExecutorService executor, boolean owned) {
+        if (children.isEmpty()) {
+            throw new IllegalArgumentException("At least one collector must be aggregated");
+        }
+        if (deadlineMillis <= 0) {
+            throw new IllegalArgumentException("The deadline must be positive: " + deadlineMillis);
+        }
+        this.children = List.copyOf(children);
+        this.reducer = reducer;
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMillis);
+        this.executor = executor;
+        this.ownedExecutor = owned ? executor : null;
+        this.inFlight = new AtomicBoolean[this.children.size()];
+        for (int i = 0; i < inFlight.length; i++) {
+            inFlight[i] = new AtomicBoolean();
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        String prefix = "adaptiflow-aggregate-" + POOL_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public R get() {
+        long start = System.nanoTime();
+        long deadline = start + deadlineNanos;
+        int size = children.size();
+        List<Integer> responded = new ArrayList<>(size);
+        List<Integer> failed = new ArrayList<>();
+        List<Integer> stragglers = new ArrayList<>();
+        List<T> values = new ArrayList<>(size);
+
+        List<Future<T>> futures = new ArrayList<>(Collections.nCopies(size, null));
+        AtomicBoolean[] claims = new AtomicBoolean[size];
+        boolean[] busy = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            if (!inFlight[i].compareAndSet(false, true)) {
+                busy[i] = true;
+                continue;
+            }
+            AtomicBoolean claim = new AtomicBoolean();
+            claims[i] = claim;
+            int index = i;
+            try {
+                futures.set(i, executor.submit(() -> query(index, claim)));
+            } catch (RejectedExecutionException e) {
+                inFlight[i].set(false);
+            }
+        }
+
+        boolean interrupted = false;
+        for (int i = 0; i < size; i++) {
+            Future<T> future = futures.get(i);
+            if (future == null) {
+                (busy[i] ? stragglers : failed).add(i);
+                continue;
+            }
+            try {
+                T value = interrupted
+                        ? future.get(0L, TimeUnit.NANOSECONDS)
+                        : future.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (value != null) {
+                    values.add(value);
+                    responded.add(i);
+                } else {
+                    failed.add(i);
+                }
+            } catch (ExecutionException e) {
+                LOG.debug("Aggregated collector {} failed", i, e.getCause());
+                failed.add(i);
+            } catch (TimeoutException e) {
+                abandon(i, future, claims[i]);
+                stragglers.add(i);
+            } catch (InterruptedException e) {
+                interrupted = true;
+                abandon(i, future, claims[i]);
+                stragglers.add(i);
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        AggregateReport report = new AggregateReport(size, responded, failed, stragglers,
+                System.nanoTime() - start);
+        lastReport = report;
+        if (report.isPartial()) {
+            partialCount.increment();
+            stragglerCount.add(stragglers.size());
+            failureCount.add(failed.size());
+            LOG.debug("Partial aggregate: {}", report);
+        }
+        return reducer.reduce(values, size);
+    }
+
+    private T query(int index, AtomicBoolean claim) {
+        // The caller claims the query instead when it abandons it before it starts
+        if (!claim.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            return children.get(index).get();
+        } finally {
+            inFlight[index].set(false);
+        }
+    }
+
+    private void abandon(int index, Future<T> future, AtomicBoolean claim) {
+        future.cancel(true);
+        if (claim.compareAndSet(false, true)) {
+            inFlight[index].set(false);
+        }
+    }
+
+    /**
+     * Returns the report of the last call of {@link #get()}.
+     *
+     * @return the last report, or {@code null} if the collector was never called.
+     */
+    public AggregateReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Returns the number of calls whose aggregate was computed from fewer values than children.
+     *
+     * @return the number of partial aggregates.
+     */
+    public long getPartialCount() {
+        return partialCount.sum();
+    }
+
+    /**
+     * Returns the number of times a child had not answered at the deadline.
+     *
+     * @return the number of stragglers, over all calls.
+     */
+    public long getStragglerCount() {
+        return stragglerCount.sum();
+    }
+
+    /**
+     * Returns the number of times a child threw or returned {@code null}.
+     *
+     * @return the number of failures, over all calls.
+     */
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * Returns the collectors whose values are aggregated, in the order of their indexes.
+     *
+     * @return the child collectors.
+     */
+    public List<IMetricsCollector<T>> getChildren() {
+        return children;
+    }
+
+    /**
+     * Releases the threads created by this collector. A given executor is left running.
+     */
+    public void shutdown() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdownNow();
+        }
+    }
+}
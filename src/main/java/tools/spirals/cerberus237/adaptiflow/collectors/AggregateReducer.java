@@ -0,0 +1,130 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.collectors;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The {@link AggregateReducer} interface represents the function combining the
+ * values returned by the children of an {@link AggregateCollector}.
+ * <p>
+ * The reducer receives the values of the children that answered before the
+ * deadline, which may be fewer than the children, and the number of children.
+ * The numeric reducers return {@link Double#NaN} when no child answered, which
+ * no threshold condition matches.
+ * </p>
+ *
+ * @param <T> the type of the values of the children.
+ * @param <R> the type of the aggregate value.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@FunctionalInterface
+public interface AggregateReducer<T, R> {
+
+    /**
+     * Combines the values of the children.
+     *
+     * @param values the values of the children that answered, in no particular order.
+     * @param expected the number of children.
+     * @return the aggregate value.
+     */
+    R reduce(List<T> values, int expected);
+
+    /**
+     * Returns a reducer computing the largest value.
+     *
+     * @param <T> the type of the values.
+     * @return the reducer.
+     */
+    static <T extends Number> AggregateReducer<T, Double> max() {
+        return (values, expected) -> {
+            double max = Double.NaN;
+            for (T value : values) {
+                double current = value.doubleValue();
+                if (Double.isNaN(max) || current > max) {
+                    max = current;
+                }
+            }
+            return max;
+        };
+    }
+
+    /**
+     * Returns a reducer computing the mean of the values.
+     *
+     * @param <T> the type of the values.
+     * @return the reducer.
+     */
+    static <T extends Number> AggregateReducer<T, Double> mean() {
+        return (values, expected) -> {
+            if (values.isEmpty()) {
+                return Double.NaN;
+            }
+            double sum = 0.0;
+            for (T value : values) {
+                sum += value.doubleValue();
+            }
+            return sum / values.size();
+        };
+    }
+
+    /**
+     * Returns a reducer computing a percentile of the values, by the nearest-rank method.
+     *
+     * @param percentile the percentile, between 0 (exclusive) and 100.
+     * @param <T> the type of the values.
+     * @return the reducer.
+     * @throws IllegalArgumentException if the percentile is out of range.
+     */
+    static <T extends Number> AggregateReducer<T, Double> percentile(double percentile) {
+        if (!(percentile > 0.0 && percentile <= 100.0)) {
+            throw new IllegalArgumentException("The percentile must be in (0, 100]: " + percentile);
+        }
+        return (values, expected) -> {
+            if (values.isEmpty()) {
+                return Double.NaN;
+            }
+            double[] sorted = new double[values.size()];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = values.get(i).doubleValue();
+            }
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        };
+    }
+
+    /**
+     * Returns a reducer telling whether a quorum of the children is healthy.
+     * Children that did not answer count as unhealthy.
+     *
+     * @param healthy the predicate telling whether the value of a child is healthy.
+     * @param fraction the fraction of all the children that must be healthy, between 0 and 1.
+     * @param <T> the type of the values.
+     * @return the reducer.
+     */
+    static <T> AggregateReducer<T, Boolean> quorum(Predicate<? super T> healthy, double fraction) {
+        return (values, expected) -> {
+            int count = 0;
+            for (T value : values) {
+                if (healthy.test(value)) {
+                    count++;
+                }
+            }
+            return expected > 0 && count >= Math.ceil(fraction * expected);
+        };
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.collectors;
+
+import java.util.List;
+
+/**
+ * The {@link AggregateReport} class describes one call of an
+ * {@link AggregateCollector}: which children answered, failed or missed the
+ * deadline, and how long the call took.
+ * <p>
+ * Children are identified by their index in the list given to the collector.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class AggregateReport {
+
+    private final int expected;
+
+    private final List<Integer> responded;
+
+    private final List<Integer> failed;
+
+    private final List<Integer> stragglers;
+
+    private final long durationNanos;
+
+    AggregateReport(int expected, List<Integer> responded, List<Integer> failed, List<Integer> stragglers,
+                    long durationNanos) {
+        this.expected = expected;
+        this.responded = List.copyOf(responded);
+        this.failed = List.copyOf(failed);
+        this.stragglers = List.copyOf(stragglers);
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Tells whether the aggregate was computed from fewer values than children.
+     *
+     * @return {@code true} if a child failed or missed the deadline.
+     */
+    public boolean isPartial() {
+        return responded.size() < expected;
+    }
+
+    /**
+     * Returns the number of children queried.
+     *
+     * @return the number of values expected.
+     */
+    public int getExpected() {
+        return expected;
+    }
+
+    /**
+     * Returns the children whose value was aggregated.
+     *
+     * @return the indexes of the children.
+     */
+    public List<Integer> getResponded() {
+        return responded;
+    }
+
+    /**
+     * Returns the children that threw or returned {@code null} before the deadline.
+     *
+     * @return the indexes of the children.
+     */
+    public List<Integer> getFailed() {
+        return failed;
+    }
+
+    /**
+     * Returns the children that had not answered at the deadline, including
+     * those still busy with a previous call.
+     *
+     * @return the indexes of the children.
+     */
+    public List<Integer> getStragglers() {
+        return stragglers;
+    }
+
+    /**
+     * Returns the time taken by the call, from the first query to the aggregate.
+     *
+     * @return the duration, in nanoseconds.
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "AggregateReport{responded=" + responded.size() + "/" + expected
+                + ", failed=" + failed + ", stragglers=" + stragglers
+                + ", durationMillis=" + durationNanos / 1_000_000.0 + "}";
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemTimer;
+import tools.spirals.cerberus237.adaptiflow.time.Timer;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link CachingCollector} class is a metrics collector that decorates
+ * another one, typically a remote one, and shares its values between the
+ * events, schedulers and checks calling it at nearly the same moment.
+ * <p>
+ * A value younger than the time-to-live is returned without calling the
+ * decorated collector. Once it has expired, it is still returned during the
+ * stale window while a single background request refreshes it
+ * (stale-while-revalidate); past the stale window, the caller waits for a new
+ * value. Concurrent callers never cause more than one request: those arriving
+ * while a request is in flight wait for its result (single-flight). A failed
+ * request is not cached, its exception is thrown to every waiting caller, and
+ * a failed background refresh leaves the stale value in place. {@code null}
+ * values are returned but not cached.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * CachingCollector&lt;Double&gt; cpu = new CachingCollector&lt;&gt;(new PrometheusCpuCollector(url), 1000, 4000);
+ * Event&lt;Double&gt; highCpu = new Event&lt;&gt;("HighCpu", cpu, new GreaterThanEvaluator(80.0));
+ * Event&lt;Double&gt; lowCpu = new Event&lt;&gt;("LowCpu", cpu, new LessThanEvaluator(10.0));
+ * </pre>
+ *
+ * @param <T> the type of the collected values.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class CachingCollector<T> implements IMetricsCollector<T> {
+    private static final Logger LOG = LoggerFactory.getLogger(CachingCollector.class);
+
+    private static final AtomicInteger TIMER_SEQUENCE = new AtomicInteger();
+
+    private final IMetricsCollector<T> delegate;
+
+    private final long ttlMillis;
+
+    private final long staleMillis;
+
+    private final Clock clock;
+
+    /**
+     * The timer running the background refreshes, {@code null} without stale window.
+     */
+    private final Timer timer;
+
+    /**
+     * The timer created by this collector, {@code null} if the timer was given.
+     */
+    private final SystemTimer ownedTimer;
+
+    private volatile CachedValue<T> cached;
+
+    /**
+     * The request in flight, {@code null} if there is none.
+     */
+    private final AtomicReference<CompletableFuture<T>> inFlight = new AtomicReference<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder staleHitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder coalescedCount = new LongAdder();
+
+    /**
+     * Constructs a {@code CachingCollector} without stale window, timed by the system clock.
+     *
+     * @param delegate the collector actually collecting the values.
+     * @param ttlMillis the time a value is returned without a new request, in milliseconds.
+     */
+    public CachingCollector(IMetricsCollector<T> delegate, long ttlMillis) {
+        this(delegate, ttlMillis, 0L, null, SystemClock.INSTANCE, null);
+    }
+
+    /**
+     * Constructs a {@code CachingCollector} refreshing stale values on its own
+     * thread, which is released by {@link #shutdown()}.
+     *
+     * @param delegate the collector actually collecting the values.
+     * @param ttlMillis the time a value is returned without a new request, in milliseconds.
+     * @param staleMillis the time an expired value is still returned while it is refreshed, in milliseconds.
+     */
+    public CachingCollector(IMetricsCollector<T> delegate, long ttlMillis, long staleMillis) {
+        this(delegate, ttlMillis, staleMillis, newTimer(staleMillis));
+    }
+
+    private CachingCollector(IMetricsCollector<T> delegate, long ttlMillis, long staleMillis, SystemTimer timer) {
+        this(delegate, ttlMillis, staleMillis, timer, SystemClock.INSTANCE, timer);
+    }
+
+    /**
+     * Constructs a {@code CachingCollector} timed by the clock of the given timer,
+     * which runs the background refreshes. The timer is not released by {@link #shutdown()}.
+     *
+     * @param delegate the collector actually collecting the values.
+     * @param ttlMillis the time a value is returned without a new request, in milliseconds.
+     * @param staleMillis the time an expired value is still returned while it is refreshed, in milliseconds.
+     * @param timer the timer running the background refreshes.
+     */
+    public CachingCollector(IMetricsCollector<T> delegate, long ttlMillis, long staleMillis, Timer timer) {
+        this(delegate, ttlMillis, staleMillis, timer, timer.getClock(), null);
+    }
+
+    private CachingCollector(IMetricsCollector<T> delegate, long ttlMillis, long staleMillis, Timer timer,
+                             Clock clock, SystemTimer ownedTimer) {
+        if (ttlMillis < 0 || staleMillis < 0) {
+            throw new IllegalArgumentException("The time-to-live and the stale window must not be negative");
+        }
+        this.delegate = delegate;
+        this.ttlMillis = ttlMillis;
+        this.staleMillis = staleMillis;
+        this.timer = timer;
+        this.clock = clock;
+        this.ownedTimer = ownedTimer;
+    }
+
+    private static SystemTimer newTimer(long staleMillis) {
+        return staleMillis > 0
+                ? SystemTimer.singleThread("adaptiflow-cache-" + TIMER_SEQUENCE.incrementAndGet())
+                : null;
+    }
+
+    @Override
+    public T get() {
+        CachedValue<T> current = cached;
+        if (current != null) {
+            long age = clock.currentTimeMillis() - current.collectedAtMillis;
+            if (age < ttlMillis) {
+                hitCount.increment();
+                return current.value;
+            }
+            if (age < ttlMillis + staleMillis && timer != null) {
+                hitCount.increment();
+                staleHitCount.increment();
+                refreshInBackground();
+                return current.value;
+            }
+        }
+        return load();
+    }
+
+    private T load() {
+        CompletableFuture<T> request = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.compareAndExchange(null, request);
+        if (existing != null) {
+            coalescedCount.increment();
+            return await(existing);
+        }
+        // A request completed between the cache lookup and the claim may have left a fresh value
+        CachedValue<T> current = cached;
+        if (current != null && clock.currentTimeMillis() - current.collectedAtMillis < ttlMillis) {
+            inFlight.set(null);
+            request.complete(current.value);
+            hitCount.increment();
+            return current.value;
+        }
+        missCount.increment();
+        fetch(request);
+        return await(request);
+    }
+
+    private void refreshInBackground() {
+        CompletableFuture<T> request = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, request)) {
+            return;
+        }
+        try {
+            timer.schedule(() -> fetch(request), 0L, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            LOG.debug("Could not schedule the refresh of a stale value", e);
+            inFlight.set(null);
+            request.completeExceptionally(e);
+        }
+    }
+
+    private void fetch(CompletableFuture<T> request) {
+        try {
+            T value = delegate.get();
+            if (value != null) {
+                cached = new CachedValue<>(value, clock.currentTimeMillis());
+            }
+            inFlight.set(null);
+            request.complete(value);
+        } catch (RuntimeException | Error e) {
+            LOG.debug("Cached collector failed", e);
+            inFlight.set(null);
+            request.completeExceptionally(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> request) {
+        try {
+            return request.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Discards the cached value, so that the next call makes a new request.
+     */
+    public void invalidate() {
+        cached = null;
+    }
+
+    /**
+     * Returns the number of calls answered from the cache, including stale values.
+     *
+     * @return the number of hits.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of calls answered with a stale value while it was refreshed.
+     *
+     * @return the number of stale hits.
+     */
+    public long getStaleHitCount() {
+        return staleHitCount.sum();
+    }
+
+    /**
+     * Returns the number of calls that made a request to the decorated collector.
+     *
+     * @return the number of misses.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of calls that waited for a request made by another call.
+     *
+     * @return the number of coalesced calls.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.sum();
+    }
+
+    /**
+     * Returns the collector whose values are cached.
+     *
+     * @return the delegate collector.
+     */
+    public IMetricsCollector<T> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Releases the thread created by this collector. A given timer is left running.
+     */
+    public void shutdown() {
+        if (ownedTimer != null) {
+            ownedTimer.shutdown();
+        }
+    }
+
+    private static final class CachedValue<T> {
+
+        private final T value;
+
+        private final long collectedAtMillis;
+
+        private CachedValue(T value, long collectedAtMillis) {
+            this.value = value;
+            this.collectedAtMillis = collectedAtMillis;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link FileLeaseStore} class is a {@link LeaseStore} backed by file locks,
+ * coordinating the processes that share a directory, such as the replicas of a
+ * service running on one host or sharing a volume.
+ * <p>
+ * Each lease is an exclusive lock on a file of the directory, which also holds
+ * the identifier of its owner. The operating system releases the lock when the
+ * owning process exits or dies, so the lease is held as long as the process
+ * lives and the time-to-live is not used. Within a JVM, a lease is held by a
+ * single owner at a time, whatever the number of stores sharing the directory.
+ * </p>
+ * <p>
+ * Locks on network file systems are only as reliable as the file system's lock
+ * support; a lease store backed by a database or a coordination service should
+ * be used across hosts.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * LeaseStore store = new FileLeaseStore(Paths.get("/var/run/adaptiflow"));
+ * LeaderElector elector = new LeaderElector(store, "recommender", replicaId, 5000);
+ * elector.start();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class FileLeaseStore implements LeaseStore {
+    private static final Logger LOG = LoggerFactory.getLogger(FileLeaseStore.class);
+
+    /**
+     * The suffix of the lease files.
+     */
+    public static final String FILE_SUFFIX = ".lease";
+
+    private static final class Held {
+        private final String owner;
+        private final FileChannel channel;
+        private final FileLock lock;
+
+        private Held(String owner, FileChannel channel, FileLock lock) {
+            this.owner = owner;
+            this.channel = channel;
+            this.lock = lock;
+        }
+    }
+
+    /**
+     * The leases held by this JVM, by lease file, whatever the store they were
+     * acquired through. Closing any channel on a locked file would release the
+     * lock of the whole process, so a file is only opened while this JVM holds no
+     * lock on it, and all the stores go through this map, under its monitor.
+     */
+    private static final Map<Path, Held> HELD = new HashMap<>();
+
+    private final Path directory;
+
+    /**
+     * Constructs a {@code FileLeaseStore} keeping its lease files in the given directory.
+     *
+     * @param directory the directory of the lease files, created if needed.
+     * @throws IOException if the directory cannot be created.
+     */
+    public FileLeaseStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory).toRealPath();
+    }
+
+    @Override
+    public boolean tryAcquire(String lease, String owner, long ttlMillis) {
+        Path file = file(lease);
+        synchronized (HELD) {
+            Held current = HELD.get(file);
+            if (current != null) {
+                return current.owner.equals(owner);
+            }
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    // Held by another process
+                    close(channel);
+                    return false;
+                }
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(owner.getBytes(StandardCharsets.UTF_8)), 0);
+                HELD.put(file, new Held(owner, channel, lock));
+                return true;
+            } catch (IOException e) {
+                LOG.warn("Could not acquire the lease {}", lease, e);
+                close(channel);
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void release(String lease, String owner) {
+        Path file = file(lease);
+        synchronized (HELD) {
+            Held current = HELD.get(file);
+            if (current == null || !current.owner.equals(owner)) {
+                return;
+            }
+            HELD.remove(file);
+            try {
+                current.channel.truncate(0);
+                current.lock.release();
+            } catch (IOException e) {
+                LOG.warn("Could not release the lease {}", lease, e);
+            }
+            close(current.channel);
+        }
+    }
+
+    @Override
+    public String getHolder(String lease) {
+        Path file = file(lease);
+        synchronized (HELD) {
+            Held current = HELD.get(file);
+            if (current != null) {
+                return current.owner;
+            }
+            if (!Files.exists(file)) {
+                return null;
+            }
+            // This JVM holds no lock on the file: opening and closing it releases nothing
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                FileLock probe = channel.tryLock();
+                if (probe != null) {
+                    // Nobody holds the lock: the file content is stale
+                    probe.release();
+                    return null;
+                }
+                ByteBuffer content = ByteBuffer.allocate((int) Math.min(channel.size(), 1024));
+                channel.read(content, 0);
+                return content.position() > 0
+                        ? new String(content.array(), 0, content.position(), StandardCharsets.UTF_8)
+                        : null;
+            } catch (IOException e) {
+                LOG.warn("Could not read the holder of the lease {}", lease, e);
+                return null;
+            }
+        }
+    }
+
+    private Path file(String lease) {
+        return directory.resolve(lease.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_SUFFIX);
+    }
+
+    private static void close(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.debug("Could not close a lease file", e);
+            }
+        }
+    }
+}
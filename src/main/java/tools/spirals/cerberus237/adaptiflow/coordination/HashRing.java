@@ -0,0 +1,121 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The {@link HashRing} class assigns keys to members by consistent hashing.
+ * <p>
+ * Each member is placed at a number of pseudo-random points of a 64-bit ring,
+ * its virtual nodes; a key belongs to the member of the first point following
+ * its hash. When a member joins, it only takes keys from the others, and when
+ * it leaves, only its keys move, so about {@code 1/n} of the keys move
+ * for {@code n} members. More virtual nodes spread the keys more evenly.
+ * </p>
+ * <p>
+ * A ring is immutable: a new ring is built when the members change. The hash
+ * only depends on the key and the member identifiers, so every instance
+ * computes the same assignment.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class HashRing {
+
+    /**
+     * The default number of virtual nodes per member.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final long[] points;
+
+    private final String[] owners;
+
+    /**
+     * Constructs a {@code HashRing} of the given members.
+     *
+     * @param members the identifiers of the members.
+     * @param virtualNodes the number of points of each member on the ring.
+     * @throws IllegalArgumentException if the number of virtual nodes is not positive.
+     */
+    public HashRing(Collection<String> members, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("The number of virtual nodes must be positive");
+        }
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String member : members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the rare collision, the smallest identifier wins on every instance
+                ring.merge(hash(member + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int index = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[index] = point.getKey();
+            owners[index] = point.getValue();
+            index++;
+        }
+    }
+
+    /**
+     * Returns the member owning the given key.
+     *
+     * @param key the key.
+     * @return the identifier of the owner, or {@code null} if the ring has no member.
+     */
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    /**
+     * Tells whether the ring has no member.
+     *
+     * @return {@code true} if no key has an owner.
+     */
+    public boolean isEmpty() {
+        return points.length == 0;
+    }
+
+    /**
+     * Hashes a string to a point of the ring: 64-bit FNV-1a of its UTF-8 bytes,
+     * followed by the MurmurHash3 finalizer to spread similar strings.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link InMemoryLeaseStore} class is a {@link LeaseStore} coordinating the
+ * members of a single JVM, used in tests and simulations.
+ * <p>
+ * Leases expire according to its {@link Clock}, so that failovers can be tested
+ * with a {@link tools.spirals.cerberus237.adaptiflow.time.ManualClock}.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class InMemoryLeaseStore implements LeaseStore {
+
+    private static final class Holder {
+        private final String owner;
+        private final long expiresAt;
+
+        private Holder(String owner, long expiresAt) {
+            this.owner = owner;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Clock clock;
+
+    private final Map<String, Holder> holders = new HashMap<>();
+
+    /**
+     * Constructs an {@code InMemoryLeaseStore} measuring expiry with the system clock.
+     */
+    public InMemoryLeaseStore() {
+        this(SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs an {@code InMemoryLeaseStore} measuring expiry with the given clock.
+     *
+     * @param clock the clock measuring expiry.
+     */
+    public InMemoryLeaseStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(String lease, String owner, long ttlMillis) {
+        long now = clock.currentTimeMillis();
+        Holder holder = holders.get(lease);
+        if (holder != null && !holder.owner.equals(owner) && holder.expiresAt > now) {
+            return false;
+        }
+        holders.put(lease, new Holder(owner, now + ttlMillis));
+        return true;
+    }
+
+    @Override
+    public synchronized void release(String lease, String owner) {
+        Holder holder = holders.get(lease);
+        if (holder != null && holder.owner.equals(owner)) {
+            holders.remove(lease);
+        }
+    }
+
+    @Override
+    public synchronized String getHolder(String lease) {
+        Holder holder = holders.get(lease);
+        return holder != null && holder.expiresAt > clock.currentTimeMillis() ? holder.owner : null;
+    }
+}
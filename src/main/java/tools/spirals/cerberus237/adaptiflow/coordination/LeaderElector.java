@@ -0,0 +1,226 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.ScheduledTask;
+import tools.spirals.cerberus237.adaptiflow.time.SystemTimer;
+import tools.spirals.cerberus237.adaptiflow.time.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link LeaderElector} class elects one leader among the replicas of a
+ * service through a lease of a {@link LeaseStore}.
+ * <p>
+ * Every replica tries to acquire the lease a few times per time-to-live; the
+ * one holding it is the leader and keeps it by renewing it. The leadership is
+ * only trusted until the lease would expire without renewal, so a leader
+ * stalled by a long pause stops acting as such before another replica can take
+ * over. When the leader stops, it releases the lease and another replica takes
+ * over at its next attempt; when it dies, another replica takes over once the
+ * lease expires.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * LeaderElector elector = new LeaderElector(new FileLeaseStore(Paths.get("/var/run/adaptiflow")),
+ *         "recommender", replicaId, 5000);
+ * elector.start();
+ * scheduler.setObservationFilter(new LeaderFilter(elector));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class LeaderElector {
+    private static final Logger LOG = LoggerFactory.getLogger(LeaderElector.class);
+
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    private final LeaseStore store;
+
+    private final String lease;
+
+    private final String memberId;
+
+    private final long ttlMillis;
+
+    private final Timer timer;
+
+    private final SystemTimer ownedTimer;
+
+    private final Clock clock;
+
+    private ScheduledTask task;
+
+    /**
+     * The number of the current run, changed by each start and stop, so that a
+     * renewal outliving the run it belongs to can tell.
+     */
+    private int run = 0;
+
+    private volatile boolean leader = false;
+
+    private volatile long leaderUntilNanos;
+
+    /**
+     * Constructs a {@code LeaderElector} renewing the lease on a thread of its own.
+     *
+     * @param store the store holding the lease.
+     * @param lease the name of the lease, shared by the replicas.
+     * @param memberId the identifier of this replica, unique among the replicas.
+     * @param ttlMillis the time-to-live of the lease, in milliseconds.
+     */
+    public LeaderElector(LeaseStore store, String lease, String memberId, long ttlMillis) {
+        this(store, lease, memberId, ttlMillis, null,
+                SystemTimer.singleThread("adaptiflow-leader-election-" + THREAD_SEQUENCE.incrementAndGet()));
+    }
+
+    /**
+     * Constructs a {@code LeaderElector} renewing the lease on the given timer.
+     *
+     * @param store the store holding the lease.
+     * @param lease the name of the lease, shared by the replicas.
+     * @param memberId the identifier of this replica, unique among the replicas.
+     * @param ttlMillis the time-to-live of the lease, in milliseconds.
+     * @param timer the timer running the renewals.
+     */
+    public LeaderElector(LeaseStore store, String lease, String memberId, long ttlMillis, Timer timer) {
+        this(store, lease, memberId, ttlMillis, timer, null);
+    }
+
+    private LeaderElector(LeaseStore store, String lease, String memberId, long ttlMillis,
+                          Timer timer, SystemTimer ownedTimer) {
+        if (ttlMillis < 3) {
+            throw new IllegalArgumentException("The time-to-live must be at least 3 milliseconds");
+        }
+        this.store = store;
+        this.lease = lease;
+        this.memberId = memberId;
+        this.ttlMillis = ttlMillis;
+        this.timer = ownedTimer != null ? ownedTimer : timer;
+        this.ownedTimer = ownedTimer;
+        this.clock = this.timer.getClock();
+    }
+
+    /**
+     * Starts taking part in the election. The first attempt is made immediately.
+     */
+    public synchronized void start() {
+        if (task != null) {
+            return;
+        }
+        int current = ++run;
+        task = timer.scheduleAtFixedRate(() -> renew(current), 0L, ttlMillis / 3, TimeUnit.MILLISECONDS);
+    }
+
+    private void renew(int renewedRun) {
+        synchronized (this) {
+            if (renewedRun != run) {
+                return;
+            }
+        }
+        long attemptedAt = clock.nanoTime();
+        boolean acquired;
+        try {
+            acquired = store.tryAcquire(lease, memberId, ttlMillis);
+        } catch (RuntimeException e) {
+            LOG.warn("Could not renew the lease {}", lease, e);
+            acquired = false;
+        }
+        synchronized (this) {
+            if (renewedRun != run) {
+                // Stopped while acquiring: nothing would renew or release the lease
+                if (acquired && !leader) {
+                    store.release(lease, memberId);
+                }
+                return;
+            }
+            update(acquired, attemptedAt);
+        }
+    }
+
+    private void update(boolean acquired, long attemptedAt) {
+        if (acquired) {
+            leaderUntilNanos = attemptedAt + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+            if (!leader) {
+                leader = true;
+                LOG.info("{} is now the leader of {}", memberId, lease);
+            }
+        } else if (leader) {
+            leader = false;
+            LOG.info("{} is no longer the leader of {}", memberId, lease);
+        }
+    }
+
+    /**
+     * Tells whether this replica is the leader: it holds the lease, and the lease
+     * has been renewed within its time-to-live.
+     *
+     * @return {@code true} if this replica is the leader.
+     */
+    public boolean isLeader() {
+        return leader && clock.nanoTime() - leaderUntilNanos < 0;
+    }
+
+    /**
+     * Stops taking part in the election and releases the lease if this replica holds it.
+     * A renewal running meanwhile releases the lease it acquires, if any, once it returns.
+     */
+    public synchronized void stop() {
+        if (task == null) {
+            return;
+        }
+        task.cancel();
+        task = null;
+        run++;
+        if (leader) {
+            leader = false;
+            store.release(lease, memberId);
+            LOG.info("{} released the leadership of {}", memberId, lease);
+        }
+    }
+
+    /**
+     * Stops taking part in the election and releases the timer thread, unless the
+     * timer was given to the constructor.
+     */
+    public synchronized void shutdown() {
+        stop();
+        if (ownedTimer != null) {
+            ownedTimer.shutdown();
+        }
+    }
+
+    /**
+     * Returns the name of the lease the members compete for.
+     *
+     * @return the lease name.
+     */
+    public String getLease() {
+        return lease;
+    }
+
+    /**
+     * Returns the identifier of this member, written as the holder of the lease.
+     *
+     * @return the member identifier.
+     */
+    public String getMemberId() {
+        return memberId;
+    }
+}
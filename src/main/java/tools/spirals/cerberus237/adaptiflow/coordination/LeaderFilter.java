@@ -0,0 +1,75 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationFilter;
+
+import java.util.Set;
+
+/**
+ * The {@link LeaderFilter} class is an {@link ObservationFilter} letting only
+ * the leader elected by a {@link LeaderElector} observe the events shared by
+ * all the replicas, while every replica keeps observing its own events.
+ * <p>
+ * Shared events are those registered with the {@link #GLOBAL_TAG} tag, or
+ * another given tag, for instance the events backed by a cluster-wide
+ * collector. Since followers do not observe them, they neither load the
+ * collector nor perform their actions.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * registry.register("cluster-cpu", clusterCpuEvent, LeaderFilter.GLOBAL_TAG);
+ * scheduler.setObservationFilter(new LeaderFilter(elector));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class LeaderFilter implements ObservationFilter {
+
+    /**
+     * The tag of the events observed by the leader only.
+     */
+    public static final String GLOBAL_TAG = "global";
+
+    private final LeaderElector elector;
+
+    private final String tag;
+
+    /**
+     * Constructs a {@code LeaderFilter} for the events tagged {@link #GLOBAL_TAG}.
+     *
+     * @param elector the elector telling whether this replica is the leader.
+     */
+    public LeaderFilter(LeaderElector elector) {
+        this(elector, GLOBAL_TAG);
+    }
+
+    /**
+     * Constructs a {@code LeaderFilter} for the events carrying the given tag.
+     *
+     * @param elector the elector telling whether this replica is the leader.
+     * @param tag the tag of the events observed by the leader only.
+     */
+    public LeaderFilter(LeaderElector elector, String tag) {
+        this.elector = elector;
+        this.tag = tag;
+    }
+
+    @Override
+    public boolean shouldObserve(String key, Set<String> tags, Event<?> event) {
+        return !tags.contains(tag) || elector.isLeader();
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+/**
+ * The {@link LeaseStore} interface represents a store of named leases, each
+ * held by at most one owner at a time, through which replicas of a service
+ * coordinate.
+ * <p>
+ * {@link InMemoryLeaseStore} coordinates the members of a single JVM, typically
+ * in tests; {@link FileLeaseStore} coordinates processes sharing a file system.
+ * Implementations for a database or a coordination service only need these
+ * three operations.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface LeaseStore {
+
+    /**
+     * Acquires the lease for the given owner, or renews it if the owner already
+     * holds it. A lease held by another owner can only be acquired once it has expired.
+     *
+     * @param lease the name of the lease.
+     * @param owner the identifier of the candidate owner.
+     * @param ttlMillis the time the lease is held without being renewed, in milliseconds.
+     * @return {@code true} if the owner holds the lease.
+     */
+    boolean tryAcquire(String lease, String owner, long ttlMillis);
+
+    /**
+     * Releases the lease if the given owner holds it.
+     *
+     * @param lease the name of the lease.
+     * @param owner the identifier of the owner.
+     */
+    void release(String lease, String owner);
+
+    /**
+     * Returns the current holder of the lease.
+     *
+     * @param lease the name of the lease.
+     * @return the identifier of the holder, or {@code null} if the lease is free or unknown.
+     */
+    String getHolder(String lease);
+}
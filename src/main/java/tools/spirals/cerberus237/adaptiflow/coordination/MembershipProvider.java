@@ -0,0 +1,66 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import java.util.Set;
+
+/**
+ * The {@link MembershipProvider} interface represents the source of the set of
+ * engine instances sharing the observation of the events.
+ * <p>
+ * {@link StaticMembership} holds a set maintained by the application, or by
+ * tests; implementations backed by a service registry or a coordination
+ * service report its changes to the registered listeners.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface MembershipProvider {
+
+    /**
+     * Returns the identifiers of the current members.
+     *
+     * @return an immutable snapshot of the members.
+     */
+    Set<String> getMembers();
+
+    /**
+     * Registers a listener called with the new members whenever they change.
+     *
+     * @param listener the listener.
+     */
+    void addListener(MembershipListener listener);
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener.
+     */
+    void removeListener(MembershipListener listener);
+
+    /**
+     * The {@link MembershipListener} interface represents a component told
+     * about the changes of the members.
+     */
+    @FunctionalInterface
+    interface MembershipListener {
+
+        /**
+         * Called after the members changed.
+         *
+         * @param members an immutable snapshot of the new members.
+         */
+        void onMembershipChanged(Set<String> members);
+    }
+}
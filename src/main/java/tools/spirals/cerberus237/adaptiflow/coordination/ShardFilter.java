@@ -0,0 +1,146 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationFilter;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link ShardFilter} class is an {@link ObservationFilter} sharing the
+ * events of a registry among engine instances: each instance only observes the
+ * events whose registry key it owns on a {@link HashRing} of the members.
+ * <p>
+ * The filter follows the {@link MembershipProvider}: when members join or
+ * leave, a new ring is built and takes effect from the next tick, moving only
+ * the events of the members concerned. All the instances must register the same
+ * events under the same keys. The decision for each key is cached until the
+ * members change, so a tick costs one map lookup per event.
+ * </p>
+ * <p>
+ * Events tagged {@link LeaderFilter#GLOBAL_TAG} are not sharded, so that the
+ * filter can be combined with a {@link LeaderFilter}.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ShardFilter shards = new ShardFilter(membership, "engine-2");
+ * scheduler.setObservationFilter(new LeaderFilter(elector).and(shards));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ShardFilter implements ObservationFilter, MembershipProvider.MembershipListener {
+    private static final Logger LOG = LoggerFactory.getLogger(ShardFilter.class);
+
+    private final MembershipProvider membership;
+
+    private final String memberId;
+
+    private final int virtualNodes;
+
+    private volatile HashRing ring;
+
+    /**
+     * Whether this member owns each key on the current ring.
+     */
+    private volatile ConcurrentHashMap<String, Boolean> owned = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code ShardFilter} with {@link HashRing#DEFAULT_VIRTUAL_NODES} virtual nodes per member.
+     *
+     * @param membership the provider of the members.
+     * @param memberId the identifier of this instance among the members.
+     */
+    public ShardFilter(MembershipProvider membership, String memberId) {
+        this(membership, memberId, HashRing.DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Constructs a {@code ShardFilter}.
+     *
+     * @param membership the provider of the members.
+     * @param memberId the identifier of this instance among the members.
+     * @param virtualNodes the number of points of each member on the ring.
+     */
+    public ShardFilter(MembershipProvider membership, String memberId, int virtualNodes) {
+        this.membership = membership;
+        this.memberId = memberId;
+        this.virtualNodes = virtualNodes;
+        // Listen first, so that no change is missed between reading the members and listening
+        membership.addListener(this);
+        rebuild();
+    }
+
+    @Override
+    public boolean shouldObserve(String key, Set<String> tags, Event<?> event) {
+        return tags.contains(LeaderFilter.GLOBAL_TAG) || owns(key);
+    }
+
+    /**
+     * Tells whether this instance owns the given key on the current ring.
+     *
+     * @param key the registry key of an event.
+     * @return {@code true} if this instance observes the event.
+     */
+    public boolean owns(String key) {
+        ConcurrentHashMap<String, Boolean> cache = owned;
+        Boolean owner = cache.get(key);
+        if (owner == null) {
+            owner = memberId.equals(ring.ownerOf(key));
+            cache.put(key, owner);
+        }
+        return owner;
+    }
+
+    /**
+     * Rebuilds the ring from the current members of the provider rather than from
+     * the given snapshot, so that notifications delivered late or out of order
+     * cannot leave an older ring in place.
+     *
+     * @param members the new members, as notified.
+     */
+    @Override
+    public void onMembershipChanged(Set<String> members) {
+        rebuild();
+    }
+
+    private synchronized void rebuild() {
+        Set<String> members = membership.getMembers();
+        // The ring is published before the cache, so a stale decision is never cached for the new ring
+        ring = new HashRing(members, virtualNodes);
+        owned = new ConcurrentHashMap<>();
+        LOG.info("Rebalanced the events of {} over {} member(s)", memberId, members.size());
+    }
+
+    /**
+     * Stops following the membership changes.
+     */
+    public void close() {
+        membership.removeListener(this);
+    }
+
+    /**
+     * Returns the identifier of this instance among the members.
+     *
+     * @return the member identifier.
+     */
+    public String getMemberId() {
+        return memberId;
+    }
+}
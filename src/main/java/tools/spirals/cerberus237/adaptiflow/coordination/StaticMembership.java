@@ -0,0 +1,104 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link StaticMembership} class is a {@link MembershipProvider} whose
+ * members are given by the application, for instance from its configuration,
+ * and changed by calling {@link #join(String)} and {@link #leave(String)}.
+ * <p>
+ * The listeners are called under the lock of the membership, so they see the
+ * changes one at a time and in order; they must not wait for another thread
+ * changing the same membership.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * StaticMembership membership = new StaticMembership(List.of("engine-1", "engine-2", "engine-3"));
+ * scheduler.setObservationFilter(new ShardFilter(membership, "engine-2"));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class StaticMembership implements MembershipProvider {
+
+    private final CopyOnWriteArrayList<MembershipListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Set<String> members;
+
+    /**
+     * Constructs a {@code StaticMembership} with the given members.
+     *
+     * @param members the identifiers of the members.
+     */
+    public StaticMembership(Collection<String> members) {
+        this.members = Set.copyOf(members);
+    }
+
+    @Override
+    public Set<String> getMembers() {
+        return members;
+    }
+
+    @Override
+    public void addListener(MembershipListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(MembershipListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Adds a member and tells the listeners.
+     *
+     * @param member the identifier of the member.
+     */
+    public synchronized void join(String member) {
+        if (members.contains(member)) {
+            return;
+        }
+        Set<String> copy = new LinkedHashSet<>(members);
+        copy.add(member);
+        members = Set.copyOf(copy);
+        fire(members);
+    }
+
+    /**
+     * Removes a member and tells the listeners.
+     *
+     * @param member the identifier of the member.
+     */
+    public synchronized void leave(String member) {
+        if (!members.contains(member)) {
+            return;
+        }
+        Set<String> copy = new LinkedHashSet<>(members);
+        copy.remove(member);
+        members = Set.copyOf(copy);
+        fire(members);
+    }
+
+    private void fire(Set<String> updated) {
+        for (MembershipListener listener : listeners) {
+            listener.onMembershipChanged(updated);
+        }
+    }
+}
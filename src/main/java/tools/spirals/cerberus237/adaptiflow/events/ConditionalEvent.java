@@ -14,6 +14,7 @@
 package tools.spirals.cerberus237.adaptiflow.events;
 
 import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
 import tools.spirals.cerberus237.adaptiflow.interfaces.Observer;
 import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
 
@@ -70,16 +71,67 @@ public class ConditionalEvent<T> extends Event<T> {
      * This method retrieves the current metric value from the collector and
      * checks both the event's condition evaluator and each observer's condition evaluator.
      * If both conditions are satisfied, the observer is notified with the current
-     * metric value.
+     * metric value. The event's condition is evaluated once per observation,
+     * and only when the event has subscribers.
      * </p>
      */
     @Override
     public void observe() {
-        T metric = collector.get();
-        for (Observer<T> observer : subscribers) {
-            if (this.conditionEvaluator.test(metric) && observer.getConditionEvaluator().test(metric)) {
+        ObservationListener[] listeners = ObservationHooks.listeners();
+        if (listeners.length != 0) {
+            long previous = CorrelationContext.enter(CorrelationContext.newId());
+            try {
+                observeTraced(listeners);
+            } finally {
+                CorrelationContext.exit(previous);
+            }
+            return;
+        }
+        T metric = collect();
+        Observer<T>[] observers = subscribers.get();
+        if (observers.length == 0 || !this.conditionEvaluator.test(metric)) {
+            return;
+        }
+        for (Observer<T> observer : observers) {
+            if (observer.getConditionEvaluator().test(metric)) {
                 notifyObserver(observer, metric);
             }
         }
     }
+
+    /**
+     * Same as {@link #observe()}, but measures every stage and reports it to the
+     * given observation listeners.
+     *
+     * @param listeners the registered observation listeners.
+     */
+    @Override
+    protected void observeTraced(ObservationListener[] listeners) {
+        try {
+            T metric = collect(listeners);
+            Observer<T>[] observers = subscribers.get();
+            if (observers.length == 0 || !evaluate(listeners, this.conditionEvaluator, metric)) {
+                return;
+            }
+            for (Observer<T> observer : observers) {
+                if (evaluate(listeners, observer.getConditionEvaluator(), metric)) {
+                    notifyObserver(listeners, observer, metric);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (ObservationListener listener : listeners) {
+                listener.onObservationFailed(this, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the condition evaluator of this event.
+     *
+     * @return the condition evaluator.
+     */
+    public ConditionEvaluator<T> getConditionEvaluator() {
+        return conditionEvaluator;
+    }
 }
\ No newline at end of file
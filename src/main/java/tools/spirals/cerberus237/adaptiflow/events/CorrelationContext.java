@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link CorrelationContext} class tracks, per thread, the correlation
+ * identifiers of the tick and of the observation being processed.
+ * <p>
+ * While instrumentation is enabled through {@link ObservationHooks}, each
+ * scheduler tick and each event observation receives an identifier, unique
+ * within the JVM. The identifier of the current observation is available to
+ * the listeners while the value is collected and evaluated, and to the action
+ * executors, which attach it to the
+ * {@link tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome} of the
+ * actions it triggered. Components running an action on another thread
+ * capture {@link #currentId()} on submission and restore it with
+ * {@link #enter(long)}.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class CorrelationContext {
+
+    /**
+     * The identifier meaning "no correlation".
+     */
+    public static final long NONE = 0L;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private CorrelationContext() {
+    }
+
+    /**
+     * Allocates a new correlation identifier.
+     *
+     * @return a positive identifier, unique within the JVM.
+     */
+    public static long newId() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * Starts a tick on the calling thread.
+     *
+     * @return the correlation identifier of the tick.
+     */
+    public static long enterTick() {
+        State state = STATE.get();
+        state.tick = newId();
+        state.observation = NONE;
+        return state.tick;
+    }
+
+    /**
+     * Ends the tick of the calling thread.
+     */
+    public static void exitTick() {
+        State state = STATE.get();
+        state.tick = NONE;
+        state.observation = NONE;
+    }
+
+    /**
+     * Makes the given identifier the current observation of the calling thread.
+     *
+     * @param correlationId the identifier of the observation.
+     * @return the identifier of the previous observation, to be passed to {@link #exit(long)}.
+     */
+    public static long enter(long correlationId) {
+        State state = STATE.get();
+        long previous = state.observation;
+        state.observation = correlationId;
+        return previous;
+    }
+
+    /**
+     * Restores the observation that was current before {@link #enter(long)}.
+     *
+     * @param previous the value returned by {@link #enter(long)}.
+     */
+    public static void exit(long previous) {
+        STATE.get().observation = previous;
+    }
+
+    /**
+     * Returns the correlation identifier of the current tick.
+     *
+     * @return the tick identifier, or {@link #NONE} outside of a traced tick.
+     */
+    public static long currentTickId() {
+        return STATE.get().tick;
+    }
+
+    /**
+     * Returns the most specific correlation identifier of the calling thread.
+     *
+     * @return the identifier of the current observation, otherwise of the
+     *         current tick, otherwise {@link #NONE}.
+     */
+    public static long currentId() {
+        State state = STATE.get();
+        return state.observation != NONE ? state.observation : state.tick;
+    }
+
+    private static final class State {
+        private long tick;
+        private long observation;
+    }
+}
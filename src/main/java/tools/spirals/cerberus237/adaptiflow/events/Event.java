@@ -13,12 +13,19 @@
  */
 package tools.spirals.cerberus237.adaptiflow.events;
 
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
 import tools.spirals.cerberus237.adaptiflow.interfaces.Observable;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
 import tools.spirals.cerberus237.adaptiflow.interfaces.Observer;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
 import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The {@link Event} class represents an observable event that can have multiple observers
@@ -34,15 +41,42 @@ import java.util.List;
  */
 public class Event<T> implements Observable<T> {
 
+    private static final AtomicLong ID_SEQUENCE = new AtomicLong();
+
+    /**
+     * Event identifier, unique within the JVM.
+     */
+    protected final long id = ID_SEQUENCE.incrementAndGet();
+
     /**
      * Event name.
      */
     protected String name;
 
     /**
-     * A list of observers subscribed to this event.
+     * The context handed to observers, rebuilt only when the event name changes.
+     */
+    private volatile NotificationContext notificationContext;
+
+    /**
+     * The time of the last observation, in milliseconds.
+     */
+    private volatile long lastObservationTimestamp;
+
+    /**
+     * The clock timestamping the observations.
      */
-    protected final List<Observer<T>> subscribers = new ArrayList<>();
+    private volatile Clock clock = SystemClock.INSTANCE;
+
+    /**
+     * The observers subscribed to this event, as an immutable array snapshot.
+     * <p>
+     * Subscriptions replace the whole array (copy-on-write), so the observation
+     * loop can iterate the snapshot it read without locking, while other threads
+     * subscribe or unsubscribe concurrently.
+     * </p>
+     */
+    protected final AtomicReference<Observer<T>[]> subscribers = new AtomicReference<>(emptySubscribers());
 
     /**
      * The metrics collector used to gather metric values for this event.
@@ -79,7 +113,13 @@ public class Event<T> implements Observable<T> {
      */
     @Override
     public void subscribe(Observer<T> subscriber) {
-        subscribers.add(subscriber);
+        Observer<T>[] current;
+        Observer<T>[] updated;
+        do {
+            current = subscribers.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscriber;
+        } while (!subscribers.compareAndSet(current, updated));
     }
 
     /**
@@ -93,7 +133,17 @@ public class Event<T> implements Observable<T> {
      */
     @Override
     public void unsubscribe(Observer<T> subscriber) {
-        subscribers.remove(subscriber);
+        Observer<T>[] current;
+        Observer<T>[] updated;
+        do {
+            current = subscribers.get();
+            int index = Arrays.asList(current).indexOf(subscriber);
+            if (index < 0) {
+                return;
+            }
+            updated = Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!subscribers.compareAndSet(current, updated));
     }
 
     /**
@@ -107,7 +157,15 @@ public class Event<T> implements Observable<T> {
      */
     @Override
     public void subscribeAll(List<Observer<T>> subscribers) {
-        subscribers.forEach(this::subscribe);
+        Observer<T>[] current;
+        Observer<T>[] updated;
+        do {
+            current = this.subscribers.get();
+            updated = Arrays.copyOf(current, current.length + subscribers.size());
+            for (int i = 0; i < subscribers.size(); i++) {
+                updated[current.length + i] = subscribers.get(i);
+            }
+        } while (!this.subscribers.compareAndSet(current, updated));
     }
 
     /**
@@ -133,14 +191,113 @@ public class Event<T> implements Observable<T> {
      * </p>
      */
     public void observe() {
-        T metric = collector.get();
-        for (Observer<T> observer : subscribers) {
+        ObservationListener[] listeners = ObservationHooks.listeners();
+        if (listeners.length != 0) {
+            long previous = CorrelationContext.enter(CorrelationContext.newId());
+            try {
+                observeTraced(listeners);
+            } finally {
+                CorrelationContext.exit(previous);
+            }
+            return;
+        }
+        T metric = collect();
+        for (Observer<T> observer : subscribers.get()) {
             if (observer.getConditionEvaluator().test(metric)) {
                 notifyObserver(observer, metric);
             }
         }
     }
 
+    /**
+     * Same as {@link #observe()}, but measures every stage and reports it to the
+     * given observation listeners.
+     * <p>
+     * This path is only taken while at least one listener is registered in
+     * {@link ObservationHooks}, and runs under a new correlation identifier of
+     * the {@link CorrelationContext}.
+     * </p>
+     *
+     * @param listeners the registered observation listeners.
+     */
+    protected void observeTraced(ObservationListener[] listeners) {
+        try {
+            T metric = collect(listeners);
+            for (Observer<T> observer : subscribers.get()) {
+                if (evaluate(listeners, observer.getConditionEvaluator(), metric)) {
+                    notifyObserver(listeners, observer, metric);
+                }
+            }
+        } catch (RuntimeException e) {
+            for (ObservationListener listener : listeners) {
+                listener.onObservationFailed(this, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the current metric value from the collector and records the
+     * time of the observation.
+     *
+     * @return the current metric value.
+     */
+    protected T collect() {
+        lastObservationTimestamp = clock.currentTimeMillis();
+        return collector.get();
+    }
+
+    /**
+     * Same as {@link #collect()}, but measures the collection and reports it to the listeners.
+     *
+     * @param listeners the registered observation listeners.
+     * @return the current metric value.
+     */
+    protected T collect(ObservationListener[] listeners) {
+        long start = System.nanoTime();
+        T metric = collect();
+        long duration = System.nanoTime() - start;
+        for (ObservationListener listener : listeners) {
+            listener.onCollected(this, metric, duration);
+        }
+        return metric;
+    }
+
+    /**
+     * Applies the condition evaluator to the metric, measures the evaluation and
+     * reports it to the listeners.
+     *
+     * @param listeners the registered observation listeners.
+     * @param evaluator the condition evaluator to apply.
+     * @param metric the collected metric value.
+     * @return the result of the evaluation.
+     */
+    protected boolean evaluate(ObservationListener[] listeners, ConditionEvaluator<T> evaluator, T metric) {
+        long start = System.nanoTime();
+        boolean matched = evaluator.test(metric);
+        long duration = System.nanoTime() - start;
+        for (ObservationListener listener : listeners) {
+            listener.onEvaluated(this, evaluator, matched, duration);
+        }
+        return matched;
+    }
+
+    /**
+     * Notifies the observer, measures the notification and reports it to the listeners.
+     *
+     * @param listeners the registered observation listeners.
+     * @param observer the observer to be notified.
+     * @param metric the collected metric value.
+     */
+    protected void notifyObserver(ObservationListener[] listeners, Observer<T> observer, T metric) {
+        long start = System.nanoTime();
+        notifyObserver(observer, metric);
+        long duration = System.nanoTime() - start;
+        for (ObservationListener listener : listeners) {
+            listener.onNotified(this, observer, duration);
+        }
+    }
+
     /**
      * Notifies all subscribed observers with the given metric value.
      * <p>
@@ -152,7 +309,7 @@ public class Event<T> implements Observable<T> {
      */
     @Override
     public void notifyObservers(T metricValue) {
-        for (Observer<T> subscriber : subscribers) {
+        for (Observer<T> subscriber : subscribers.get()) {
             notifyObserver(subscriber, metricValue);
         }
     }
@@ -169,19 +326,99 @@ public class Event<T> implements Observable<T> {
      */
     @Override
     public void notifyObserver(Observer<T> observer, T metricValue) {
-        observer.update(metricValue, "Handling " + this.name + " event");
+        observer.update(metricValue, getNotificationContext());
+    }
+
+    /**
+     * Returns the context handed to observers on each notification.
+     * <p>
+     * The context is built once and reused; it is only rebuilt if the event
+     * name has changed since it was built.
+     * </p>
+     *
+     * @return the notification context of this event.
+     */
+    public NotificationContext getNotificationContext() {
+        NotificationContext context = notificationContext;
+        if (context == null || context.getEventName() != name) {
+            context = new NotificationContext(id, name);
+            notificationContext = context;
+        }
+        return context;
+    }
+
+    /**
+     * Returns the identifier of this event, unique within the JVM.
+     *
+     * @return the event identifier.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the name of this event.
+     *
+     * @return the event name, may be {@code null}.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the metrics collector of this event.
+     *
+     * @return the metrics collector.
+     */
+    public IMetricsCollector<T> getCollector() {
+        return collector;
+    }
+
+    /**
+     * Returns the time of the last observation of this event.
+     *
+     * @return the time of the last observation in milliseconds, as given by the
+     *         clock of the event, or 0 if never observed.
+     */
+    public long getLastObservationTimestamp() {
+        return lastObservationTimestamp;
+    }
+
+    /**
+     * Sets the clock timestamping the observations of this event, such as the
+     * virtual clock of a replay.
+     *
+     * @param clock the clock, {@link SystemClock#INSTANCE} by default.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the clock timestamping the observations of this event.
+     *
+     * @return the clock of the event.
+     */
+    public Clock getClock() {
+        return clock;
     }
 
     /**
      * Returns the list of currently subscribed observers.
      * <p>
-     * This method allows access to the list of subscribers for external use.
+     * The returned list is an unmodifiable snapshot: later subscriptions are
+     * not reflected in it, and it cannot be used to modify the subscriptions.
      * </p>
      *
      * @return a list of observers currently subscribed to this event.
      */
     public List<Observer<T>> getSubscribers() {
-        return subscribers;
+        return Collections.unmodifiableList(Arrays.asList(subscribers.get()));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Observer<T>[] emptySubscribers() {
+        return (Observer<T>[]) new Observer[0];
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.events;
+
+/**
+ * The {@link NotificationContext} class describes the event an observer is
+ * notified about.
+ * <p>
+ * A context is built once per event and reused for every notification, so
+ * notifying observers does not allocate. The time of the current observation is
+ * not part of the context; it is available through
+ * {@link Event#getLastObservationTimestamp()}.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class NotificationContext {
+
+    /**
+     * The identifier of the event, unique within the JVM.
+     */
+    private final long eventId;
+
+    /**
+     * The name of the event, may be {@code null}.
+     */
+    private final String eventName;
+
+    /**
+     * The message handed to observers.
+     */
+    private final String message;
+
+    /**
+     * Constructs a {@code NotificationContext}.
+     *
+     * @param eventId the identifier of the event.
+     * @param eventName the name of the event, may be {@code null}.
+     */
+    NotificationContext(long eventId, String eventName) {
+        this.eventId = eventId;
+        this.eventName = eventName;
+        this.message = "Handling " + eventName + " event";
+    }
+
+    /**
+     * Returns the identifier of the event, unique within the JVM.
+     *
+     * @return the event identifier.
+     */
+    public long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Returns the name of the event.
+     *
+     * @return the event name, or {@code null} if the event has none.
+     */
+    public String getEventName() {
+        return eventName;
+    }
+
+    /**
+     * Returns the message handed to observers.
+     *
+     * @return the notification message.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return message;
+    }
+}
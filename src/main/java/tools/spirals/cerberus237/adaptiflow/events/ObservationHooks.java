@@ -0,0 +1,124 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.events;
+
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+
+import java.util.Arrays;
+
+/**
+ * The {@link ObservationHooks} class holds the {@link ObservationListener}s
+ * informed about the adaptation loop of the whole JVM.
+ * <p>
+ * Listeners are kept in a copy-on-write array. Components of the adaptation loop
+ * read the array once per stage and skip every measurement when it is empty, so
+ * instrumentation costs a single volatile read when it is disabled.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class ObservationHooks {
+
+    private static final ObservationListener[] NONE = new ObservationListener[0];
+
+    private static volatile ObservationListener[] listeners = NONE;
+
+    private ObservationHooks() {
+    }
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener the listener to be added.
+     */
+    public static synchronized void addListener(ObservationListener listener) {
+        ObservationListener[] current = listeners;
+        ObservationListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        listeners = updated;
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to be removed.
+     */
+    public static synchronized void removeListener(ObservationListener listener) {
+        ObservationListener[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                ObservationListener[] updated = new ObservationListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                listeners = current.length == 1 ? NONE : updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the registered listeners. The array is shared and must not be modified.
+     *
+     * @return the registered listeners, empty when instrumentation is disabled.
+     */
+    public static ObservationListener[] listeners() {
+        return listeners;
+    }
+
+    /**
+     * Indicates whether at least one listener is registered.
+     *
+     * @return {@code true} if instrumentation is enabled.
+     */
+    public static boolean isActive() {
+        return listeners.length != 0;
+    }
+
+    /**
+     * Informs the registered listeners that a tick has completed.
+     *
+     * @param tick the sequence number of the tick.
+     * @param durationNanos the duration of the tick, in nanoseconds.
+     * @param overrun {@code true} if the tick lasted longer than the scheduler interval.
+     */
+    public static void fireTickCompleted(long tick, long durationNanos, boolean overrun) {
+        for (ObservationListener listener : listeners) {
+            listener.onTickCompleted(tick, durationNanos, overrun);
+        }
+    }
+
+    /**
+     * Informs the registered listeners that an action has completed.
+     *
+     * @param outcome the outcome of the action.
+     */
+    public static void fireActionCompleted(ActionOutcome outcome) {
+        for (ObservationListener listener : listeners) {
+            listener.onActionCompleted(outcome);
+        }
+    }
+
+    /**
+     * Informs the registered listeners that an event has left a registry.
+     *
+     * @param event the removed event.
+     * @param replacement the event replacing it, or {@code null} if it was unregistered.
+     */
+    public static void fireEventRemoved(Event<?> event, Event<?> replacement) {
+        for (ObservationListener listener : listeners) {
+            listener.onEventRemoved(event, replacement);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+/**
+ * The {@link BitReader} class reads the bit fields written by a {@link BitWriter}.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class BitReader {
+
+    private final byte[] bytes;
+
+    private long position;
+
+    BitReader(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    boolean readBit() {
+        int index = (int) (position >>> 3);
+        int shift = 7 - (int) (position & 7);
+        position++;
+        return ((bytes[index] >>> shift) & 1) != 0;
+    }
+
+    /**
+     * Reads a value written on the given number of bits.
+     *
+     * @param bits the number of bits to read, between 0 and 64.
+     * @return the value, in the lowest bits.
+     */
+    long readBits(int bits) {
+        long value = 0;
+        while (bits > 0) {
+            int index = (int) (position >>> 3);
+            int available = 8 - (int) (position & 7);
+            int read = Math.min(available, bits);
+            int chunk = ((bytes[index] & 0xFF) >>> (available - read)) & ((1 << read) - 1);
+            value = (value << read) | chunk;
+            position += read;
+            bits -= read;
+        }
+        return value;
+    }
+}
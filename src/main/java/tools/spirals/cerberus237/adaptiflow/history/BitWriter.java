@@ -0,0 +1,66 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import java.util.Arrays;
+
+/**
+ * The {@link BitWriter} class appends bit fields to a growable byte array,
+ * most significant bit first.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class BitWriter {
+
+    private byte[] bytes;
+
+    private long position;
+
+    BitWriter(int initialBytes) {
+        this.bytes = new byte[Math.max(1, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1L : 0L, 1);
+    }
+
+    /**
+     * Writes the lowest bits of a value, most significant first.
+     *
+     * @param value the value.
+     * @param bits the number of bits to write, between 0 and 64.
+     */
+    void writeBits(long value, int bits) {
+        while (bits > 0) {
+            int index = (int) (position >>> 3);
+            if (index == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            int free = 8 - (int) (position & 7);
+            int written = Math.min(free, bits);
+            int chunk = (int) ((value >>> (bits - written)) & ((1 << written) - 1));
+            bytes[index] |= (byte) (chunk << (free - written));
+            position += written;
+            bits -= written;
+        }
+    }
+
+    long getBitCount() {
+        return position;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, (int) ((position + 7) >>> 3));
+    }
+}
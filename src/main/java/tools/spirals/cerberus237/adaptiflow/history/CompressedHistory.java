@@ -0,0 +1,604 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link CompressedHistory} class keeps a long, compressed history of the
+ * metrics collected by events, and persists it to local files so that it
+ * survives restarts.
+ * <p>
+ * Once installed, it appends every numeric value collected by an event to the
+ * {@link CompressedSeries} named after the event. Values are compressed with the
+ * Gorilla encoding ({@link GorillaEncoder}), typically to one or two bytes per
+ * sample. Each sealed block is appended to the file of its series by a
+ * background writer thread, so that neither the observation thread nor the
+ * readers of the series wait for the storage device; the open blocks are sealed
+ * and written by {@link #flush()} and {@link #close()}, which wait for the
+ * writer to catch up.
+ * Existing files are loaded when the history is constructed, keeping the latest
+ * blocks in memory.
+ * </p>
+ * <p>
+ * Each file retains a bounded number of blocks: once it holds twice as many, it
+ * is compacted to the latest ones by rewriting it to a temporary file moved over
+ * the original. Loading a file only reads the block headers and the data of the
+ * blocks kept in memory, so startup time and memory do not depend on how long
+ * the history has been recorded.
+ * </p>
+ * <p>
+ * A series file starts with a header, followed by one record per block, all
+ * numbers being big-endian:
+ * </p>
+ * <pre>
+ * header: magic (int, "AFTS") | version (byte) | name length (short) | name (UTF-8)
+ * block:  sample count (int) | first timestamp (long) | last timestamp (long) | size (int) | compressed samples
+ * </pre>
+ * <p>
+ * A block record cut short by a crash is discarded when the file is loaded.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * CompressedHistory history = new CompressedHistory(Path.of("/var/lib/adaptiflow/history"), 720, 64);
+ * history.install();
+ * // Later, e.g. to tune a threshold
+ * history.series("cpu").forEach(from, to, (timestamp, value) -&gt; ...);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class CompressedHistory implements ObservationListener, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(CompressedHistory.class);
+
+    /**
+     * The suffix of the series files.
+     */
+    public static final String FILE_SUFFIX = ".tsz";
+
+    static final int MAGIC = 0x41465453;
+
+    static final byte VERSION = 1;
+
+    /**
+     * The number of blocks retained per file by default, as a multiple of the blocks kept in memory.
+     */
+    public static final int DEFAULT_RETENTION_FACTOR = 4;
+
+    private static final int BLOCK_HEADER_SIZE = Integer.BYTES + 2 * Long.BYTES + Integer.BYTES;
+
+    private static final AtomicInteger WRITER_SEQUENCE = new AtomicInteger();
+
+    private final Path directory;
+
+    private final int samplesPerBlock;
+
+    private final int maxBlocks;
+
+    private final int retainedBlocks;
+
+    private final Map<String, CompressedSeries> series = new ConcurrentHashMap<>();
+
+    private final Map<String, SeriesFile> files = new ConcurrentHashMap<>();
+
+    /**
+     * The single thread writing the sealed blocks and compacting the files, in the order they are sealed.
+     */
+    private final ExecutorService writer;
+
+    private volatile Clock clock = SystemClock.INSTANCE;
+
+    private volatile boolean closed;
+
+    /**
+     * Constructs a {@code CompressedHistory} retaining {@value #DEFAULT_RETENTION_FACTOR}
+     * times as many blocks per file as in memory, and loads the series files found in
+     * the directory.
+     *
+     * @param directory the directory holding the series files, created if needed.
+     * @param samplesPerBlock the number of samples of a block.
+     * @param maxBlocks the number of sealed blocks kept in memory per series.
+     * @throws IOException if the directory cannot be created or read.
+     * @throws IllegalArgumentException if a size is not positive.
+     */
+    public CompressedHistory(Path directory, int samplesPerBlock, int maxBlocks) throws IOException {
+        this(directory, samplesPerBlock, maxBlocks, maxBlocks * DEFAULT_RETENTION_FACTOR);
+    }
+
+    /**
+     * Constructs a {@code CompressedHistory} and loads the series files found in the directory.
+     *
+     * @param directory the directory holding the series files, created if needed.
+     * @param samplesPerBlock the number of samples of a block.
+     * @param maxBlocks the number of sealed blocks kept in memory per series.
+     * @param retainedBlocks the number of blocks retained per series file, at least {@code maxBlocks}.
+     * @throws IOException if the directory cannot be created or read.
+     * @throws IllegalArgumentException if a size is not positive or fewer blocks are retained than kept.
+     */
+    public CompressedHistory(Path directory, int samplesPerBlock, int maxBlocks, int retainedBlocks)
+            throws IOException {
+        if (samplesPerBlock <= 0 || maxBlocks <= 0) {
+            throw new IllegalArgumentException("Samples per block and blocks kept must be positive");
+        }
+        if (retainedBlocks < maxBlocks) {
+            throw new IllegalArgumentException("At least the blocks kept in memory must be retained");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.samplesPerBlock = samplesPerBlock;
+        this.maxBlocks = maxBlocks;
+        this.retainedBlocks = retainedBlocks;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                load(file);
+            }
+        }
+        String threadName = "adaptiflow-history-" + WRITER_SEQUENCE.incrementAndGet();
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts recording the values collected by the events.
+     */
+    public void install() {
+        ObservationHooks.addListener(this);
+    }
+
+    /**
+     * Stops recording the values collected by the events. The history remains open.
+     */
+    public void uninstall() {
+        ObservationHooks.removeListener(this);
+    }
+
+    /**
+     * Sets the clock timestamping the collected values, the system clock by default.
+     *
+     * @param clock the clock to use.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void onCollected(Event<?> event, Object value, long durationNanos) {
+        if (value instanceof Number) {
+            String name = event.getName() != null ? event.getName() : "event-" + event.getId();
+            series(name).append(clock.currentTimeMillis(), ((Number) value).doubleValue());
+        }
+    }
+
+    /**
+     * Returns the series of the given name, creating it if needed.
+     *
+     * @param name the name of the series.
+     * @return the series.
+     */
+    public CompressedSeries series(String name) {
+        CompressedSeries existing = series.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return series.computeIfAbsent(name, this::newSeries);
+    }
+
+    /**
+     * Returns the series of the given name, if it exists.
+     *
+     * @param name the name of the series.
+     * @return the series, or {@code null} if it does not exist.
+     */
+    public CompressedSeries getSeries(String name) {
+        return series.get(name);
+    }
+
+    /**
+     * Returns all the series.
+     *
+     * @return an unmodifiable view of the series.
+     */
+    public Collection<CompressedSeries> getAllSeries() {
+        return Collections.unmodifiableCollection(series.values());
+    }
+
+    private CompressedSeries newSeries(String name) {
+        return new CompressedSeries(name, samplesPerBlock, maxBlocks, block -> submit(name, block));
+    }
+
+    /**
+     * Hands a sealed block over to the writer. Called under the lock of its
+     * series, so that the blocks of a series are queued in order.
+     */
+    private void submit(String name, GorillaBlock block) {
+        if (closed) {
+            return;
+        }
+        try {
+            writer.execute(() -> write(name, block));
+        } catch (RejectedExecutionException e) {
+            // Closed in the meantime: the block is dropped, as after close()
+            LOG.debug("Dropping a block of the history of {}, which is closed", name);
+        }
+    }
+
+    /**
+     * Waits until the writer has written the blocks handed over so far.
+     */
+    private void awaitWriter() {
+        try {
+            writer.submit(() -> { }).get();
+        } catch (RejectedExecutionException e) {
+            // Closed: nothing left to wait for
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.error("The history writer failed", e.getCause());
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            String name = readName(file, channel);
+            if (name == null) {
+                channel.close();
+                return;
+            }
+            SeriesFile seriesFile = new SeriesFile(file, channel, channel.position());
+            long size = channel.size();
+            long end = scanBlocks(seriesFile, size);
+            if (end < size) {
+                LOG.warn("Discarding the truncated last block of {}", file);
+                channel.truncate(end);
+            }
+            channel.position(end);
+            if (seriesFile.blockOffsets.size() > retainedBlocks) {
+                compact(seriesFile);
+            }
+
+            CompressedSeries loaded = newSeries(name);
+            int first = Math.max(0, seriesFile.blockOffsets.size() - maxBlocks);
+            for (int i = first; i < seriesFile.blockOffsets.size(); i++) {
+                loaded.addBlock(readBlock(seriesFile.channel, seriesFile.blockOffsets.get(i)));
+            }
+            series.put(name, loaded);
+            files.put(name, seriesFile);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the header of a series file, leaving the channel positioned after it.
+     *
+     * @return the name of the series, or {@code null} if the file is not a series file.
+     */
+    private static String readName(Path file, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + Short.BYTES);
+        if (!readFully(channel, header, 0L) || header.getInt() != MAGIC || header.get() != VERSION) {
+            LOG.warn("Ignoring {}, which is not a history file or whose header is truncated", file);
+            return null;
+        }
+        ByteBuffer encodedName = ByteBuffer.allocate(Short.toUnsignedInt(header.getShort()));
+        if (!readFully(channel, encodedName, header.capacity())) {
+            LOG.warn("Ignoring {}, whose header is truncated", file);
+            return null;
+        }
+        channel.position(header.capacity() + encodedName.capacity());
+        return new String(encodedName.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Records the offsets of the complete block records of a series file, reading their headers only.
+     *
+     * @return the offset following the last complete record.
+     */
+    private static long scanBlocks(SeriesFile seriesFile, long size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        long position = seriesFile.headerSize;
+        while (size - position >= BLOCK_HEADER_SIZE) {
+            header.clear();
+            readFully(seriesFile.channel, header, position);
+            int count = header.getInt(0);
+            int length = header.getInt(Integer.BYTES + 2 * Long.BYTES);
+            if (count < 0 || length < 0 || length > size - position - BLOCK_HEADER_SIZE) {
+                break;
+            }
+            seriesFile.blockOffsets.add(position);
+            position += BLOCK_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    private static GorillaBlock readBlock(FileChannel channel, long offset) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        readFully(channel, header, offset);
+        int count = header.getInt();
+        long firstTimestamp = header.getLong();
+        long lastTimestamp = header.getLong();
+        ByteBuffer data = ByteBuffer.allocate(header.getInt());
+        readFully(channel, data, offset + BLOCK_HEADER_SIZE);
+        return new GorillaBlock(data.array(), count, firstTimestamp, lastTimestamp);
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * Reads the blocks of a series file.
+     *
+     * @param file the series file.
+     * @return the blocks of the file, oldest first, without the last one if it is truncated.
+     * @throws IOException if the file cannot be read or is not a series file.
+     */
+    public static List<GorillaBlock> readBlocks(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        try {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException(file + " is not a history file");
+            }
+            int nameLength = Short.toUnsignedInt(buffer.getShort());
+            buffer.position(buffer.position() + nameLength);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Truncated header in " + file, e);
+        }
+        return readBlocks(buffer);
+    }
+
+    /**
+     * Reads block records up to the end of the buffer, leaving the buffer
+     * positioned after the last complete record.
+     */
+    private static List<GorillaBlock> readBlocks(ByteBuffer buffer) {
+        List<GorillaBlock> blocks = new ArrayList<>();
+        while (buffer.remaining() >= BLOCK_HEADER_SIZE) {
+            int start = buffer.position();
+            int count = buffer.getInt();
+            long firstTimestamp = buffer.getLong();
+            long lastTimestamp = buffer.getLong();
+            int size = buffer.getInt();
+            if (count < 0 || size < 0 || size > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            byte[] data = new byte[size];
+            buffer.get(data);
+            blocks.add(new GorillaBlock(data, count, firstTimestamp, lastTimestamp));
+        }
+        return blocks;
+    }
+
+    private void write(String name, GorillaBlock block) {
+        if (closed) {
+            return;
+        }
+        ByteBuffer record = ByteBuffer.allocate(BLOCK_HEADER_SIZE + block.getSizeBytes());
+        record.putInt(block.getCount())
+                .putLong(block.getFirstTimestamp())
+                .putLong(block.getLastTimestamp())
+                .putInt(block.getSizeBytes())
+                .put(block.getData())
+                .flip();
+        try {
+            SeriesFile seriesFile = files.get(name);
+            if (seriesFile == null) {
+                seriesFile = create(name);
+            }
+            synchronized (seriesFile) {
+                long offset = seriesFile.channel.position();
+                while (record.hasRemaining()) {
+                    seriesFile.channel.write(record);
+                }
+                seriesFile.blockOffsets.add(offset);
+                if (seriesFile.blockOffsets.size() >= 2 * retainedBlocks) {
+                    compact(seriesFile);
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Could not persist a block of the history of {}", name, e);
+        }
+    }
+
+    /**
+     * Rewrites a series file with its header and its latest retained blocks only.
+     */
+    private void compact(SeriesFile seriesFile) throws IOException {
+        List<Long> offsets = seriesFile.blockOffsets;
+        long keptFrom = offsets.get(offsets.size() - retainedBlocks);
+        long end = seriesFile.channel.size();
+        Path temporary = seriesFile.file.resolveSibling(seriesFile.file.getFileName() + ".tmp");
+        try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transfer(seriesFile.channel, 0L, seriesFile.headerSize, target);
+            transfer(seriesFile.channel, keptFrom, end - keptFrom, target);
+            target.force(false);
+        }
+        seriesFile.channel.close();
+        Files.move(temporary, seriesFile.file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        seriesFile.channel = FileChannel.open(seriesFile.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        seriesFile.channel.position(seriesFile.channel.size());
+
+        List<Long> retained = new ArrayList<>(offsets.subList(offsets.size() - retainedBlocks, offsets.size()));
+        offsets.clear();
+        long shift = keptFrom - seriesFile.headerSize;
+        for (long offset : retained) {
+            offsets.add(offset - shift);
+        }
+        LOG.debug("Compacted {} to its latest {} blocks", seriesFile.file, retainedBlocks);
+    }
+
+    private static void transfer(FileChannel source, long position, long count, FileChannel target)
+            throws IOException {
+        long transferred = 0L;
+        while (transferred < count) {
+            transferred += source.transferTo(position + transferred, count - transferred, target);
+        }
+    }
+
+    private SeriesFile create(String name) throws IOException {
+        byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+        if (encodedName.length > 0xFFFF) {
+            throw new IOException("Series name too long: " + name.substring(0, 64) + "...");
+        }
+        Path file = directory.resolve(fileName(name));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + Short.BYTES + encodedName.length);
+        header.putInt(MAGIC).put(VERSION).putShort((short) encodedName.length).put(encodedName).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        SeriesFile seriesFile = new SeriesFile(file, channel, channel.position());
+        files.put(name, seriesFile);
+        return seriesFile;
+    }
+
+    /**
+     * Returns the name of the file of a series: the series name restricted to
+     * safe characters, followed by its hash to tell apart names that only differ
+     * by unsafe characters.
+     */
+    static String fileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(name.hashCode()) + FILE_SUFFIX;
+    }
+
+    /**
+     * Seals the open blocks of all the series, waits until the writer has written
+     * them and forces the files to the storage device.
+     */
+    public void flush() {
+        for (CompressedSeries compressed : series.values()) {
+            compressed.seal();
+        }
+        awaitWriter();
+        for (Map.Entry<String, SeriesFile> entry : files.entrySet()) {
+            try {
+                synchronized (entry.getValue()) {
+                    entry.getValue().channel.force(false);
+                }
+            } catch (IOException e) {
+                LOG.error("Could not force the history of {} to storage", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the directory holding the series files.
+     *
+     * @return the history directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Uninstalls the history, flushes it and closes the files.
+     */
+    @Override
+    public void close() {
+        uninstall();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            flush();
+            closed = true;
+        }
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("The history writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeFiles();
+    }
+
+    private void closeFiles() {
+        for (Map.Entry<String, SeriesFile> entry : files.entrySet()) {
+            try {
+                synchronized (entry.getValue()) {
+                    entry.getValue().channel.close();
+                }
+            } catch (IOException e) {
+                LOG.warn("Could not close the history of {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * The file of a series, with the offsets of its block records.
+     */
+    private static final class SeriesFile {
+
+        private final Path file;
+
+        private final long headerSize;
+
+        private final List<Long> blockOffsets = new ArrayList<>();
+
+        private FileChannel channel;
+
+        private SeriesFile(Path file, FileChannel channel, long headerSize) {
+            this.file = file;
+            this.channel = channel;
+            this.headerSize = headerSize;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The {@link CompressedSeries} class is the compressed history of one metric:
+ * a list of sealed {@link GorillaBlock}s followed by the block being appended to.
+ * <p>
+ * Once the open block holds the configured number of samples, it is sealed and
+ * handed to the owner of the series, which may persist it. Only the latest
+ * sealed blocks are kept in memory. Timestamps never go backwards: a sample
+ * older than the latest one is stored with the latest timestamp.
+ * </p>
+ * <p>
+ * Appends are serialized, and blocks are handed over in the order they are
+ * sealed. Reads do not block appends for longer than the copy of the open block.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class CompressedSeries {
+
+    private static final GorillaBlock[] NO_BLOCKS = new GorillaBlock[0];
+
+    private final String name;
+
+    private final int samplesPerBlock;
+
+    private final int maxBlocks;
+
+    private final Consumer<GorillaBlock> sealedBlocks;
+
+    /**
+     * The sealed blocks kept in memory, oldest first, replaced as a whole.
+     */
+    private volatile GorillaBlock[] blocks = NO_BLOCKS;
+
+    private GorillaEncoder open = new GorillaEncoder();
+
+    private long appended;
+
+    /**
+     * Constructs a {@code CompressedSeries}.
+     *
+     * @param name the name of the series.
+     * @param samplesPerBlock the number of samples of a sealed block.
+     * @param maxBlocks the number of sealed blocks kept in memory.
+     * @param sealedBlocks the consumer of the blocks once sealed, may be {@code null}.
+     * @throws IllegalArgumentException if a size is not positive.
+     */
+    public CompressedSeries(String name, int samplesPerBlock, int maxBlocks, Consumer<GorillaBlock> sealedBlocks) {
+        if (samplesPerBlock <= 0 || maxBlocks <= 0) {
+            throw new IllegalArgumentException("Samples per block and blocks kept must be positive");
+        }
+        this.name = name;
+        this.samplesPerBlock = samplesPerBlock;
+        this.maxBlocks = maxBlocks;
+        this.sealedBlocks = sealedBlocks;
+    }
+
+    /**
+     * Appends a sample, sealing the open block if it is full.
+     *
+     * @param timestamp the time of the sample, in milliseconds.
+     * @param value the value of the sample.
+     */
+    public synchronized void append(long timestamp, double value) {
+        open.append(Math.max(timestamp, lastTimestamp()), value);
+        appended++;
+        if (open.getCount() >= samplesPerBlock) {
+            sealOpenBlock();
+        }
+    }
+
+    /**
+     * Seals the open block, even if it is not full.
+     *
+     * @return the sealed block, or {@code null} if the open block was empty.
+     */
+    public synchronized GorillaBlock seal() {
+        return open.getCount() == 0 ? null : sealOpenBlock();
+    }
+
+    private GorillaBlock sealOpenBlock() {
+        GorillaBlock sealed = open.toBlock();
+        open = new GorillaEncoder();
+        addBlock(sealed);
+        if (sealedBlocks != null) {
+            // Under the lock of the series, so that blocks are handed over in order
+            sealedBlocks.accept(sealed);
+        }
+        return sealed;
+    }
+
+    /**
+     * Adds a sealed block to the blocks kept in memory, evicting the oldest ones if needed.
+     */
+    synchronized void addBlock(GorillaBlock block) {
+        GorillaBlock[] current = blocks;
+        int kept = Math.min(current.length, maxBlocks - 1);
+        GorillaBlock[] updated = Arrays.copyOfRange(current, current.length - kept, current.length + 1);
+        updated[kept] = block;
+        blocks = updated;
+    }
+
+    private long lastTimestamp() {
+        if (open.getCount() > 0) {
+            return open.getLastTimestamp();
+        }
+        GorillaBlock[] current = blocks;
+        return current.length == 0 ? Long.MIN_VALUE : current[current.length - 1].getLastTimestamp();
+    }
+
+    /**
+     * Passes the samples whose timestamp is within the given range to the consumer,
+     * oldest first. Only the sealed blocks kept in memory and the open block are read.
+     *
+     * @param from the lowest timestamp, inclusive.
+     * @param to the highest timestamp, inclusive.
+     * @param consumer the consumer of the samples.
+     * @return the number of samples passed to the consumer.
+     */
+    public int forEach(long from, long to, SampleConsumer consumer) {
+        GorillaBlock[] sealed;
+        GorillaBlock current;
+        synchronized (this) {
+            sealed = blocks;
+            current = open.getCount() == 0 ? null : open.toBlock();
+        }
+        int visited = 0;
+        for (GorillaBlock block : sealed) {
+            visited += block.forEach(from, to, consumer);
+        }
+        if (current != null) {
+            visited += current.forEach(from, to, consumer);
+        }
+        return visited;
+    }
+
+    /**
+     * Passes all the samples kept in memory to the consumer, oldest first.
+     *
+     * @param consumer the consumer of the samples.
+     * @return the number of samples passed to the consumer.
+     */
+    public int forEach(SampleConsumer consumer) {
+        return forEach(Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Returns the sealed blocks kept in memory.
+     *
+     * @return an unmodifiable snapshot of the blocks, oldest first.
+     */
+    public List<GorillaBlock> getBlocks() {
+        return Collections.unmodifiableList(Arrays.asList(blocks));
+    }
+
+    /**
+     * Returns the name of the series.
+     *
+     * @return the series name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of samples appended since the series was created or loaded.
+     *
+     * @return the number of appended samples.
+     */
+    public synchronized long getAppendedCount() {
+        return appended;
+    }
+
+    /**
+     * Returns the number of samples kept in memory, in sealed blocks and in the open block.
+     *
+     * @return the number of samples.
+     */
+    public synchronized long getSampleCount() {
+        long count = open.getCount();
+        for (GorillaBlock block : blocks) {
+            count += block.getCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the compressed size of the samples kept in memory.
+     *
+     * @return the size in bytes.
+     */
+    public synchronized long getSizeBytes() {
+        long size = open.getSizeBytes();
+        for (GorillaBlock block : blocks) {
+            size += block.getSizeBytes();
+        }
+        return size;
+    }
+}
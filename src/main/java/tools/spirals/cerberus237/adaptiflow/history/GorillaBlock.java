@@ -0,0 +1,119 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+/**
+ * The {@link GorillaBlock} class is an immutable block of samples compressed by
+ * a {@link GorillaEncoder}.
+ * <p>
+ * Besides the compressed bits, a block knows its number of samples and its time
+ * range, so that range queries can skip the blocks they do not overlap without
+ * decoding them.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class GorillaBlock {
+
+    private final byte[] data;
+
+    private final int count;
+
+    private final long firstTimestamp;
+
+    private final long lastTimestamp;
+
+    GorillaBlock(byte[] data, int count, long firstTimestamp, long lastTimestamp) {
+        this.data = data;
+        this.count = count;
+        this.firstTimestamp = firstTimestamp;
+        this.lastTimestamp = lastTimestamp;
+    }
+
+    /**
+     * Returns a new decoder over the samples of this block.
+     *
+     * @return the decoder.
+     */
+    public GorillaDecoder decoder() {
+        return new GorillaDecoder(this);
+    }
+
+    /**
+     * Passes the samples whose timestamp is within the given range to the consumer, oldest first.
+     *
+     * @param from the lowest timestamp, inclusive.
+     * @param to the highest timestamp, inclusive.
+     * @param consumer the consumer of the samples.
+     * @return the number of samples passed to the consumer.
+     */
+    public int forEach(long from, long to, SampleConsumer consumer) {
+        if (count == 0 || lastTimestamp < from || firstTimestamp > to) {
+            return 0;
+        }
+        int visited = 0;
+        GorillaDecoder decoder = decoder();
+        while (decoder.next()) {
+            long timestamp = decoder.getTimestamp();
+            if (timestamp >= from && timestamp <= to) {
+                consumer.accept(timestamp, decoder.getValue());
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Returns the compressed samples. The array must not be modified.
+     */
+    byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the number of samples of the block.
+     *
+     * @return the sample count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the timestamp of the first sample of the block.
+     *
+     * @return the timestamp in milliseconds.
+     */
+    public long getFirstTimestamp() {
+        return firstTimestamp;
+    }
+
+    /**
+     * Returns the timestamp of the last sample of the block.
+     *
+     * @return the timestamp in milliseconds.
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * Returns the size of the compressed samples.
+     *
+     * @return the size in bytes.
+     */
+    public int getSizeBytes() {
+        return data.length;
+    }
+}
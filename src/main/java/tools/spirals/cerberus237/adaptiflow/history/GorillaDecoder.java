@@ -0,0 +1,129 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+/**
+ * The {@link GorillaDecoder} class iterates over the samples of a
+ * {@link GorillaBlock}, decoding them one at a time.
+ * <p>
+ * It works like a cursor: each successful call to {@link #next()} makes the
+ * next sample available through {@link #getTimestamp()} and {@link #getValue()},
+ * so that decoding a block does not allocate per sample. A decoder is not
+ * thread-safe, but any number of decoders may read the same block.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * GorillaDecoder decoder = block.decoder();
+ * while (decoder.next()) {
+ *     process(decoder.getTimestamp(), decoder.getValue());
+ * }
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class GorillaDecoder {
+
+    private final BitReader in;
+
+    private int remaining;
+
+    private boolean started;
+
+    private long timestamp;
+
+    private long delta;
+
+    private long bits;
+
+    private int leading;
+
+    private int trailing;
+
+    GorillaDecoder(GorillaBlock block) {
+        this.in = new BitReader(block.getData());
+        this.remaining = block.getCount();
+    }
+
+    /**
+     * Decodes the next sample.
+     *
+     * @return {@code true} if a sample was decoded, {@code false} at the end of the block.
+     */
+    public boolean next() {
+        if (remaining == 0) {
+            return false;
+        }
+        if (!started) {
+            timestamp = in.readBits(64);
+            bits = in.readBits(64);
+            started = true;
+        } else {
+            delta += readDeltaOfDelta();
+            timestamp += delta;
+            bits ^= readXor();
+        }
+        remaining--;
+        return true;
+    }
+
+    private long readDeltaOfDelta() {
+        if (!in.readBit()) {
+            return 0L;
+        }
+        if (!in.readBit()) {
+            return in.readBits(7) - GorillaEncoder.DOD_7_BITS_OFFSET;
+        }
+        if (!in.readBit()) {
+            return in.readBits(9) - GorillaEncoder.DOD_9_BITS_OFFSET;
+        }
+        if (!in.readBit()) {
+            return in.readBits(12) - GorillaEncoder.DOD_12_BITS_OFFSET;
+        }
+        return in.readBits(64);
+    }
+
+    private long readXor() {
+        if (!in.readBit()) {
+            return 0L;
+        }
+        if (in.readBit()) {
+            leading = (int) in.readBits(5);
+            int meaningful = (int) in.readBits(6);
+            if (meaningful == 0) {
+                meaningful = 64;
+            }
+            trailing = 64 - leading - meaningful;
+        }
+        return in.readBits(64 - leading - trailing) << trailing;
+    }
+
+    /**
+     * Returns the timestamp of the current sample.
+     *
+     * @return the timestamp, in milliseconds.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Returns the value of the current sample.
+     *
+     * @return the value.
+     */
+    public double getValue() {
+        return Double.longBitsToDouble(bits);
+    }
+}
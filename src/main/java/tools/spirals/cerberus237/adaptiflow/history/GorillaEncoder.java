@@ -0,0 +1,180 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+/**
+ * The {@link GorillaEncoder} class compresses a stream of (timestamp, value)
+ * samples into a {@link GorillaBlock}, as described in the Gorilla paper
+ * (Pelkonen et al., VLDB 2015).
+ * <p>
+ * The first sample is stored as is. Each following timestamp is stored as the
+ * difference between its delta to the previous timestamp and the previous delta
+ * (delta-of-delta), in as few as one bit when samples are regularly spaced. Each
+ * following value is XOR-ed with the previous one, and only the meaningful bits
+ * of the result are stored, in as few as one bit when the value did not change.
+ * Metrics collected at a fixed interval typically take one to two bytes per sample.
+ * </p>
+ * <p>
+ * An encoder is not thread-safe.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * GorillaEncoder encoder = new GorillaEncoder();
+ * encoder.append(timestamp, value);
+ * GorillaBlock block = encoder.toBlock();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class GorillaEncoder {
+
+    /*
+     * Delta-of-delta ranges: a prefix of ones terminated by a zero selects the
+     * number of bits of the value, stored with an offset so that it is positive.
+     */
+    static final int DOD_7_BITS_OFFSET = 63;
+    static final int DOD_9_BITS_OFFSET = 255;
+    static final int DOD_12_BITS_OFFSET = 2047;
+
+    /*
+     * XOR encoding: at most 31 leading zeros are stored, on 5 bits, and the
+     * number of meaningful bits is stored on 6 bits, 64 being stored as 0.
+     */
+    static final int MAX_LEADING_ZEROS = 31;
+
+    private final BitWriter out;
+
+    private int count;
+
+    private long firstTimestamp;
+
+    private long lastTimestamp;
+
+    private long lastDelta;
+
+    private long lastBits;
+
+    private int lastLeading = -1;
+
+    private int lastTrailing;
+
+    /**
+     * Constructs an empty {@code GorillaEncoder}.
+     */
+    public GorillaEncoder() {
+        this.out = new BitWriter(64);
+    }
+
+    /**
+     * Appends a sample.
+     *
+     * @param timestamp the time of the sample, in milliseconds.
+     * @param value the value of the sample.
+     */
+    public void append(long timestamp, double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            out.writeBits(timestamp, 64);
+            out.writeBits(bits, 64);
+            firstTimestamp = timestamp;
+        } else {
+            long delta = timestamp - lastTimestamp;
+            writeDeltaOfDelta(delta - lastDelta);
+            lastDelta = delta;
+            writeXor(bits ^ lastBits);
+        }
+        lastTimestamp = timestamp;
+        lastBits = bits;
+        count++;
+    }
+
+    private void writeDeltaOfDelta(long deltaOfDelta) {
+        if (deltaOfDelta == 0) {
+            out.writeBit(false);
+        } else if (deltaOfDelta >= -DOD_7_BITS_OFFSET && deltaOfDelta <= DOD_7_BITS_OFFSET + 1) {
+            out.writeBits(0b10, 2);
+            out.writeBits(deltaOfDelta + DOD_7_BITS_OFFSET, 7);
+        } else if (deltaOfDelta >= -DOD_9_BITS_OFFSET && deltaOfDelta <= DOD_9_BITS_OFFSET + 1) {
+            out.writeBits(0b110, 3);
+            out.writeBits(deltaOfDelta + DOD_9_BITS_OFFSET, 9);
+        } else if (deltaOfDelta >= -DOD_12_BITS_OFFSET && deltaOfDelta <= DOD_12_BITS_OFFSET + 1) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(deltaOfDelta + DOD_12_BITS_OFFSET, 12);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(deltaOfDelta, 64);
+        }
+    }
+
+    private void writeXor(long xor) {
+        if (xor == 0) {
+            out.writeBit(false);
+            return;
+        }
+        out.writeBit(true);
+        int leading = Math.min(Long.numberOfLeadingZeros(xor), MAX_LEADING_ZEROS);
+        int trailing = Long.numberOfTrailingZeros(xor);
+        if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+            // The meaningful bits fit in the window of the previous value
+            out.writeBit(false);
+            out.writeBits(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+        } else {
+            int meaningful = 64 - leading - trailing;
+            out.writeBit(true);
+            out.writeBits(leading, 5);
+            out.writeBits(meaningful == 64 ? 0 : meaningful, 6);
+            out.writeBits(xor >>> trailing, meaningful);
+            lastLeading = leading;
+            lastTrailing = trailing;
+        }
+    }
+
+    /**
+     * Returns the number of samples appended.
+     *
+     * @return the sample count.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the size of the samples appended once compressed.
+     *
+     * @return the size in bytes.
+     */
+    public int getSizeBytes() {
+        return (int) ((out.getBitCount() + 7) >>> 3);
+    }
+
+    /**
+     * Returns the timestamp of the latest sample.
+     *
+     * @return the latest timestamp, or {@link Long#MIN_VALUE} if no sample was appended.
+     */
+    public long getLastTimestamp() {
+        return count == 0 ? Long.MIN_VALUE : lastTimestamp;
+    }
+
+    /**
+     * Returns a block holding a copy of the samples appended so far. The encoder
+     * can still be appended to afterwards.
+     *
+     * @return the block.
+     */
+    public GorillaBlock toBlock() {
+        return new GorillaBlock(out.toByteArray(), count, firstTimestamp, count == 0 ? firstTimestamp : lastTimestamp);
+    }
+}
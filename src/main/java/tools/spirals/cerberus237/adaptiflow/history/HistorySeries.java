@@ -0,0 +1,315 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link HistorySeries} class is the history of one metric: a ring of the
+ * latest (timestamp, value) samples, stored off-heap.
+ * <p>
+ * Samples are 16-byte slots of a direct {@link ByteBuffer} allocated once, so
+ * keeping a long history creates no garbage and adds nothing to the heap that
+ * the collector has to scan. Once the ring is full, the oldest samples are
+ * overwritten.
+ * </p>
+ * <p>
+ * A series has a single writer and any number of readers, none of which lock.
+ * The writer announces the slot it is about to overwrite, writes it, then
+ * publishes it. A reader reads samples in place, then checks that the writer
+ * has not started to overwrite them in the meantime, and skips those it has.
+ * Timestamps never go backwards: a sample older than the latest one is stored
+ * with the latest timestamp, which keeps the series sorted for range queries.
+ * </p>
+ * <p>
+ * Removing a series from its {@link MetricHistory} releases its storage: later
+ * appends are ignored and reads find no sample, so that a {@link RecordingCollector}
+ * still wrapping the series holds no memory outside of the budget.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * HistorySeries series = history.series("cpu");
+ * series.append(System.currentTimeMillis(), 42.0);
+ * series.forEach(from, to, (timestamp, value) -&gt; exporter.write(timestamp, value));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class HistorySeries {
+
+    /**
+     * The size of one sample in bytes: a {@code long} timestamp and a {@code double} value.
+     */
+    public static final int SAMPLE_BYTES = 16;
+
+    /**
+     * The largest capacity of a series, for its samples to fit in one buffer.
+     */
+    public static final int MAX_CAPACITY = 1 << 26;
+
+    private static final int VALUE_OFFSET = 8;
+
+    private final String name;
+
+    /**
+     * The samples, {@code null} once the series is released.
+     */
+    private volatile ByteBuffer buffer;
+
+    private final int capacity;
+
+    private final int mask;
+
+    /**
+     * The number of samples whose slot the writer has started to write.
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * The number of samples completely written.
+     */
+    private final AtomicLong published = new AtomicLong();
+
+    /**
+     * The latest timestamp, only accessed by the writer.
+     */
+    private long lastTimestamp = Long.MIN_VALUE;
+
+    /**
+     * Constructs a {@code HistorySeries}.
+     *
+     * @param name the name of the series.
+     * @param capacity the number of samples kept, a power of two.
+     * @throws IllegalArgumentException if the capacity is not a power of two or is too large.
+     */
+    HistorySeries(String name, int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be a power of two up to " + MAX_CAPACITY);
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = ByteBuffer.allocateDirect(capacity * SAMPLE_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Appends a sample, overwriting the oldest one if the series is full.
+     * <p>
+     * Only one thread may append to a series at a time.
+     * </p>
+     *
+     * @param timestamp the time of the sample, in milliseconds.
+     * @param value the value of the sample.
+     */
+    public void append(long timestamp, double value) {
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return;
+        }
+        long index = published.get();
+        long time = Math.max(timestamp, lastTimestamp);
+        lastTimestamp = time;
+        int offset = offset(index);
+        claimed.lazySet(index + 1);
+        // Readers must see the claim before any byte of the overwritten slot
+        VarHandle.storeStoreFence();
+        buffer.putLong(offset, time);
+        buffer.putDouble(offset + VALUE_OFFSET, value);
+        published.lazySet(index + 1);
+    }
+
+    /**
+     * Passes the samples whose timestamp is within the given range to the consumer,
+     * oldest first.
+     * <p>
+     * Samples appended during the iteration are not visited; samples overwritten
+     * during the iteration are skipped.
+     * </p>
+     *
+     * @param from the lowest timestamp, inclusive.
+     * @param to the highest timestamp, inclusive.
+     * @param consumer the consumer of the samples.
+     * @return the number of samples passed to the consumer.
+     */
+    public int forEach(long from, long to, SampleConsumer consumer) {
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return 0;
+        }
+        long end = published.get();
+        int visited = 0;
+        for (long index = firstIndexAtOrAfter(buffer, from, end); index < end; index++) {
+            int offset = offset(index);
+            long timestamp = buffer.getLong(offset);
+            double value = buffer.getDouble(offset + VALUE_OFFSET);
+            long oldest = oldestIntact();
+            if (index < oldest) {
+                // Overwritten while being read: resume at the oldest intact sample
+                index = oldest - 1;
+                continue;
+            }
+            if (timestamp > to) {
+                break;
+            }
+            if (timestamp >= from) {
+                consumer.accept(timestamp, value);
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Passes all the samples of the series to the consumer, oldest first.
+     *
+     * @param consumer the consumer of the samples.
+     * @return the number of samples passed to the consumer.
+     */
+    public int forEach(SampleConsumer consumer) {
+        return forEach(Long.MIN_VALUE, Long.MAX_VALUE, consumer);
+    }
+
+    /**
+     * Returns the index of the first sample whose timestamp is at least the given
+     * one, or {@code end} if there is none.
+     */
+    private long firstIndexAtOrAfter(ByteBuffer buffer, long from, long end) {
+        long low = Math.max(0L, end - capacity);
+        long high = end;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            long timestamp = buffer.getLong(offset(middle));
+            if (middle < oldestIntact() || timestamp < from) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the oldest sample that the writer has not started to
+     * overwrite, ordered after the reads of the slots that preceded the call.
+     */
+    private long oldestIntact() {
+        VarHandle.acquireFence();
+        return claimed.get() - capacity;
+    }
+
+    private int offset(long index) {
+        return (int) (index & mask) * SAMPLE_BYTES;
+    }
+
+    /**
+     * Returns the value of the latest sample.
+     *
+     * @return the latest value, or {@link Double#NaN} if the series is empty.
+     */
+    public double getLatestValue() {
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return Double.NaN;
+        }
+        while (true) {
+            long end = published.get();
+            if (end == 0) {
+                return Double.NaN;
+            }
+            double value = buffer.getDouble(offset(end - 1) + VALUE_OFFSET);
+            if (end - 1 >= oldestIntact()) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Returns the timestamp of the latest sample.
+     *
+     * @return the latest timestamp in milliseconds, or {@link Long#MIN_VALUE} if the series is empty.
+     */
+    public long getLatestTimestamp() {
+        ByteBuffer buffer = this.buffer;
+        if (buffer == null) {
+            return Long.MIN_VALUE;
+        }
+        while (true) {
+            long end = published.get();
+            if (end == 0) {
+                return Long.MIN_VALUE;
+            }
+            long timestamp = buffer.getLong(offset(end - 1));
+            if (end - 1 >= oldestIntact()) {
+                return timestamp;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of samples currently kept.
+     *
+     * @return the number of samples, at most the capacity, 0 once the series is released.
+     */
+    public int size() {
+        return buffer != null ? (int) Math.min(published.get(), capacity) : 0;
+    }
+
+    /**
+     * Returns the number of samples appended since the series was created.
+     *
+     * @return the number of appended samples.
+     */
+    public long getAppendedCount() {
+        return published.get();
+    }
+
+    /**
+     * Tells whether the series was removed from its history and its storage released.
+     *
+     * @return {@code true} if the series no longer keeps samples.
+     */
+    public boolean isReleased() {
+        return buffer == null;
+    }
+
+    /**
+     * Releases the storage of the series; the memory is freed once the buffer is
+     * no longer referenced by a reader or writer in progress.
+     */
+    void release() {
+        buffer = null;
+    }
+
+    /**
+     * Returns the name of the series.
+     *
+     * @return the series name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of samples the series keeps before overwriting the oldest ones.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The {@link MetricHistory} class keeps the history of many metrics, one
+ * {@link HistorySeries} per metric, within a fixed memory budget.
+ * <p>
+ * All series have the same capacity. A series is created, and its off-heap
+ * storage allocated, the first time it is asked for; asking for a series beyond
+ * the budget fails instead of growing the memory used. The samples themselves
+ * are stored outside of the heap, so the JVM must be allowed enough direct memory
+ * ({@code -XX:MaxDirectMemorySize}) for the budget.
+ * </p>
+ * <p>
+ * The simplest way to fill a series is to wrap the collector of an event in a
+ * {@link RecordingCollector}, which appends every collected value.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * // 64 MiB, one day of samples every 10 seconds per series
+ * MetricHistory history = new MetricHistory(64L &lt;&lt; 20, 8640);
+ * Event&lt;Double&gt; event = new ConditionalEvent&lt;&gt;("cpu",
+ *         history.record("cpu", new CPUUsageCollector(), Double::doubleValue), new GreaterThanEvaluator&lt;&gt;(80.0));
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class MetricHistory {
+
+    private final long budgetBytes;
+
+    private final int capacity;
+
+    private final AtomicLong reservedBytes = new AtomicLong();
+
+    private final Map<String, HistorySeries> series = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code MetricHistory}.
+     *
+     * @param budgetBytes the memory that all the series together may use, in bytes.
+     * @param samplesPerSeries the number of samples kept per series, rounded up to a power of two.
+     * @throws IllegalArgumentException if a parameter is not positive or the capacity is too large.
+     */
+    public MetricHistory(long budgetBytes, int samplesPerSeries) {
+        if (budgetBytes <= 0 || samplesPerSeries <= 0 || samplesPerSeries > HistorySeries.MAX_CAPACITY) {
+            throw new IllegalArgumentException("Budget must be positive and samples per series between 1 and "
+                    + HistorySeries.MAX_CAPACITY);
+        }
+        int size = Integer.highestOneBit(samplesPerSeries);
+        this.capacity = size < samplesPerSeries ? size << 1 : size;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Returns the series of the given name, creating it if needed.
+     *
+     * @param name the name of the series.
+     * @return the series.
+     * @throws IllegalStateException if the series does not exist and the budget does not allow a new one.
+     */
+    public HistorySeries series(String name) {
+        HistorySeries existing = series.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        return series.computeIfAbsent(name, key -> {
+            long bytes = (long) capacity * HistorySeries.SAMPLE_BYTES;
+            long reserved;
+            do {
+                reserved = reservedBytes.get();
+                if (reserved + bytes > budgetBytes) {
+                    throw new IllegalStateException("History budget of " + budgetBytes
+                            + " bytes exhausted, cannot create series " + key);
+                }
+            } while (!reservedBytes.compareAndSet(reserved, reserved + bytes));
+            return new HistorySeries(key, capacity);
+        });
+    }
+
+    /**
+     * Returns the series of the given name, if it exists.
+     *
+     * @param name the name of the series.
+     * @return the series, or {@code null} if it does not exist.
+     */
+    public HistorySeries getSeries(String name) {
+        return series.get(name);
+    }
+
+    /**
+     * Returns all the series.
+     *
+     * @return an unmodifiable view of the series.
+     */
+    public Collection<HistorySeries> getAllSeries() {
+        return Collections.unmodifiableCollection(series.values());
+    }
+
+    /**
+     * Removes a series and gives its memory back to the budget. The series is
+     * released: the recorders still wrapping it stop appending to it, and its
+     * off-heap storage is freed once no reader is using it.
+     *
+     * @param name the name of the series.
+     * @return {@code true} if the series existed.
+     */
+    public boolean remove(String name) {
+        HistorySeries removed = series.remove(name);
+        if (removed == null) {
+            return false;
+        }
+        removed.release();
+        reservedBytes.addAndGet(-(long) removed.getCapacity() * HistorySeries.SAMPLE_BYTES);
+        return true;
+    }
+
+    /**
+     * Wraps a collector so that every collected value is appended to the series of the given name.
+     *
+     * @param name the name of the series.
+     * @param collector the collector to be wrapped.
+     * @param toDouble the function turning a collected value into the recorded number.
+     * @param <T> the type of the collected values.
+     * @return the recording collector.
+     * @throws IllegalStateException if the budget does not allow a new series.
+     */
+    public <T> RecordingCollector<T> record(String name, IMetricsCollector<T> collector,
+                                            ToDoubleFunction<? super T> toDouble) {
+        return new RecordingCollector<>(collector, series(name), toDouble);
+    }
+
+    /**
+     * Returns the memory that all the series together may use.
+     *
+     * @return the budget in bytes.
+     */
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    /**
+     * Returns the memory used by the existing series.
+     *
+     * @return the reserved memory in bytes.
+     */
+    public long getReservedBytes() {
+        return reservedBytes.get();
+    }
+
+    /**
+     * Returns the number of samples kept per series.
+     *
+     * @return the capacity of each series.
+     */
+    public int getSamplesPerSeries() {
+        return capacity;
+    }
+}
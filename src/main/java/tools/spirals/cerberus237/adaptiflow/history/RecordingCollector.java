@@ -0,0 +1,99 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The {@link RecordingCollector} class is a metrics collector that decorates
+ * another one and appends every value it collects to a {@link HistorySeries}.
+ * <p>
+ * The value is returned unchanged, so the collector can replace the original one
+ * in any event. A {@code null} value is returned but not recorded. Since a series
+ * has a single writer, the collector must not be shared by events observed
+ * concurrently.
+ * </p>
+ *
+ * @param <T> the type of the collected values.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class RecordingCollector<T> implements IMetricsCollector<T> {
+
+    private final IMetricsCollector<T> delegate;
+
+    private final HistorySeries series;
+
+    private final ToDoubleFunction<? super T> toDouble;
+
+    private final Clock clock;
+
+    /**
+     * Constructs a {@code RecordingCollector} timestamping the values with the system clock.
+     *
+     * @param delegate the collector actually collecting the values.
+     * @param series the series the values are appended to.
+     * @param toDouble the function turning a collected value into the recorded number.
+     */
+    public RecordingCollector(IMetricsCollector<T> delegate, HistorySeries series,
+                              ToDoubleFunction<? super T> toDouble) {
+        this(delegate, series, toDouble, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs a {@code RecordingCollector} timestamping the values with the given clock.
+     *
+     * @param delegate the collector actually collecting the values.
+     * @param series the series the values are appended to.
+     * @param toDouble the function turning a collected value into the recorded number.
+     * @param clock the clock timestamping the values.
+     */
+    public RecordingCollector(IMetricsCollector<T> delegate, HistorySeries series,
+                              ToDoubleFunction<? super T> toDouble, Clock clock) {
+        this.delegate = delegate;
+        this.series = series;
+        this.toDouble = toDouble;
+        this.clock = clock;
+    }
+
+    @Override
+    public T get() {
+        T value = delegate.get();
+        if (value != null) {
+            series.append(clock.currentTimeMillis(), toDouble.applyAsDouble(value));
+        }
+        return value;
+    }
+
+    /**
+     * Returns the collector actually collecting the values.
+     *
+     * @return the delegate collector.
+     */
+    public IMetricsCollector<T> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Returns the series the values are appended to.
+     *
+     * @return the history series.
+     */
+    public HistorySeries getSeries() {
+        return series;
+    }
+}
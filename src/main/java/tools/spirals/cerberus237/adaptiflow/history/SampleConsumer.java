@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+/**
+ * The {@link SampleConsumer} interface represents an operation accepting the
+ * samples of a {@link HistorySeries}, one (timestamp, value) pair at a time.
+ * <p>
+ * Samples are handed over as primitives read directly from the off-heap
+ * storage, so iterating a series neither copies nor boxes them.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@FunctionalInterface
+public interface SampleConsumer {
+
+    /**
+     * Accepts one sample.
+     *
+     * @param timestamp the time of the sample, in milliseconds.
+     * @param value the value of the sample.
+     */
+    void accept(long timestamp, double value);
+}
@@ -0,0 +1,116 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+/**
+ * The {@link SampleStatistics} class is a reusable {@link SampleConsumer}
+ * computing the count, sum, minimum, maximum and mean of the samples it accepts.
+ * <p>
+ * It lets evaluators and exporters summarize a range of a {@link HistorySeries}
+ * without allocating: the same instance is {@link #reset() reset} and reused for
+ * each query. It is not thread-safe.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * SampleStatistics statistics = new SampleStatistics();
+ * series.forEach(now - 60_000, now, statistics.reset());
+ * boolean sustained = statistics.getCount() &gt; 0 &amp;&amp; statistics.getMean() &gt; 80.0;
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class SampleStatistics implements SampleConsumer {
+
+    private long count;
+
+    private double sum;
+
+    private double min;
+
+    private double max;
+
+    /**
+     * Constructs an empty {@code SampleStatistics}.
+     */
+    public SampleStatistics() {
+        reset();
+    }
+
+    @Override
+    public void accept(long timestamp, double value) {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Forgets the samples accepted so far.
+     *
+     * @return this instance.
+     */
+    public SampleStatistics reset() {
+        count = 0;
+        sum = 0.0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        return this;
+    }
+
+    /**
+     * Returns the number of accepted samples.
+     *
+     * @return the sample count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the accepted values.
+     *
+     * @return the sum, 0 if no sample was accepted.
+     */
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * Returns the smallest accepted value.
+     *
+     * @return the minimum, or {@link Double#NaN} if no sample was accepted.
+     */
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * Returns the largest accepted value.
+     *
+     * @return the maximum, or {@link Double#NaN} if no sample was accepted.
+     */
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * Returns the mean of the accepted values.
+     *
+     * @return the mean, or {@link Double#NaN} if no sample was accepted.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+}
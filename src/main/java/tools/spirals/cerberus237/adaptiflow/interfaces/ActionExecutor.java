@@ -0,0 +1,37 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.interfaces;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+
+/**
+ * The {@link ActionExecutor} interface defines a contract for components that
+ * carry out adaptation actions on behalf of event subscribers.
+ * <p>
+ * Implementations decide how and when the action is performed: synchronously on
+ * the observation thread, asynchronously with retries, or deferred until the end
+ * of the current observation tick.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface ActionExecutor {
+
+    /**
+     * Executes the specified adaptation action.
+     *
+     * @param action the adaptation action to be executed.
+     */
+    void execute(IAdaptationAction action);
+}
@@ -0,0 +1,34 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.interfaces;
+
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+
+/**
+ * The {@link ActionOutcomeListener} interface represents a callback that is
+ * informed of the final outcome of every adaptation action executed by an
+ * {@link ActionExecutor}.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface ActionOutcomeListener {
+
+    /**
+     * Called once an adaptation action has completed, either successfully or
+     * after all of its attempts have failed.
+     *
+     * @param outcome the outcome of the action, including its latency and number of attempts.
+     */
+    void onOutcome(ActionOutcome outcome);
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.interfaces;
+
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+
+import java.util.Set;
+
+/**
+ * The {@link ObservationFilter} interface represents a component deciding,
+ * tick by tick, which events of its registry a scheduler observes, for
+ * instance so that only one of several replicas observes the events shared by
+ * all of them.
+ * <p>
+ * It is invoked on the thread running the tick, once per registered event, and
+ * must answer quickly, without blocking.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface ObservationFilter {
+
+    /**
+     * Tells whether the event must be observed in the current tick.
+     *
+     * @param key the key of the event in the registry.
+     * @param tags the tags of the event.
+     * @param event the event.
+     * @return {@code true} to observe the event, {@code false} to skip it.
+     */
+    boolean shouldObserve(String key, Set<String> tags, Event<?> event);
+
+    /**
+     * Returns a filter observing the events accepted by both this filter and the other one.
+     *
+     * @param other the other filter.
+     * @return the combined filter.
+     */
+    default ObservationFilter and(ObservationFilter other) {
+        return (key, tags, event) -> shouldObserve(key, tags, event) && other.shouldObserve(key, tags, event);
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.interfaces;
+
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+
+/**
+ * The {@link ObservationListener} interface represents a component that is told
+ * about every stage of the adaptation loop: ticks, metric collections, condition
+ * evaluations, notifications and action outcomes.
+ * <p>
+ * Listeners are registered globally through
+ * {@link tools.spirals.cerberus237.adaptiflow.events.ObservationHooks}. When no
+ * listener is registered, the adaptation loop does not measure anything. All
+ * callbacks are invoked on the thread performing the stage and must be cheap and
+ * must not throw.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface ObservationListener {
+
+    /**
+     * Called after a scheduler tick, that is one pass over all of its events.
+     *
+     * @param tick the sequence number of the tick within its scheduler.
+     * @param durationNanos the duration of the tick, in nanoseconds.
+     * @param overrun {@code true} if the tick lasted longer than the scheduler interval.
+     */
+    default void onTickCompleted(long tick, long durationNanos, boolean overrun) {
+    }
+
+    /**
+     * Called after an event has collected its metric value.
+     *
+     * @param event the observed event.
+     * @param value the collected value.
+     * @param durationNanos the duration of the collection, in nanoseconds.
+     */
+    default void onCollected(Event<?> event, Object value, long durationNanos) {
+    }
+
+    /**
+     * Called after a condition evaluator has been applied to a collected value.
+     *
+     * @param event the observed event.
+     * @param evaluator the condition evaluator.
+     * @param matched the result of the evaluation.
+     * @param durationNanos the duration of the evaluation, in nanoseconds.
+     */
+    default void onEvaluated(Event<?> event, ConditionEvaluator<?> evaluator, boolean matched, long durationNanos) {
+    }
+
+    /**
+     * Called after an observer has been notified.
+     *
+     * @param event the observed event.
+     * @param observer the notified observer.
+     * @param durationNanos the duration of the notification, in nanoseconds.
+     */
+    default void onNotified(Event<?> event, Observer<?> observer, long durationNanos) {
+    }
+
+    /**
+     * Called when the observation of an event fails with an exception.
+     *
+     * @param event the observed event.
+     * @param error the exception thrown by the collector, an evaluator or an observer.
+     */
+    default void onObservationFailed(Event<?> event, Throwable error) {
+    }
+
+    /**
+     * Called when an adaptation action has completed.
+     *
+     * @param outcome the outcome of the action.
+     */
+    default void onActionCompleted(ActionOutcome outcome) {
+    }
+
+    /**
+     * Called when an event leaves an
+     * {@link tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry},
+     * having been unregistered or replaced. A tick already in progress may still
+     * observe it once.
+     *
+     * @param event the removed event.
+     * @param replacement the event replacing it, or {@code null} if it was unregistered.
+     */
+    default void onEventRemoved(Event<?> event, Event<?> replacement) {
+    }
+}
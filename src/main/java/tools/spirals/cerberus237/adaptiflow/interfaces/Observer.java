@@ -13,6 +13,8 @@
  */
 package tools.spirals.cerberus237.adaptiflow.interfaces;
 
+import tools.spirals.cerberus237.adaptiflow.events.NotificationContext;
+
 /**
  * The {@code Observer} interface represents an entity that wishes to be notified
  * of changes in an observable object.
@@ -39,6 +41,21 @@ public interface Observer<T> {
      */
     void update(T metricValue, String message);
 
+    /**
+     * Updates the observer with a new metric value and the context of the
+     * event that triggered the notification.
+     * <p>
+     * The default implementation delegates to {@link #update(Object, String)}
+     * with the precomputed message of the context.
+     * </p>
+     *
+     * @param metricValue the new metric value provided by the observable.
+     * @param context     the context of the event, reused across notifications.
+     */
+    default void update(T metricValue, NotificationContext context) {
+        update(metricValue, context.getMessage());
+    }
+
     /**
      * Returns the condition evaluator associated with this observer.
      * <p>
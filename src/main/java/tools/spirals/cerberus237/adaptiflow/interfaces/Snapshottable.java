@@ -0,0 +1,51 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.interfaces;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The {@link Snapshottable} interface represents a subscriber or a condition
+ * evaluator whose state must survive a restart, such as a counter or the side
+ * of a hysteresis band.
+ * <p>
+ * Snapshots are taken on the thread running the ticks, between two ticks, and
+ * restored before the scheduler starts, so implementations need no
+ * synchronization of their own. The state must be
+ * small: it is written in full at every snapshot.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface Snapshottable {
+
+    /**
+     * Writes the current state.
+     *
+     * @param out the output receiving the state.
+     * @throws IOException if the state cannot be written.
+     */
+    void writeSnapshot(DataOutput out) throws IOException;
+
+    /**
+     * Restores the state written by {@link #writeSnapshot(DataOutput)}, possibly
+     * by a previous run of the application.
+     *
+     * @param in the input holding the state.
+     * @throws IOException if the state cannot be read.
+     */
+    void restoreSnapshot(DataInput in) throws IOException;
+}
@@ -0,0 +1,44 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.interfaces;
+
+/**
+ * The {@link TickListener} interface represents a component that wishes to be
+ * told when an observation scheduler starts and finishes a tick, that is one pass
+ * over all of its events.
+ * <p>
+ * Both methods are invoked on the thread running the tick.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface TickListener {
+
+    /**
+     * Called before the first event of the tick is observed.
+     *
+     * @param tick the sequence number of the tick, starting at 1 for each scheduler.
+     */
+    default void onTickStart(long tick) {
+    }
+
+    /**
+     * Called after the last event of the tick has been observed, even if an
+     * observation failed.
+     *
+     * @param tick the sequence number of the tick, starting at 1 for each scheduler.
+     */
+    default void onTickEnd(long tick) {
+    }
+}
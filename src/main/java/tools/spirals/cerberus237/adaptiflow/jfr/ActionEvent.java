@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded after an adaptation action has completed.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@Name("tools.spirals.cerberus237.adaptiflow.Action")
+@Label("AdaptiFlow Action")
+@Category({"AdaptiFlow"})
+@Description("Execution of an adaptation action, retries included")
+@StackTrace(false)
+public class ActionEvent extends Event {
+
+    @Label("Action Id")
+    String actionId;
+
+    @Label("Action Class")
+    Class<?> actionClass;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Success")
+    boolean success;
+
+    @Label("Attempts")
+    int attempts;
+
+    @Label("Elapsed")
+    @Description("Time between submission and outcome, retries included")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+
+    @Label("Latency")
+    @Description("Time spent in the stage, measured by AdaptiFlow")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Minimum Duration")
+    @Description("Events whose latency is below this duration are not recorded")
+    @Name("minDuration")
+    @SettingDefinition
+    protected boolean minDuration(MinDurationSetting setting) {
+        return latency >= setting.getNanos();
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.SettingDefinition;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event recorded after a condition evaluator has been applied to a collected value.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@Name("tools.spirals.cerberus237.adaptiflow.Evaluation")
+@Label("AdaptiFlow Evaluation")
+@Category({"AdaptiFlow"})
+@Description("Evaluation of a condition against a collected metric value")
+@StackTrace(false)
+public class EvaluationEvent extends Event {
+
+    @Label("Event Name")
+    String eventName;
+
+    @Label("Event Id")
+    long eventId;
+
+    @Label("Evaluator")
+    Class<?> evaluator;
+
+    @Label("Result")
+    boolean result;
+
+    @Label("Latency")
+    @Description("Time spent in the stage, measured by AdaptiFlow")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Minimum Duration")
+    @Description("Events whose latency is below this duration are not recorded")
+    @Name("minDuration")
+    @SettingDefinition
+    protected boolean minDuration(MinDurationSetting setting) {
+        return latency >= setting.getNanos();
+    }
+}
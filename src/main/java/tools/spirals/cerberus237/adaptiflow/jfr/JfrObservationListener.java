@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.jfr;
+
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+
+/**
+ * The {@link JfrObservationListener} class turns the stages of the adaptation
+ * loop into JDK Flight Recorder events.
+ * <p>
+ * Once installed, ticks, metric collections, condition evaluations and action
+ * outcomes are emitted as {@link TickEvent}, {@link ObservationEvent},
+ * {@link EvaluationEvent} and {@link ActionEvent}. Each callback returns after a
+ * single check when no recording has enabled the corresponding event, and the
+ * payload of an event, such as the string form of a collected value, is only
+ * built once JFR has accepted it. The events can be filtered with their
+ * {@code minDuration} setting, for example in a {@code .jfc} file.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * JfrObservationListener listener = new JfrObservationListener();
+ * listener.install();
+ * // java -XX:StartFlightRecording=filename=adaptiflow.jfr ...
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class JfrObservationListener implements ObservationListener {
+
+    /**
+     * Starts emitting JFR events.
+     */
+    public void install() {
+        ObservationHooks.addListener(this);
+    }
+
+    /**
+     * Stops emitting JFR events.
+     */
+    public void uninstall() {
+        ObservationHooks.removeListener(this);
+    }
+
+    @Override
+    public void onTickCompleted(long tick, long durationNanos, boolean overrun) {
+        TickEvent jfrEvent = new TickEvent();
+        if (!jfrEvent.isEnabled()) {
+            return;
+        }
+        jfrEvent.latency = durationNanos;
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.tick = tick;
+            jfrEvent.overrun = overrun;
+            jfrEvent.commit();
+        }
+    }
+
+    @Override
+    public void onCollected(Event<?> event, Object value, long durationNanos) {
+        ObservationEvent jfrEvent = new ObservationEvent();
+        if (!jfrEvent.isEnabled()) {
+            return;
+        }
+        jfrEvent.latency = durationNanos;
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.eventName = event.getName();
+            jfrEvent.eventId = event.getId();
+            jfrEvent.collector = event.getCollector() != null ? event.getCollector().getClass() : null;
+            jfrEvent.value = String.valueOf(value);
+            jfrEvent.commit();
+        }
+    }
+
+    @Override
+    public void onEvaluated(Event<?> event, ConditionEvaluator<?> evaluator, boolean matched, long durationNanos) {
+        EvaluationEvent jfrEvent = new EvaluationEvent();
+        if (!jfrEvent.isEnabled()) {
+            return;
+        }
+        jfrEvent.latency = durationNanos;
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.eventName = event.getName();
+            jfrEvent.eventId = event.getId();
+            jfrEvent.evaluator = evaluator.getClass();
+            jfrEvent.result = matched;
+            jfrEvent.commit();
+        }
+    }
+
+    @Override
+    public void onActionCompleted(ActionOutcome outcome) {
+        ActionEvent jfrEvent = new ActionEvent();
+        if (!jfrEvent.isEnabled()) {
+            return;
+        }
+        jfrEvent.latency = outcome.getLatencyNanos();
+        if (jfrEvent.shouldCommit()) {
+            jfrEvent.actionId = outcome.getAction().getActionId();
+            jfrEvent.actionClass = outcome.getAction().getClass();
+            jfrEvent.outcome = outcome.getError() != null
+                    ? outcome.getError().getClass().getName()
+                    : String.valueOf(outcome.getResult());
+            jfrEvent.success = outcome.isSuccess();
+            jfrEvent.attempts = outcome.getAttempts();
+            jfrEvent.elapsed = outcome.getElapsedNanos();
+            jfrEvent.commit();
+        }
+    }
+}
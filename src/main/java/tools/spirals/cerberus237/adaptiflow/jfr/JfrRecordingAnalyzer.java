@@ -0,0 +1,263 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.jfr;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link JfrRecordingAnalyzer} class summarizes the AdaptiFlow events of a
+ * JFR recording: the slowest collectors, evaluators and actions, and the
+ * number of scheduler ticks that overran their interval.
+ * <p>
+ * It can be used programmatically or from the command line with the path of a
+ * {@code .jfr} file as argument.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * JfrRecordingAnalyzer analyzer = JfrRecordingAnalyzer.analyze(Paths.get("adaptiflow.jfr"));
+ * analyzer.getCollectors().forEach(System.out::println);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class JfrRecordingAnalyzer {
+
+    private static final String PREFIX = "tools.spirals.cerberus237.adaptiflow.";
+
+    private final Map<String, StageSummary> collectors = new HashMap<>();
+
+    private final Map<String, StageSummary> evaluators = new HashMap<>();
+
+    private final Map<String, StageSummary> actions = new HashMap<>();
+
+    private final StageSummary ticks = new StageSummary("tick");
+
+    private long overruns;
+
+    private long failedActions;
+
+    private JfrRecordingAnalyzer() {
+    }
+
+    /**
+     * Reads a recording and summarizes its AdaptiFlow events.
+     *
+     * @param recording the path of the {@code .jfr} file.
+     * @return the analyzer holding the summary.
+     * @throws IOException if the recording cannot be read.
+     */
+    public static JfrRecordingAnalyzer analyze(Path recording) throws IOException {
+        JfrRecordingAnalyzer analyzer = new JfrRecordingAnalyzer();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                analyzer.accept(file.readEvent());
+            }
+        }
+        return analyzer;
+    }
+
+    private void accept(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        if (!type.startsWith(PREFIX)) {
+            return;
+        }
+        long latency = event.getLong("latency");
+        switch (type.substring(PREFIX.length())) {
+            case "Tick":
+                ticks.add(latency);
+                if (event.getBoolean("overrun")) {
+                    overruns++;
+                }
+                break;
+            case "Observation":
+                summaryOf(collectors, className(event.getClass("collector"))).add(latency);
+                break;
+            case "Evaluation":
+                summaryOf(evaluators, className(event.getClass("evaluator"))).add(latency);
+                break;
+            case "Action":
+                summaryOf(actions, event.getString("actionId")).add(latency);
+                if (!event.getBoolean("success")) {
+                    failedActions++;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass != null ? recordedClass.getName() : "unknown";
+    }
+
+    private static StageSummary summaryOf(Map<String, StageSummary> summaries, String name) {
+        return summaries.computeIfAbsent(String.valueOf(name), StageSummary::new);
+    }
+
+    private static List<StageSummary> slowestFirst(Map<String, StageSummary> summaries) {
+        List<StageSummary> sorted = new ArrayList<>(summaries.values());
+        sorted.sort(Comparator.comparingLong(StageSummary::getTotalNanos).reversed());
+        return sorted;
+    }
+
+    /**
+     * Returns the collections grouped by collector class, the most expensive first.
+     *
+     * @return the collector summaries.
+     */
+    public List<StageSummary> getCollectors() {
+        return slowestFirst(collectors);
+    }
+
+    /**
+     * Returns the evaluations grouped by evaluator class, the most expensive first.
+     *
+     * @return the evaluator summaries.
+     */
+    public List<StageSummary> getEvaluators() {
+        return slowestFirst(evaluators);
+    }
+
+    /**
+     * Returns the action executions grouped by action identifier, the most expensive first.
+     *
+     * @return the action summaries.
+     */
+    public List<StageSummary> getActions() {
+        return slowestFirst(actions);
+    }
+
+    /**
+     * Returns the summary of the scheduler ticks.
+     *
+     * @return the tick summary.
+     */
+    public StageSummary getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of ticks that lasted longer than their scheduler interval.
+     *
+     * @return the number of overruns.
+     */
+    public long getOverruns() {
+        return overruns;
+    }
+
+    /**
+     * Returns the number of actions that did not succeed.
+     *
+     * @return the number of failed actions.
+     */
+    public long getFailedActions() {
+        return failedActions;
+    }
+
+    /**
+     * Prints the summary.
+     *
+     * @param out the stream to print to.
+     * @param limit the maximum number of entries printed per stage.
+     */
+    public void print(PrintStream out, int limit) {
+        out.printf("Ticks: %s, overruns: %d%n", ticks, overruns);
+        print(out, "Slowest collectors", getCollectors(), limit);
+        print(out, "Slowest evaluators", getEvaluators(), limit);
+        print(out, "Slowest actions", getActions(), limit);
+        out.printf("Failed actions: %d%n", failedActions);
+    }
+
+    private static void print(PrintStream out, String title, List<StageSummary> summaries, int limit) {
+        out.println(title + ":");
+        for (int i = 0; i < summaries.size() && i < limit; i++) {
+            out.println("  " + summaries.get(i));
+        }
+    }
+
+    /**
+     * Prints the summary of the recording given as first argument.
+     *
+     * @param args the path of the {@code .jfr} file and, optionally, the number of entries per stage.
+     * @throws IOException if the recording cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: JfrRecordingAnalyzer <recording.jfr> [limit]");
+            return;
+        }
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        analyze(Paths.get(args[0])).print(System.out, limit);
+    }
+
+    /**
+     * The {@link StageSummary} class aggregates the latencies of one stage of
+     * the adaptation loop for a given collector, evaluator or action.
+     */
+    public static final class StageSummary {
+        private final String name;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        StageSummary(String name) {
+            this.name = name;
+        }
+
+        void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getMeanNanos() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: count=%d, total=%.3fms, mean=%.3fms, max=%.3fms", name, count,
+                    totalNanos / 1e6, getMeanNanos() / 1e6, maxNanos / 1e6);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.jfr;
+
+import jdk.jfr.SettingControl;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link MinDurationSetting} class is a JFR setting holding the minimum
+ * duration an AdaptiFlow event must have to be committed.
+ * <p>
+ * The adaptation loop measures its stages before handing them to JFR, so the
+ * built-in {@code threshold} setting, which relies on {@code begin()} and
+ * {@code end()}, cannot be used. This setting plays the same role for the
+ * {@code latency} field of AdaptiFlow events. Values use the JFR syntax, for
+ * example {@code "20 ms"}; when several recordings are running, the smallest
+ * value applies.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class MinDurationSetting extends SettingControl {
+
+    private static final String DEFAULT = "0 ns";
+
+    private volatile String value = DEFAULT;
+
+    private volatile long nanos = 0L;
+
+    @Override
+    public String combine(Set<String> settingValues) {
+        String smallest = null;
+        long smallestNanos = Long.MAX_VALUE;
+        for (String settingValue : settingValues) {
+            long parsed = parse(settingValue);
+            if (parsed < smallestNanos) {
+                smallestNanos = parsed;
+                smallest = settingValue;
+            }
+        }
+        return smallest != null ? smallest : DEFAULT;
+    }
+
+    @Override
+    public void setValue(String settingValue) {
+        this.nanos = parse(settingValue);
+        this.value = settingValue;
+    }
+
+    @Override
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the minimum duration.
+     *
+     * @return the minimum duration in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    static long parse(String settingValue) {
+        String text = settingValue == null ? "" : settingValue.trim();
+        if (text.isEmpty() || text.equals("0")) {
+            return 0L;
+        }
+        int split = 0;
+        while (split < text.length() && Character.isDigit(text.charAt(split))) {
+            split++;
+        }
+        if (split == 0) {
+            return Long.MAX_VALUE;
+        }
+        long amount = Long.parseLong(text.substring(0, split));
+        switch (text.substring(split).trim()) {
+            case "ns":
+                return amount;
+            case "us":
+                return TimeUnit.MICROSECONDS.toNanos(amount);
+            case "ms":
+                return TimeUnit.MILLISECONDS.toNanos(amount);
+            case "s":
+                return TimeUnit.SECONDS.toNanos(amount);
+            case "m":
+                return TimeUnit.MINUTES.toNanos(amount);
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+}
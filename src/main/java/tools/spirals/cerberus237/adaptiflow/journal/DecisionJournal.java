@@ -0,0 +1,352 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+import tools.spirals.cerberus237.adaptiflow.journal.JournalRecord.Kind;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * The {@link DecisionJournal} class is a durable, append-only audit of the
+ * decisions of the adaptation loop.
+ * <p>
+ * Once installed, it appends a compact binary record for every tick, collected
+ * value, condition verdict, failed observation and action outcome, with the
+ * correlation identifiers of the {@link CorrelationContext}. Records are written
+ * to memory-mapped segment files of fixed size, see {@link JournalFormat} for
+ * the layout: when a segment is full, the journal rolls over to a new one and
+ * deletes the oldest segments beyond the configured retention.
+ * </p>
+ * <p>
+ * Appending a record takes no lock and performs no system call: the writer
+ * reserves space in the current segment with one atomic addition, copies the
+ * record into the mapping and publishes it by writing its length last. The
+ * operating system writes the pages back in the background; {@link #flush()}
+ * forces them to the storage device. Only rolling over to a new segment maps a
+ * file, which happens once per segment. Records written while the journal is
+ * closed, or that do not fit in a segment, are counted as dropped. Journals are
+ * read with a {@link JournalReader}.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * DecisionJournal journal = new DecisionJournal(Paths.get("journal"), 16 * 1024 * 1024, 8);
+ * journal.install();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class DecisionJournal implements ObservationListener, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(DecisionJournal.class);
+
+    /**
+     * The smallest accepted segment size.
+     */
+    public static final int MIN_SEGMENT_SIZE = 4096;
+
+    private static final int MAX_CACHED_STRINGS = 1024;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final Map<String, byte[]> encodedStrings = new ConcurrentHashMap<>();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile JournalSegment current;
+
+    private final Clock clock;
+
+    private boolean closed = false;
+
+    /**
+     * Constructs a {@code DecisionJournal} writing to a new segment of the given
+     * directory and timestamping the records with the system clock.
+     *
+     * @param directory the directory holding the segment files, created if needed.
+     * @param segmentSize the size of each segment file, in bytes.
+     * @param maxSegments the number of segment files kept, the oldest ones being deleted.
+     * @throws IOException if the directory or the first segment cannot be created.
+     * @throws IllegalArgumentException if the size or the retention is invalid.
+     */
+    public DecisionJournal(Path directory, int segmentSize, int maxSegments) throws IOException {
+        this(directory, segmentSize, maxSegments, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs a {@code DecisionJournal} writing to a new segment of the given
+     * directory and timestamping the records with the given clock.
+     *
+     * @param directory the directory holding the segment files, created if needed.
+     * @param segmentSize the size of each segment file, in bytes.
+     * @param maxSegments the number of segment files kept, the oldest ones being deleted.
+     * @param clock the clock timestamping the records.
+     * @throws IOException if the directory or the first segment cannot be created.
+     * @throws IllegalArgumentException if the size or the retention is invalid.
+     */
+    public DecisionJournal(Path directory, int segmentSize, int maxSegments, Clock clock) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + " bytes");
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be kept");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.clock = clock;
+        this.current = JournalSegment.create(directory, lastSegmentIndex() + 1, segmentSize);
+    }
+
+    /**
+     * Starts journaling the decisions of the adaptation loop.
+     */
+    public void install() {
+        ObservationHooks.addListener(this);
+    }
+
+    /**
+     * Stops journaling the decisions of the adaptation loop. The journal remains open.
+     */
+    public void uninstall() {
+        ObservationHooks.removeListener(this);
+    }
+
+    @Override
+    public void onTickCompleted(long tick, long durationNanos, boolean overrun) {
+        append(Kind.TICK, overrun, CorrelationContext.currentTickId(), 0L,
+                tick, durationNanos, 0L, null, null);
+    }
+
+    @Override
+    public void onCollected(Event<?> event, Object value, long durationNanos) {
+        double numeric = value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+        append(Kind.OBSERVATION, false, CorrelationContext.currentId(), event.getId(),
+                Double.doubleToRawLongBits(numeric), 0L, 0L, encode(event.getName()), null);
+    }
+
+    @Override
+    public void onEvaluated(Event<?> event, ConditionEvaluator<?> evaluator, boolean matched, long durationNanos) {
+        append(Kind.EVALUATION, matched, CorrelationContext.currentId(), event.getId(),
+                0L, 0L, 0L, encode(evaluator.getClass().getName()), null);
+    }
+
+    @Override
+    public void onObservationFailed(Event<?> event, Throwable error) {
+        append(Kind.FAILURE, false, CorrelationContext.currentId(), event.getId(),
+                0L, 0L, 0L, encode(error.getClass().getName()), null);
+    }
+
+    @Override
+    public void onActionCompleted(ActionOutcome outcome) {
+        String result = outcome.getError() != null
+                ? outcome.getError().getClass().getName()
+                : String.valueOf(outcome.getResult());
+        append(Kind.ACTION, outcome.isSuccess(), outcome.getCorrelationId(), 0L,
+                outcome.getAttempts(), outcome.getLatencyNanos(), outcome.getElapsedNanos(),
+                encode(outcome.getAction().getActionId()), encode(result));
+    }
+
+    private void append(Kind kind, boolean flag, long correlationId, long eventId,
+                        long first, long second, long third, byte[] text, byte[] secondText) {
+        int longFields = JournalFormat.longFields(kind);
+        int unaligned = JournalFormat.BODY_OFFSET + longFields * Long.BYTES;
+        if (text != null) {
+            unaligned += Short.BYTES + text.length;
+        }
+        if (secondText != null) {
+            unaligned += Short.BYTES + secondText.length;
+        }
+        int length = JournalFormat.align(unaligned);
+
+        JournalSegment segment = current;
+        int offset = -1;
+        while (segment != null && length <= segmentSize) {
+            offset = segment.claim(length);
+            if (offset >= 0) {
+                break;
+            }
+            segment = roll(segment);
+        }
+        if (offset < 0) {
+            dropped.increment();
+            return;
+        }
+
+        ByteBuffer buffer = segment.buffer();
+        buffer.put(offset + JournalFormat.KIND_OFFSET, kind.code());
+        buffer.put(offset + JournalFormat.FLAGS_OFFSET, (byte) (flag ? 1 : 0));
+        buffer.putLong(offset + JournalFormat.TIMESTAMP_OFFSET, clock.currentTimeMillis());
+        buffer.putLong(offset + JournalFormat.TICK_OFFSET, CorrelationContext.currentTickId());
+        buffer.putLong(offset + JournalFormat.CORRELATION_OFFSET, correlationId);
+        buffer.putLong(offset + JournalFormat.EVENT_OFFSET, eventId);
+        int position = offset + JournalFormat.BODY_OFFSET;
+        if (longFields > 0) {
+            buffer.putLong(position, first);
+            position += Long.BYTES;
+        }
+        if (longFields > 1) {
+            buffer.putLong(position, second);
+            position += Long.BYTES;
+        }
+        if (longFields > 2) {
+            buffer.putLong(position, third);
+            position += Long.BYTES;
+        }
+        if (text != null) {
+            position = putString(buffer, position, text);
+        }
+        if (secondText != null) {
+            putString(buffer, position, secondText);
+        }
+        // Publishing the length makes the record visible to readers
+        JournalFormat.LENGTH.setRelease(buffer, offset, length);
+    }
+
+    private static int putString(ByteBuffer buffer, int position, byte[] bytes) {
+        buffer.putShort(position, (short) bytes.length);
+        position += Short.BYTES;
+        for (byte b : bytes) {
+            buffer.put(position++, b);
+        }
+        return position;
+    }
+
+    private byte[] encode(String text) {
+        if (text == null) {
+            return EMPTY;
+        }
+        byte[] bytes = encodedStrings.get(text);
+        if (bytes == null) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > JournalFormat.MAX_STRING_BYTES) {
+                bytes = Arrays.copyOf(bytes, JournalFormat.MAX_STRING_BYTES);
+            }
+            if (encodedStrings.size() < MAX_CACHED_STRINGS) {
+                encodedStrings.putIfAbsent(text, bytes);
+            }
+        }
+        return bytes;
+    }
+
+    private synchronized JournalSegment roll(JournalSegment full) {
+        if (closed) {
+            return null;
+        }
+        if (current != full) {
+            return current;
+        }
+        try {
+            JournalSegment next = JournalSegment.create(directory, full.index() + 1, segmentSize);
+            current = next;
+            deleteSegmentsBefore(next.index() - maxSegments + 1);
+            return next;
+        } catch (IOException e) {
+            LOG.error("Could not roll the decision journal over to a new segment, journaling stops", e);
+            closed = true;
+            current = null;
+            return null;
+        }
+    }
+
+    private void deleteSegmentsBefore(long firstKept) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                long index = JournalFormat.segmentIndex(file);
+                if (index >= 0 && index < firstKept) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private long lastSegmentIndex() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(JournalFormat::segmentIndex).max().orElse(-1L);
+        }
+    }
+
+    /**
+     * Forces the records written so far to the storage device.
+     */
+    public void flush() {
+        JournalSegment segment = current;
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Returns the number of records that could not be written.
+     *
+     * @return the number of dropped records.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Returns the directory holding the segment files.
+     *
+     * @return the journal directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Uninstalls the journal, flushes it and stops writing.
+     */
+    @Override
+    public void close() {
+        uninstall();
+        JournalSegment segment;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            segment = current;
+            current = null;
+        }
+        if (segment != null) {
+            segment.force();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+/**
+ * The {@link JournalFormat} class holds the binary layout of the decision journal.
+ * <p>
+ * A segment is a file of fixed size filled with records aligned on 8 bytes. Each
+ * record starts with a common header:
+ * </p>
+ * <pre>
+ *  0  int    length of the record, padding included, written last
+ *  4  byte   kind
+ *  5  byte   flags: matched, success or overrun
+ *  6  short  reserved
+ *  8  long   wall-clock time in milliseconds
+ * 16  long   tick correlation identifier
+ * 24  long   observation correlation identifier
+ * 32  long   event identifier
+ * </pre>
+ * <p>
+ * followed by a body made of numeric fields then strings, whose number depends
+ * on the kind:
+ * </p>
+ * <ul>
+ *     <li>tick: sequence number and duration;</li>
+ *     <li>observation: collected value, event name;</li>
+ *     <li>evaluation: evaluator class;</li>
+ *     <li>failure: error class;</li>
+ *     <li>action: attempts, latency and elapsed time, action identifier, result.</li>
+ * </ul>
+ * <p>
+ * Strings are stored as an unsigned short length followed by their UTF-8 bytes. A length of 0 marks the end of the
+ * written part of a segment. All values are little-endian.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class JournalFormat {
+
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /**
+     * Gives release/acquire access to the length field, which publishes a record.
+     */
+    static final VarHandle LENGTH = MethodHandles.byteBufferViewVarHandle(int[].class, ORDER);
+
+    static final int ALIGNMENT = 8;
+
+    static final int KIND_OFFSET = 4;
+    static final int FLAGS_OFFSET = 5;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int TICK_OFFSET = 16;
+    static final int CORRELATION_OFFSET = 24;
+    static final int EVENT_OFFSET = 32;
+    static final int BODY_OFFSET = 40;
+
+    static final int MAX_STRING_BYTES = 0xFFFF;
+
+    static final String SEGMENT_PREFIX = "decisions-";
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    /**
+     * Returns the number of 8-byte numeric fields of the body of the given kind.
+     */
+    static int longFields(JournalRecord.Kind kind) {
+        switch (kind) {
+            case TICK:
+                return 2;
+            case OBSERVATION:
+                return 1;
+            case ACTION:
+                return 3;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the number of strings following the numeric fields of the body of the given kind.
+     */
+    static int stringFields(JournalRecord.Kind kind) {
+        switch (kind) {
+            case TICK:
+                return 0;
+            case ACTION:
+                return 2;
+            default:
+                return 1;
+        }
+    }
+
+    static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    static String segmentName(long index) {
+        return String.format("%s%012d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Returns the index of a segment file, or -1 if the file is not a segment.
+     */
+    static long segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
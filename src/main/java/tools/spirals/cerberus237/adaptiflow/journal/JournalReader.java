@@ -0,0 +1,201 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.journal;
+
+import tools.spirals.cerberus237.adaptiflow.journal.JournalRecord.Kind;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The {@link JournalReader} class reads the records of a {@link DecisionJournal}.
+ * <p>
+ * Each iteration lists the segment files of the journal directory and maps them,
+ * one at a time and read-only, in the order they were written. The journal may
+ * be read while it is being written: records become visible once published by
+ * the writer, and a segment is left as soon as a record is not yet published.
+ * Segments deleted by the retention policy during an iteration are skipped.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * for (JournalRecord record : new JournalReader(Paths.get("journal"))) {
+ *     if (record.getKind() == JournalRecord.Kind.ACTION &amp;&amp; !record.isSuccess()) {
+ *         System.out.println(record);
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class JournalReader implements Iterable<JournalRecord> {
+
+    private final Path directory;
+
+    /**
+     * Constructs a {@code JournalReader}.
+     *
+     * @param directory the directory holding the segment files of the journal.
+     */
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns an iterator over the records of the journal, oldest first.
+     *
+     * @return an iterator over the records.
+     * @throws UncheckedIOException if the journal cannot be read.
+     */
+    @Override
+    public Iterator<JournalRecord> iterator() {
+        return new RecordIterator(segments());
+    }
+
+    /**
+     * Reads all the records of the journal, oldest first.
+     *
+     * @return the records.
+     */
+    public List<JournalRecord> readAll() {
+        List<JournalRecord> records = new ArrayList<>();
+        forEach(records::add);
+        return records;
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> JournalFormat.segmentIndex(file) >= 0)
+                    .sorted((a, b) -> Long.compare(JournalFormat.segmentIndex(a), JournalFormat.segmentIndex(b)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteBuffer map(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(JournalFormat.ORDER);
+            return buffer;
+        }
+    }
+
+    static JournalRecord decode(ByteBuffer buffer, int offset) {
+        Kind kind = Kind.of(buffer.get(offset + JournalFormat.KIND_OFFSET));
+        boolean flag = buffer.get(offset + JournalFormat.FLAGS_OFFSET) != 0;
+        long timestamp = buffer.getLong(offset + JournalFormat.TIMESTAMP_OFFSET);
+        long tickId = buffer.getLong(offset + JournalFormat.TICK_OFFSET);
+        long correlationId = buffer.getLong(offset + JournalFormat.CORRELATION_OFFSET);
+        long eventId = buffer.getLong(offset + JournalFormat.EVENT_OFFSET);
+        int position = offset + JournalFormat.BODY_OFFSET;
+        long[] numbers = new long[3];
+        for (int i = 0; i < JournalFormat.longFields(kind); i++) {
+            numbers[i] = buffer.getLong(position);
+            position += Long.BYTES;
+        }
+        String[] texts = new String[2];
+        for (int i = 0; i < JournalFormat.stringFields(kind); i++) {
+            int length = Short.toUnsignedInt(buffer.getShort(position));
+            position += Short.BYTES;
+            byte[] bytes = new byte[length];
+            for (int j = 0; j < length; j++) {
+                bytes[j] = buffer.get(position++);
+            }
+            texts[i] = length == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        switch (kind) {
+            case TICK:
+                return new JournalRecord(kind, timestamp, tickId, correlationId, eventId, flag,
+                        Double.NaN, null, null, numbers[0], numbers[1], 0L);
+            case OBSERVATION:
+                return new JournalRecord(kind, timestamp, tickId, correlationId, eventId, flag,
+                        Double.longBitsToDouble(numbers[0]), texts[0], null, 0L, 0L, 0L);
+            case ACTION:
+                return new JournalRecord(kind, timestamp, tickId, correlationId, eventId, flag,
+                        Double.NaN, texts[0], texts[1], numbers[0], numbers[1], numbers[2]);
+            default:
+                return new JournalRecord(kind, timestamp, tickId, correlationId, eventId, flag,
+                        Double.NaN, texts[0], null, 0L, 0L, 0L);
+        }
+    }
+
+    private static final class RecordIterator implements Iterator<JournalRecord> {
+        private final Iterator<Path> segments;
+        private ByteBuffer buffer;
+        private int offset;
+        private JournalRecord next;
+
+        private RecordIterator(List<Path> segments) {
+            this.segments = segments.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (buffer != null && offset <= buffer.capacity() - JournalFormat.BODY_OFFSET) {
+                    int length = (int) JournalFormat.LENGTH.getAcquire(buffer, offset);
+                    if (length >= JournalFormat.BODY_OFFSET && length <= buffer.capacity() - offset
+                            && length % JournalFormat.ALIGNMENT == 0) {
+                        next = decode(buffer, offset);
+                        offset += length;
+                        continue;
+                    }
+                }
+                if (!segments.hasNext()) {
+                    return false;
+                }
+                openNextSegment();
+            }
+            return true;
+        }
+
+        private void openNextSegment() {
+            Path segment = segments.next();
+            offset = 0;
+            try {
+                buffer = map(segment);
+            } catch (NoSuchFileException e) {
+                buffer = null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public JournalRecord next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            JournalRecord record = next;
+            next = null;
+            return record;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.journal;
+
+/**
+ * The {@link JournalRecord} class is an immutable copy of one record read from
+ * a {@link DecisionJournal}.
+ * <p>
+ * The fields that do not apply to the kind of the record are 0, {@code NaN} or
+ * {@code null}.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class JournalRecord {
+
+    /**
+     * The kinds of journal records.
+     */
+    public enum Kind {
+        /** A scheduler tick completed. */
+        TICK(1),
+        /** A metric value was collected. */
+        OBSERVATION(2),
+        /** A condition evaluator was applied to a collected value. */
+        EVALUATION(3),
+        /** The observation of an event failed. */
+        FAILURE(4),
+        /** An adaptation action completed. */
+        ACTION(5);
+
+        private final byte code;
+
+        Kind(int code) {
+            this.code = (byte) code;
+        }
+
+        byte code() {
+            return code;
+        }
+
+        static Kind of(byte code) {
+            for (Kind kind : values()) {
+                if (kind.code == code) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown journal record kind " + code);
+        }
+    }
+
+    private final Kind kind;
+    private final long timestampMillis;
+    private final long tickId;
+    private final long correlationId;
+    private final long eventId;
+    private final boolean flag;
+    private final double value;
+    private final String subject;
+    private final String result;
+    private final long count;
+    private final long latencyNanos;
+    private final long elapsedNanos;
+
+    JournalRecord(Kind kind, long timestampMillis, long tickId, long correlationId, long eventId, boolean flag,
+                  double value, String subject, String result, long count, long latencyNanos, long elapsedNanos) {
+        this.kind = kind;
+        this.timestampMillis = timestampMillis;
+        this.tickId = tickId;
+        this.correlationId = correlationId;
+        this.eventId = eventId;
+        this.flag = flag;
+        this.value = value;
+        this.subject = subject;
+        this.result = result;
+        this.count = count;
+        this.latencyNanos = latencyNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the kind of the record.
+     *
+     * @return the record kind.
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the time at which the record was journaled, as given by the clock of the journal.
+     *
+     * @return the timestamp in milliseconds since the epoch.
+     */
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    /**
+     * Returns the identifier of the tick during which the record was journaled.
+     *
+     * @return the tick identifier, or 0 outside of a traced tick.
+     */
+    public long getTickId() {
+        return tickId;
+    }
+
+    /**
+     * Returns the identifier of the observation the record belongs to; for an
+     * {@link Kind#ACTION}, that of the observation that triggered the action.
+     *
+     * @return the correlation identifier, or 0 if there is none.
+     */
+    public long getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Returns the identifier of the event of an {@link Kind#OBSERVATION},
+     * {@link Kind#EVALUATION} or {@link Kind#FAILURE}.
+     *
+     * @return the event identifier, or 0 for other kinds.
+     */
+    public long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Returns the collected value of an {@link Kind#OBSERVATION}.
+     *
+     * @return the value, {@code NaN} for other kinds or non-numeric values.
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the event name of an {@link Kind#OBSERVATION}, the evaluator class
+     * of an {@link Kind#EVALUATION}, the error class of a {@link Kind#FAILURE} or
+     * the action identifier of an {@link Kind#ACTION}.
+     *
+     * @return the subject of the record, or {@code null}.
+     */
+    public String getSubject() {
+        return subject;
+    }
+
+    /**
+     * Returns the result or error of an {@link Kind#ACTION}.
+     *
+     * @return the result, or {@code null}.
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Indicates whether an {@link Kind#EVALUATION} matched.
+     *
+     * @return the verdict of the evaluator.
+     */
+    public boolean isMatched() {
+        return kind == Kind.EVALUATION && flag;
+    }
+
+    /**
+     * Indicates whether an {@link Kind#ACTION} succeeded.
+     *
+     * @return {@code true} if the action succeeded.
+     */
+    public boolean isSuccess() {
+        return kind == Kind.ACTION && flag;
+    }
+
+    /**
+     * Indicates whether a {@link Kind#TICK} lasted longer than its scheduler interval.
+     *
+     * @return {@code true} if the tick overran.
+     */
+    public boolean isOverrun() {
+        return kind == Kind.TICK && flag;
+    }
+
+    /**
+     * Returns the attempts of an {@link Kind#ACTION} or the sequence number of a {@link Kind#TICK}.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the duration of a {@link Kind#TICK} or of the last attempt of an {@link Kind#ACTION}.
+     *
+     * @return the latency in nanoseconds.
+     */
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * Returns the time between the submission and the outcome of an {@link Kind#ACTION}.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalRecord{kind=" + kind
+                + ", timestampMillis=" + timestampMillis
+                + ", tickId=" + tickId
+                + ", correlationId=" + correlationId
+                + ", eventId=" + eventId
+                + ", flag=" + flag
+                + ", value=" + value
+                + ", subject=" + subject
+                + ", result=" + result
+                + ", count=" + count
+                + ", latencyNanos=" + latencyNanos
+                + ", elapsedNanos=" + elapsedNanos + '}';
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.journal;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link JournalSegment} class is one memory-mapped file of a
+ * {@link DecisionJournal} open for writing.
+ * <p>
+ * Writers reserve space with {@link #claim(int)}, a single atomic addition, and
+ * then fill their reservation independently of each other.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class JournalSegment {
+
+    private final long index;
+
+    private final Path path;
+
+    private final MappedByteBuffer buffer;
+
+    private final AtomicInteger position = new AtomicInteger();
+
+    private JournalSegment(long index, Path path, MappedByteBuffer buffer) {
+        this.index = index;
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates and maps a new segment file of the given size.
+     */
+    static JournalSegment create(Path directory, long index, int size) throws IOException {
+        Path path = directory.resolve(JournalFormat.segmentName(index));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(JournalFormat.ORDER);
+            return new JournalSegment(index, path, buffer);
+        }
+    }
+
+    /**
+     * Reserves space for a record.
+     *
+     * @param length the aligned length of the record.
+     * @return the offset of the reservation, or -1 if the segment is full.
+     */
+    int claim(int length) {
+        int offset = position.getAndAdd(length);
+        if (offset < 0 || offset > buffer.capacity() - length) {
+            // Leave the position past the end, so that every later claim fails as well
+            position.set(buffer.capacity());
+            return -1;
+        }
+        return offset;
+    }
+
+    long index() {
+        return index;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ActionMetrics} class holds the counters and latency histograms of
+ * the executions of a single adaptation action.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class ActionMetrics implements ActionMetricsMBean {
+
+    private final String actionId;
+
+    final LongAdder successes = new LongAdder();
+
+    final LongAdder failures = new LongAdder();
+
+    final LongAdder attempts = new LongAdder();
+
+    /**
+     * The duration of the last {@code perform()} call of each execution.
+     */
+    final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * The time between submission and outcome of each execution, retries included.
+     */
+    final LatencyHistogram elapsed = new LatencyHistogram();
+
+    /**
+     * Constructs an {@code ActionMetrics}.
+     *
+     * @param actionId the identifier of the action.
+     */
+    ActionMetrics(String actionId) {
+        this.actionId = actionId;
+    }
+
+    @Override
+    public String getActionId() {
+        return actionId;
+    }
+
+    @Override
+    public long getSuccesses() {
+        return successes.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return latency.getPercentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return latency.getPercentile(99);
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return latency.getMax();
+    }
+
+    @Override
+    public long getElapsedP99Nanos() {
+        return elapsed.getPercentile(99);
+    }
+
+    /**
+     * Returns the histogram of the duration of the last {@code perform()} call of each execution.
+     *
+     * @return the action latency histogram.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the histogram of the time between submission and outcome of each
+     * execution, retries included.
+     *
+     * @return the elapsed time histogram.
+     */
+    public LatencyHistogram getElapsed() {
+        return elapsed;
+    }
+}
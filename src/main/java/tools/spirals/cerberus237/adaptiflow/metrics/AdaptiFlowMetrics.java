@@ -0,0 +1,289 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+import tools.spirals.cerberus237.adaptiflow.interfaces.Observer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The {@link AdaptiFlowMetrics} class collects counters and latency histograms
+ * about the adaptation loop and exposes them as JMX MBeans.
+ * <p>
+ * Once installed, it is registered in {@link ObservationHooks} and records, per
+ * event, the number of collections, evaluations, matches, notifications and
+ * failures together with the latency of each stage; per action, the number of
+ * successes, failures and attempts with their latency; and, for all schedulers,
+ * the number of ticks, overruns and their duration. When it is not installed,
+ * the adaptation loop does not measure anything.
+ * </p>
+ * <p>
+ * Events are identified by their name, which is stable across restarts and
+ * replicas; events sharing a name share their metrics. The metrics of a name,
+ * and its MBean, are discarded when an event of that name leaves its
+ * {@link tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry},
+ * unless it is replaced by an event of the same name, which keeps them.
+ * </p>
+ * <p>
+ * MBeans are registered under the {@value #DOMAIN} domain as
+ * {@code type=Event}, {@code type=Action} and {@code type=Tick}.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * AdaptiFlowMetrics metrics = new AdaptiFlowMetrics(true);
+ * metrics.install();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class AdaptiFlowMetrics implements ObservationListener {
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiFlowMetrics.class);
+
+    /**
+     * The JMX domain of the AdaptiFlow MBeans.
+     */
+    public static final String DOMAIN = "tools.spirals.cerberus237.adaptiflow";
+
+    private final boolean jmxEnabled;
+
+    /**
+     * The metrics of the events, by event name.
+     */
+    private final Map<String, EventMetrics> eventMetrics = new ConcurrentHashMap<>();
+
+    private final Map<String, ActionMetrics> actionMetrics = new ConcurrentHashMap<>();
+
+    private final TickMetrics tickMetrics = new TickMetrics();
+
+    private final List<ObjectName> registeredNames = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs an {@code AdaptiFlowMetrics}.
+     *
+     * @param jmxEnabled whether the metrics are exposed as MBeans of the platform MBean server.
+     */
+    public AdaptiFlowMetrics(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * Starts collecting metrics. After an {@link #uninstall()}, the MBeans of the
+     * metrics collected so far are registered again.
+     */
+    public void install() {
+        register(tickMetrics, "Tick", "scheduler");
+        eventMetrics.forEach((name, metrics) -> register(metrics, "Event", name));
+        actionMetrics.forEach((actionId, metrics) -> register(metrics, "Action", actionId));
+        ObservationHooks.addListener(this);
+    }
+
+    /**
+     * Stops collecting metrics and unregisters the MBeans. The values collected
+     * so far remain available through this object.
+     */
+    public void uninstall() {
+        ObservationHooks.removeListener(this);
+        if (!jmxEnabled) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registeredNames) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOG.debug("Could not unregister MBean {}", name, e);
+            }
+        }
+        registeredNames.clear();
+    }
+
+    @Override
+    public void onTickCompleted(long tick, long durationNanos, boolean overrun) {
+        tickMetrics.ticks.increment();
+        tickMetrics.duration.record(durationNanos);
+        if (overrun) {
+            tickMetrics.overruns.increment();
+        }
+    }
+
+    @Override
+    public void onCollected(Event<?> event, Object value, long durationNanos) {
+        EventMetrics metrics = metricsOf(event);
+        metrics.collections.increment();
+        metrics.collectLatency.record(durationNanos);
+    }
+
+    @Override
+    public void onEvaluated(Event<?> event, ConditionEvaluator<?> evaluator, boolean matched, long durationNanos) {
+        EventMetrics metrics = metricsOf(event);
+        metrics.evaluations.increment();
+        metrics.evaluateLatency.record(durationNanos);
+        if (matched) {
+            metrics.matches.increment();
+        }
+    }
+
+    @Override
+    public void onNotified(Event<?> event, Observer<?> observer, long durationNanos) {
+        EventMetrics metrics = metricsOf(event);
+        metrics.notifications.increment();
+        metrics.notifyLatency.record(durationNanos);
+    }
+
+    @Override
+    public void onObservationFailed(Event<?> event, Throwable error) {
+        metricsOf(event).failures.increment();
+    }
+
+    @Override
+    public void onEventRemoved(Event<?> event, Event<?> replacement) {
+        String name = nameOf(event);
+        if (replacement != null && nameOf(replacement).equals(name)) {
+            return;
+        }
+        EventMetrics metrics = eventMetrics.remove(name);
+        if (metrics != null) {
+            unregister("Event", metrics.getEventName());
+        }
+    }
+
+    @Override
+    public void onActionCompleted(ActionOutcome outcome) {
+        String actionId = outcome.getAction().getActionId();
+        ActionMetrics metrics = actionMetrics.get(actionId);
+        if (metrics == null) {
+            metrics = actionMetrics.computeIfAbsent(actionId, id -> register(new ActionMetrics(id), "Action", id));
+        }
+        if (outcome.isSuccess()) {
+            metrics.successes.increment();
+        } else {
+            metrics.failures.increment();
+        }
+        metrics.attempts.add(outcome.getAttempts());
+        metrics.latency.record(outcome.getLatencyNanos());
+        metrics.elapsed.record(outcome.getElapsedNanos());
+    }
+
+    /**
+     * Returns the metrics of the given event, shared with the events of the same name.
+     *
+     * @param event the event.
+     * @return the metrics of the event, or {@code null} if no event of its name was observed.
+     */
+    public EventMetrics getEventMetrics(Event<?> event) {
+        return eventMetrics.get(nameOf(event));
+    }
+
+    /**
+     * Returns the metrics of the given action.
+     *
+     * @param actionId the identifier of the action.
+     * @return the metrics of the action, or {@code null} if it was never executed.
+     */
+    public ActionMetrics getActionMetrics(String actionId) {
+        return actionMetrics.get(actionId);
+    }
+
+    /**
+     * Returns the metrics of all observed events.
+     *
+     * @return an unmodifiable view of the event metrics.
+     */
+    public Collection<EventMetrics> getAllEventMetrics() {
+        return Collections.unmodifiableCollection(eventMetrics.values());
+    }
+
+    /**
+     * Returns the metrics of all executed actions.
+     *
+     * @return an unmodifiable view of the action metrics.
+     */
+    public Collection<ActionMetrics> getAllActionMetrics() {
+        return Collections.unmodifiableCollection(actionMetrics.values());
+    }
+
+    /**
+     * Returns the metrics of the ticks of all schedulers.
+     *
+     * @return the tick metrics.
+     */
+    public TickMetrics getTickMetrics() {
+        return tickMetrics;
+    }
+
+    private EventMetrics metricsOf(Event<?> event) {
+        String name = nameOf(event);
+        EventMetrics metrics = eventMetrics.get(name);
+        if (metrics == null) {
+            metrics = eventMetrics.computeIfAbsent(name, n -> register(new EventMetrics(n), "Event", n));
+        }
+        return metrics;
+    }
+
+    private static String nameOf(Event<?> event) {
+        return event.getName() != null ? event.getName() : "event";
+    }
+
+    private <M> M register(M mbean, String type, String name) {
+        if (!jmxEnabled) {
+            return mbean;
+        }
+        try {
+            ObjectName objectName = objectName(type, name);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+                registeredNames.add(objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("Could not register MBean for {} {}", type, name, e);
+        }
+        return mbean;
+    }
+
+    private void unregister(String type, String name) {
+        if (!jmxEnabled) {
+            return;
+        }
+        try {
+            ObjectName objectName = objectName(type, name);
+            if (registeredNames.remove(objectName)) {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            LOG.debug("Could not unregister MBean for {} {}", type, name, e);
+        }
+    }
+
+    private static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+    }
+}
@@ -0,0 +1,427 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.io.PrintStream;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@link DecisionFlightRecorder} class keeps the latest decisions of the
+ * adaptation loop in memory, for post-incident analysis.
+ * <p>
+ * Once installed, it records every collected value, every condition evaluation,
+ * every failed observation and every action outcome, each with the correlation
+ * identifiers of its tick and observation taken from the
+ * {@link CorrelationContext}. An action outcome carries the correlation
+ * identifier of the observation that triggered it, which leads back to the
+ * collected value and to the evaluators that matched.
+ * </p>
+ * <p>
+ * Decisions are stored in a ring buffer of primitive arrays allocated once, so
+ * memory is bounded and recording does not allocate: once the buffer is full,
+ * the oldest decisions are overwritten. Writers claim slots with a single atomic
+ * increment; a reader copying a slot that is being overwritten detects it and
+ * skips that slot. Strings such as evaluator classes and action identifiers are
+ * interned in a symbol table the first time they are seen.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * DecisionFlightRecorder recorder = new DecisionFlightRecorder(4096);
+ * recorder.install();
+ * // After an incident
+ * recorder.dump(System.err);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class DecisionFlightRecorder implements ObservationListener {
+
+    /**
+     * The kinds of recorded decisions.
+     */
+    public enum Kind {
+        /** A metric value was collected. */
+        OBSERVATION,
+        /** A condition evaluator was applied to a collected value. */
+        EVALUATION,
+        /** The observation of an event failed. */
+        FAILURE,
+        /** An adaptation action completed. */
+        ACTION
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private static final int NO_SYMBOL = -1;
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Per slot, the sequence number of the decision it holds plus one, or minus
+     * that value while the decision is being written.
+     */
+    private final AtomicLongArray published;
+
+    private final long[] timestamps;
+
+    private final long[] tickIds;
+
+    private final long[] correlationIds;
+
+    private final long[] eventIds;
+
+    private final double[] values;
+
+    private final byte[] kinds;
+
+    private final int[] subjects;
+
+    private final int[] results;
+
+    private final Map<String, Integer> symbolIds = new ConcurrentHashMap<>();
+
+    private volatile String[] symbols = new String[0];
+
+    private final Clock clock;
+
+    /**
+     * Constructs a {@code DecisionFlightRecorder} timestamping the decisions with the system clock.
+     *
+     * @param capacity the number of decisions kept, rounded up to a power of two.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public DecisionFlightRecorder(int capacity) {
+        this(capacity, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs a {@code DecisionFlightRecorder} timestamping the decisions with the given clock.
+     *
+     * @param capacity the number of decisions kept, rounded up to a power of two.
+     * @param clock the clock timestamping the decisions.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public DecisionFlightRecorder(int capacity, Clock clock) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        this.timestamps = new long[size];
+        this.tickIds = new long[size];
+        this.correlationIds = new long[size];
+        this.eventIds = new long[size];
+        this.values = new double[size];
+        this.kinds = new byte[size];
+        this.subjects = new int[size];
+        this.results = new int[size];
+        this.clock = clock;
+    }
+
+    /**
+     * Starts recording decisions.
+     */
+    public void install() {
+        ObservationHooks.addListener(this);
+    }
+
+    /**
+     * Stops recording decisions. The decisions recorded so far remain available.
+     */
+    public void uninstall() {
+        ObservationHooks.removeListener(this);
+    }
+
+    @Override
+    public void onCollected(Event<?> event, Object value, long durationNanos) {
+        double numeric = value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+        record(Kind.OBSERVATION, CorrelationContext.currentId(), event.getId(), numeric, NO_SYMBOL, NO_SYMBOL);
+    }
+
+    @Override
+    public void onEvaluated(Event<?> event, ConditionEvaluator<?> evaluator, boolean matched, long durationNanos) {
+        record(Kind.EVALUATION, CorrelationContext.currentId(), event.getId(), Double.NaN,
+                symbol(evaluator.getClass().getName()), symbol(matched ? "matched" : "not matched"));
+    }
+
+    @Override
+    public void onObservationFailed(Event<?> event, Throwable error) {
+        record(Kind.FAILURE, CorrelationContext.currentId(), event.getId(), Double.NaN,
+                symbol(error.getClass().getName()), NO_SYMBOL);
+    }
+
+    @Override
+    public void onActionCompleted(ActionOutcome outcome) {
+        String result = outcome.getError() != null
+                ? outcome.getError().getClass().getName()
+                : String.valueOf(outcome.getResult());
+        record(Kind.ACTION, outcome.getCorrelationId(), 0L, outcome.getAttempts(),
+                symbol(outcome.getAction().getActionId()), symbol(result));
+    }
+
+    private void record(Kind kind, long correlationId, long eventId, double value, int subject, int result) {
+        long seq = sequence.getAndIncrement();
+        int slot = (int) seq & mask;
+        published.set(slot, -(seq + 1));
+        VarHandle.storeStoreFence();
+        timestamps[slot] = clock.currentTimeMillis();
+        tickIds[slot] = CorrelationContext.currentTickId();
+        correlationIds[slot] = correlationId;
+        eventIds[slot] = eventId;
+        values[slot] = value;
+        kinds[slot] = (byte) kind.ordinal();
+        subjects[slot] = subject;
+        results[slot] = result;
+        published.set(slot, seq + 1);
+    }
+
+    private int symbol(String text) {
+        Integer id = symbolIds.get(text);
+        return id != null ? id : intern(text);
+    }
+
+    private synchronized int intern(String text) {
+        Integer id = symbolIds.get(text);
+        if (id != null) {
+            return id;
+        }
+        String[] current = symbols;
+        String[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = text;
+        symbols = updated;
+        symbolIds.put(text, current.length);
+        return current.length;
+    }
+
+    /**
+     * Returns the number of decisions recorded since the recorder was created,
+     * including those that have been overwritten.
+     *
+     * @return the number of recorded decisions.
+     */
+    public long getRecordedCount() {
+        return sequence.get();
+    }
+
+    /**
+     * Returns the number of decisions the recorder keeps.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Copies the decisions currently held, oldest first.
+     *
+     * @return the recorded decisions.
+     */
+    public List<Decision> snapshot() {
+        long end = sequence.get();
+        long start = Math.max(0L, end - getCapacity());
+        String[] symbolTable = symbols;
+        List<Decision> decisions = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            int slot = (int) seq & mask;
+            if (published.get(slot) != seq + 1) {
+                continue;
+            }
+            Decision decision = new Decision(seq, timestamps[slot], tickIds[slot], correlationIds[slot],
+                    KINDS[kinds[slot]], eventIds[slot], values[slot],
+                    symbolOf(symbolTable, subjects[slot]), symbolOf(symbolTable, results[slot]));
+            VarHandle.loadLoadFence();
+            if (published.get(slot) == seq + 1) {
+                decisions.add(decision);
+            }
+        }
+        return decisions;
+    }
+
+    private String symbolOf(String[] symbolTable, int id) {
+        if (id == NO_SYMBOL) {
+            return null;
+        }
+        return id < symbolTable.length ? symbolTable[id] : symbols[id];
+    }
+
+    /**
+     * Prints the decisions currently held, oldest first, one per line.
+     *
+     * @param out the stream to print to.
+     */
+    public void dump(PrintStream out) {
+        for (Decision decision : snapshot()) {
+            out.println(decision);
+        }
+    }
+
+    /**
+     * The {@link Decision} class is a copy of one recorded decision.
+     */
+    public static final class Decision {
+        private final long sequence;
+        private final long timestampMillis;
+        private final long tickId;
+        private final long correlationId;
+        private final Kind kind;
+        private final long eventId;
+        private final double value;
+        private final String subject;
+        private final String result;
+
+        Decision(long sequence, long timestampMillis, long tickId, long correlationId, Kind kind,
+                 long eventId, double value, String subject, String result) {
+            this.sequence = sequence;
+            this.timestampMillis = timestampMillis;
+            this.tickId = tickId;
+            this.correlationId = correlationId;
+            this.kind = kind;
+            this.eventId = eventId;
+            this.value = value;
+            this.subject = subject;
+            this.result = result;
+        }
+
+        /**
+         * Returns the sequence number of the decision, increasing in the order decisions are recorded.
+         *
+         * @return the sequence number.
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the time at which the decision was recorded, as given by the clock of the recorder.
+         *
+         * @return the timestamp in milliseconds since the epoch.
+         */
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        /**
+         * Returns the identifier of the tick during which the decision was made.
+         *
+         * @return the tick identifier, or {@link CorrelationContext#NONE} outside of a traced tick.
+         */
+        public long getTickId() {
+            return tickId;
+        }
+
+        /**
+         * Returns the identifier of the observation the decision belongs to.
+         *
+         * @return the correlation identifier, or {@link CorrelationContext#NONE}.
+         */
+        public long getCorrelationId() {
+            return correlationId;
+        }
+
+        /**
+         * Returns the kind of the decision.
+         *
+         * @return the decision kind.
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the identifier of the event, for every kind but {@link Kind#ACTION}.
+         *
+         * @return the event identifier, or 0.
+         */
+        public long getEventId() {
+            return eventId;
+        }
+
+        /**
+         * Returns the collected value for {@link Kind#OBSERVATION}, or the number
+         * of attempts for {@link Kind#ACTION}.
+         *
+         * @return the value, {@code NaN} for other kinds or non-numeric values.
+         */
+        public double getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the evaluator class for {@link Kind#EVALUATION}, the error class
+         * for {@link Kind#FAILURE}, or the action identifier for {@link Kind#ACTION}.
+         *
+         * @return the subject of the decision, or {@code null}.
+         */
+        public String getSubject() {
+            return subject;
+        }
+
+        /**
+         * Returns whether the evaluator matched for {@link Kind#EVALUATION}, or the
+         * result or error of the action for {@link Kind#ACTION}.
+         *
+         * @return the result of the decision, or {@code null}.
+         */
+        public String getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder()
+                    .append('#').append(sequence)
+                    .append(" t=").append(timestampMillis)
+                    .append(" tick=").append(tickId)
+                    .append(" correlation=").append(correlationId)
+                    .append(' ').append(kind);
+            if (kind != Kind.ACTION) {
+                text.append(" event=").append(eventId);
+            }
+            if (!Double.isNaN(value)) {
+                text.append(kind == Kind.ACTION ? " attempts=" : " value=").append(value);
+            }
+            if (subject != null) {
+                text.append(' ').append(subject);
+            }
+            if (result != null) {
+                text.append(" -> ").append(result);
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link EventMetrics} class holds the counters and latency histograms of
+ * the observations of a single event.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class EventMetrics implements EventMetricsMBean {
+
+    private final String eventName;
+
+    final LongAdder collections = new LongAdder();
+
+    final LongAdder evaluations = new LongAdder();
+
+    final LongAdder matches = new LongAdder();
+
+    final LongAdder notifications = new LongAdder();
+
+    final LongAdder failures = new LongAdder();
+
+    /**
+     * The duration of {@code collector.get()}.
+     */
+    final LatencyHistogram collectLatency = new LatencyHistogram();
+
+    /**
+     * The duration of {@code ConditionEvaluator.test()}.
+     */
+    final LatencyHistogram evaluateLatency = new LatencyHistogram();
+
+    /**
+     * The duration of {@code notifyObserver()}, including the actions it performs.
+     */
+    final LatencyHistogram notifyLatency = new LatencyHistogram();
+
+    /**
+     * Constructs an {@code EventMetrics}.
+     *
+     * @param eventName the name identifying the event in reports.
+     */
+    EventMetrics(String eventName) {
+        this.eventName = eventName;
+    }
+
+    @Override
+    public String getEventName() {
+        return eventName;
+    }
+
+    @Override
+    public long getCollections() {
+        return collections.sum();
+    }
+
+    @Override
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    @Override
+    public long getMatches() {
+        return matches.sum();
+    }
+
+    @Override
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public long getCollectLatencyP50Nanos() {
+        return collectLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getCollectLatencyP99Nanos() {
+        return collectLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getCollectLatencyMaxNanos() {
+        return collectLatency.getMax();
+    }
+
+    @Override
+    public long getEvaluateLatencyP50Nanos() {
+        return evaluateLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getEvaluateLatencyP99Nanos() {
+        return evaluateLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getNotifyLatencyP50Nanos() {
+        return notifyLatency.getPercentile(50);
+    }
+
+    @Override
+    public long getNotifyLatencyP99Nanos() {
+        return notifyLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getNotifyLatencyMaxNanos() {
+        return notifyLatency.getMax();
+    }
+
+    /**
+     * Returns the histogram of the duration of the collections.
+     *
+     * @return the collection latency histogram.
+     */
+    public LatencyHistogram getCollectLatency() {
+        return collectLatency;
+    }
+
+    /**
+     * Returns the histogram of the duration of the condition evaluations.
+     *
+     * @return the evaluation latency histogram.
+     */
+    public LatencyHistogram getEvaluateLatency() {
+        return evaluateLatency;
+    }
+
+    /**
+     * Returns the histogram of the duration of the notifications, including the actions they perform.
+     *
+     * @return the notification latency histogram.
+     */
+    public LatencyHistogram getNotifyLatency() {
+        return notifyLatency;
+    }
+}
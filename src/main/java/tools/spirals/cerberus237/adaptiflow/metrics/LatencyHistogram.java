@@ -0,0 +1,164 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link LatencyHistogram} class is a fixed-size, lock-free histogram of
+ * non-negative durations expressed in nanoseconds.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into
+ * {@value #SUB_BUCKETS} sub-buckets, which bounds the relative error of the
+ * reported percentiles to 12.5%. Recording a value is a handful of arithmetic
+ * operations and one atomic increment, and never allocates.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+
+    /**
+     * The number of sub-buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos the duration in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        count.increment();
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // Retry until max is at least value
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of the recorded values.
+     *
+     * @return the sum in nanoseconds.
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the recorded values.
+     * <p>
+     * The result is computed from a racy scan of the buckets and is therefore
+     * approximate while values are being recorded.
+     * </p>
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the percentile in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(bucketUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (msb - SUB_BITS)) & (SUB_BUCKETS - 1));
+        return (msb - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int msb = index / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        int shift = msb - SUB_BITS;
+        long lower = ((long) (SUB_BUCKETS + sub)) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
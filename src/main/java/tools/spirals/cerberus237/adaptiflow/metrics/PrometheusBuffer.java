@@ -0,0 +1,152 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The {@link PrometheusBuffer} class is a growable byte buffer specialised for
+ * the Prometheus text exposition format.
+ * <p>
+ * Strings are encoded to UTF-8 and numbers are formatted directly into the
+ * buffer, so rendering a scrape does not allocate once the buffer has reached
+ * its working size. It is not thread-safe.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class PrometheusBuffer {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private byte[] bytes;
+
+    private int length;
+
+    PrometheusBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    void reset() {
+        length = 0;
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, length);
+    }
+
+    PrometheusBuffer append(char c) {
+        if (c < 0x80) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+        } else if (c < 0x800) {
+            ensure(2);
+            bytes[length++] = (byte) (0xC0 | (c >> 6));
+            bytes[length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            // Surrogate pairs are not expected in metric or label names
+            append('?');
+        } else {
+            ensure(3);
+            bytes[length++] = (byte) (0xE0 | (c >> 12));
+            bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[length++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return this;
+    }
+
+    PrometheusBuffer append(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            append(text.charAt(i));
+        }
+        return this;
+    }
+
+    /**
+     * Appends a label value, escaping backslashes, double quotes and line feeds.
+     */
+    PrometheusBuffer appendLabelValue(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == '"') {
+                append('\\').append(c);
+            } else if (c == '\n') {
+                append('\\').append('n');
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    PrometheusBuffer append(long value) {
+        if (value == Long.MIN_VALUE) {
+            return append(Long.toString(value));
+        }
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        ensure(19);
+        int start = length;
+        do {
+            bytes[length++] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value != 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = tmp;
+        }
+        return this;
+    }
+
+    /**
+     * Appends a duration expressed in nanoseconds as a number of seconds.
+     */
+    PrometheusBuffer appendSeconds(long nanos) {
+        if (nanos < 0) {
+            append('-');
+            nanos = -nanos;
+        }
+        append(nanos / NANOS_PER_SECOND).append('.');
+        long fraction = nanos % NANOS_PER_SECOND;
+        for (long digit = NANOS_PER_SECOND / 10; digit > 0; digit /= 10) {
+            append((char) ('0' + fraction / digit % 10));
+        }
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
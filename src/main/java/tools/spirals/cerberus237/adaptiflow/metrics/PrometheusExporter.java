@@ -0,0 +1,295 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link PrometheusExporter} class serves the metrics of an
+ * {@link AdaptiFlowMetrics} in the Prometheus text exposition format.
+ * <p>
+ * The exporter runs a {@link HttpServer} of the JDK answering on
+ * {@value #PATH}. Each scrape exposes the tick duration and overruns, the
+ * per-event collection, match, trigger (notification) and failure counts, the stage
+ * latencies, the per-action outcomes and latencies, and every gauge registered
+ * with {@link #addGauge(String, String, LongSupplier)}, typically the depth of
+ * an action queue. Per-event series are labelled with the event name and
+ * per-action series with the action identifier, so they are the same across
+ * restarts and replicas. Scrapes are rendered one at a time into a buffer that is
+ * reused from one scrape to the next, so scraping does not allocate once the
+ * buffer has reached its working size.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * AdaptiFlowMetrics metrics = new AdaptiFlowMetrics(false);
+ * metrics.install();
+ * PrometheusExporter exporter = new PrometheusExporter(metrics, 9400);
+ * exporter.addGauge("adaptiflow_actions_pending", "Actions waiting for an outcome",
+ *         retryingExecutor::getPendingCount);
+ * exporter.start();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class PrometheusExporter {
+    private static final Logger LOG = LoggerFactory.getLogger(PrometheusExporter.class);
+
+    /**
+     * The path of the metrics endpoint.
+     */
+    public static final String PATH = "/metrics";
+
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final Pattern METRIC_NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private static final String[] QUANTILE_LABELS = {"0.5", "0.9", "0.99"};
+
+    private final AdaptiFlowMetrics metrics;
+
+    private final int port;
+
+    private final List<Gauge> gauges = new CopyOnWriteArrayList<>();
+
+    private final PrometheusBuffer buffer = new PrometheusBuffer(16 * 1024);
+
+    private HttpServer server;
+
+    /**
+     * Constructs a {@code PrometheusExporter}.
+     *
+     * @param metrics the metrics to be exported.
+     * @param port the port to listen on, or 0 to pick a free port.
+     */
+    public PrometheusExporter(AdaptiFlowMetrics metrics, int port) {
+        this.metrics = metrics;
+        this.port = port;
+    }
+
+    /**
+     * Registers a gauge exported with each scrape.
+     *
+     * @param name the Prometheus metric name.
+     * @param help the description of the gauge.
+     * @param supplier the supplier of the current value, called on each scrape.
+     * @throws IllegalArgumentException if the name is not a valid Prometheus metric name.
+     */
+    public void addGauge(String name, String help, LongSupplier supplier) {
+        if (name == null || !METRIC_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + name);
+        }
+        gauges.add(new Gauge(name, help, supplier));
+    }
+
+    /**
+     * Starts serving the metrics. Has no effect if the exporter is already started.
+     *
+     * @throws IOException if the server cannot be bound to the port.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext(PATH, this::handle);
+        server.start();
+        LOG.info("Serving AdaptiFlow metrics on port {}", getPort());
+    }
+
+    /**
+     * Stops serving the metrics.
+     */
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * Returns the port the exporter listens on.
+     *
+     * @return the bound port once started, otherwise the configured port.
+     */
+    public synchronized int getPort() {
+        return server != null ? server.getAddress().getPort() : port;
+    }
+
+    /**
+     * Renders the metrics in the Prometheus text format.
+     *
+     * @return the rendered metrics.
+     */
+    public String scrape() {
+        synchronized (buffer) {
+            render();
+            return buffer.toString();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            synchronized (buffer) {
+                render();
+                exchange.sendResponseHeaders(200, buffer.length());
+                try (OutputStream body = exchange.getResponseBody()) {
+                    buffer.writeTo(body);
+                }
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Could not render AdaptiFlow metrics", e);
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void render() {
+        PrometheusBuffer out = buffer;
+        out.reset();
+
+        TickMetrics tick = metrics.getTickMetrics();
+        header(out, "adaptiflow_tick_duration_seconds", "Duration of the scheduler ticks", "summary");
+        summary(out, "adaptiflow_tick_duration_seconds", null, null, tick.duration);
+        header(out, "adaptiflow_tick_overruns_total", "Ticks that lasted longer than their interval", "counter");
+        sample(out, "adaptiflow_tick_overruns_total", null, null, tick.overruns.sum());
+
+        header(out, "adaptiflow_event_collections_total", "Metric values collected per event", "counter");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            sample(out, "adaptiflow_event_collections_total", "event", event.getEventName(), event.collections.sum());
+        }
+        header(out, "adaptiflow_event_evaluations_total", "Condition evaluations per event", "counter");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            sample(out, "adaptiflow_event_evaluations_total", "event", event.getEventName(), event.evaluations.sum());
+        }
+        header(out, "adaptiflow_event_matches_total", "Condition evaluations that matched per event", "counter");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            sample(out, "adaptiflow_event_matches_total", "event", event.getEventName(), event.matches.sum());
+        }
+        header(out, "adaptiflow_event_notifications_total",
+                "Triggers, that is observers notified, per event", "counter");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            sample(out, "adaptiflow_event_notifications_total", "event", event.getEventName(),
+                    event.notifications.sum());
+        }
+        header(out, "adaptiflow_event_failures_total", "Observations that failed per event", "counter");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            sample(out, "adaptiflow_event_failures_total", "event", event.getEventName(), event.failures.sum());
+        }
+        header(out, "adaptiflow_event_collect_seconds", "Duration of the metric collections", "summary");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            summary(out, "adaptiflow_event_collect_seconds", "event", event.getEventName(), event.collectLatency);
+        }
+        header(out, "adaptiflow_event_evaluate_seconds", "Duration of the condition evaluations", "summary");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            summary(out, "adaptiflow_event_evaluate_seconds", "event", event.getEventName(), event.evaluateLatency);
+        }
+        header(out, "adaptiflow_event_notify_seconds", "Duration of the observer notifications", "summary");
+        for (EventMetrics event : metrics.getAllEventMetrics()) {
+            summary(out, "adaptiflow_event_notify_seconds", "event", event.getEventName(), event.notifyLatency);
+        }
+
+        header(out, "adaptiflow_action_successes_total", "Actions that succeeded", "counter");
+        for (ActionMetrics action : metrics.getAllActionMetrics()) {
+            sample(out, "adaptiflow_action_successes_total", "action", action.getActionId(), action.successes.sum());
+        }
+        header(out, "adaptiflow_action_failures_total", "Actions that failed after all their attempts", "counter");
+        for (ActionMetrics action : metrics.getAllActionMetrics()) {
+            sample(out, "adaptiflow_action_failures_total", "action", action.getActionId(), action.failures.sum());
+        }
+        header(out, "adaptiflow_action_attempts_total", "Attempts made to perform actions", "counter");
+        for (ActionMetrics action : metrics.getAllActionMetrics()) {
+            sample(out, "adaptiflow_action_attempts_total", "action", action.getActionId(), action.attempts.sum());
+        }
+        header(out, "adaptiflow_action_latency_seconds", "Duration of the last attempt of the actions", "summary");
+        for (ActionMetrics action : metrics.getAllActionMetrics()) {
+            summary(out, "adaptiflow_action_latency_seconds", "action", action.getActionId(), action.latency);
+        }
+        header(out, "adaptiflow_action_elapsed_seconds", "Time from submission to outcome of the actions", "summary");
+        for (ActionMetrics action : metrics.getAllActionMetrics()) {
+            summary(out, "adaptiflow_action_elapsed_seconds", "action", action.getActionId(), action.elapsed);
+        }
+
+        for (Gauge gauge : gauges) {
+            header(out, gauge.name, gauge.help, "gauge");
+            sample(out, gauge.name, null, null, gauge.supplier.getAsLong());
+        }
+    }
+
+    private static void header(PrometheusBuffer out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(PrometheusBuffer out, String name, String label, String labelValue, long value) {
+        out.append(name);
+        if (label != null) {
+            out.append('{').append(label).append("=\"").appendLabelValue(labelValue).append("\"}");
+        }
+        out.append(' ').append(value).append('\n');
+    }
+
+    private static void summary(PrometheusBuffer out, String name, String label, String labelValue,
+                                LatencyHistogram histogram) {
+        for (int i = 0; i < QUANTILES.length; i++) {
+            out.append(name).append('{');
+            if (label != null) {
+                out.append(label).append("=\"").appendLabelValue(labelValue).append("\",");
+            }
+            out.append("quantile=\"").append(QUANTILE_LABELS[i]).append("\"} ")
+                    .appendSeconds(histogram.getPercentile(QUANTILES[i] * 100)).append('\n');
+        }
+        out.append(name).append("_sum");
+        if (label != null) {
+            out.append('{').append(label).append("=\"").appendLabelValue(labelValue).append("\"}");
+        }
+        out.append(' ').appendSeconds(histogram.getSum()).append('\n');
+        out.append(name).append("_count");
+        if (label != null) {
+            out.append('{').append(label).append("=\"").appendLabelValue(labelValue).append("\"}");
+        }
+        out.append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static final class Gauge {
+        private final String name;
+        private final String help;
+        private final LongSupplier supplier;
+
+        private Gauge(String name, String help, LongSupplier supplier) {
+            this.name = name;
+            this.help = help;
+            this.supplier = supplier;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link TickMetrics} class holds the counters and duration histogram of
+ * the ticks of all observation schedulers.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class TickMetrics implements TickMetricsMBean {
+
+    final LongAdder ticks = new LongAdder();
+
+    final LongAdder overruns = new LongAdder();
+
+    final LatencyHistogram duration = new LatencyHistogram();
+
+    @Override
+    public long getTicks() {
+        return ticks.sum();
+    }
+
+    @Override
+    public long getOverruns() {
+        return overruns.sum();
+    }
+
+    @Override
+    public long getDurationP50Nanos() {
+        return duration.getPercentile(50);
+    }
+
+    @Override
+    public long getDurationP99Nanos() {
+        return duration.getPercentile(99);
+    }
+
+    @Override
+    public long getDurationMaxNanos() {
+        return duration.getMax();
+    }
+
+    /**
+     * Returns the histogram of the duration of the ticks.
+     *
+     * @return the tick duration histogram.
+     */
+    public LatencyHistogram getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionExecutor;
+
+/**
+ * The {@link DryRunActionExecutor} class reports the actions of a subscriber to
+ * a {@link ReplayReport} instead of performing them, unless it is given the
+ * executor that should perform them as well.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class DryRunActionExecutor implements ActionExecutor {
+
+    private final String eventName;
+
+    private final VirtualClock clock;
+
+    private final ReplayReport report;
+
+    private final ActionExecutor delegate;
+
+    DryRunActionExecutor(String eventName, VirtualClock clock, ReplayReport report, ActionExecutor delegate) {
+        this.eventName = eventName;
+        this.clock = clock;
+        this.report = report;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(IAdaptationAction action) {
+        report.actionFired(clock.currentTimeMillis(), eventName, action.getActionId());
+        if (delegate != null) {
+            delegate.execute(action);
+        }
+    }
+}
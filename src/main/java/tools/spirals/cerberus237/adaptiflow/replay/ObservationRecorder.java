@@ -0,0 +1,233 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationListener;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ObservationRecorder} class records the values collected by events
+ * during live observation, so that they can be replayed offline by a
+ * {@link ReplayScheduler}.
+ * <p>
+ * Once installed, it writes every value collected by an event, with the time it
+ * was collected, to a compact binary file described in {@link RecordingFormat}.
+ * Events are identified by their name. Numbers are recorded with
+ * {@link ValueCodec#DOUBLE}; values of other types are only recorded if a codec
+ * has been registered for their event, and are otherwise counted as skipped.
+ * Writes are buffered and only reach the file on {@link #flush()} and
+ * {@link #close()}.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ObservationRecorder recorder = new ObservationRecorder(Path.of("auth-traffic.rec"));
+ * recorder.setCodec("auth-requests", ValueCodec.serviceMetrics(60000));
+ * recorder.install();
+ * // ... live observation ...
+ * recorder.close();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ObservationRecorder implements ObservationListener, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ObservationRecorder.class);
+
+    private final Path file;
+
+    private final DataOutputStream out;
+
+    private final Map<String, ValueCodec<Object>> codecs = new ConcurrentHashMap<>();
+
+    /**
+     * The identifiers of the series already written, guarded by this recorder.
+     */
+    private final Map<String, Integer> seriesIds = new HashMap<>();
+
+    private final LongAdder recorded = new LongAdder();
+
+    private final LongAdder skipped = new LongAdder();
+
+    private final Clock clock;
+
+    private long lastTimestamp;
+
+    private boolean closed;
+
+    /**
+     * Constructs an {@code ObservationRecorder} writing to the given file, which is replaced if it exists.
+     *
+     * @param file the recording file.
+     * @throws IOException if the file cannot be created.
+     */
+    public ObservationRecorder(Path file) throws IOException {
+        this(file, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs an {@code ObservationRecorder} timestamping the values with the given clock.
+     *
+     * @param file the recording file, replaced if it exists.
+     * @param clock the clock timestamping the values.
+     * @throws IOException if the file cannot be created.
+     */
+    public ObservationRecorder(Path file, Clock clock) throws IOException {
+        this.file = file;
+        this.clock = clock;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        this.lastTimestamp = clock.currentTimeMillis();
+        out.writeInt(RecordingFormat.MAGIC);
+        out.writeByte(RecordingFormat.VERSION);
+        out.writeLong(lastTimestamp);
+    }
+
+    /**
+     * Sets the codec recording the values of the events of the given name.
+     *
+     * @param eventName the name of the events.
+     * @param codec the codec of their values.
+     */
+    @SuppressWarnings("unchecked")
+    public void setCodec(String eventName, ValueCodec<?> codec) {
+        codecs.put(eventName, (ValueCodec<Object>) codec);
+    }
+
+    /**
+     * Starts recording the values collected by the events.
+     */
+    public void install() {
+        ObservationHooks.addListener(this);
+    }
+
+    /**
+     * Stops recording the values collected by the events. The recording remains open.
+     */
+    public void uninstall() {
+        ObservationHooks.removeListener(this);
+    }
+
+    @Override
+    public void onCollected(Event<?> event, Object value, long durationNanos) {
+        String name = event.getName() != null ? event.getName() : "event-" + event.getId();
+        ValueCodec<Object> codec = codecs.get(name);
+        if (codec == null && value instanceof Number) {
+            codec = ValueCodec.DOUBLE;
+        }
+        if (codec == null || value == null) {
+            skipped.increment();
+            return;
+        }
+        record(name, codec, value, clock.currentTimeMillis());
+    }
+
+    private synchronized void record(String name, ValueCodec<Object> codec, Object value, long timestamp) {
+        if (closed) {
+            return;
+        }
+        try {
+            Integer id = seriesIds.get(name);
+            if (id == null) {
+                id = seriesIds.size();
+                seriesIds.put(name, id);
+                out.writeByte(RecordingFormat.SERIES);
+                RecordingFormat.writeVarLong(out, id);
+                out.writeUTF(name);
+                out.writeUTF(codec.getName());
+            }
+            long time = Math.max(timestamp, lastTimestamp);
+            out.writeByte(RecordingFormat.SAMPLE);
+            RecordingFormat.writeVarLong(out, id);
+            RecordingFormat.writeVarLong(out, time - lastTimestamp);
+            codec.encode(value, out);
+            lastTimestamp = time;
+            recorded.increment();
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Could not record a value of {}, recording stops", name, e);
+            closed = true;
+        }
+    }
+
+    /**
+     * Writes the buffered values to the file.
+     */
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            LOG.error("Could not flush the recording {}", file, e);
+        }
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return the number of recorded values.
+     */
+    public long getRecordedCount() {
+        return recorded.sum();
+    }
+
+    /**
+     * Returns the number of values not recorded, for lack of a codec.
+     *
+     * @return the number of skipped values.
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Returns the file the observations are recorded to.
+     *
+     * @return the recording file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Uninstalls the recorder and closes the file.
+     */
+    @Override
+    public void close() {
+        uninstall();
+        synchronized (this) {
+            closed = true;
+            try {
+                out.close();
+            } catch (IOException e) {
+                LOG.error("Could not close the recording {}", file, e);
+            }
+        }
+    }
+}
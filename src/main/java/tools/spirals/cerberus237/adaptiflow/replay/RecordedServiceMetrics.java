@@ -0,0 +1,69 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import tools.spirals.cerberus237.metricscollectorbase.models.ServiceMetrics;
+
+/**
+ * The {@link RecordedServiceMetrics} class is the replayed form of
+ * {@link ServiceMetrics}: it reports the request rate recorded at the time of
+ * collection, over the window it was recorded with. Any other window is
+ * rejected, since the recording cannot tell the rate over that window.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class RecordedServiceMetrics extends ServiceMetrics {
+
+    static final String CODEC_NAME = "service-metrics";
+
+    private final double requestRatePerSecond;
+
+    private final long windowMillis;
+
+    /**
+     * Constructs a {@code RecordedServiceMetrics}.
+     *
+     * @param requestRatePerSecond the recorded request rate, in requests per second.
+     * @param windowMillis the window over which the rate was recorded, in milliseconds.
+     */
+    public RecordedServiceMetrics(double requestRatePerSecond, long windowMillis) {
+        this.requestRatePerSecond = requestRatePerSecond;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Returns the recorded request rate.
+     *
+     * @param timeWindowMillis the window of the rate, which must be the recorded one.
+     * @return the recorded rate, in requests per second.
+     * @throws IllegalArgumentException if the window is not the one the rate was recorded with.
+     */
+    @Override
+    public double getRequestRatePerSecond(long timeWindowMillis) {
+        if (timeWindowMillis != windowMillis) {
+            throw new IllegalArgumentException("The rate was recorded over " + windowMillis
+                    + " ms, not " + timeWindowMillis + " ms");
+        }
+        return requestRatePerSecond;
+    }
+
+    /**
+     * Returns the window over which the rate was recorded.
+     *
+     * @return the window, in milliseconds.
+     */
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+}
@@ -0,0 +1,212 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link Recording} class holds, in memory, the values recorded by an
+ * {@link ObservationRecorder}, ready to be replayed.
+ * <p>
+ * Each series holds the values collected by the events of one name, sorted by
+ * time. {@link #collector(String, VirtualClock)} turns a series into a collector
+ * returning, at each virtual time, the latest value recorded at or before it.
+ * A recording cut short, for instance because the recorder was not closed, is
+ * read up to its last complete sample.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class Recording {
+
+    private final long startMillis;
+
+    private final Map<String, Series> series;
+
+    private Recording(long startMillis, Map<String, Series> series) {
+        this.startMillis = startMillis;
+        this.series = series;
+    }
+
+    /**
+     * Reads a recording.
+     *
+     * @param file the recording file.
+     * @param codecs the codecs of the values recorded with codecs other than the built-in ones.
+     * @return the recording.
+     * @throws IOException if the file cannot be read, is not a recording or uses an unknown codec.
+     */
+    public static Recording read(Path file, ValueCodec<?>... codecs) throws IOException {
+        Map<String, ValueCodec<?>> codecsByName = new HashMap<>();
+        codecsByName.put(ValueCodec.DOUBLE.getName(), ValueCodec.DOUBLE);
+        codecsByName.put(RecordedServiceMetrics.CODEC_NAME, ValueCodec.serviceMetrics(0L));
+        for (ValueCodec<?> codec : codecs) {
+            codecsByName.put(codec.getName(), codec);
+        }
+
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != RecordingFormat.MAGIC || in.readByte() != RecordingFormat.VERSION) {
+                throw new IOException(file + " is not a recording");
+            }
+            long start = in.readLong();
+            Map<String, Series> seriesByName = new LinkedHashMap<>();
+            List<Series> seriesById = new ArrayList<>();
+            long time = start;
+            while (true) {
+                int tag = in.read();
+                if (tag < 0) {
+                    break;
+                }
+                try {
+                    if (tag == RecordingFormat.SERIES) {
+                        int id = (int) RecordingFormat.readVarLong(in);
+                        String name = in.readUTF();
+                        String codecName = in.readUTF();
+                        ValueCodec<?> codec = codecsByName.get(codecName);
+                        if (codec == null) {
+                            throw new IOException("Unknown codec " + codecName + " for series " + name);
+                        }
+                        Series created = new Series(name, codec);
+                        while (seriesById.size() <= id) {
+                            seriesById.add(null);
+                        }
+                        seriesById.set(id, created);
+                        seriesByName.put(name, created);
+                    } else if (tag == RecordingFormat.SAMPLE) {
+                        int id = (int) RecordingFormat.readVarLong(in);
+                        long delta = RecordingFormat.readVarLong(in);
+                        Series target = id < seriesById.size() ? seriesById.get(id) : null;
+                        if (target == null) {
+                            throw new IOException("Sample of an undeclared series " + id + " in " + file);
+                        }
+                        Object value = target.codec.decode(in);
+                        time += delta;
+                        target.add(time, value);
+                    } else {
+                        throw new IOException("Unknown record " + tag + " in " + file);
+                    }
+                } catch (EOFException e) {
+                    // Truncated last record
+                    break;
+                }
+            }
+            return new Recording(start, seriesByName);
+        }
+    }
+
+    /**
+     * Returns a collector replaying the values of a series at the time of the given clock.
+     *
+     * @param eventName the name of the events whose values are replayed.
+     * @param clock the clock giving the replayed time.
+     * @param <T> the type of the values.
+     * @return the collector.
+     * @throws IllegalArgumentException if the recording holds no value for that name.
+     */
+    public <T> ReplayCollector<T> collector(String eventName, VirtualClock clock) {
+        Series recorded = series.get(eventName);
+        if (recorded == null || recorded.size == 0) {
+            throw new IllegalArgumentException("No value recorded for " + eventName);
+        }
+        return new ReplayCollector<>(eventName, Arrays.copyOf(recorded.timestamps, recorded.size),
+                Arrays.copyOf(recorded.values, recorded.size), clock);
+    }
+
+    /**
+     * Returns the time the recording started.
+     *
+     * @return the start time, in milliseconds since the epoch.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Returns the time of the latest recorded value.
+     *
+     * @return the end time, in milliseconds since the epoch.
+     */
+    public long getEndMillis() {
+        long end = startMillis;
+        for (Series recorded : series.values()) {
+            if (recorded.size > 0) {
+                end = Math.max(end, recorded.timestamps[recorded.size - 1]);
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the names of the events whose values were recorded.
+     *
+     * @return the event names, in the order they were first recorded.
+     */
+    public Set<String> getEventNames() {
+        return Collections.unmodifiableSet(series.keySet());
+    }
+
+    /**
+     * Returns the number of values recorded for the events of the given name.
+     *
+     * @param eventName the name of the events.
+     * @return the number of values, 0 if none was recorded.
+     */
+    public int getSampleCount(String eventName) {
+        Series recorded = series.get(eventName);
+        return recorded == null ? 0 : recorded.size;
+    }
+
+    private static final class Series {
+        private final String name;
+        private final ValueCodec<?> codec;
+        private long[] timestamps = new long[64];
+        private Object[] values = new Object[64];
+        private int size;
+
+        private Series(String name, ValueCodec<?> codec) {
+            this.name = name;
+            this.codec = codec;
+        }
+
+        private void add(long timestamp, Object value) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            timestamps[size] = timestamp;
+            values[size] = value;
+            size++;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + size + " values)";
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The {@link RecordingFormat} class describes the binary layout of a recording.
+ * <p>
+ * A recording starts with a header, followed by records, each starting with a
+ * tag byte. Numbers are big-endian; variable-length numbers use 7 bits per byte,
+ * least significant group first.
+ * </p>
+ * <pre>
+ * header: magic (int, "AFRC") | version (byte) | start time (long, ms)
+ * series: {@link #SERIES} | series id (varint) | event name (UTF) | codec name (UTF)
+ * sample: {@link #SAMPLE} | series id (varint) | time since the previous sample (varint, ms) | value (codec)
+ * </pre>
+ * <p>
+ * A series record precedes the first sample of its series.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+final class RecordingFormat {
+
+    static final int MAGIC = 0x41465243;
+
+    static final byte VERSION = 2;
+
+    static final byte SERIES = 1;
+
+    static final byte SAMPLE = 2;
+
+    private RecordingFormat() {
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length number");
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.Arrays;
+
+/**
+ * The {@link ReplayCollector} class is a metrics collector returning recorded
+ * values instead of measuring them.
+ * <p>
+ * At each call, it returns the latest value recorded at or before the time of
+ * its {@link VirtualClock}. Before the first recorded value, it returns
+ * {@code null}, as a live collector with no data yet would; the
+ * {@link ReplayScheduler} does not observe its event until then.
+ * </p>
+ *
+ * @param <T> the type of the values.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ReplayCollector<T> implements IMetricsCollector<T> {
+
+    private final String eventName;
+
+    private final long[] timestamps;
+
+    private final Object[] values;
+
+    private final VirtualClock clock;
+
+    ReplayCollector(String eventName, long[] timestamps, Object[] values, VirtualClock clock) {
+        this.eventName = eventName;
+        this.timestamps = timestamps;
+        this.values = values;
+        this.clock = clock;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get() {
+        int index = Arrays.binarySearch(timestamps, clock.currentTimeMillis());
+        if (index < 0) {
+            index = -index - 2;
+            if (index < 0) {
+                return null;
+            }
+        } else {
+            // Several values may share a timestamp: take the latest one
+            while (index + 1 < timestamps.length && timestamps[index + 1] == timestamps[index]) {
+                index++;
+            }
+        }
+        return (T) values[index];
+    }
+
+    /**
+     * Tells whether a value was recorded at or before the time of the clock.
+     *
+     * @return {@code true} if {@link #get()} returns a recorded value.
+     */
+    boolean hasValue() {
+        return timestamps.length != 0 && timestamps[0] <= clock.currentTimeMillis();
+    }
+
+    /**
+     * Returns the name of the event whose values are replayed.
+     *
+     * @return the event name.
+     */
+    public String getEventName() {
+        return eventName;
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The {@link ReplayReport} class tells which adaptation actions a replay would
+ * have performed, and when.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ReplayReport {
+
+    private final long startMillis;
+
+    private final long endMillis;
+
+    private final List<FiredAction> firedActions = new ArrayList<>();
+
+    private long ticks;
+
+    private long failedTicks;
+
+    private long skippedTicks;
+
+    private long wallNanos;
+
+    ReplayReport(long startMillis, long endMillis) {
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+    }
+
+    synchronized void actionFired(long timeMillis, String eventName, String actionId) {
+        firedActions.add(new FiredAction(timeMillis, eventName, actionId));
+    }
+
+    void tickCompleted(boolean failed) {
+        ticks++;
+        if (failed) {
+            failedTicks++;
+        }
+    }
+
+    void tickSkipped() {
+        skippedTicks++;
+    }
+
+    void setWallNanos(long wallNanos) {
+        this.wallNanos = wallNanos;
+    }
+
+    /**
+     * Returns the actions that would have been performed, in the order they fired.
+     *
+     * @return an unmodifiable snapshot of the fired actions.
+     */
+    public synchronized List<FiredAction> getFiredActions() {
+        return Collections.unmodifiableList(new ArrayList<>(firedActions));
+    }
+
+    /**
+     * Returns how many times each action would have been performed.
+     *
+     * @return the number of performs per action identifier, sorted by identifier.
+     */
+    public synchronized Map<String, Integer> getCountsByAction() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (FiredAction fired : firedActions) {
+            counts.merge(fired.getActionId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the virtual time of the first tick of the replay.
+     *
+     * @return the start time in milliseconds since the epoch.
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    /**
+     * Returns the virtual time after which the replay stopped.
+     *
+     * @return the end time in milliseconds since the epoch.
+     */
+    public long getEndMillis() {
+        return endMillis;
+    }
+
+    /**
+     * Returns the number of ticks replayed, not counting the skipped ones.
+     *
+     * @return the number of ticks.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of replayed ticks in which an observation threw an exception.
+     *
+     * @return the number of failed ticks.
+     */
+    public long getFailedTicks() {
+        return failedTicks;
+    }
+
+    /**
+     * Returns the number of ticks skipped because no event had a recorded value yet.
+     *
+     * @return the number of skipped ticks.
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * Returns how many times faster than real time the recording was replayed.
+     *
+     * @return the replay speed.
+     */
+    public double getSpeedUp() {
+        return wallNanos == 0 ? 0.0 : (endMillis - startMillis) * 1e6 / wallNanos;
+    }
+
+    /**
+     * Prints a summary of the replay followed by the fired actions, timed in
+     * milliseconds since the start of the replay.
+     *
+     * @param out the stream to print to.
+     * @param maxActions the maximum number of fired actions listed.
+     */
+    public synchronized void print(PrintStream out, int maxActions) {
+        out.printf("Replayed %d ticks over %d ms (%.0fx real time), %d failed, %d skipped%n", ticks,
+                endMillis - startMillis, getSpeedUp(), failedTicks, skippedTicks);
+        getCountsByAction().forEach((action, count) -> out.printf("  %-40s %8d%n", action, count));
+        for (FiredAction fired : firedActions.subList(0, Math.min(maxActions, firedActions.size()))) {
+            out.printf("  +%-10d %s -> %s%n", fired.getTimeMillis() - startMillis, fired.getEventName(),
+                    fired.getActionId());
+        }
+        if (firedActions.size() > maxActions) {
+            out.printf("  ... %d more%n", firedActions.size() - maxActions);
+        }
+    }
+
+    /**
+     * The {@link FiredAction} class is an action that would have been performed during a replay.
+     */
+    public static final class FiredAction {
+        private final long timeMillis;
+        private final String eventName;
+        private final String actionId;
+
+        FiredAction(long timeMillis, String eventName, String actionId) {
+            this.timeMillis = timeMillis;
+            this.eventName = eventName;
+            this.actionId = actionId;
+        }
+
+        /**
+         * Returns the virtual time at which the action fired.
+         *
+         * @return the time in milliseconds since the epoch.
+         */
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        /**
+         * Returns the name of the event whose subscriber fired the action.
+         *
+         * @return the event name.
+         */
+        public String getEventName() {
+            return eventName;
+        }
+
+        /**
+         * Returns the identifier of the action that fired.
+         *
+         * @return the action identifier.
+         */
+        public String getActionId() {
+            return actionId;
+        }
+
+        @Override
+        public String toString() {
+            return eventName + " -> " + actionId + " at " + timeMillis;
+        }
+    }
+}
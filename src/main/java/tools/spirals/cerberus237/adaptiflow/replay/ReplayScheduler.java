@@ -0,0 +1,299 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationFilter;
+import tools.spirals.cerberus237.adaptiflow.interfaces.Observer;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.AbstractObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.AbstractEventSubscriber;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ReplayScheduler} class replays a {@link Recording} through an
+ * event graph, in virtual time, to tell which adaptation actions would have
+ * been performed.
+ * <p>
+ * The events are those of the live graph, built with the
+ * {@link ReplayCollector}s of the recording instead of the live collectors.
+ * The scheduler moves the {@link VirtualClock} from the start to the end of the
+ * recording by steps of the live interval, and runs one tick at each step. By
+ * default the ticks run back to back, thousands of times faster than real time;
+ * {@link #setSpeed(double)} slows the replay down to a multiple of real time.
+ * </p>
+ * <p>
+ * During the replay, the observations of the events are timestamped with the
+ * virtual clock, and the actions of the subscribers are reported to a
+ * {@link ReplayReport} instead of being performed; the clocks of the events and
+ * the executors of the subscribers are restored afterwards. An exception
+ * thrown by an observation is counted as a failed tick and does not stop the
+ * replay. An event is not observed before the first value recorded for it, and
+ * a tick in which no event has a recorded value yet is counted as skipped.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * Recording recording = Recording.read(Path.of("auth-traffic.rec"));
+ * VirtualClock clock = new VirtualClock(recording.getStartMillis());
+ * ConditionalEvent&lt;ServiceMetrics&gt; event = new ConditionalEvent&lt;&gt;("auth-requests",
+ *         recording.collector("auth-requests", clock), new DDoSEvaluator(() -&gt; 250.0, 60000));
+ * event.subscribe(new EventSubscriber&lt;&gt;(List.of(new CircuitBreaker())));
+ * ReplayReport report = new ReplayScheduler(List.of(event), recording, clock, 1000).replay();
+ * report.print(System.out, 20);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ReplayScheduler extends AbstractObservationScheduler {
+    private static final Logger LOG = LoggerFactory.getLogger(ReplayScheduler.class);
+
+    private final VirtualClock clock;
+
+    private final long startMillis;
+
+    private final long endMillis;
+
+    private final int intervalMillis;
+
+    private volatile double speed;
+
+    private volatile boolean performActions;
+
+    private volatile boolean stopped;
+
+    private volatile ReplayReport report;
+
+    /**
+     * Constructs a {@code ReplayScheduler} replaying the given time range.
+     *
+     * @param events the events of the graph, built with replay collectors.
+     * @param clock the clock of the replay collectors.
+     * @param startMillis the virtual time of the first tick.
+     * @param endMillis the virtual time after which the replay stops.
+     * @param intervalMillis the virtual time between two ticks, usually the live interval.
+     * @throws IllegalArgumentException if the interval is not positive, the range is empty,
+     *         or the list holds the same event twice.
+     */
+    public ReplayScheduler(List<? extends Event<?>> events, VirtualClock clock, long startMillis, long endMillis,
+                           int intervalMillis) {
+        this(registryOf(events), clock, startMillis, endMillis, intervalMillis);
+    }
+
+    /**
+     * Constructs a {@code ReplayScheduler} replaying the given time range
+     * through the events of the specified registry.
+     *
+     * @param registry the registry holding the events of the graph, built with replay collectors.
+     * @param clock the clock of the replay collectors.
+     * @param startMillis the virtual time of the first tick.
+     * @param endMillis the virtual time after which the replay stops.
+     * @param intervalMillis the virtual time between two ticks, usually the live interval.
+     * @throws IllegalArgumentException if the interval is not positive or the range is empty.
+     */
+    public ReplayScheduler(EventRegistry registry, VirtualClock clock, long startMillis, long endMillis,
+                           int intervalMillis) {
+        super(registry);
+        if (intervalMillis <= 0 || endMillis < startMillis) {
+            throw new IllegalArgumentException("The interval must be positive and the range not empty");
+        }
+        this.clock = clock;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Constructs a {@code ReplayScheduler} replaying the whole recording.
+     *
+     * @param events the events of the graph, built with the replay collectors of the recording.
+     * @param recording the recording.
+     * @param clock the clock of the replay collectors.
+     * @param intervalMillis the virtual time between two ticks, usually the live interval.
+     * @throws IllegalArgumentException if the list holds the same event twice.
+     */
+    public ReplayScheduler(List<? extends Event<?>> events, Recording recording, VirtualClock clock,
+                           int intervalMillis) {
+        this(registryOf(events), recording, clock, intervalMillis);
+    }
+
+    /**
+     * Constructs a {@code ReplayScheduler} replaying the whole recording
+     * through the events of the specified registry.
+     *
+     * @param registry the registry holding the events of the graph, built with the replay collectors
+     *                 of the recording.
+     * @param recording the recording.
+     * @param clock the clock of the replay collectors.
+     * @param intervalMillis the virtual time between two ticks, usually the live interval.
+     */
+    public ReplayScheduler(EventRegistry registry, Recording recording, VirtualClock clock, int intervalMillis) {
+        this(registry, clock, recording.getStartMillis(), recording.getEndMillis(), intervalMillis);
+    }
+
+    private static EventRegistry registryOf(List<? extends Event<?>> events) {
+        EventRegistry registry = new EventRegistry();
+        for (Event<?> event : events) {
+            registry.register(event);
+        }
+        return registry;
+    }
+
+    /**
+     * Sets the speed of the replay.
+     *
+     * @param speed how many times faster than real time to replay, or 0 to replay as fast as possible.
+     */
+    public void setSpeed(double speed) {
+        this.speed = Math.max(0.0, speed);
+    }
+
+    /**
+     * Sets whether the actions are also performed by the executors of the
+     * subscribers, rather than only reported.
+     *
+     * @param performActions {@code true} to perform the actions.
+     */
+    public void setPerformActions(boolean performActions) {
+        this.performActions = performActions;
+    }
+
+    /**
+     * Replays the recording; returns once it has been replayed or the scheduler stopped.
+     */
+    @Override
+    public void start() {
+        replay();
+    }
+
+    /**
+     * Stops the replay in progress after the current tick.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Replays the recording on the calling thread.
+     *
+     * @return the report of the replay.
+     * @throws IllegalArgumentException if the clock is already past the start of the replay.
+     */
+    public synchronized ReplayReport replay() {
+        ReplayReport current = new ReplayReport(startMillis, endMillis);
+        report = current;
+        stopped = false;
+        Map<AbstractEventSubscriber<?>, ActionExecutor> executors = installDryRun(current);
+        Map<Event<?>, Clock> clocks = new IdentityHashMap<>();
+        for (Event<?> event : events) {
+            clocks.put(event, event.getClock());
+            event.setClock(clock);
+        }
+        ObservationFilter filter = getObservationFilter();
+        ObservationFilter recorded = (key, tags, event) -> hasRecordedValue(event);
+        setObservationFilter(filter == null ? recorded : filter.and(recorded));
+        long wallStart = System.nanoTime();
+        try {
+            for (long time = startMillis; time <= endMillis && !stopped; time += intervalMillis) {
+                clock.advanceTo(time);
+                if (!anyRecordedValue()) {
+                    current.tickSkipped();
+                    pace(wallStart, time - startMillis);
+                    continue;
+                }
+                boolean failed = false;
+                try {
+                    runTick();
+                } catch (RuntimeException e) {
+                    LOG.debug("Replayed tick at {} failed", time, e);
+                    failed = true;
+                }
+                current.tickCompleted(failed);
+                pace(wallStart, time - startMillis);
+            }
+        } finally {
+            setObservationFilter(filter);
+            executors.forEach(AbstractEventSubscriber::setActionExecutor);
+            clocks.forEach(Event::setClock);
+            current.setWallNanos(System.nanoTime() - wallStart);
+        }
+        return current;
+    }
+
+    private static boolean hasRecordedValue(Event<?> event) {
+        return !(event.getCollector() instanceof ReplayCollector)
+                || ((ReplayCollector<?>) event.getCollector()).hasValue();
+    }
+
+    private boolean anyRecordedValue() {
+        for (Event<?> event : events) {
+            if (hasRecordedValue(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<AbstractEventSubscriber<?>, ActionExecutor> installDryRun(ReplayReport current) {
+        Map<AbstractEventSubscriber<?>, ActionExecutor> executors = new IdentityHashMap<>();
+        for (Event<?> event : events) {
+            String eventName = event.getName() != null ? event.getName() : "event-" + event.getId();
+            for (Observer<?> observer : event.getSubscribers()) {
+                if (observer instanceof AbstractEventSubscriber && !executors.containsKey(observer)) {
+                    AbstractEventSubscriber<?> subscriber = (AbstractEventSubscriber<?>) observer;
+                    ActionExecutor original = subscriber.getActionExecutor();
+                    executors.put(subscriber, original);
+                    subscriber.setActionExecutor(new DryRunActionExecutor(eventName, clock, current,
+                            performActions ? original : null));
+                }
+            }
+        }
+        return executors;
+    }
+
+    private void pace(long wallStart, long virtualElapsedMillis) {
+        double currentSpeed = speed;
+        if (currentSpeed <= 0.0) {
+            return;
+        }
+        long target = wallStart + (long) (TimeUnit.MILLISECONDS.toNanos(virtualElapsedMillis) / currentSpeed);
+        long wait = target - System.nanoTime();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the report of the latest replay.
+     *
+     * @return the report, or {@code null} if nothing was replayed.
+     */
+    public ReplayReport getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import tools.spirals.cerberus237.metricscollectorbase.models.ServiceMetrics;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * The {@link ValueCodec} interface converts the values collected by an event
+ * to and from the bytes of a recording.
+ * <p>
+ * The name of the codec is written in the recording, so that the values can be
+ * decoded without knowing in advance how they were encoded. Numbers are
+ * recorded with {@link #DOUBLE}; {@link #serviceMetrics(long)} records the
+ * request rate of {@link ServiceMetrics}, which is what the DDoS evaluators
+ * look at. Other types need a codec of their own, registered with the
+ * {@link ObservationRecorder} and passed to {@link Recording#read(java.nio.file.Path, ValueCodec[])}.
+ * </p>
+ *
+ * @param <T> the type of the values.
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface ValueCodec<T> {
+
+    /**
+     * Records any {@link Number} as a {@code double}, replayed as a {@link Double}.
+     */
+    ValueCodec<Object> DOUBLE = new ValueCodec<Object>() {
+        @Override
+        public String getName() {
+            return "double";
+        }
+
+        @Override
+        public void encode(Object value, DataOutput out) throws IOException {
+            out.writeDouble(((Number) value).doubleValue());
+        }
+
+        @Override
+        public Object decode(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    /**
+     * Returns the codec recording the request rate of {@link ServiceMetrics} over
+     * the given window, replayed as a {@link RecordedServiceMetrics}.
+     * <p>
+     * {@link ServiceMetrics} computes its rate from wall-clock time, so it cannot
+     * be replayed as is: the rate it reports at the time of collection is
+     * recorded instead, along with the window, and reported again by the replayed
+     * metrics. The window must therefore be the one of the evaluators replayed:
+     * the replayed metrics reject any other.
+     * </p>
+     *
+     * @param windowMillis the window of the recorded rate, in milliseconds.
+     * @return the codec.
+     */
+    static ValueCodec<Object> serviceMetrics(long windowMillis) {
+        return new ValueCodec<Object>() {
+            @Override
+            public String getName() {
+                return RecordedServiceMetrics.CODEC_NAME;
+            }
+
+            @Override
+            public void encode(Object value, DataOutput out) throws IOException {
+                RecordingFormat.writeVarLong(out, windowMillis);
+                out.writeDouble(((ServiceMetrics) value).getRequestRatePerSecond(windowMillis));
+            }
+
+            @Override
+            public Object decode(DataInput in) throws IOException {
+                long recordedWindowMillis = RecordingFormat.readVarLong(in);
+                return new RecordedServiceMetrics(in.readDouble(), recordedWindowMillis);
+            }
+        };
+    }
+
+    /**
+     * Returns the name of the codec, written in the recording.
+     *
+     * @return the codec name.
+     */
+    String getName();
+
+    /**
+     * Writes a value.
+     *
+     * @param value the value, never {@code null}.
+     * @param out the output.
+     * @throws IOException if the value cannot be written.
+     */
+    void encode(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a value written by {@link #encode(Object, DataOutput)}.
+     *
+     * @param in the input.
+     * @return the value.
+     * @throws IOException if the value cannot be read.
+     */
+    T decode(DataInput in) throws IOException;
+}
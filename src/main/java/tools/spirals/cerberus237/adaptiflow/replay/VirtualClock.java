@@ -0,0 +1,50 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link VirtualClock} class is a clock whose time only moves when it is
+ * told to, used to replay recordings faster than real time.
+ * <p>
+ * It is a {@link ManualClock}: the components scheduling their work on it, such
+ * as retries, run as the replay moves the clock forward.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class VirtualClock extends ManualClock {
+
+    /**
+     * Constructs a {@code VirtualClock}.
+     *
+     * @param startMillis the initial time, in milliseconds since the epoch.
+     */
+    public VirtualClock(long startMillis) {
+        super(startMillis);
+    }
+
+    /**
+     * Moves the clock forward by the given duration.
+     *
+     * @param millis the duration, in milliseconds.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public void advance(long millis) {
+        advance(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,217 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link ActionIndex} class gives the adaptation actions listed at build time
+ * by the {@link ActionIndexProcessor}, without scanning the classpath.
+ * <p>
+ * Each jar or class directory compiled with the processor holds a
+ * {@value #RESOURCE} resource with one {@code name=class} line per action.
+ * Loading the index reads these resources only, and looking up the actions of a
+ * package loads their classes without initializing them, so the cost depends
+ * on the number of actions, not on the size of the classpath. Entries whose
+ * class is no longer present are ignored.
+ * </p>
+ * <p>
+ * An index only knows the jars and class directories compiled with the
+ * processor: {@link #isComplete(String)} tells whether every location holding a
+ * package has one, that is whether the index lists all the actions of the package.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ActionIndex index = ActionIndex.load(Thread.currentThread().getContextClassLoader());
+ * Map&lt;String, Class&lt;? extends IAdaptationAction&gt;&gt; actions = index.getActions("com.example.actions");
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class ActionIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionIndex.class);
+
+    /**
+     * The location of the index in each jar or class directory.
+     */
+    public static final String RESOURCE = "META-INF/adaptiflow/actions";
+
+    private final ClassLoader classLoader;
+
+    private final List<String> names;
+
+    private final List<String> classNames;
+
+    /**
+     * The jars and class directories holding an index, as URL prefixes.
+     */
+    private final Set<String> indexedRoots;
+
+    private ActionIndex(ClassLoader classLoader, List<String> names, List<String> classNames, Set<String> indexedRoots) {
+        this.classLoader = classLoader;
+        this.names = names;
+        this.classNames = classNames;
+        this.indexedRoots = indexedRoots;
+    }
+
+    /**
+     * Reads the indexes visible from the given class loader.
+     *
+     * @param classLoader the class loader to read the indexes and load the actions from.
+     * @return the index, empty if no module was compiled with the processor.
+     */
+    public static ActionIndex load(ClassLoader classLoader) {
+        Enumeration<URL> resources;
+        try {
+            resources = classLoader.getResources(RESOURCE);
+        } catch (IOException e) {
+            LOG.warn("Could not list the adaptation action indexes", e);
+            resources = Collections.emptyEnumeration();
+        }
+        return read(classLoader, resources);
+    }
+
+    /**
+     * Reads the given index resources.
+     *
+     * @param classLoader the class loader to load the actions from.
+     * @param resources the index resources.
+     * @return the index.
+     */
+    static ActionIndex read(ClassLoader classLoader, Enumeration<URL> resources) {
+        List<String> names = new ArrayList<>();
+        List<String> classNames = new ArrayList<>();
+        Set<String> indexedRoots = new HashSet<>();
+        while (resources.hasMoreElements()) {
+            URL resource = resources.nextElement();
+            indexedRoots.add(rootOf(resource, RESOURCE));
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    int separator = line.indexOf('=');
+                    if (line.isEmpty() || line.startsWith("#") || separator <= 0) {
+                        continue;
+                    }
+                    names.add(line.substring(0, separator).trim());
+                    classNames.add(line.substring(separator + 1).trim());
+                }
+            } catch (IOException e) {
+                LOG.warn("Could not read the adaptation action index {}", resource, e);
+            }
+        }
+        return new ActionIndex(classLoader, names, classNames, indexedRoots);
+    }
+
+    /**
+     * Indicates whether the index lists all the actions of the given package, that
+     * is whether every jar or class directory holding the package was compiled with
+     * the processor. A package in a jar without directory entries cannot be located
+     * and is considered complete as soon as its other locations are.
+     *
+     * @param packageName the package of the actions, or the empty string for all of them.
+     * @return {@code true} if scanning the classpath would find no other action,
+     *         {@code false} if the package is found nowhere or in a location without index.
+     */
+    public boolean isComplete(String packageName) {
+        if (packageName.isEmpty()) {
+            return false;
+        }
+        String path = packageName.replace('.', '/');
+        Enumeration<URL> locations;
+        try {
+            locations = classLoader.getResources(path);
+        } catch (IOException e) {
+            LOG.debug("Could not locate the package {}", packageName, e);
+            return false;
+        }
+        boolean found = false;
+        while (locations.hasMoreElements()) {
+            if (!indexedRoots.contains(rootOf(locations.nextElement(), path))) {
+                return false;
+            }
+            found = true;
+        }
+        return found;
+    }
+
+    private static String rootOf(URL resource, String path) {
+        String url = resource.toString();
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url.endsWith(path) ? url.substring(0, url.length() - path.length()) : url;
+    }
+
+    /**
+     * Returns the indexed actions of the given package and its sub-packages.
+     *
+     * @param packageName the package of the actions, or the empty string for all of them.
+     * @return a map where keys are action names (in lowercase) and values are the
+     *         corresponding action classes, empty if none is indexed.
+     */
+    public Map<String, Class<? extends IAdaptationAction>> getActions(String packageName) {
+        String prefix = packageName.isEmpty() || packageName.endsWith(".") ? packageName : packageName + ".";
+        Map<String, Class<? extends IAdaptationAction>> actions = new HashMap<>();
+        for (int i = 0; i < classNames.size(); i++) {
+            String className = classNames.get(i);
+            if (!className.startsWith(prefix)) {
+                continue;
+            }
+            try {
+                Class<?> type = Class.forName(className, false, classLoader);
+                actions.put(names.get(i), type.asSubclass(IAdaptationAction.class));
+            } catch (ClassNotFoundException | LinkageError | ClassCastException e) {
+                LOG.debug("Ignoring stale action index entry {}", className, e);
+            }
+        }
+        return actions;
+    }
+
+    /**
+     * Returns the names of the indexed classes.
+     *
+     * @return an unmodifiable list of binary class names.
+     */
+    public List<String> getClassNames() {
+        return Collections.unmodifiableList(classNames);
+    }
+
+    /**
+     * Returns the number of indexed actions.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return classNames.size();
+    }
+}
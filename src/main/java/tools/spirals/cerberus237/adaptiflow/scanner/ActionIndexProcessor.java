@@ -0,0 +1,161 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The {@link ActionIndexProcessor} class is an annotation processor writing the
+ * {@link ActionIndex} of the adaptation actions of a module at build time.
+ * <p>
+ * It looks at every class compiled, annotated or not, and records every type
+ * implementing {@link IAdaptationAction}, whatever its visibility or nesting, in
+ * {@value ActionIndex#RESOURCE}, under the same lowercase simple name as
+ * {@link ActionScanner}: the index lists what scanning the classpath would find.
+ * It is registered as a service, so it runs whenever the AdaptiFlow jar is on the
+ * compilation classpath of a module, without any configuration.
+ * </p>
+ * <p>
+ * The index already present in the class output is merged, so that an
+ * incremental build compiling only some of the classes keeps the entries of the
+ * others. Entries of deleted classes are ignored when the index is read.
+ * </p>
+ * <p>
+ * A module whose processor path is set explicitly must list the AdaptiFlow jar
+ * in it for its actions to be indexed; otherwise {@link ActionScanner} falls back
+ * to scanning the classpath.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@SupportedAnnotationTypes("*")
+public class ActionIndexProcessor extends AbstractProcessor {
+
+    /**
+     * The indexed actions, by binary class name.
+     */
+    private final Map<String, String> actions = new TreeMap<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        readPreviousIndex();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement actionElement = processingEnv.getElementUtils().getTypeElement(IAdaptationAction.class.getName());
+        if (actionElement == null) {
+            return false;
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        TypeMirror actionType = processingEnv.getTypeUtils().erasure(actionElement.asType());
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element, actionType);
+        }
+        return false;
+    }
+
+    private void collect(Element element, TypeMirror actionType) {
+        if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+            return;
+        }
+        TypeElement type = (TypeElement) element;
+        String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        // A recompiled class replaces its previous entry, if any
+        actions.remove(className);
+        if (isIndexable(type, actionType)) {
+            actions.put(className, type.getSimpleName().toString().toLowerCase());
+        }
+        for (Element member : type.getEnclosedElements()) {
+            collect(member, actionType);
+        }
+    }
+
+    private boolean isIndexable(TypeElement type, TypeMirror actionType) {
+        TypeMirror erasure = processingEnv.getTypeUtils().erasure(type.asType());
+        return !processingEnv.getTypeUtils().isSameType(erasure, actionType)
+                && processingEnv.getTypeUtils().isAssignable(erasure, actionType);
+    }
+
+    private void readPreviousIndex() {
+        FileObject resource;
+        try {
+            resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", ActionIndex.RESOURCE);
+        } catch (IOException | IllegalArgumentException e) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int separator = line.indexOf('=');
+                if (!line.isEmpty() && !line.startsWith("#") && separator > 0) {
+                    actions.put(line.substring(separator + 1).trim(), line.substring(0, separator).trim());
+                }
+            }
+        } catch (IOException e) {
+            // No previous index, as on a clean build
+        }
+    }
+
+    private void writeIndex() {
+        if (actions.isEmpty()) {
+            return;
+        }
+        try {
+            FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", ActionIndex.RESOURCE);
+            try (Writer writer = new OutputStreamWriter(resource.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write("# Adaptation actions, generated by " + getClass().getName() + "\n");
+                for (Map.Entry<String, String> action : actions.entrySet()) {
+                    writer.write(action.getValue() + "=" + action.getKey() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Could not write the adaptation action index: " + e.getMessage());
+        }
+    }
+}
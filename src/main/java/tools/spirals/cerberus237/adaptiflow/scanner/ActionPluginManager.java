@@ -0,0 +1,470 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.time.SystemTimer;
+import tools.spirals.cerberus237.adaptiflow.time.Timer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * The {@link ActionPluginManager} class loads adaptation actions from plugin
+ * jars dropped in a directory, and keeps them up to date in an
+ * {@link ActionRegistry} while the application runs.
+ * <p>
+ * Each jar is copied to a private directory and loaded by a class loader of its
+ * own, whose parent is the class loader of AdaptiFlow: plugins share the action
+ * API with the application but not their classes with each other, and the
+ * original jar can be replaced at any time. The actions of a jar are found once,
+ * when it is loaded, by {@link ActionScanner#scanPlugin(URLClassLoader)}, and
+ * are registered under their lowercase simple names.
+ * </p>
+ * <p>
+ * Reloading a jar swaps its actions in the registry with
+ * {@link ActionRegistry#swap(java.util.Collection, Map)}, so dispatching never
+ * misses an action. Unloading removes its actions. In both cases, the old class
+ * loader is only closed after a grace period, {@value #DEFAULT_GRACE_PERIOD_MILLIS}
+ * ms by default: a closed loader cannot load the classes its instances had not
+ * used yet, so an action still running when its loader is closed may fail. The
+ * grace period must therefore exceed the time an action takes to perform. The
+ * old classes are collected once the instances handed out are no longer used.
+ * When two plugins define the same name, the one loaded last wins.
+ * </p>
+ * <p>
+ * A plugin action may shadow an action of the same name registered before it,
+ * whether by the application or by another plugin. The shadowed action is
+ * registered again when the plugin is unloaded, or reloaded without that name.
+ * </p>
+ * <p>
+ * Once {@link #watch()} is called, jars created, modified or deleted in the
+ * directory are reloaded or unloaded automatically, after the directory has been
+ * quiet for a short delay so that jars being copied are not read half-written.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ActionRegistry actions = ActionRegistry.scan("com.example.actions");
+ * ActionPluginManager plugins = new ActionPluginManager(Paths.get("plugins"), actions);
+ * plugins.loadAll();
+ * plugins.watch();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionPluginManager implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionPluginManager.class);
+
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
+    /**
+     * The time the directory must be quiet before changed jars are loaded, in milliseconds.
+     */
+    private static final long QUIET_MILLIS = 500L;
+
+    /**
+     * The time after which the class loader of a reloaded or unloaded plugin is closed by default,
+     * in milliseconds.
+     */
+    public static final long DEFAULT_GRACE_PERIOD_MILLIS = 60_000L;
+
+    /**
+     * A loaded plugin jar.
+     */
+    private static final class Plugin {
+        private final URLClassLoader loader;
+        private final Path copy;
+        private final Map<String, ActionRegistry.Entry> entries;
+
+        private Plugin(URLClassLoader loader, Path copy, Map<String, ActionRegistry.Entry> entries) {
+            this.loader = loader;
+            this.copy = copy;
+            this.entries = entries;
+        }
+    }
+
+    private final Path directory;
+
+    private final ActionRegistry registry;
+
+    private final Path shadowDirectory;
+
+    private final Map<Path, Plugin> plugins = new HashMap<>();
+
+    /**
+     * The plugins defining each name, in the order they were loaded: the last one
+     * is registered.
+     */
+    private final Map<String, Deque<Path>> holders = new HashMap<>();
+
+    /**
+     * The entry registered under each plugin name before any plugin defined it,
+     * {@code null} if there was none.
+     */
+    private final Map<String, ActionRegistry.Entry> shadowed = new HashMap<>();
+
+    /**
+     * The reloaded or unloaded plugins whose class loader is not closed yet.
+     */
+    private final Set<Plugin> retired = new LinkedHashSet<>();
+
+    /**
+     * The timer closing the old class loaders, {@code null} to use one of its own.
+     */
+    private final Timer timer;
+
+    private final long gracePeriodMillis;
+
+    private SystemTimer ownTimer;
+
+    private int generation = 0;
+
+    private WatchService watchService;
+
+    private Thread watcher;
+
+    private boolean closed = false;
+
+    /**
+     * Constructs an {@code ActionPluginManager} closing the class loaders of the
+     * reloaded and unloaded plugins after {@value #DEFAULT_GRACE_PERIOD_MILLIS} ms,
+     * on a daemon thread of its own. No plugin is loaded until {@link #loadAll()}
+     * or {@link #load(Path)} is called.
+     *
+     * @param directory the directory holding the plugin jars, created if needed.
+     * @param registry the registry receiving the actions of the plugins.
+     * @throws IOException if a directory cannot be created.
+     */
+    public ActionPluginManager(Path directory, ActionRegistry registry) throws IOException {
+        this(directory, registry, null, DEFAULT_GRACE_PERIOD_MILLIS);
+    }
+
+    /**
+     * Constructs an {@code ActionPluginManager} closing the class loaders of the
+     * reloaded and unloaded plugins on the given timer, after the given grace
+     * period. The timer is not released by {@link #close()}.
+     *
+     * @param directory the directory holding the plugin jars, created if needed.
+     * @param registry the registry receiving the actions of the plugins.
+     * @param timer the timer closing the old class loaders.
+     * @param gracePeriodMillis the time after which an old class loader is closed, in milliseconds.
+     * @throws IOException if a directory cannot be created.
+     */
+    public ActionPluginManager(Path directory, ActionRegistry registry, Timer timer, long gracePeriodMillis)
+            throws IOException {
+        this.directory = Files.createDirectories(directory).toAbsolutePath();
+        this.registry = registry;
+        this.shadowDirectory = Files.createTempDirectory("adaptiflow-plugins");
+        this.timer = timer;
+        this.gracePeriodMillis = gracePeriodMillis;
+    }
+
+    /**
+     * Loads every jar of the directory.
+     *
+     * @throws IOException if the directory cannot be read.
+     */
+    public synchronized void loadAll() throws IOException {
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(directory, "*.jar")) {
+            for (Path jar : jars) {
+                try {
+                    load(jar);
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Could not load the action plugin {}", jar, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads a plugin jar, or reloads it if it was already loaded.
+     *
+     * @param jar the plugin jar.
+     * @return the lowercase names of the actions registered from the jar.
+     * @throws IOException if the jar cannot be copied or read.
+     * @throws IllegalStateException if the manager is closed.
+     */
+    public synchronized Set<String> load(Path jar) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The plugin manager is closed");
+        }
+        Path key = jar.toAbsolutePath();
+        Path copy = shadowDirectory.resolve(++generation + "-" + key.getFileName());
+        Files.copy(key, copy, StandardCopyOption.REPLACE_EXISTING);
+        URLClassLoader loader = new URLClassLoader(new URL[]{copy.toUri().toURL()},
+                ActionPluginManager.class.getClassLoader());
+        Plugin previous = plugins.get(key);
+        Map<String, ActionRegistry.Entry> displaced = new HashMap<>();
+        Map<String, ActionRegistry.Entry> entries;
+        try {
+            entries = registry.swap(ActionScanner.scanPlugin(loader), displaced);
+        } catch (RuntimeException e) {
+            close(loader, copy);
+            throw e;
+        }
+        for (String name : entries.keySet()) {
+            Deque<Path> stack = holders.computeIfAbsent(name, n -> new ArrayDeque<>());
+            if (stack.isEmpty()) {
+                shadowed.put(name, displaced.get(name));
+            } else if (!key.equals(stack.peekLast())) {
+                LOG.warn("Action {} of plugin {} shadows the one of {}", name, key, stack.peekLast());
+            }
+            stack.remove(key);
+            stack.addLast(key);
+        }
+        plugins.put(key, new Plugin(loader, copy, entries));
+        if (previous != null) {
+            for (Map.Entry<String, ActionRegistry.Entry> entry : previous.entries.entrySet()) {
+                if (!entries.containsKey(entry.getKey())) {
+                    withdraw(key, entry.getKey(), entry.getValue());
+                }
+            }
+            retire(previous);
+        }
+        Set<String> names = Collections.unmodifiableSet(entries.keySet());
+        LOG.info("Loaded {} action(s) from plugin {}: {}", names.size(), key, names);
+        return names;
+    }
+
+    /**
+     * Unloads a plugin jar: removes its actions from the registry, registers again
+     * the actions they shadowed, and closes its class loader after the grace period.
+     *
+     * @param jar the plugin jar.
+     * @return {@code true} if the jar was loaded.
+     */
+    public synchronized boolean unload(Path jar) {
+        Path key = jar.toAbsolutePath();
+        Plugin plugin = plugins.remove(key);
+        if (plugin == null) {
+            return false;
+        }
+        plugin.entries.forEach((name, entry) -> withdraw(key, name, entry));
+        retire(plugin);
+        LOG.info("Unloaded plugin {}", key);
+        return true;
+    }
+
+    /**
+     * Withdraws the action a plugin defines under a name. If it was registered, the
+     * action of the plugin loaded before it, or else the action it shadowed, takes
+     * its place.
+     */
+    private void withdraw(Path key, String name, ActionRegistry.Entry entry) {
+        Deque<Path> stack = holders.get(name);
+        boolean registered = key.equals(stack.peekLast());
+        stack.remove(key);
+        if (!registered) {
+            return;
+        }
+        if (stack.isEmpty()) {
+            holders.remove(name);
+            registry.restore(name, entry, shadowed.remove(name));
+        } else {
+            registry.restore(name, entry, plugins.get(stack.peekLast()).entries.get(name));
+        }
+    }
+
+    /**
+     * Closes the class loader of a plugin no longer registered once the grace
+     * period has elapsed, or right away if the manager is closed.
+     */
+    private void retire(Plugin plugin) {
+        if (!closed) {
+            retired.add(plugin);
+            try {
+                closingTimer().schedule(() -> release(plugin), gracePeriodMillis, TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                retired.remove(plugin);
+                LOG.debug("Closing the plugin copy {} right away, the timer is stopped", plugin.copy);
+            }
+        }
+        close(plugin.loader, plugin.copy);
+    }
+
+    private Timer closingTimer() {
+        if (timer != null) {
+            return timer;
+        }
+        if (ownTimer == null) {
+            ownTimer = SystemTimer.singleThread("adaptiflow-plugins-closer-" + THREAD_SEQUENCE.incrementAndGet());
+        }
+        return ownTimer;
+    }
+
+    private synchronized void release(Plugin plugin) {
+        if (retired.remove(plugin)) {
+            close(plugin.loader, plugin.copy);
+        }
+    }
+
+    private static void close(URLClassLoader loader, Path copy) {
+        try {
+            loader.close();
+            Files.deleteIfExists(copy);
+        } catch (IOException e) {
+            LOG.warn("Could not release the plugin copy {}", copy, e);
+        }
+    }
+
+    /**
+     * Starts watching the directory on a daemon thread, loading, reloading and
+     * unloading jars as they change.
+     *
+     * @throws IOException if the directory cannot be watched.
+     */
+    public synchronized void watch() throws IOException {
+        if (watcher != null || closed) {
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        WatchService service = watchService;
+        watcher = new Thread(() -> watchLoop(service), "adaptiflow-plugins-" + THREAD_SEQUENCE.incrementAndGet());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watchLoop(WatchService service) {
+        Set<Path> changed = new LinkedHashSet<>();
+        try {
+            while (true) {
+                WatchKey key = changed.isEmpty()
+                        ? service.take()
+                        : service.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    changed.forEach(this::refresh);
+                    changed.clear();
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && context.toString().endsWith(".jar")) {
+                        changed.add(directory.resolve((Path) context));
+                    } else if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        try (Stream<Path> jars = Files.list(directory)) {
+                            jars.filter(jar -> jar.toString().endsWith(".jar")).forEach(changed::add);
+                        } catch (IOException e) {
+                            LOG.warn("Could not list the plugin directory {}", directory, e);
+                        }
+                        changed.addAll(getPlugins().keySet());
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOG.debug("Stopped watching {}", directory);
+        }
+    }
+
+    private void refresh(Path jar) {
+        try {
+            if (Files.isRegularFile(jar)) {
+                load(jar);
+            } else {
+                unload(jar);
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not reload the action plugin {}", jar, e);
+        }
+    }
+
+    /**
+     * Returns the loaded plugin jars and the names of their actions.
+     *
+     * @return a snapshot of the loaded plugins.
+     */
+    public synchronized Map<Path, Set<String>> getPlugins() {
+        Map<Path, Set<String>> snapshot = new HashMap<>();
+        plugins.forEach((jar, plugin) -> snapshot.put(jar, Collections.unmodifiableSet(plugin.entries.keySet())));
+        return snapshot;
+    }
+
+    /**
+     * Returns the directory holding the plugin jars.
+     *
+     * @return the plugin directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Stops watching the directory, unloads every plugin and closes the class
+     * loaders of all the plugins, even those within their grace period.
+     */
+    @Override
+    public void close() {
+        Thread thread;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            thread = watcher;
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    LOG.debug("Could not close the watch service", e);
+                }
+            }
+            for (Path jar : Set.copyOf(plugins.keySet())) {
+                unload(jar);
+            }
+            for (Plugin plugin : retired) {
+                close(plugin.loader, plugin.copy);
+            }
+            retired.clear();
+            if (ownTimer != null) {
+                ownTimer.shutdown();
+            }
+            try {
+                Files.deleteIfExists(shadowDirectory);
+            } catch (IOException e) {
+                LOG.debug("Could not delete {}", shadowDirectory, e);
+            }
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The {@link ActionRegistry} class resolves action names to ready-to-use
+ * adaptation actions, for instance to dispatch adaptation requests by name.
+ * <p>
+ * Names are case-insensitive, as with {@link ActionScanner}. The public no-arg
+ * constructor of each action class is looked up once, when the class is
+ * registered, and kept as a {@link MethodHandle}: {@link #get(String)} returns a
+ * single instance per name, created on first use and cached, and
+ * {@link #newInstance(String)} creates a fresh instance through the handle.
+ * Neither reflects, and {@link #get(String)} allocates nothing once the instance
+ * exists, as long as the name is given in lowercase. Action classes without a
+ * public no-arg constructor can be registered with a factory instead.
+ * </p>
+ * <p>
+ * Cached instances are shared by all callers, so they must be safe to perform
+ * concurrently; stateful actions should be obtained with {@link #newInstance(String)}.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ActionRegistry actions = ActionRegistry.scan("tools.descartes.teastore.recommender.adaptation.actions");
+ * IAdaptationAction action = actions.get(request.getParameter("actionName"));
+ * if (action != null) {
+ *     action.perform();
+ * }
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionRegistry.class);
+
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(void.class);
+
+    private static final MethodType FACTORY = MethodType.methodType(IAdaptationAction.class);
+
+    /**
+     * How a registered action is created, and its cached instance.
+     */
+    static final class Entry {
+        private final String name;
+        private final MethodHandle constructor;
+        private final Supplier<? extends IAdaptationAction> factory;
+        private volatile IAdaptationAction instance;
+
+        private Entry(String name, MethodHandle constructor, Supplier<? extends IAdaptationAction> factory) {
+            this.name = name;
+            this.constructor = constructor;
+            this.factory = factory;
+        }
+
+        private IAdaptationAction create() {
+            if (factory != null) {
+                return factory.get();
+            }
+            try {
+                return (IAdaptationAction) constructor.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to instantiate action " + name, e);
+            }
+        }
+
+        private IAdaptationAction instance() {
+            IAdaptationAction current = instance;
+            if (current == null) {
+                synchronized (this) {
+                    current = instance;
+                    if (current == null) {
+                        current = create();
+                        instance = current;
+                    }
+                }
+            }
+            return current;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an empty {@code ActionRegistry}.
+     */
+    public ActionRegistry() {
+    }
+
+    /**
+     * Constructs an {@code ActionRegistry} holding the given action classes, as
+     * returned by {@link ActionScanner#scanForActions(String)}. Classes without a
+     * public no-arg constructor are left aside.
+     *
+     * @param actions the action classes, by name.
+     */
+    public ActionRegistry(Map<String, Class<? extends IAdaptationAction>> actions) {
+        for (Map.Entry<String, Class<? extends IAdaptationAction>> action : actions.entrySet()) {
+            try {
+                register(action.getKey(), action.getValue());
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Skipping action {}: {}", action.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Creates a registry holding the actions of the given package, found by {@link ActionScanner}.
+     *
+     * @param packageToScan the package of the actions.
+     * @return the registry.
+     */
+    public static ActionRegistry scan(String packageToScan) {
+        return new ActionRegistry(ActionScanner.scanForActions(packageToScan));
+    }
+
+    /**
+     * Registers an action class under the given name, replacing any action
+     * registered under it.
+     *
+     * @param name the name of the action, case-insensitive.
+     * @param actionClass the action class.
+     * @throws IllegalArgumentException if the class has no public no-arg constructor.
+     */
+    public void register(String name, Class<? extends IAdaptationAction> actionClass) {
+        String key = normalize(name);
+        entries.put(key, entry(key, actionClass));
+    }
+
+    private static Entry entry(String key, Class<? extends IAdaptationAction> actionClass) {
+        MethodHandle constructor;
+        try {
+            constructor = MethodHandles.publicLookup().findConstructor(actionClass, CONSTRUCTOR).asType(FACTORY);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException(actionClass.getName() + " has no public no-arg constructor", e);
+        }
+        return new Entry(key, constructor, null);
+    }
+
+    /**
+     * Replaces a group of actions, such as those of a plugin being reloaded.
+     * <p>
+     * The constructors of the new classes are all resolved before the registry
+     * changes; then each name is switched to its new action in a single step, so
+     * a lookup finds either the old or the new action, never none. The old names
+     * missing from the new actions are removed last. Classes without a public
+     * no-arg constructor are left aside.
+     * </p>
+     *
+     * @param oldNames the names of the actions being replaced, case-insensitive.
+     * @param actions the new action classes, by name.
+     * @return the lowercase names of the actions registered.
+     */
+    public Set<String> swap(Collection<String> oldNames, Map<String, Class<? extends IAdaptationAction>> actions) {
+        Set<String> names = swap(actions, new HashMap<>()).keySet();
+        for (String oldName : oldNames) {
+            String key = normalize(oldName);
+            if (!names.contains(key)) {
+                entries.remove(key);
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Registers a group of actions as {@link #swap(Collection, Map)} does, without
+     * removing any, and records the entries they displace.
+     *
+     * @param actions the new action classes, by name.
+     * @param displaced receives the entry previously registered under each
+     *        lowercase name, or {@code null} if there was none.
+     * @return the entries registered, by lowercase name.
+     */
+    Map<String, Entry> swap(Map<String, Class<? extends IAdaptationAction>> actions, Map<String, Entry> displaced) {
+        Map<String, Entry> prepared = new LinkedHashMap<>();
+        for (Map.Entry<String, Class<? extends IAdaptationAction>> action : actions.entrySet()) {
+            String key = normalize(action.getKey());
+            try {
+                prepared.put(key, entry(key, action.getValue()));
+            } catch (IllegalArgumentException e) {
+                LOG.debug("Skipping action {}: {}", key, e.getMessage());
+            }
+        }
+        prepared.forEach((key, entry) -> displaced.put(key, entries.put(key, entry)));
+        return prepared;
+    }
+
+    /**
+     * Puts an entry displaced by {@link #swap(Map, Map)} back, provided the entry
+     * that displaced it is still registered.
+     *
+     * @param key the lowercase name of the action.
+     * @param current the entry being withdrawn.
+     * @param displaced the entry to put back, or {@code null} to leave the name unregistered.
+     */
+    void restore(String key, Entry current, Entry displaced) {
+        if (displaced != null) {
+            entries.replace(key, current, displaced);
+        } else {
+            entries.remove(key, current);
+        }
+    }
+
+    /**
+     * Registers a factory under the given name, replacing any action registered under it.
+     *
+     * @param name the name of the action, case-insensitive.
+     * @param factory the factory creating the action.
+     */
+    public void register(String name, Supplier<? extends IAdaptationAction> factory) {
+        String key = normalize(name);
+        entries.put(key, new Entry(key, null, factory));
+    }
+
+    /**
+     * Removes the action registered under the given name.
+     *
+     * @param name the name of the action, case-insensitive.
+     * @return {@code true} if an action was registered under the name.
+     */
+    public boolean unregister(String name) {
+        return entries.remove(normalize(name)) != null;
+    }
+
+    /**
+     * Returns the shared instance of the action registered under the given name,
+     * creating it on first use.
+     *
+     * @param name the name of the action, case-insensitive.
+     * @return the action, or {@code null} if no action is registered under the name.
+     * @throws IllegalStateException if the action cannot be instantiated.
+     */
+    public IAdaptationAction get(String name) {
+        Entry entry = lookup(name);
+        return entry != null ? entry.instance() : null;
+    }
+
+    /**
+     * Creates a new instance of the action registered under the given name.
+     *
+     * @param name the name of the action, case-insensitive.
+     * @return the action, or {@code null} if no action is registered under the name.
+     * @throws IllegalStateException if the action cannot be instantiated.
+     */
+    public IAdaptationAction newInstance(String name) {
+        Entry entry = lookup(name);
+        return entry != null ? entry.create() : null;
+    }
+
+    /**
+     * Tells whether an action is registered under the given name.
+     *
+     * @param name the name of the action, case-insensitive.
+     * @return {@code true} if an action is registered under the name.
+     */
+    public boolean contains(String name) {
+        return lookup(name) != null;
+    }
+
+    /**
+     * Returns the names of the registered actions.
+     *
+     * @return an unmodifiable view of the lowercase names.
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    private Entry lookup(String name) {
+        if (name == null) {
+            return null;
+        }
+        // Names are usually given in lowercase already: avoid lowercasing them
+        Entry entry = entries.get(name);
+        return entry != null ? entry : entries.get(normalize(name));
+    }
+
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
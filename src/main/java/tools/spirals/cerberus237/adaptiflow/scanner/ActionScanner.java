@@ -14,21 +14,36 @@
 package tools.spirals.cerberus237.adaptiflow.scanner;
 
 import org.reflections.Reflections;
-
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
 
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
 
 /**
  * Utility class for scanning a specified package to find all classes that implement
  * the {@link IAdaptationAction} interface. This class facilitates the dynamic loading
  * of adaptation actions in the application.
  * <p>
- * The {@code ActionScanner} uses the Reflections library to discover classes at runtime,
- * allowing for a flexible architecture where new adaptation actions can be added
- * without modifying the core application logic.
+ * The {@code ActionScanner} first looks the package up in the {@link ActionIndex}
+ * written at build time by the {@link ActionIndexProcessor}, which costs no
+ * classpath scanning. Packages the index does not fully cover, because some of
+ * their classes come from a jar or directory compiled without the processor, are
+ * also scanned at runtime with the Reflections library, allowing for a flexible
+ * architecture where new adaptation actions can be added without modifying the
+ * core application logic.
  * </p>
  *
  * <h3>Usage Example:</h3>
@@ -39,6 +54,7 @@ import java.util.Set;
  * @author Arléon Zemtsop (Cerberus)
  */
 public class ActionScanner {
+    private static final Logger LOG = LoggerFactory.getLogger(ActionScanner.class);
 
     /**
      * Scans the specified package for classes that implement {@link IAdaptationAction}
@@ -48,7 +64,13 @@ public class ActionScanner {
      * @return A map where keys are action names (in lowercase) and values are the corresponding action classes.
      */
     public static Map<String, Class<? extends IAdaptationAction>> scanForActions(String packageToScan) {
-        Map<String, Class<? extends IAdaptationAction>> actionMap = new HashMap<>();
+        ActionIndex index = ActionIndex.load(classLoader());
+        Map<String, Class<? extends IAdaptationAction>> actionMap = index.getActions(packageToScan);
+        if (index.isComplete(packageToScan)) {
+            LOG.debug("Found {} indexed actions in {}", actionMap.size(), packageToScan);
+            return actionMap;
+        }
+        LOG.info("The action index does not cover {}, scanning the classpath", packageToScan);
         try {
             Reflections reflections = new Reflections(packageToScan);
             Set<Class<? extends IAdaptationAction>> actionClasses = reflections.getSubTypesOf(IAdaptationAction.class);
@@ -62,4 +84,62 @@ public class ActionScanner {
         }
         return actionMap;
     }
+
+    /**
+     * Finds the public concrete classes implementing {@link IAdaptationAction} in the jars of the
+     * given class loader, typically a plugin. The {@link ActionIndex} of the jars
+     * is used if they have one; otherwise every class of the jars is loaded,
+     * without being initialized, and checked.
+     *
+     * @param loader the class loader of the plugin.
+     * @return A map where keys are action names (in lowercase) and values are the corresponding action classes.
+     */
+    public static Map<String, Class<? extends IAdaptationAction>> scanPlugin(URLClassLoader loader) {
+        try {
+            Map<String, Class<? extends IAdaptationAction>> actionMap = new HashMap<>();
+            ActionIndex.read(loader, loader.findResources(ActionIndex.RESOURCE)).getActions("")
+                    .forEach((name, type) -> {
+                        if (isConcrete(type)) {
+                            actionMap.put(name, type);
+                        }
+                    });
+            if (!actionMap.isEmpty()) {
+                return actionMap;
+            }
+            for (URL url : loader.getURLs()) {
+                try (JarFile jar = new JarFile(new File(url.toURI()))) {
+                    for (JarEntry entry : Collections.list(jar.entries())) {
+                        String name = entry.getName();
+                        if (!name.endsWith(".class") || name.endsWith("module-info.class")) {
+                            continue;
+                        }
+                        String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+                        Class<?> type;
+                        try {
+                            type = Class.forName(className, false, loader);
+                        } catch (ClassNotFoundException | LinkageError e) {
+                            LOG.debug("Skipping plugin class {}", className, e);
+                            continue;
+                        }
+                        if (IAdaptationAction.class.isAssignableFrom(type) && isConcrete(type)) {
+                            actionMap.put(type.getSimpleName().toLowerCase(), type.asSubclass(IAdaptationAction.class));
+                        }
+                    }
+                }
+            }
+            return actionMap;
+        } catch (IOException | URISyntaxException e) {
+            throw new RuntimeException("Failed to scan plugin: " + Arrays.toString(loader.getURLs()), e);
+        }
+    }
+
+    private static boolean isConcrete(Class<?> type) {
+        int modifiers = type.getModifiers();
+        return Modifier.isPublic(modifiers) && !Modifier.isAbstract(modifiers) && !type.isInterface();
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : ActionScanner.class.getClassLoader();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.snapshot;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.interfaces.Observer;
+import tools.spirals.cerberus237.adaptiflow.interfaces.Snapshottable;
+import tools.spirals.cerberus237.adaptiflow.interfaces.TickListener;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link SnapshotManager} class saves the state of the adaptation loop to a
+ * local file and restores it when the application starts again, so that
+ * adaptation resumes where it stopped instead of re-firing actions or waiting
+ * for a full cycle.
+ * <p>
+ * The state is that of every subscriber, event condition and subscriber
+ * condition implementing {@link Snapshottable}, for instance the counter of an
+ * {@link tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventCounterSubscriber}.
+ * Each component is identified by the registry key of its event and its
+ * position among the subscribers, which stay the same across restarts as long
+ * as the events are registered in the same way.
+ * </p>
+ * <p>
+ * Registered as a tick listener, the manager takes a snapshot at the end of a
+ * tick once the interval has elapsed, on the thread running the ticks, so the
+ * components are never caught in the middle of an observation. The snapshot is
+ * written to a temporary file, forced to the storage device and renamed over
+ * the previous one, so a crash leaves either the old or the new snapshot.
+ * </p>
+ * <p>
+ * The file starts with the magic number {@code AFSN}, a version byte, the time
+ * of the snapshot and the number of components, followed for each component by
+ * its key, the length of its state and the state itself.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * SnapshotManager snapshots = new SnapshotManager(Paths.get("adaptiflow.snapshot"), registry, 10_000);
+ * snapshots.restore();
+ * scheduler.addTickListener(snapshots);
+ * scheduler.start();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SnapshotManager implements TickListener {
+    private static final Logger LOG = LoggerFactory.getLogger(SnapshotManager.class);
+
+    static final int MAGIC = 0x4146534E;
+
+    static final byte VERSION = 1;
+
+    private final Path file;
+
+    private final Path temporaryFile;
+
+    private final EventRegistry registry;
+
+    private final long intervalNanos;
+
+    private final Clock clock;
+
+    private long lastSnapshotNanos;
+
+    private volatile long lastSnapshotMillis = -1L;
+
+    private volatile long snapshotCount = 0L;
+
+    /**
+     * Constructs a {@code SnapshotManager} measuring the interval with the system clock.
+     *
+     * @param file the snapshot file.
+     * @param registry the registry holding the events whose state is saved.
+     * @param intervalMillis the minimum interval between two snapshots, in milliseconds.
+     */
+    public SnapshotManager(Path file, EventRegistry registry, long intervalMillis) {
+        this(file, registry, intervalMillis, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs a {@code SnapshotManager} measuring the interval with the given clock.
+     *
+     * @param file the snapshot file.
+     * @param registry the registry holding the events whose state is saved.
+     * @param intervalMillis the minimum interval between two snapshots, in milliseconds.
+     * @param clock the clock measuring the interval and timestamping the snapshots.
+     */
+    public SnapshotManager(Path file, EventRegistry registry, long intervalMillis, Clock clock) {
+        this.file = file.toAbsolutePath();
+        this.temporaryFile = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+        this.registry = registry;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, intervalMillis));
+        this.clock = clock;
+        this.lastSnapshotNanos = clock.nanoTime();
+    }
+
+    @Override
+    public void onTickEnd(long tick) {
+        if (clock.nanoTime() - lastSnapshotNanos < intervalNanos) {
+            return;
+        }
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Could not save the adaptation state to {}", file, e);
+        }
+    }
+
+    /**
+     * Saves the state of the components now. Must not run concurrently with a tick.
+     *
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public synchronized void save() throws IOException {
+        lastSnapshotNanos = clock.nanoTime();
+        long now = clock.currentTimeMillis();
+        Map<String, Snapshottable> components = components();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(now);
+        out.writeInt(components.size());
+        ByteArrayOutputStream state = new ByteArrayOutputStream(64);
+        DataOutputStream stateOut = new DataOutputStream(state);
+        for (Map.Entry<String, Snapshottable> component : components.entrySet()) {
+            state.reset();
+            component.getValue().writeSnapshot(stateOut);
+            stateOut.flush();
+            out.writeUTF(component.getKey());
+            out.writeInt(state.size());
+            state.writeTo(out);
+        }
+        out.flush();
+
+        try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        lastSnapshotMillis = now;
+        snapshotCount++;
+    }
+
+    /**
+     * Restores the state of the components from the snapshot file, if any. The
+     * components absent from the snapshot, and the snapshot entries without a
+     * matching component, are left aside.
+     *
+     * @return the number of components restored.
+     * @throws IOException if the file exists but cannot be read or is not a snapshot.
+     */
+    public synchronized int restore() throws IOException {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (NoSuchFileException e) {
+            LOG.info("No adaptation state to restore from {}", file);
+            return 0;
+        }
+        Map<String, Snapshottable> components = components();
+        int restored = 0;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(content))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not an adaptation snapshot");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + " in " + file);
+            }
+            long takenAt = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                byte[] state = new byte[in.readInt()];
+                in.readFully(state);
+                Snapshottable component = components.get(key);
+                if (component == null) {
+                    LOG.debug("No component {} to restore", key);
+                    continue;
+                }
+                try {
+                    component.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(state)));
+                    restored++;
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Could not restore the state of {}", key, e);
+                }
+            }
+            LOG.info("Restored the state of {} component(s) saved at {}", restored, takenAt);
+        } catch (EOFException e) {
+            throw new IOException("Truncated snapshot " + file, e);
+        }
+        return restored;
+    }
+
+    private Map<String, Snapshottable> components() {
+        Map<String, Snapshottable> components = new LinkedHashMap<>();
+        for (String key : registry.keys()) {
+            Event event = registry.get(key);
+            if (event == null) {
+                continue;
+            }
+            if (event instanceof ConditionalEvent) {
+                add(components, key + "/condition", ((ConditionalEvent) event).getConditionEvaluator());
+            }
+            List<Observer> subscribers = event.getSubscribers();
+            for (int i = 0; i < subscribers.size(); i++) {
+                Observer subscriber = subscribers.get(i);
+                add(components, key + "/subscriber/" + i, subscriber);
+                add(components, key + "/subscriber/" + i + "/condition", subscriber.getConditionEvaluator());
+            }
+        }
+        return components;
+    }
+
+    private static void add(Map<String, Snapshottable> components, String key, Object component) {
+        if (component instanceof Snapshottable) {
+            components.put(key, (Snapshottable) component);
+        }
+    }
+
+    /**
+     * Returns the snapshot file.
+     *
+     * @return the file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the time of the last snapshot saved by this manager.
+     *
+     * @return the time in milliseconds since the epoch, or -1 if none was saved.
+     */
+    public long getLastSnapshotMillis() {
+        return lastSnapshotMillis;
+    }
+
+    /**
+     * Returns the number of snapshots saved by this manager.
+     *
+     * @return the number of snapshots.
+     */
+    public long getSnapshotCount() {
+        return snapshotCount;
+    }
+}
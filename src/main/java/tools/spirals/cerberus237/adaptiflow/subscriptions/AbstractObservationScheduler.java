@@ -13,9 +13,15 @@
  */
 package tools.spirals.cerberus237.adaptiflow.subscriptions;
 
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
 import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationFilter;
+import tools.spirals.cerberus237.adaptiflow.interfaces.TickListener;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@link AbstractObservationScheduler} class serves as a base class for
@@ -31,17 +37,55 @@ import java.util.List;
 public abstract class AbstractObservationScheduler {
 
     /**
-     * A list of events that this scheduler listens to.
+     * The registry holding the events that this scheduler listens to.
+     */
+    protected final EventRegistry registry;
+
+    /**
+     * A live, read-only view of the events that this scheduler listens to.
      */
     protected final List<Event> events;
 
+    /**
+     * The listeners told about the start and end of each tick.
+     */
+    private volatile TickListener[] tickListeners = new TickListener[0];
+
+    /**
+     * The filter deciding which events are observed, {@code null} to observe them all.
+     */
+    private volatile ObservationFilter observationFilter;
+
+    /**
+     * The sequence number of the last tick.
+     */
+    private final AtomicLong tickSequence = new AtomicLong();
+
     /**
      * Constructs an {@code AbstractEventScheduler} with the specified list of events.
+     * <p>
+     * The events are copied into a new {@link EventRegistry}: unlike in earlier
+     * versions, later changes to the list are not seen and must be made through
+     * {@link #getRegistry()}, and an event may only appear once in the list.
+     * </p>
      *
      * @param events a list of events to be managed by this scheduler.
+     * @throws IllegalArgumentException if the list holds the same event twice.
      */
     public AbstractObservationScheduler(List<Event> events) {
-        this.events = events;
+        this(EventRegistry.of(events));
+    }
+
+    /**
+     * Constructs an {@code AbstractEventScheduler} observing the events of the
+     * specified registry. Events added to or removed from the registry are picked
+     * up from the next tick.
+     *
+     * @param registry the registry holding the events to be managed by this scheduler.
+     */
+    public AbstractObservationScheduler(EventRegistry registry) {
+        this.registry = registry;
+        this.events = registry.asList();
     }
 
     /**
@@ -62,4 +106,107 @@ public abstract class AbstractObservationScheduler {
      * </p>
      */
     public abstract void stop();
+
+    /**
+     * Returns the registry holding the events of this scheduler.
+     *
+     * @return the event registry.
+     */
+    public EventRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Registers a listener told about the start and end of each tick.
+     *
+     * @param listener the tick listener to be added.
+     */
+    public synchronized void addTickListener(TickListener listener) {
+        TickListener[] current = tickListeners;
+        TickListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        tickListeners = updated;
+    }
+
+    /**
+     * Removes a previously registered tick listener.
+     *
+     * @param listener the tick listener to be removed.
+     */
+    public synchronized void removeTickListener(TickListener listener) {
+        TickListener[] current = tickListeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                TickListener[] updated = new TickListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                tickListeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sets the filter deciding, at each tick, which registered events are observed.
+     *
+     * @param filter the observation filter, or {@code null} to observe every event.
+     */
+    public void setObservationFilter(ObservationFilter filter) {
+        this.observationFilter = filter;
+    }
+
+    /**
+     * Returns the filter deciding which registered events are observed.
+     *
+     * @return the observation filter, or {@code null} if every event is observed.
+     */
+    public ObservationFilter getObservationFilter() {
+        return observationFilter;
+    }
+
+    /**
+     * Runs one tick: observes once every registered event accepted by the
+     * observation filter, surrounded by the tick listener callbacks.
+     */
+    protected void runTick() {
+        long tick = tickSequence.incrementAndGet();
+        boolean traced = ObservationHooks.isActive();
+        long start = 0L;
+        if (traced) {
+            CorrelationContext.enterTick();
+            start = System.nanoTime();
+        }
+        TickListener[] listeners = tickListeners;
+        for (TickListener listener : listeners) {
+            listener.onTickStart(tick);
+        }
+        try {
+            ObservationFilter filter = observationFilter;
+            if (filter == null) {
+                for (Event<?> event : registry.events()) {
+                    event.observe();
+                }
+            } else {
+                registry.observe(filter);
+            }
+        } finally {
+            for (TickListener listener : listeners) {
+                listener.onTickEnd(tick);
+            }
+            if (traced) {
+                long duration = System.nanoTime() - start;
+                ObservationHooks.fireTickCompleted(tick, duration, duration > getTickBudgetNanos());
+                CorrelationContext.exitTick();
+            }
+        }
+    }
+
+    /**
+     * Returns the time a tick may last before it is reported as an overrun.
+     *
+     * @return the tick budget in nanoseconds, unbounded by default.
+     */
+    protected long getTickBudgetNanos() {
+        return Long.MAX_VALUE;
+    }
 }
\ No newline at end of file
@@ -16,18 +16,24 @@ package tools.spirals.cerberus237.adaptiflow.subscriptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.time.ScheduledTask;
+import tools.spirals.cerberus237.adaptiflow.time.SystemTimer;
+import tools.spirals.cerberus237.adaptiflow.time.Timer;
 
 import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The {@link ContinuousObservationScheduler} class extends {@link AbstractObservationScheduler}
  * to provide a mechanism for continuously listening to events at a fixed interval.
  * <p>
- * This class utilizes a scheduled executor service to invoke the listening
- * process for all registered events at regular intervals.
+ * This class utilizes a {@link Timer} to invoke the listening process for all
+ * registered events at regular intervals. By default the scheduler runs the
+ * ticks on a thread of its own, created by {@link #start()} and released by
+ * {@link #stop()}; like any non-daemon thread, it keeps the JVM alive while the
+ * scheduler runs. A {@link tools.spirals.cerberus237.adaptiflow.time.ManualClock}
+ * can be given instead to drive the ticks without waiting for real time to pass.
  * </p>
  *
  * @author Arléon Zemtsop (Cerberus)
@@ -35,60 +41,138 @@ import java.util.concurrent.TimeUnit;
 public class ContinuousObservationScheduler extends AbstractObservationScheduler {
     private static final Logger LOG = LoggerFactory.getLogger(ContinuousObservationScheduler.class);
 
+    private static final AtomicInteger THREAD_SEQUENCE = new AtomicInteger();
+
     /**
      * The interval in milliseconds at which to listen for events.
      */
     private final int interval;
 
     /**
-     * The scheduled executor service used to run tasks at fixed intervals.
+     * The timer given to the constructor, {@code null} if the scheduler uses its own.
+     */
+    private final Timer givenTimer;
+
+    /**
+     * The timer created by {@link #start()} when none was given, {@code null} when stopped.
      */
-    private ScheduledExecutorService scheduler;
+    private SystemTimer ownedTimer;
 
-    private boolean running = false;
+    /**
+     * The periodic observation task, {@code null} when stopped.
+     */
+    private ScheduledTask task;
+
+    private volatile boolean running = false;
 
     /**
      * Constructs a {@code ContinuousEventScheduler} with the specified list of events
      * and an interval for event listening.
+     * <p>
+     * The events are copied into a new {@link EventRegistry}: unlike in earlier
+     * versions, later changes to the list are not seen and must be made through
+     * {@link #getRegistry()}, and an event may only appear once in the list.
+     * </p>
      *
      * @param events a list of events to be managed by this scheduler.
      * @param interval the interval in milliseconds for listening to events.
+     * @throws IllegalArgumentException if the list holds the same event twice.
      */
     public ContinuousObservationScheduler(List<Event> events, int interval) {
-        super(events);
+        this(EventRegistry.of(events), interval);
+    }
+
+    /**
+     * Constructs a {@code ContinuousEventScheduler} observing the events of the
+     * specified registry at the given interval.
+     *
+     * @param registry the registry holding the events to be managed by this scheduler.
+     * @param interval the interval in milliseconds for listening to events.
+     */
+    public ContinuousObservationScheduler(EventRegistry registry, int interval) {
+        super(registry);
+        this.interval = interval;
+        this.givenTimer = null;
+    }
+
+    /**
+     * Constructs a {@code ContinuousEventScheduler} observing the events of the
+     * specified registry at the given interval, on the given timer. The timer is
+     * not released by {@link #stop()}.
+     *
+     * @param registry the registry holding the events to be managed by this scheduler.
+     * @param interval the interval in milliseconds for listening to events.
+     * @param timer the timer running the ticks.
+     */
+    public ContinuousObservationScheduler(EventRegistry registry, int interval, Timer timer) {
+        super(registry);
         this.interval = interval;
-        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.givenTimer = timer;
     }
 
     /**
      * Starts the continuous event scheduler by initiating the listening process
      * for all registered events at the specified interval.
      * <p>
-     * This method uses a scheduled executor service to call the {@code listen}
-     * method on each event in the listeners list at regular intervals.
+     * This method uses the timer to call the {@code listen} method on each
+     * event in the listeners list at regular intervals.
      * </p>
      */
     @Override
-    public void start() {
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
         LOG.info("Start Continuous Event Observations ...");
-        scheduler.scheduleAtFixedRate(() -> events.forEach(Event::observe), interval, interval, TimeUnit.MILLISECONDS);
+        Timer timer = givenTimer;
+        if (timer == null) {
+            ownedTimer = SystemTimer.singleThread("adaptiflow-observation-" + THREAD_SEQUENCE.incrementAndGet(), false);
+            timer = ownedTimer;
+        }
+        task = timer.scheduleAtFixedRate(this::runTick, interval, interval, TimeUnit.MILLISECONDS);
         this.running = true;
     }
 
     /**
      * Stops the continuous event scheduler.
      * <p>
-     * This method halts the listening process and shuts down the scheduled executor service.
+     * This method cancels the periodic observations, interrupting the current tick
+     * if any, and releases the thread of the scheduler. The scheduler can be
+     * restarted.
      * </p>
      */
     @Override
-    public void stop() {
+    public synchronized void stop() {
         LOG.info("Stop Continuous Event Observations ...");
-        scheduler.shutdownNow();
-        scheduler = Executors.newSingleThreadScheduledExecutor();
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (ownedTimer != null) {
+            ownedTimer.shutdown();
+            ownedTimer = null;
+        }
         this.running = false;
     }
 
+    /**
+     * Stops the scheduler. Equivalent to {@link #stop()}, which already releases
+     * the thread of the scheduler.
+     */
+    public void shutdown() {
+        stop();
+    }
+
+    /**
+     * Returns the scheduler interval: a tick lasting longer delays the next one.
+     *
+     * @return the tick budget in nanoseconds.
+     */
+    @Override
+    protected long getTickBudgetNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+
     public boolean isRunning() {
         return running;
     }
@@ -0,0 +1,403 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.subscriptions;
+
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ObservationFilter;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * The {@link EventRegistry} class holds the events observed by a scheduler and
+ * allows them to be added, removed or replaced while the scheduler is running.
+ * <p>
+ * Each event is registered under a unique key and an optional set of tags. The
+ * registry content is kept in an immutable snapshot (event array, key index and
+ * tag index) that is replaced atomically on every change, so:
+ * </p>
+ * <ul>
+ *     <li>lookups by key or tag are O(1) and never block;</li>
+ *     <li>a tick iterates the array of the snapshot it read at its start, and
+ *     changes take effect from the next tick;</li>
+ *     <li>events not affected by a change keep being observed without interruption.</li>
+ * </ul>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * EventRegistry registry = new EventRegistry();
+ * registry.register("cpu-high", highUsageEvent, "recommender", "global");
+ * ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(registry, 1000);
+ * scheduler.start();
+ * // Later, without stopping the scheduler
+ * registry.replace("cpu-high", newHighUsageEvent);
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+@SuppressWarnings("rawtypes")
+public class EventRegistry {
+
+    /**
+     * An immutable view of the registry content.
+     */
+    private static final class Snapshot {
+        private final Event[] events;
+        private final String[] keys;
+        private final Map<String, Integer> indexByKey;
+        private final Map<String, Set<String>> tagsByKey;
+        private final Map<String, List<Event>> eventsByTag;
+
+        private Snapshot(Event[] events, String[] keys, Map<String, Set<String>> tagsByKey) {
+            this.events = events;
+            this.keys = keys;
+            this.tagsByKey = tagsByKey;
+            this.indexByKey = new HashMap<>();
+            Map<String, List<Event>> byTag = new HashMap<>();
+            for (int i = 0; i < keys.length; i++) {
+                indexByKey.put(keys[i], i);
+                for (String tag : tagsByKey.get(keys[i])) {
+                    byTag.computeIfAbsent(tag, t -> new ArrayList<>()).add(events[i]);
+                }
+            }
+            byTag.replaceAll((tag, list) -> Collections.unmodifiableList(list));
+            this.eventsByTag = byTag;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new Event[0], new String[0], Collections.emptyMap());
+
+    /**
+     * The current content of the registry.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(EMPTY);
+
+    /**
+     * A live, read-only list view of the registered events. Its iterators and
+     * spliterators go over a single snapshot, so iterating the view while events
+     * are removed never fails.
+     */
+    private final List<Event> view = new AbstractList<Event>() {
+        @Override
+        public Event get(int index) {
+            return snapshot.get().events[index];
+        }
+
+        @Override
+        public int size() {
+            return snapshot.get().events.length;
+        }
+
+        @Override
+        public Iterator<Event> iterator() {
+            return listIterator(0);
+        }
+
+        @Override
+        public ListIterator<Event> listIterator(int index) {
+            return Collections.unmodifiableList(Arrays.asList(snapshot.get().events)).listIterator(index);
+        }
+
+        @Override
+        public Spliterator<Event> spliterator() {
+            return Spliterators.spliterator(snapshot.get().events, Spliterator.ORDERED | Spliterator.IMMUTABLE);
+        }
+    };
+
+    /**
+     * Creates a registry containing the given events, registered under their default keys.
+     *
+     * @param events the events to register.
+     * @return a new registry.
+     * @throws IllegalArgumentException if the list holds the same event twice.
+     */
+    public static EventRegistry of(List<Event> events) {
+        EventRegistry registry = new EventRegistry();
+        events.forEach(registry::register);
+        return registry;
+    }
+
+    /**
+     * Registers an event under its default key: its name if no other event is
+     * registered under it, otherwise its name followed by {@code #} and its id.
+     *
+     * @param event the event to register.
+     * @param tags the tags of the event.
+     * @return the key under which the event was registered.
+     * @throws IllegalArgumentException if the event is already registered.
+     */
+    public String register(Event event, String... tags) {
+        while (true) {
+            Snapshot current = snapshot.get();
+            checkNotRegistered(current, event);
+            String name = event.getName() != null ? event.getName() : "event";
+            String key = current.indexByKey.containsKey(name) ? name + "#" + event.getId() : name;
+            if (current.indexByKey.containsKey(key)) {
+                throw new IllegalArgumentException("An event is already registered under " + key);
+            }
+            if (snapshot.compareAndSet(current, added(current, key, event, tags))) {
+                return key;
+            }
+        }
+    }
+
+    /**
+     * Registers an event under the given key.
+     *
+     * @param key the unique key of the event.
+     * @param event the event to register.
+     * @param tags the tags of the event.
+     * @throws IllegalArgumentException if an event is already registered under the key,
+     *         or if the event is already registered.
+     */
+    public void register(String key, Event event, String... tags) {
+        update(current -> {
+            if (current.indexByKey.containsKey(key)) {
+                throw new IllegalArgumentException("An event is already registered under " + key);
+            }
+            checkNotRegistered(current, event);
+            return added(current, key, event, tags);
+        });
+    }
+
+    /**
+     * Unregisters the event registered under the given key.
+     *
+     * @param key the key of the event.
+     * @return the removed event, or {@code null} if no event was registered under the key.
+     */
+    public Event unregister(String key) {
+        Event[] removed = new Event[1];
+        update(current -> {
+            Integer index = current.indexByKey.get(key);
+            if (index == null) {
+                removed[0] = null;
+                return current;
+            }
+            removed[0] = current.events[index];
+            return removed(current, index);
+        });
+        if (removed[0] != null) {
+            ObservationHooks.fireEventRemoved(removed[0], null);
+        }
+        return removed[0];
+    }
+
+    /**
+     * Unregisters the given event.
+     *
+     * @param event the event to remove.
+     * @return {@code true} if the event was registered.
+     */
+    public boolean unregister(Event event) {
+        String key = keyOf(event);
+        return key != null && unregister(key) == event;
+    }
+
+    /**
+     * Atomically replaces the event registered under the given key, keeping its
+     * tags and its position in the observation order.
+     *
+     * @param key the key of the event to replace.
+     * @param replacement the new event.
+     * @return the replaced event.
+     * @throws IllegalArgumentException if no event is registered under the key, or
+     *         if the replacement is already registered under another key.
+     */
+    public Event replace(String key, Event replacement) {
+        Event[] replaced = new Event[1];
+        update(current -> {
+            Integer index = current.indexByKey.get(key);
+            if (index == null) {
+                throw new IllegalArgumentException("No event is registered under " + key);
+            }
+            replaced[0] = current.events[index];
+            if (replacement != replaced[0]) {
+                checkNotRegistered(current, replacement);
+            }
+            Event[] events = current.events.clone();
+            events[index] = replacement;
+            return new Snapshot(events, current.keys, current.tagsByKey);
+        });
+        if (replaced[0] != replacement) {
+            ObservationHooks.fireEventRemoved(replaced[0], replacement);
+        }
+        return replaced[0];
+    }
+
+    /**
+     * Returns the event registered under the given key.
+     *
+     * @param key the key of the event.
+     * @return the event, or {@code null} if none is registered under the key.
+     */
+    public Event get(String key) {
+        Snapshot current = snapshot.get();
+        Integer index = current.indexByKey.get(key);
+        return index != null ? current.events[index] : null;
+    }
+
+    /**
+     * Returns the events carrying the given tag.
+     *
+     * @param tag the tag.
+     * @return an unmodifiable list of events, empty if no event carries the tag.
+     */
+    public List<Event> getByTag(String tag) {
+        return snapshot.get().eventsByTag.getOrDefault(tag, Collections.emptyList());
+    }
+
+    /**
+     * Returns the tags of the event registered under the given key.
+     *
+     * @param key the key of the event.
+     * @return an unmodifiable set of tags, empty if the key is unknown.
+     */
+    public Set<String> getTags(String key) {
+        return snapshot.get().tagsByKey.getOrDefault(key, Collections.emptySet());
+    }
+
+    /**
+     * Returns the key under which the given event is registered.
+     * <p>
+     * This lookup is linear in the number of events.
+     * </p>
+     *
+     * @param event the event.
+     * @return the key, or {@code null} if the event is not registered.
+     */
+    public String keyOf(Event event) {
+        Snapshot current = snapshot.get();
+        int index = indexOf(current, event);
+        return index >= 0 ? current.keys[index] : null;
+    }
+
+    /**
+     * Returns the keys of the registered events, in observation order.
+     *
+     * @return an unmodifiable snapshot of the keys.
+     */
+    public List<String> keys() {
+        return Collections.unmodifiableList(Arrays.asList(snapshot.get().keys));
+    }
+
+    /**
+     * Returns a live, read-only list view of the registered events.
+     *
+     * @return the list view.
+     */
+    public List<Event> asList() {
+        return view;
+    }
+
+    /**
+     * Returns the number of registered events.
+     *
+     * @return the number of events.
+     */
+    public int size() {
+        return snapshot.get().events.length;
+    }
+
+    /**
+     * Returns the array of registered events of the current snapshot.
+     * <p>
+     * The array is shared and must not be modified.
+     * </p>
+     *
+     * @return the registered events, in observation order.
+     */
+    Event[] events() {
+        return snapshot.get().events;
+    }
+
+    /**
+     * Observes the registered events of the current snapshot accepted by the filter.
+     *
+     * @param filter the filter deciding which events are observed.
+     */
+    void observe(ObservationFilter filter) {
+        Snapshot current = snapshot.get();
+        for (int i = 0; i < current.events.length; i++) {
+            String key = current.keys[i];
+            Event<?> event = current.events[i];
+            if (filter.shouldObserve(key, current.tagsByKey.get(key), event)) {
+                event.observe();
+            }
+        }
+    }
+
+    private void update(UnaryOperator<Snapshot> change) {
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = snapshot.get();
+            updated = change.apply(current);
+        } while (current != updated && !snapshot.compareAndSet(current, updated));
+    }
+
+    private static int indexOf(Snapshot current, Event event) {
+        for (int i = 0; i < current.events.length; i++) {
+            if (current.events[i] == event) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void checkNotRegistered(Snapshot current, Event event) {
+        int index = indexOf(current, event);
+        if (index >= 0) {
+            throw new IllegalArgumentException("Event is already registered under " + current.keys[index]);
+        }
+    }
+
+    private static Snapshot added(Snapshot current, String key, Event event, String[] tags) {
+        int size = current.events.length;
+        Event[] events = Arrays.copyOf(current.events, size + 1);
+        String[] keys = Arrays.copyOf(current.keys, size + 1);
+        events[size] = event;
+        keys[size] = key;
+        Map<String, Set<String>> tagsByKey = new HashMap<>(current.tagsByKey);
+        tagsByKey.put(key, Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(tags))));
+        return new Snapshot(events, keys, tagsByKey);
+    }
+
+    private static Snapshot removed(Snapshot current, int index) {
+        int size = current.events.length;
+        Event[] events = new Event[size - 1];
+        String[] keys = new String[size - 1];
+        System.arraycopy(current.events, 0, events, 0, index);
+        System.arraycopy(current.events, index + 1, events, index, size - index - 1);
+        System.arraycopy(current.keys, 0, keys, 0, index);
+        System.arraycopy(current.keys, index + 1, keys, index, size - index - 1);
+        Map<String, Set<String>> tagsByKey = new HashMap<>(current.tagsByKey);
+        tagsByKey.remove(current.keys[index]);
+        return new Snapshot(events, keys, tagsByKey);
+    }
+}
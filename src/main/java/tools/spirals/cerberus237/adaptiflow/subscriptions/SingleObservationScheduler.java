@@ -31,13 +31,28 @@ public class SingleObservationScheduler extends AbstractObservationScheduler {
 
     /**
      * Constructs a {@link SingleObservationScheduler} with the specified list of events.
+     * <p>
+     * The events are copied into a new {@link EventRegistry}: unlike in earlier
+     * versions, later changes to the list are not seen and must be made through
+     * {@link #getRegistry()}, and an event may only appear once in the list.
+     * </p>
      *
      * @param events a list of events to be managed by this scheduler.
+     * @throws IllegalArgumentException if the list holds the same event twice.
      */
     public SingleObservationScheduler(List<Event> events) {
         super(events);
     }
 
+    /**
+     * Constructs a {@link SingleObservationScheduler} observing the events of the specified registry.
+     *
+     * @param registry the registry holding the events to be managed by this scheduler.
+     */
+    public SingleObservationScheduler(EventRegistry registry) {
+        super(registry);
+    }
+
     /**
      * Starts the single event scheduler by initiating the listening process
      * for all registered events.
@@ -48,7 +63,7 @@ public class SingleObservationScheduler extends AbstractObservationScheduler {
      */
     @Override
     public void start() {
-        events.forEach(Event::observe);
+        runTick();
     }
 
     /**
@@ -13,9 +13,13 @@
  */
 package tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers;
 
+import org.slf4j.Logger;
+import tools.spirals.cerberus237.adaptiflow.actions.DirectActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.interfaces.ActionExecutor;
 import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
 import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
 import tools.spirals.cerberus237.adaptiflow.interfaces.Observer;
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
 
 import java.util.List;
 
@@ -42,6 +46,16 @@ public abstract class AbstractEventSubscriber<T> implements Observer<T> {
      */
     protected ConditionEvaluator<T> conditionEvaluator;
 
+    /**
+     * The executor used to perform the actions, synchronous by default.
+     */
+    protected volatile ActionExecutor actionExecutor = DirectActionExecutor.INSTANCE;
+
+    /**
+     * The sampler limiting how often triggers are logged, once per second by default.
+     */
+    protected final TriggerLogSampler triggerLogSampler = new TriggerLogSampler(1000);
+
     /**
      * Constructs an {@code AbstractEventSubscriber} with the specified
      * actions and a condition evaluator.
@@ -64,4 +78,76 @@ public abstract class AbstractEventSubscriber<T> implements Observer<T> {
     public ConditionEvaluator<T> getConditionEvaluator() {
         return conditionEvaluator;
     }
+
+    /**
+     * Retrieves the executor used to perform the actions.
+     *
+     * @return the current action executor.
+     */
+    public ActionExecutor getActionExecutor() {
+        return actionExecutor;
+    }
+
+    /**
+     * Sets the executor used to perform the actions.
+     * <p>
+     * By default actions are performed synchronously on the observation thread;
+     * a {@link tools.spirals.cerberus237.adaptiflow.actions.RetryingActionExecutor}
+     * can be used instead to perform them asynchronously with retries.
+     * </p>
+     *
+     * @param actionExecutor the action executor to use.
+     */
+    public void setActionExecutor(ActionExecutor actionExecutor) {
+        this.actionExecutor = actionExecutor;
+    }
+
+    /**
+     * Sets the minimum interval between two logged triggers of this subscriber.
+     * Triggers in between are counted and reported with the next logged one.
+     *
+     * @param intervalMillis the interval in milliseconds; 0 logs every trigger.
+     */
+    public void setTriggerLogInterval(long intervalMillis) {
+        triggerLogSampler.setIntervalMillis(intervalMillis);
+    }
+
+    /**
+     * Sets the clock measuring the time-based behaviour of this subscriber,
+     * the system clock by default.
+     *
+     * @param clock the clock to use.
+     */
+    public void setClock(Clock clock) {
+        triggerLogSampler.setClock(clock);
+    }
+
+    /**
+     * Logs a trigger of this subscriber at INFO level, subject to the trigger log sampler.
+     *
+     * @param log the logger of the concrete subscriber.
+     * @param metricValue the metric value that triggered the subscriber.
+     * @param message a message indicating the context of the update.
+     */
+    protected void logTrigger(Logger log, T metricValue, String message) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        long skipped = triggerLogSampler.acquire();
+        if (skipped == 0) {
+            log.info("{}: {}", message, metricValue);
+        } else if (skipped != TriggerLogSampler.SKIP) {
+            log.info("{}: {} ({} similar triggers not logged)", message, metricValue, skipped);
+        }
+    }
+
+    /**
+     * Hands every action of this subscriber to the action executor.
+     */
+    protected void performActions() {
+        ActionExecutor executor = this.actionExecutor;
+        for (IAdaptationAction action : actions) {
+            executor.execute(action);
+        }
+    }
 }
\ No newline at end of file
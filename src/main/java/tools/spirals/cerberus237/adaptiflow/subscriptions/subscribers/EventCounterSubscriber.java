@@ -17,8 +17,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import tools.spirals.cerberus237.adaptiflow.interfaces.ConditionEvaluator;
 import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.interfaces.Snapshottable;
 import tools.spirals.cerberus237.adaptiflow.operators.TrueEvaluator;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -27,13 +31,15 @@ import java.util.List;
  * specified counting cycle.
  * <p>
  * This class counts the number of updates received and performs the actions
- * only when the count reaches a predefined cycle.
+ * only when the count reaches a predefined cycle. The count is part of the
+ * state saved by a {@link tools.spirals.cerberus237.adaptiflow.snapshot.SnapshotManager},
+ * so that a restart does not restart the cycle.
  * </p>
  *
  * @param <T> the type of data that this subscriber will work with.
  * @author Arléon Zemtsop (Cerberus)
  */
-public class EventCounterSubscriber<T> extends AbstractEventSubscriber<T> {
+public class EventCounterSubscriber<T> extends AbstractEventSubscriber<T> implements Snapshottable {
     private static final Logger LOG = LoggerFactory.getLogger(EventCounterSubscriber.class);
 
     /**
@@ -77,7 +83,7 @@ public class EventCounterSubscriber<T> extends AbstractEventSubscriber<T> {
      * Updates the subscriber with a new metric value and a message.
      * <p>
      * This method increments the counter and checks if it has reached the cycle limit.
-     * If so, it prints the message, performs the adaptation actions, and resets the counter.
+     * If so, it logs the message (rate limited), performs the adaptation actions, and resets the counter.
      * </p>
      *
      * @param metricValue the new metric value to be evaluated.
@@ -87,8 +93,8 @@ public class EventCounterSubscriber<T> extends AbstractEventSubscriber<T> {
     public void update(T metricValue, String message) {
         counter++;
         if (counter >= cycle) {
-            LOG.info("{}: {}", message, metricValue);
-            actions.forEach(IAdaptationAction::perform);
+            logTrigger(LOG, metricValue, message);
+            performActions();
             counter = 0; // Reset the counter after actions are performed
         }
     }
@@ -101,4 +107,14 @@ public class EventCounterSubscriber<T> extends AbstractEventSubscriber<T> {
     public int getCounter() {
         return counter;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeInt(counter);
+    }
+
+    @Override
+    public void restoreSnapshot(DataInput in) throws IOException {
+        counter = Math.max(0, in.readInt());
+    }
+}
@@ -62,7 +62,8 @@ public class EventSubscriber<T> extends AbstractEventSubscriber<T> {
     /**
      * Updates the subscriber with a new metric value and a message.
      * <p>
-     * This method prints the message and the metric value, and then
+     * This method logs the message and the metric value (rate limited by the
+     * trigger log sampler), and then
      * performs all the adaptation actions if the conditions are met.
      * </p>
      *
@@ -71,7 +72,7 @@ public class EventSubscriber<T> extends AbstractEventSubscriber<T> {
      */
     @Override
     public void update(T metricValue, String message) {
-        LOG.info("{}: {}", message, metricValue);
-        actions.forEach(IAdaptationAction::perform);
+        logTrigger(LOG, metricValue, message);
+        performActions();
     }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers;
+
+import tools.spirals.cerberus237.adaptiflow.time.Clock;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@link TriggerLogSampler} class rate-limits the logging of subscriber triggers.
+ * <p>
+ * At most one trigger is logged per interval; the triggers skipped in between are
+ * counted and reported with the next logged one. The sampler only touches
+ * primitive atomics, so skipped triggers cost no allocation and no log I/O.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public final class TriggerLogSampler {
+
+    /**
+     * Value returned by {@link #acquire()} when the trigger must not be logged.
+     */
+    public static final long SKIP = -1L;
+
+    /**
+     * The clock measuring the interval.
+     */
+    private volatile Clock clock;
+
+    /**
+     * The minimum interval between two logged triggers, in nanoseconds.
+     */
+    private volatile long intervalNanos;
+
+    /**
+     * The time of the last logged trigger, in nanoseconds.
+     */
+    private final AtomicLong lastLogged = new AtomicLong();
+
+    /**
+     * The number of triggers skipped since the last logged one.
+     */
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Constructs a {@code TriggerLogSampler}.
+     *
+     * @param intervalMillis the minimum interval between two logged triggers,
+     *                       in milliseconds; 0 logs every trigger.
+     */
+    public TriggerLogSampler(long intervalMillis) {
+        this(intervalMillis, SystemClock.INSTANCE);
+    }
+
+    /**
+     * Constructs a {@code TriggerLogSampler} measuring the interval on the given clock.
+     *
+     * @param intervalMillis the minimum interval between two logged triggers,
+     *                       in milliseconds; 0 logs every trigger.
+     * @param clock the clock measuring the interval.
+     */
+    public TriggerLogSampler(long intervalMillis, Clock clock) {
+        setIntervalMillis(intervalMillis);
+        setClock(clock);
+    }
+
+    /**
+     * Sets the clock measuring the interval. The next trigger is logged.
+     *
+     * @param clock the clock measuring the interval.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+        this.lastLogged.set(clock.nanoTime() - intervalNanos);
+    }
+
+    /**
+     * Sets the minimum interval between two logged triggers.
+     *
+     * @param intervalMillis the interval in milliseconds; 0 logs every trigger.
+     */
+    public void setIntervalMillis(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, intervalMillis));
+    }
+
+    /**
+     * Decides whether the current trigger should be logged.
+     *
+     * @return the number of triggers skipped since the last logged one if this
+     *         trigger should be logged, or {@link #SKIP} otherwise.
+     */
+    public long acquire() {
+        long interval = intervalNanos;
+        if (interval == 0) {
+            return skipped.getAndSet(0);
+        }
+        long now = clock.nanoTime();
+        long last = lastLogged.get();
+        if (now - last >= interval && lastLogged.compareAndSet(last, now)) {
+            return skipped.getAndSet(0);
+        }
+        skipped.incrementAndGet();
+        return SKIP;
+    }
+}
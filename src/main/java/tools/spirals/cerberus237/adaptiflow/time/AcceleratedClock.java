@@ -0,0 +1,108 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link AcceleratedClock} class is a {@link Clock} and a {@link Timer}
+ * running a given factor faster than real time.
+ * <p>
+ * Its time starts at the system time and moves {@code factor} times faster;
+ * delays and periods are shortened by the same factor and run on a single
+ * daemon thread of its own. It lets a soak test or a simulation cover hours of
+ * adaptation in minutes, with components still running concurrently.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * AcceleratedClock clock = new AcceleratedClock(60.0); // one minute per second
+ * ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(registry, 1000, clock);
+ * scheduler.start();
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class AcceleratedClock implements Clock, Timer {
+
+    private final double factor;
+
+    private final long startMillis;
+
+    private final long startNanos;
+
+    private final SystemTimer timer;
+
+    /**
+     * Constructs an {@code AcceleratedClock} starting at the current system time.
+     *
+     * @param factor the speed of the clock relative to real time, greater than 0.
+     * @throws IllegalArgumentException if the factor is not positive.
+     */
+    public AcceleratedClock(double factor) {
+        if (!(factor > 0.0)) {
+            throw new IllegalArgumentException("The factor must be positive");
+        }
+        this.factor = factor;
+        this.startMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.timer = SystemTimer.singleThread("adaptiflow-accelerated-clock");
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + (long) ((System.nanoTime() - startNanos) * factor / 1_000_000.0);
+    }
+
+    @Override
+    public long nanoTime() {
+        return startNanos + (long) ((System.nanoTime() - startNanos) * factor);
+    }
+
+    @Override
+    public Clock getClock() {
+        return this;
+    }
+
+    @Override
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(task, toRealNanos(delay, unit), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return timer.scheduleAtFixedRate(task, toRealNanos(initialDelay, unit),
+                Math.max(1L, toRealNanos(period, unit)), TimeUnit.NANOSECONDS);
+    }
+
+    private long toRealNanos(long duration, TimeUnit unit) {
+        return (long) (unit.toNanos(duration) / factor);
+    }
+
+    /**
+     * Returns the speed of the clock relative to real time.
+     *
+     * @return the acceleration factor.
+     */
+    public double getFactor() {
+        return factor;
+    }
+
+    /**
+     * Stops the thread running the tasks, abandoning the tasks not yet run.
+     */
+    public void shutdown() {
+        timer.shutdown();
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+/**
+ * The {@link Clock} interface represents a source of time for the components of
+ * AdaptiFlow that depend on it.
+ * <p>
+ * {@link SystemClock} reads the system time; {@link ManualClock} only moves when
+ * told to, and {@link AcceleratedClock} runs faster than real time, so that
+ * tests and simulations do not have to wait for real time to pass.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface Clock {
+
+    /**
+     * Returns the current time, as {@link System#currentTimeMillis()} does.
+     *
+     * @return the time in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+    /**
+     * Returns the current value of a monotonic time source, as {@link System#nanoTime()}
+     * does, only meaningful to measure elapsed time.
+     *
+     * @return the monotonic time in nanoseconds.
+     */
+    long nanoTime();
+}
@@ -0,0 +1,226 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link ManualClock} class is a {@link Clock} and a {@link Timer} whose
+ * time only moves when it is advanced.
+ * <p>
+ * Advancing the clock runs the tasks that fall due on the calling thread, in
+ * the order of their due time, with the clock set to that time while each one
+ * runs. A periodic task runs as many times as its period fits in the advance.
+ * Tasks scheduled by a running task are run in the same advance if they fall
+ * due before its end, so that chains of delays, such as retries, complete
+ * without real time passing. As with a
+ * {@link java.util.concurrent.ScheduledExecutorService}, a periodic task that
+ * throws is cancelled.
+ * </p>
+ *
+ * <h3>Usage Example:</h3>
+ * <pre>
+ * ManualClock clock = new ManualClock(0L);
+ * ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(registry, 100, clock);
+ * scheduler.start();
+ * clock.advance(1, TimeUnit.SECONDS); // runs ten ticks
+ * </pre>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ManualClock implements Clock, Timer {
+    private static final Logger LOG = LoggerFactory.getLogger(ManualClock.class);
+
+    private final long startMillis;
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+
+    /**
+     * Serializes the advances, so that tasks never run concurrently.
+     */
+    private final Object advanceLock = new Object();
+
+    private volatile long nanos = 0L;
+
+    private long sequence = 0L;
+
+    /**
+     * Constructs a {@code ManualClock} showing the given time.
+     *
+     * @param startMillis the initial time in milliseconds since the epoch.
+     */
+    public ManualClock(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return startMillis + TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public long nanoTime() {
+        return nanos;
+    }
+
+    @Override
+    public Clock getClock() {
+        return this;
+    }
+
+    @Override
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        return enqueue(task, unit.toNanos(Math.max(0L, delay)), 0L);
+    }
+
+    @Override
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("The period must be positive");
+        }
+        return enqueue(task, unit.toNanos(Math.max(0L, initialDelay)), unit.toNanos(period));
+    }
+
+    private synchronized Entry enqueue(Runnable task, long delayNanos, long periodNanos) {
+        Entry entry = new Entry(task, nanos + delayNanos, periodNanos, sequence++);
+        queue.add(entry);
+        return entry;
+    }
+
+    /**
+     * Moves the clock forward, running the tasks falling due.
+     *
+     * @param duration the time to move forward by.
+     * @param unit the unit of the duration.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public void advance(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("The clock cannot move backwards");
+        }
+        synchronized (advanceLock) {
+            advanceNanosTo(nanos + unit.toNanos(duration));
+        }
+    }
+
+    /**
+     * Moves the clock forward to the given time, running the tasks falling due.
+     *
+     * @param millis the new time in milliseconds since the epoch.
+     * @throws IllegalArgumentException if the time is before the current time.
+     */
+    public void advanceTo(long millis) {
+        synchronized (advanceLock) {
+            long target = TimeUnit.MILLISECONDS.toNanos(millis - startMillis);
+            if (target < nanos) {
+                throw new IllegalArgumentException("The clock cannot move backwards");
+            }
+            advanceNanosTo(target);
+        }
+    }
+
+    private void advanceNanosTo(long target) {
+        Entry entry;
+        while ((entry = pollDue(target)) != null) {
+            nanos = entry.dueNanos;
+            try {
+                entry.task.run();
+            } catch (RuntimeException e) {
+                if (entry.periodNanos > 0) {
+                    LOG.warn("Periodic task failed, it will not run again", e);
+                    entry.cancelled = true;
+                } else {
+                    LOG.warn("Scheduled task failed", e);
+                }
+            }
+            if (entry.periodNanos > 0) {
+                requeue(entry);
+            }
+        }
+        nanos = target;
+    }
+
+    private synchronized Entry pollDue(long target) {
+        Entry head;
+        while ((head = queue.peek()) != null && head.dueNanos <= target) {
+            queue.poll();
+            if (!head.cancelled) {
+                return head;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void requeue(Entry entry) {
+        if (!entry.cancelled) {
+            entry.dueNanos += entry.periodNanos;
+            entry.order = sequence++;
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting to run, periodic tasks included.
+     *
+     * @return the number of pending tasks.
+     */
+    public synchronized int getPendingCount() {
+        int count = 0;
+        for (Entry entry : queue) {
+            if (!entry.cancelled) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static final class Entry implements ScheduledTask, Comparable<Entry> {
+        private final Runnable task;
+
+        private final long periodNanos;
+
+        private long dueNanos;
+
+        private long order;
+
+        private volatile boolean cancelled = false;
+
+        private Entry(Runnable task, long dueNanos, long periodNanos, long order) {
+            this.task = task;
+            this.dueNanos = dueNanos;
+            this.periodNanos = periodNanos;
+            this.order = order;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(dueNanos, other.dueNanos);
+            return byTime != 0 ? byTime : Long.compare(order, other.order);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+/**
+ * The {@link ScheduledTask} interface represents a task scheduled on a {@link Timer}.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface ScheduledTask {
+
+    /**
+     * Cancels the task: it will not run again. A run in progress on a thread of
+     * the timer is interrupted.
+     */
+    void cancel();
+
+    /**
+     * Tells whether the task was cancelled, or stopped running after a periodic
+     * run threw an exception.
+     *
+     * @return {@code true} if the task will not run again.
+     */
+    boolean isCancelled();
+}
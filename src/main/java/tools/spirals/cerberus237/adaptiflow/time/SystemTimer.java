@@ -0,0 +1,100 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link SystemTimer} class is the {@link Timer} running tasks in real time,
+ * on the threads of a {@link ScheduledExecutorService}.
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class SystemTimer implements Timer {
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructs a {@code SystemTimer} running tasks on the given executor.
+     *
+     * @param executor the executor running the tasks.
+     */
+    public SystemTimer(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a timer running tasks on a single daemon thread of its own.
+     *
+     * @param threadName the name of the thread.
+     * @return the timer.
+     */
+    public static SystemTimer singleThread(String threadName) {
+        return singleThread(threadName, true);
+    }
+
+    /**
+     * Creates a timer running tasks on a single thread of its own.
+     *
+     * @param threadName the name of the thread.
+     * @param daemon whether the thread is a daemon thread, which does not keep the JVM alive.
+     * @return the timer.
+     */
+    public static SystemTimer singleThread(String threadName, boolean daemon) {
+        return new SystemTimer(Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(daemon);
+            return thread;
+        }));
+    }
+
+    @Override
+    public Clock getClock() {
+        return SystemClock.INSTANCE;
+    }
+
+    @Override
+    public ScheduledTask schedule(Runnable task, long delay, TimeUnit unit) {
+        return wrap(executor.schedule(task, delay, unit));
+    }
+
+    @Override
+    public ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return wrap(executor.scheduleAtFixedRate(task, initialDelay, period, unit));
+    }
+
+    private static ScheduledTask wrap(ScheduledFuture<?> future) {
+        return new ScheduledTask() {
+            @Override
+            public void cancel() {
+                future.cancel(true);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return future.isDone();
+            }
+        };
+    }
+
+    /**
+     * Stops the executor, abandoning the tasks not yet run.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link Timer} interface represents a component running tasks after a
+ * delay or periodically, according to its {@link Clock}.
+ * <p>
+ * As with a {@link java.util.concurrent.ScheduledExecutorService}, a periodic
+ * task that throws an exception is not run again.
+ * </p>
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public interface Timer {
+
+    /**
+     * Returns the clock whose time drives this timer.
+     *
+     * @return the clock.
+     */
+    Clock getClock();
+
+    /**
+     * Runs a task once, after the given delay.
+     *
+     * @param task the task.
+     * @param delay the delay.
+     * @param unit the unit of the delay.
+     * @return the scheduled task.
+     * @throws java.util.concurrent.RejectedExecutionException if the timer no longer accepts tasks.
+     */
+    ScheduledTask schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Runs a task periodically, at a fixed rate: a run lasting longer than the
+     * period delays the next one, and runs never overlap.
+     *
+     * @param task the task.
+     * @param initialDelay the delay before the first run.
+     * @param period the period between the start of two runs.
+     * @param unit the unit of the delay and of the period.
+     * @return the scheduled task.
+     * @throws java.util.concurrent.RejectedExecutionException if the timer no longer accepts tasks.
+     */
+    ScheduledTask scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionPlannerTest {
+    private List<String> performed;
+    private ActionPlanner planner;
+
+    private static class EnableCache extends ExampleAction {
+        EnableCache(List<String> performed) {
+            super("enable-cache", () -> performed.add("enablecache"));
+        }
+    }
+
+    private static class DisableCache extends ExampleAction {
+        DisableCache(List<String> performed) {
+            super("disable-cache", () -> performed.add("disablecache"));
+        }
+    }
+
+    private static class LowPowerMode extends ExampleAction {
+        LowPowerMode(List<String> performed) {
+            super("low-power-mode", () -> performed.add("lowpowermode"));
+        }
+    }
+
+    @Before
+    public void setUp() {
+        performed = new ArrayList<>();
+        planner = new ActionPlanner(DirectActionExecutor.INSTANCE);
+    }
+
+    @Test
+    public void testExecutesImmediatelyOutsideTick() {
+        planner.execute(new EnableCache(performed));
+        Assert.assertEquals(List.of("enablecache"), performed);
+    }
+
+    @Test
+    public void testDeduplicatesIdenticalActions() {
+        planner.onTickStart(1);
+        planner.execute(new LowPowerMode(performed));
+        planner.execute(new LowPowerMode(performed));
+        Assert.assertTrue(performed.isEmpty());
+        planner.onTickEnd(1);
+
+        Assert.assertEquals(List.of("lowpowermode"), performed);
+        Assert.assertEquals(1, planner.getDeduplicatedCount());
+    }
+
+    @Test
+    public void testKeepsDifferentActionsOfOneClass() {
+        planner.onTickStart(1);
+        planner.execute(new ExampleAction("scale-orders", () -> performed.add("orders")));
+        planner.execute(new ExampleAction("scale-payments", () -> performed.add("payments")));
+        planner.onTickEnd(1);
+
+        Assert.assertEquals(List.of("orders", "payments"), performed);
+        Assert.assertEquals(0, planner.getDeduplicatedCount());
+    }
+
+    @Test
+    public void testTicksAreTrackedPerThread() throws InterruptedException {
+        planner.onTickStart(1);
+        planner.execute(new LowPowerMode(performed));
+
+        // Another scheduler's thread runs and ends its own tick meanwhile
+        List<String> other = Collections.synchronizedList(new ArrayList<>());
+        Thread thread = new Thread(() -> {
+            planner.execute(new DisableCache(other));
+            planner.onTickStart(7);
+            planner.execute(new EnableCache(other));
+            planner.onTickEnd(7);
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertEquals(List.of("disablecache", "enablecache"), other);
+        Assert.assertTrue(performed.isEmpty());
+        planner.onTickEnd(1);
+        Assert.assertEquals(List.of("lowpowermode"), performed);
+    }
+
+    @Test
+    public void testCancelOut() {
+        planner.declareConflict("enable-cache", "disable-cache", ConflictResolution.CANCEL_OUT);
+        planner.onTickStart(1);
+        planner.execute(new EnableCache(performed));
+        planner.execute(new LowPowerMode(performed));
+        planner.execute(new DisableCache(performed));
+        planner.onTickEnd(1);
+
+        Assert.assertEquals(List.of("lowpowermode"), performed);
+        Assert.assertEquals(2, planner.getSuppressedCount());
+    }
+
+    @Test
+    public void testLastWriterWins() {
+        planner.declareConflict("enable-cache", "disable-cache", ConflictResolution.LAST_WRITER);
+        planner.onTickStart(1);
+        planner.execute(new DisableCache(performed));
+        planner.execute(new EnableCache(performed));
+        planner.onTickEnd(1);
+
+        Assert.assertEquals(List.of("enablecache"), performed);
+    }
+
+    @Test
+    public void testPriorityWins() {
+        planner.declareConflict("enable-cache", "disable-cache", ConflictResolution.PRIORITY);
+        planner.setPriority("disable-cache", 10);
+        planner.onTickStart(1);
+        planner.execute(new DisableCache(performed));
+        planner.execute(new EnableCache(performed));
+        planner.onTickEnd(1);
+
+        Assert.assertEquals(List.of("disablecache"), performed);
+    }
+}
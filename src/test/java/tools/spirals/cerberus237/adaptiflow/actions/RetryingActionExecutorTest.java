@@ -0,0 +1,188 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.actions;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class RetryingActionExecutorTest {
+    private RetryingActionExecutor executor;
+    private List<ActionOutcome> outcomes;
+
+    private static class FlakyAction implements IAdaptationAction {
+        private final int failures;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        FlakyAction(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public AdaptationActionResult perform() {
+            if (calls.incrementAndGet() <= failures) {
+                throw new IllegalStateException("adapt endpoint unavailable");
+            }
+            return AdaptationActionResult.SUCCESS;
+        }
+
+        @Override
+        public String getActionId() {
+            return "flaky";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Fails a fixed number of times";
+        }
+
+        @Override
+        public boolean canPerform() {
+            return true;
+        }
+
+        @Override
+        public AdaptationActionResult rollback() {
+            return AdaptationActionResult.NOT_SUPPORTED;
+        }
+
+        @Override
+        public boolean supportsRollback() {
+            return false;
+        }
+    }
+
+    @Before
+    public void setUp() {
+        outcomes = new CopyOnWriteArrayList<>();
+        executor = new RetryingActionExecutor(1, new RetryPolicy(3, 5, 20, 2.0, 0.5), outcomes::add);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSucceedsAfterRetries() throws Exception {
+        FlakyAction action = new FlakyAction(2);
+        ActionOutcome outcome = executor.submit(action).get(2, TimeUnit.SECONDS);
+
+        Assert.assertTrue(outcome.isSuccess());
+        Assert.assertEquals(3, outcome.getAttempts());
+        Assert.assertEquals(3, action.calls.get());
+        Assert.assertEquals(1, outcomes.size());
+        Assert.assertEquals(0, executor.getPendingCount());
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() throws Exception {
+        FlakyAction action = new FlakyAction(10);
+        ActionOutcome outcome = executor.submit(action).get(2, TimeUnit.SECONDS);
+
+        Assert.assertFalse(outcome.isSuccess());
+        Assert.assertEquals(3, outcome.getAttempts());
+        Assert.assertTrue(outcome.getError() instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testRetriesRunWhenTheTimerClockAdvances() throws Exception {
+        ManualClock clock = new ManualClock(0L);
+        RetryingActionExecutor manual = new RetryingActionExecutor(new RetryPolicy(3, 100, 100, 1.0, 0.0),
+                outcomes::add, clock);
+        FlakyAction action = new FlakyAction(2);
+        CompletableFuture<ActionOutcome> future = manual.submit(action);
+
+        clock.advance(0, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, action.calls.get());
+        clock.advance(100, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, action.calls.get());
+        Assert.assertFalse(future.isDone());
+        clock.advance(100, TimeUnit.MILLISECONDS);
+
+        ActionOutcome outcome = future.getNow(null);
+        Assert.assertNotNull(outcome);
+        Assert.assertTrue(outcome.isSuccess());
+        Assert.assertEquals(3, outcome.getAttempts());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(200), outcome.getElapsedNanos());
+    }
+
+    @Test
+    public void testErrorsCompleteTheOutcome() throws Exception {
+        ManualClock clock = new ManualClock(0L);
+        RetryingActionExecutor manual = new RetryingActionExecutor(RetryPolicy.noRetry(), outcomes::add, clock);
+        IAdaptationAction broken = new FlakyAction(0) {
+            @Override
+            public AdaptationActionResult perform() {
+                throw new NoClassDefFoundError("plugin/Dependency");
+            }
+        };
+        CompletableFuture<ActionOutcome> future = manual.submit(broken);
+
+        clock.advance(0, TimeUnit.MILLISECONDS);
+        ActionOutcome outcome = future.getNow(null);
+        Assert.assertNotNull(outcome);
+        Assert.assertTrue(outcome.getError() instanceof NoClassDefFoundError);
+        Assert.assertEquals(0, manual.getPendingCount());
+    }
+
+    @Test
+    public void testShutdownCompletesAbandonedRetries() throws Exception {
+        ManualClock clock = new ManualClock(0L);
+        RetryingActionExecutor manual = new RetryingActionExecutor(new RetryPolicy(3, 100, 100, 1.0, 0.0),
+                outcomes::add, clock);
+        FlakyAction action = new FlakyAction(10);
+        CompletableFuture<ActionOutcome> future = manual.submit(action);
+        clock.advance(0, TimeUnit.MILLISECONDS);
+        Assert.assertFalse(future.isDone());
+
+        manual.shutdown();
+        ActionOutcome outcome = future.getNow(null);
+        Assert.assertNotNull(outcome);
+        Assert.assertFalse(outcome.isSuccess());
+        Assert.assertEquals(1, outcome.getAttempts());
+        Assert.assertEquals(0, manual.getPendingCount());
+        Assert.assertEquals(List.of(outcome), outcomes);
+
+        clock.advance(1, TimeUnit.SECONDS);
+        Assert.assertEquals(1, action.calls.get());
+        Assert.assertEquals(1, outcomes.size());
+    }
+
+    @Test
+    public void testRetryDelayIsCappedAndJittered() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 1000, 2.0, 0.5);
+        for (int attempt = 1; attempt <= 9; attempt++) {
+            long expected = Math.min(1000, 100L << (attempt - 1));
+            long delay = policy.delayAfterAttempt(attempt);
+            Assert.assertTrue(delay <= expected);
+            Assert.assertTrue(delay >= expected / 2);
+        }
+        Assert.assertFalse(policy.canRetry(10));
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class AggregateCollectorTest {
+
+    @Test
+    public void testChildrenAreQueriedConcurrently() {
+        List<IMetricsCollector<Double>> children = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            double value = i * 10.0;
+            children.add(() -> {
+                sleep(100);
+                return value;
+            });
+        }
+        AggregateCollector<Double, Double> collector =
+                new AggregateCollector<>(children, AggregateReducer.max(), 2000);
+        try {
+            long start = System.nanoTime();
+            Assert.assertEquals(50.0, collector.get(), 0.0);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            Assert.assertTrue("Took " + elapsedMillis + "ms", elapsedMillis < 400);
+            Assert.assertFalse(collector.getLastReport().isPartial());
+            Assert.assertEquals(List.of(0, 1, 2, 3, 4), collector.getLastReport().getResponded());
+        } finally {
+            collector.shutdown();
+        }
+    }
+
+    @Test
+    public void testStragglersAndFailuresAreReportedSeparately() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        IMetricsCollector<Double> hung = () -> {
+            // Ignores interruption, as a collector blocked in I/O would
+            while (true) {
+                try {
+                    release.await();
+                    return 99.0;
+                } catch (InterruptedException e) {
+                    // keep waiting
+                }
+            }
+        };
+        IMetricsCollector<Double> failing = () -> {
+            throw new IllegalStateException("instance down");
+        };
+        AggregateCollector<Double, Double> collector = new AggregateCollector<>(
+                List.of(() -> 10.0, hung, failing, () -> 30.0), AggregateReducer.mean(), 100);
+        try {
+            Assert.assertEquals(20.0, collector.get(), 0.0);
+            AggregateReport report = collector.getLastReport();
+            Assert.assertTrue(report.isPartial());
+            Assert.assertEquals(List.of(0, 3), report.getResponded());
+            Assert.assertEquals(List.of(2), report.getFailed());
+            Assert.assertEquals(List.of(1), report.getStragglers());
+            Assert.assertTrue(report.getDurationNanos() < TimeUnit.MILLISECONDS.toNanos(1000));
+
+            // The hung child is still busy, so it is skipped without waiting for the deadline
+            long start = System.nanoTime();
+            Assert.assertEquals(20.0, collector.get(), 0.0);
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(90));
+            Assert.assertEquals(List.of(1), collector.getLastReport().getStragglers());
+            Assert.assertEquals(2, collector.getStragglerCount());
+            Assert.assertEquals(2, collector.getFailureCount());
+            Assert.assertEquals(2, collector.getPartialCount());
+
+            release.countDown();
+            long until = System.currentTimeMillis() + 2000;
+            while (collector.getLastReport().getStragglers().contains(1) && System.currentTimeMillis() < until) {
+                Thread.sleep(10);
+                Assert.assertNotNull(collector.get());
+            }
+            Assert.assertEquals(List.of(0, 1, 3), collector.getLastReport().getResponded());
+        } finally {
+            release.countDown();
+            collector.shutdown();
+        }
+    }
+
+    @Test
+    public void testPercentileAndQuorumReducers() {
+        List<Integer> values = List.of(5, 1, 4, 2, 3, 10, 9, 8, 7, 6);
+        Assert.assertEquals(10.0, AggregateReducer.<Integer>percentile(95).reduce(values, 10), 0.0);
+        Assert.assertEquals(5.0, AggregateReducer.<Integer>percentile(50).reduce(values, 10), 0.0);
+        Assert.assertTrue(Double.isNaN(AggregateReducer.<Integer>mean().reduce(List.of(), 10)));
+
+        AggregateReducer<Integer, Boolean> quorum = AggregateReducer.quorum(value -> value < 8, 0.5);
+        Assert.assertTrue(quorum.reduce(List.of(1, 2, 3), 5));
+        // Missing children count as unhealthy
+        Assert.assertFalse(quorum.reduce(List.of(1, 2), 5));
+        Assert.assertFalse(quorum.reduce(List.of(1, 9, 9), 5));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
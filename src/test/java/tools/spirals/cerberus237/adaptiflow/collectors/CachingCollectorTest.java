@@ -0,0 +1,133 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
+import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class CachingCollectorTest {
+
+    @Test
+    public void testSimultaneousCallersShareOneRequest() throws Exception {
+        int callers = 8;
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IMetricsCollector<Integer> remote = () -> {
+            requests.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 42;
+        };
+        CachingCollector<Integer> collector = new CachingCollector<>(remote, 1000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(pool.submit(collector::get));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(pool.submit(collector::get));
+            }
+            long until = System.currentTimeMillis() + 5000;
+            while (collector.getCoalescedCount() < callers - 1 && System.currentTimeMillis() < until) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(42, (int) result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+
+        Assert.assertEquals(1, requests.get());
+        Assert.assertEquals(1, collector.getMissCount());
+        Assert.assertEquals(callers - 1, collector.getCoalescedCount());
+        Assert.assertEquals(42, (int) collector.get());
+        Assert.assertEquals(1, collector.getHitCount());
+        Assert.assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void testStaleValueIsServedWhileItIsRefreshed() {
+        ManualClock clock = new ManualClock(0L);
+        AtomicInteger requests = new AtomicInteger();
+        CachingCollector<Integer> collector = new CachingCollector<>(requests::incrementAndGet, 100, 400, clock);
+
+        Assert.assertEquals(1, (int) collector.get());
+        clock.advance(50, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, (int) collector.get());
+        Assert.assertEquals(1, requests.get());
+
+        // Expired but within the stale window: served while a single refresh is scheduled
+        clock.advance(100, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, (int) collector.get());
+        Assert.assertEquals(1, (int) collector.get());
+        Assert.assertEquals(1, requests.get());
+        Assert.assertEquals(2, collector.getStaleHitCount());
+
+        clock.advance(0, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, requests.get());
+        Assert.assertEquals(2, (int) collector.get());
+
+        // Past the stale window the caller waits for a new value
+        clock.advance(1, TimeUnit.SECONDS);
+        Assert.assertEquals(3, (int) collector.get());
+        Assert.assertEquals(2, collector.getMissCount());
+        Assert.assertEquals(4, collector.getHitCount());
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        ManualClock clock = new ManualClock(0L);
+        AtomicInteger requests = new AtomicInteger();
+        CachingCollector<Integer> collector = new CachingCollector<>(() -> {
+            if (requests.incrementAndGet() == 1) {
+                throw new IllegalStateException("unreachable");
+            }
+            return 7;
+        }, 100, 0, clock);
+
+        try {
+            collector.get();
+            Assert.fail("The failure should reach the caller");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("unreachable", e.getMessage());
+        }
+        Assert.assertEquals(7, (int) collector.get());
+        Assert.assertEquals(7, (int) collector.get());
+        Assert.assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.ContinuousObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry;
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class LeaderElectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static class CountingEvent extends Event<Double> {
+        private final AtomicInteger observations = new AtomicInteger();
+
+        CountingEvent(String name) {
+            super(name, () -> 1.0);
+        }
+
+        @Override
+        public void observe() {
+            observations.incrementAndGet();
+        }
+    }
+
+    private static final class Replica {
+        private final CountingEvent global = new CountingEvent("cluster-cpu");
+        private final CountingEvent local = new CountingEvent("instance-cpu");
+        private final LeaderElector elector;
+
+        Replica(String id, LeaseStore store, ManualClock clock) {
+            EventRegistry registry = new EventRegistry();
+            registry.register(global, LeaderFilter.GLOBAL_TAG);
+            registry.register(local);
+            elector = new LeaderElector(store, "recommender", id, 300, clock);
+            ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(registry, 100, clock);
+            scheduler.setObservationFilter(new LeaderFilter(elector));
+            elector.start();
+            scheduler.start();
+        }
+    }
+
+    @Test
+    public void testOnlyTheLeaderObservesGlobalEvents() {
+        ManualClock clock = new ManualClock(0L);
+        InMemoryLeaseStore store = new InMemoryLeaseStore(clock);
+        Replica first = new Replica("replica-1", store, clock);
+        Replica second = new Replica("replica-2", store, clock);
+
+        clock.advance(1, TimeUnit.SECONDS);
+        Assert.assertTrue(first.elector.isLeader());
+        Assert.assertFalse(second.elector.isLeader());
+        Assert.assertEquals(10, first.global.observations.get());
+        Assert.assertEquals(0, second.global.observations.get());
+        Assert.assertEquals(10, second.local.observations.get());
+
+        first.elector.stop();
+        clock.advance(1, TimeUnit.SECONDS);
+        Assert.assertFalse(first.elector.isLeader());
+        Assert.assertTrue(second.elector.isLeader());
+        Assert.assertEquals(10, first.global.observations.get());
+        Assert.assertTrue(second.global.observations.get() >= 9);
+        Assert.assertEquals("replica-2", store.getHolder("recommender"));
+    }
+
+    @Test
+    public void testLeaseAcquiredWhileStoppingIsReleased() throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        InMemoryLeaseStore delegate = new InMemoryLeaseStore();
+        LeaseStore store = new LeaseStore() {
+            @Override
+            public boolean tryAcquire(String lease, String owner, long ttlMillis) {
+                entered.countDown();
+                try {
+                    proceed.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return delegate.tryAcquire(lease, owner, ttlMillis);
+            }
+
+            @Override
+            public void release(String lease, String owner) {
+                delegate.release(lease, owner);
+                released.countDown();
+            }
+
+            @Override
+            public String getHolder(String lease) {
+                return delegate.getHolder(lease);
+            }
+        };
+        LeaderElector elector = new LeaderElector(store, "recommender", "replica-1", 30_000);
+        try {
+            elector.start();
+            Assert.assertTrue(entered.await(10, TimeUnit.SECONDS));
+            elector.stop();
+            proceed.countDown();
+
+            Assert.assertTrue(released.await(10, TimeUnit.SECONDS));
+            Assert.assertNull(delegate.getHolder("recommender"));
+            Assert.assertFalse(elector.isLeader());
+        } finally {
+            proceed.countDown();
+            elector.shutdown();
+        }
+    }
+
+    @Test
+    public void testExpiredLeaseCanBeTakenOver() {
+        ManualClock clock = new ManualClock(0L);
+        InMemoryLeaseStore store = new InMemoryLeaseStore(clock);
+
+        Assert.assertTrue(store.tryAcquire("recommender", "replica-1", 300));
+        Assert.assertFalse(store.tryAcquire("recommender", "replica-2", 300));
+        clock.advance(300, TimeUnit.MILLISECONDS);
+        Assert.assertNull(store.getHolder("recommender"));
+        Assert.assertTrue(store.tryAcquire("recommender", "replica-2", 300));
+    }
+
+    @Test
+    public void testFileLeaseIsExclusive() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        FileLeaseStore first = new FileLeaseStore(directory);
+        FileLeaseStore second = new FileLeaseStore(directory);
+
+        Assert.assertTrue(first.tryAcquire("recommender", "replica-1", 300));
+        Assert.assertTrue(first.tryAcquire("recommender", "replica-1", 300));
+        Assert.assertFalse(second.tryAcquire("recommender", "replica-2", 300));
+        Assert.assertEquals("replica-1", second.getHolder("recommender"));
+
+        first.release("recommender", "replica-1");
+        Assert.assertNull(second.getHolder("recommender"));
+        Assert.assertTrue(second.tryAcquire("recommender", "replica-2", 300));
+        second.release("recommender", "replica-2");
+    }
+
+    @Test
+    public void testFileLeaseIsExclusiveAcrossProcesses() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        FileLeaseStore first = new FileLeaseStore(directory);
+        FileLeaseStore second = new FileLeaseStore(directory);
+
+        Assert.assertTrue(first.tryAcquire("recommender", "replica-1", 300));
+        // Looking the lease up through another store must not drop the lock of the process
+        Assert.assertFalse(second.tryAcquire("recommender", "replica-2", 300));
+        Assert.assertEquals("replica-1", second.getHolder("recommender"));
+        Assert.assertEquals("replica-1 false", probe(directory, "replica-3"));
+
+        first.release("recommender", "replica-1");
+        Assert.assertEquals("null true", probe(directory, "replica-3"));
+        Assert.assertTrue(second.tryAcquire("recommender", "replica-2", 300));
+        second.release("recommender", "replica-2");
+    }
+
+    /**
+     * Looks the lease up and tries to acquire it from another process.
+     */
+    private static String probe(Path directory, String owner) throws Exception {
+        Process process = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                LeaseProbe.class.getName(), directory.toString(), owner)
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        Assert.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        Assert.assertEquals(output, 0, process.exitValue());
+        String[] lines = output.split("\\R");
+        return lines[lines.length - 1];
+    }
+
+    /**
+     * The other process of {@link #testFileLeaseIsExclusiveAcrossProcesses()}.
+     */
+    public static final class LeaseProbe {
+        public static void main(String[] args) throws IOException {
+            FileLeaseStore store = new FileLeaseStore(Paths.get(args[0]));
+            String holder = store.getHolder("recommender");
+            System.out.println(holder + " " + store.tryAcquire("recommender", args[1], 300));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.coordination;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ShardFilterTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    public void testEveryKeyHasExactlyOneOwnerAndLoadIsBalanced() {
+        StaticMembership membership = new StaticMembership(List.of("engine-1", "engine-2", "engine-3"));
+        List<ShardFilter> filters = List.of(new ShardFilter(membership, "engine-1"),
+                new ShardFilter(membership, "engine-2"), new ShardFilter(membership, "engine-3"));
+
+        Map<String, Integer> load = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            String key = "instance-cpu-" + i;
+            int owners = 0;
+            for (ShardFilter filter : filters) {
+                if (filter.owns(key)) {
+                    owners++;
+                    load.merge(filter.getMemberId(), 1, Integer::sum);
+                }
+            }
+            Assert.assertEquals(1, owners);
+        }
+        for (int count : load.values()) {
+            Assert.assertTrue("Unbalanced load: " + load, count > KEYS / 4 && count < KEYS / 2);
+        }
+    }
+
+    @Test
+    public void testJoiningMemberOnlyTakesKeys() {
+        StaticMembership membership = new StaticMembership(List.of("engine-1", "engine-2", "engine-3"));
+        HashRing before = new HashRing(membership.getMembers(), HashRing.DEFAULT_VIRTUAL_NODES);
+        ShardFilter joining = new ShardFilter(membership, "engine-4");
+        ShardFilter staying = new ShardFilter(membership, "engine-1");
+        Assert.assertFalse(joining.owns("instance-cpu-0") && staying.owns("instance-cpu-0"));
+
+        membership.join("engine-4");
+        HashRing after = new HashRing(membership.getMembers(), HashRing.DEFAULT_VIRTUAL_NODES);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "instance-cpu-" + i;
+            String owner = after.ownerOf(key);
+            if (!owner.equals(before.ownerOf(key))) {
+                Assert.assertEquals("engine-4", owner);
+                moved++;
+            }
+            Assert.assertEquals("engine-4".equals(owner), joining.owns(key));
+            Assert.assertEquals("engine-1".equals(owner), staying.owns(key));
+        }
+        Assert.assertTrue("Moved " + moved, moved > KEYS / 8 && moved < KEYS * 3 / 8);
+    }
+
+    @Test
+    public void testGlobalEventsAreNotSharded() {
+        StaticMembership membership = new StaticMembership(List.of("engine-1", "engine-2"));
+        ShardFilter first = new ShardFilter(membership, "engine-1");
+        ShardFilter second = new ShardFilter(membership, "engine-2");
+
+        Assert.assertTrue(first.shouldObserve("cluster-cpu", Set.of(LeaderFilter.GLOBAL_TAG), null));
+        Assert.assertTrue(second.shouldObserve("cluster-cpu", Set.of(LeaderFilter.GLOBAL_TAG), null));
+        Assert.assertNotEquals(first.shouldObserve("instance-cpu-1", Set.of(), null),
+                second.shouldObserve("instance-cpu-1", Set.of(), null));
+
+        membership.leave("engine-2");
+        Assert.assertTrue(first.shouldObserve("instance-cpu-1", Set.of(), null));
+    }
+
+    @Test
+    public void testLateNotificationsDoNotRestoreAnOlderRing() {
+        StaticMembership membership = new StaticMembership(List.of("engine-1", "engine-2"));
+        ShardFilter filter = new ShardFilter(membership, "engine-1");
+
+        membership.leave("engine-2");
+        // The notification of an earlier change, delivered late
+        filter.onMembershipChanged(Set.of("engine-1", "engine-2"));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(filter.owns("instance-cpu-" + i));
+        }
+    }
+}
@@ -105,4 +105,46 @@ public class EventTest {
 
         Assert.assertTrue(observer.getNotifiedValues().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testGetSubscribersIsUnmodifiable() {
+        event.getSubscribers().clear();
+    }
+
+    @Test
+    public void testSubscribeDuringObserve() {
+        TestObserver<Double> lateObserver = new TestObserver<>();
+        event.subscribe(new Observer<Double>() {
+            @Override
+            public void update(Double metricValue, String message) {
+                event.subscribe(lateObserver); // Must not break the ongoing iteration
+                event.unsubscribe(this);
+            }
+
+            @Override
+            public ConditionEvaluator<Double> getConditionEvaluator() {
+                return metric -> true;
+            }
+        });
+        collector.setValue(60.0);
+        event.observe();
+
+        Assert.assertEquals(1, observer.getNotifiedValues().size());
+        Assert.assertTrue(lateObserver.getNotifiedValues().isEmpty());
+        Assert.assertEquals(2, event.getSubscribers().size());
+
+        event.observe();
+        Assert.assertEquals(1, lateObserver.getNotifiedValues().size());
+    }
+
+    @Test
+    public void testNotificationContextIsReused() {
+        Event<Double> named = new Event<>("cpu", collector);
+        NotificationContext context = named.getNotificationContext();
+
+        Assert.assertSame(context, named.getNotificationContext());
+        Assert.assertEquals("Handling cpu event", context.getMessage());
+        Assert.assertEquals(named.getId(), context.getEventId());
+        Assert.assertNotEquals(event.getId(), named.getId());
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class CompressedHistoryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testEncodingRoundTrip() {
+        Random random = new Random(7);
+        long[] timestamps = new long[1000];
+        double[] values = new double[timestamps.length];
+        GorillaEncoder encoder = new GorillaEncoder();
+        long timestamp = 1_700_000_000_000L;
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamp += random.nextInt(5) == 0 ? random.nextInt(100_000) - 1000 : 10_000;
+            timestamps[i] = timestamp;
+            values[i] = random.nextBoolean() ? random.nextGaussian() * 1e6 : Math.floor(random.nextDouble() * 100);
+            encoder.append(timestamps[i], values[i]);
+        }
+        encoder.append(timestamp + 1, Double.NaN);
+
+        GorillaDecoder decoder = encoder.toBlock().decoder();
+        for (int i = 0; i < timestamps.length; i++) {
+            Assert.assertTrue(decoder.next());
+            Assert.assertEquals(timestamps[i], decoder.getTimestamp());
+            Assert.assertEquals(values[i], decoder.getValue(), 0.0);
+        }
+        Assert.assertTrue(decoder.next());
+        Assert.assertTrue(Double.isNaN(decoder.getValue()));
+        Assert.assertFalse(decoder.next());
+    }
+
+    @Test
+    public void testRegularSamplesTakeAboutOneByte() {
+        GorillaEncoder encoder = new GorillaEncoder();
+        for (int i = 0; i < 720; i++) {
+            encoder.append(1_700_000_000_000L + i * 10_000L, 40.0 + (i / 60) % 4);
+        }
+        Assert.assertTrue(encoder.getSizeBytes() < 720 * 2);
+    }
+
+    @Test
+    public void testSealsAndQueriesBlocks() {
+        List<GorillaBlock> sealed = new ArrayList<>();
+        CompressedSeries series = new CompressedSeries("cpu", 4, 2, sealed::add);
+        for (int i = 0; i < 14; i++) {
+            series.append(i * 10L, i);
+        }
+
+        Assert.assertEquals(3, sealed.size());
+        Assert.assertEquals(2, series.getBlocks().size());
+        Assert.assertEquals(10L, series.getSampleCount());
+        SampleStatistics statistics = new SampleStatistics();
+        Assert.assertEquals(5, series.forEach(55L, 100L, statistics));
+        Assert.assertEquals(6.0, statistics.getMin(), 0.0);
+        Assert.assertEquals(10.0, statistics.getMax(), 0.0);
+    }
+
+    @Test
+    public void testSurvivesRestart() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (CompressedHistory history = new CompressedHistory(directory, 8, 16)) {
+            for (int i = 0; i < 20; i++) {
+                history.series("cpu").append(1000L + i, i);
+            }
+        }
+
+        try (CompressedHistory history = new CompressedHistory(directory, 8, 16)) {
+            CompressedSeries series = history.getSeries("cpu");
+            Assert.assertEquals(20L, series.getSampleCount());
+            Assert.assertEquals(3, series.getBlocks().size());
+            series.append(2000L, 42.0);
+        }
+
+        Path file = directory.resolve(CompressedHistory.fileName("cpu"));
+        Assert.assertEquals(4, CompressedHistory.readBlocks(file).size());
+    }
+
+    @Test
+    public void testFilesRetainTheLatestBlocks() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Path file = directory.resolve(CompressedHistory.fileName("cpu"));
+        try (CompressedHistory history = new CompressedHistory(directory, 4, 2, 3)) {
+            for (int i = 0; i < 4 * 5; i++) {
+                history.series("cpu").append(1000L + i, i);
+            }
+            // The blocks are full: flushing only waits for the writer
+            history.flush();
+            // The sixth block would make the file hold twice the retained ones
+            Assert.assertEquals(5, CompressedHistory.readBlocks(file).size());
+            for (int i = 20; i < 24; i++) {
+                history.series("cpu").append(1000L + i, i);
+            }
+            history.flush();
+            List<GorillaBlock> blocks = CompressedHistory.readBlocks(file);
+            Assert.assertEquals(3, blocks.size());
+            Assert.assertEquals(1012L, blocks.get(0).getFirstTimestamp());
+            history.series("cpu").append(2000L, 42.0);
+        }
+
+        try (CompressedHistory history = new CompressedHistory(directory, 4, 2, 3)) {
+            Assert.assertEquals(3, CompressedHistory.readBlocks(file).size());
+            CompressedSeries series = history.getSeries("cpu");
+            Assert.assertEquals(2, series.getBlocks().size());
+            Assert.assertEquals(1020L, series.getBlocks().get(0).getFirstTimestamp());
+        }
+    }
+
+    @Test
+    public void testDiscardsTruncatedBlock() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (CompressedHistory history = new CompressedHistory(directory, 8, 16)) {
+            for (int i = 0; i < 16; i++) {
+                history.series("cpu").append(1000L + i, i);
+            }
+        }
+        Path file = directory.resolve(CompressedHistory.fileName("cpu"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (CompressedHistory history = new CompressedHistory(directory, 8, 16)) {
+            Assert.assertEquals(8L, history.getSeries("cpu").getSampleCount());
+            history.series("cpu").append(2000L, 1.0);
+        }
+        Assert.assertEquals(2, CompressedHistory.readBlocks(file).size());
+    }
+
+    @Test
+    public void testRecordsCollectedValues() throws IOException {
+        try (CompressedHistory history = new CompressedHistory(folder.getRoot().toPath(), 8, 16)) {
+            history.install();
+            ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 90.0,
+                    new GreaterThanEvaluator<>(80.0));
+            SingleObservationScheduler scheduler = new SingleObservationScheduler(List.of(event));
+            scheduler.start();
+            scheduler.start();
+
+            SampleStatistics statistics = new SampleStatistics();
+            Assert.assertEquals(2, history.getSeries("cpu").forEach(statistics));
+            Assert.assertEquals(90.0, statistics.getMean(), 0.0);
+        }
+    }
+}
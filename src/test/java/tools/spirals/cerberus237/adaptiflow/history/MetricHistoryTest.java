@@ -0,0 +1,135 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.history;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class MetricHistoryTest {
+
+    @Test
+    public void testRangeIteration() {
+        HistorySeries series = new MetricHistory(1 << 20, 16).series("cpu");
+        for (int i = 0; i < 10; i++) {
+            series.append(1000L + i * 10, i);
+        }
+
+        List<Double> values = new ArrayList<>();
+        Assert.assertEquals(3, series.forEach(1015L, 1040L, (timestamp, value) -> values.add(value)));
+        Assert.assertEquals(List.of(2.0, 3.0, 4.0), values);
+        Assert.assertEquals(9.0, series.getLatestValue(), 0.0);
+        Assert.assertEquals(1090L, series.getLatestTimestamp());
+    }
+
+    @Test
+    public void testOverwritesOldestSamples() {
+        HistorySeries series = new MetricHistory(1 << 20, 5).series("cpu");
+        Assert.assertEquals(8, series.getCapacity());
+        for (int i = 0; i < 20; i++) {
+            series.append(i, i);
+        }
+
+        SampleStatistics statistics = new SampleStatistics();
+        Assert.assertEquals(8, series.forEach(statistics));
+        Assert.assertEquals(12.0, statistics.getMin(), 0.0);
+        Assert.assertEquals(19.0, statistics.getMax(), 0.0);
+        Assert.assertEquals(8, series.size());
+        Assert.assertEquals(20L, series.getAppendedCount());
+    }
+
+    @Test
+    public void testTimestampsNeverGoBackwards() {
+        HistorySeries series = new MetricHistory(1 << 20, 8).series("cpu");
+        series.append(100L, 1.0);
+        series.append(50L, 2.0);
+
+        SampleStatistics statistics = new SampleStatistics();
+        Assert.assertEquals(2, series.forEach(100L, 100L, statistics));
+    }
+
+    @Test
+    public void testBudget() {
+        MetricHistory history = new MetricHistory(2 * 1024 * HistorySeries.SAMPLE_BYTES, 1024);
+        HistorySeries cpu = history.series("cpu");
+        Assert.assertSame(cpu, history.series("cpu"));
+        history.series("memory");
+        Assert.assertThrows(IllegalStateException.class, () -> history.series("disk"));
+
+        Assert.assertTrue(history.remove("memory"));
+        Assert.assertNotNull(history.series("disk"));
+        Assert.assertEquals(history.getBudgetBytes(), history.getReservedBytes());
+    }
+
+    @Test
+    public void testRecordingCollector() {
+        MetricHistory history = new MetricHistory(1 << 20, 8);
+        RecordingCollector<Integer> collector = history.record("requests", () -> 42, Integer::doubleValue);
+
+        Assert.assertEquals(Integer.valueOf(42), collector.get());
+        Assert.assertEquals(42.0, history.getSeries("requests").getLatestValue(), 0.0);
+    }
+
+    @Test
+    public void testRemovedSeriesStopRecording() {
+        MetricHistory history = new MetricHistory(1 << 20, 8);
+        RecordingCollector<Integer> collector = history.record("requests", () -> 42, Integer::doubleValue);
+        collector.get();
+        Assert.assertTrue(history.remove("requests"));
+
+        Assert.assertTrue(collector.getSeries().isReleased());
+        Assert.assertEquals(Integer.valueOf(42), collector.get());
+        Assert.assertEquals(0, collector.getSeries().size());
+        Assert.assertEquals(0, collector.getSeries().forEach((timestamp, value) -> Assert.fail()));
+        Assert.assertTrue(Double.isNaN(collector.getSeries().getLatestValue()));
+        Assert.assertEquals(0L, history.getReservedBytes());
+    }
+
+    @Test
+    public void testReadersNeverSeeTornSamples() throws InterruptedException {
+        HistorySeries series = new MetricHistory(1 << 20, 64).series("cpu");
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            long i = 0;
+            while (running.get()) {
+                series.append(i, i);
+                i++;
+            }
+        });
+        writer.start();
+
+        AtomicReference<String> torn = new AtomicReference<>();
+        try {
+            for (int round = 0; round < 20_000 && torn.get() == null; round++) {
+                series.forEach((timestamp, value) -> {
+                    if (timestamp != (long) value) {
+                        torn.set(timestamp + " != " + value);
+                    }
+                });
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        Assert.assertNull(torn.get());
+    }
+}
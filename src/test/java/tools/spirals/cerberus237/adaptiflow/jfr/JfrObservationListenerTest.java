@@ -0,0 +1,107 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.jfr;
+
+import jdk.jfr.Recording;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class JfrObservationListenerTest {
+    private JfrObservationListener listener;
+    private SingleObservationScheduler scheduler;
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        listener = new JfrObservationListener();
+        listener.install();
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 90.0, new GreaterThanEvaluator<>(80.0));
+        List<IAdaptationAction> actions = List.of(new ExampleAction("low-power-mode", () -> { }));
+        event.subscribe(new EventSubscriber<>(actions));
+        scheduler = new SingleObservationScheduler(List.of(event));
+        file = Files.createTempFile("adaptiflow", ".jfr");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        listener.uninstall();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testRecordsAndAnalyzesEveryStage() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(TickEvent.class);
+            recording.enable(ObservationEvent.class);
+            recording.enable(EvaluationEvent.class);
+            recording.enable(ActionEvent.class);
+            recording.start();
+            scheduler.start();
+            scheduler.start();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        JfrRecordingAnalyzer analyzer = JfrRecordingAnalyzer.analyze(file);
+        Assert.assertEquals(2, analyzer.getTicks().getCount());
+        Assert.assertEquals(1, analyzer.getCollectors().size());
+        Assert.assertEquals(2, analyzer.getCollectors().get(0).getCount());
+        Assert.assertEquals(GreaterThanEvaluator.class.getName(), analyzer.getEvaluators().get(0).getName());
+        Assert.assertEquals("low-power-mode", analyzer.getActions().get(0).getName());
+        Assert.assertEquals(2, analyzer.getActions().get(0).getCount());
+        Assert.assertEquals(0, analyzer.getFailedActions());
+    }
+
+    @Test
+    public void testMinDurationFiltersShortStages() throws Exception {
+        try (Recording recording = new Recording()) {
+            recording.enable(TickEvent.class).with("minDuration", "1 m");
+            recording.enable(ObservationEvent.class);
+            recording.disable(ActionEvent.class);
+            recording.start();
+            scheduler.start();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        JfrRecordingAnalyzer analyzer = JfrRecordingAnalyzer.analyze(file);
+        Assert.assertEquals(0, analyzer.getTicks().getCount());
+        Assert.assertEquals(1, analyzer.getCollectors().get(0).getCount());
+        Assert.assertTrue(analyzer.getActions().isEmpty());
+    }
+
+    @Test
+    public void testParseMinDuration() {
+        Assert.assertEquals(0L, MinDurationSetting.parse("0 ns"));
+        Assert.assertEquals(20_000_000L, MinDurationSetting.parse("20 ms"));
+        Assert.assertEquals(3_000L, MinDurationSetting.parse("3 us"));
+        Assert.assertEquals(Long.MAX_VALUE, MinDurationSetting.parse("infinity"));
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.journal;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.journal.JournalRecord.Kind;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class DecisionJournalTest {
+    private Path directory;
+    private DecisionJournal journal;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("adaptiflow-journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void testJournalsEveryDecision() throws IOException {
+        journal = new DecisionJournal(directory, DecisionJournal.MIN_SEGMENT_SIZE, 4);
+        journal.install();
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 90.0, new GreaterThanEvaluator<>(80.0));
+        List<IAdaptationAction> actions = List.of(new ExampleAction("low-power-mode", () -> { }));
+        event.subscribe(new EventSubscriber<>(actions));
+        new SingleObservationScheduler(List.of(event)).start();
+        journal.close();
+
+        List<JournalRecord> records = new JournalReader(directory).readAll();
+        Assert.assertEquals(5, records.size()); // Observation, two evaluations, action, tick
+        JournalRecord observation = records.get(0);
+        Assert.assertEquals(Kind.OBSERVATION, observation.getKind());
+        Assert.assertEquals("cpu", observation.getSubject());
+        Assert.assertEquals(event.getId(), observation.getEventId());
+        Assert.assertEquals(90.0, observation.getValue(), 0.0);
+        Assert.assertEquals(Kind.EVALUATION, records.get(1).getKind());
+        Assert.assertTrue(records.get(1).isMatched());
+        Assert.assertEquals(GreaterThanEvaluator.class.getName(), records.get(1).getSubject());
+
+        JournalRecord action = records.get(3);
+        Assert.assertEquals(Kind.ACTION, action.getKind());
+        Assert.assertEquals("low-power-mode", action.getSubject());
+        Assert.assertEquals("SUCCESS", action.getResult());
+        Assert.assertTrue(action.isSuccess());
+        Assert.assertEquals(1, action.getCount());
+        Assert.assertEquals(observation.getCorrelationId(), action.getCorrelationId());
+
+        JournalRecord tick = records.get(4);
+        Assert.assertEquals(Kind.TICK, tick.getKind());
+        Assert.assertEquals(1, tick.getCount());
+        Assert.assertEquals(observation.getTickId(), tick.getTickId());
+    }
+
+    @Test
+    public void testRollsOverAndAppliesRetention() throws IOException {
+        journal = new DecisionJournal(directory, DecisionJournal.MIN_SEGMENT_SIZE, 2);
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 1.0, new GreaterThanEvaluator<>(80.0));
+        for (int i = 0; i < 1000; i++) {
+            journal.onCollected(event, (double) i, 0L);
+        }
+        journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Assert.assertEquals(2, files.count());
+        }
+        List<JournalRecord> records = new JournalReader(directory).readAll();
+        Assert.assertTrue(records.size() > 64 && records.size() < 1000);
+        Assert.assertEquals(999.0, records.get(records.size() - 1).getValue(), 0.0);
+        for (int i = 1; i < records.size(); i++) {
+            Assert.assertEquals(records.get(i - 1).getValue() + 1, records.get(i).getValue(), 0.0);
+        }
+        Assert.assertEquals(0, journal.getDroppedCount());
+    }
+
+    @Test
+    public void testReopenedJournalStartsNewSegment() throws IOException {
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 1.0, new GreaterThanEvaluator<>(80.0));
+        try (DecisionJournal first = new DecisionJournal(directory, DecisionJournal.MIN_SEGMENT_SIZE, 4)) {
+            first.onCollected(event, 1.0, 0L);
+        }
+        journal = new DecisionJournal(directory, DecisionJournal.MIN_SEGMENT_SIZE, 4);
+        journal.onCollected(event, 2.0, 0L);
+        journal.close();
+        journal.onCollected(event, 3.0, 0L);
+
+        List<JournalRecord> records = new JournalReader(directory).readAll();
+        Assert.assertEquals(2, records.size());
+        Assert.assertEquals(2.0, records.get(1).getValue(), 0.0);
+        Assert.assertEquals(1, journal.getDroppedCount());
+    }
+}
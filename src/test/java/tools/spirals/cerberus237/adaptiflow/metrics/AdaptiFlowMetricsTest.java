@@ -0,0 +1,135 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.events.ObservationHooks;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class AdaptiFlowMetricsTest {
+    private AdaptiFlowMetrics metrics;
+    private double value;
+
+    @Before
+    public void setUp() {
+        metrics = new AdaptiFlowMetrics(true);
+        metrics.install();
+    }
+
+    @After
+    public void tearDown() {
+        metrics.uninstall();
+    }
+
+    @Test
+    public void testRecordsEveryStage() throws Exception {
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> value, new GreaterThanEvaluator<>(80.0));
+        List<IAdaptationAction> actions = List.of(new ExampleAction("low-power-mode", () -> { }));
+        event.subscribe(new EventSubscriber<>(actions));
+        SingleObservationScheduler scheduler = new SingleObservationScheduler(List.of(event));
+
+        value = 50.0;
+        scheduler.start();
+        value = 90.0;
+        scheduler.start();
+
+        EventMetrics eventMetrics = metrics.getEventMetrics(event);
+        Assert.assertEquals(2, eventMetrics.getCollections());
+        Assert.assertEquals(3, eventMetrics.getEvaluations()); // Event condition twice, subscriber once
+        Assert.assertEquals(2, eventMetrics.getMatches());
+        Assert.assertEquals(1, eventMetrics.getNotifications());
+        Assert.assertEquals(2, metrics.getTickMetrics().getTicks());
+        Assert.assertEquals(1, metrics.getActionMetrics("low-power-mode").getSuccesses());
+
+        ObjectName name = new ObjectName(AdaptiFlowMetrics.DOMAIN + ":type=Event,name="
+                + ObjectName.quote(eventMetrics.getEventName()));
+        Assert.assertEquals(2L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Collections"));
+    }
+
+    @Test
+    public void testMetricsOfRemovedEventsAreDiscarded() throws Exception {
+        ConditionalEvent<Double> event = new ConditionalEvent<>("swapped", () -> value, new GreaterThanEvaluator<>(80.0));
+        EventRegistry registry = new EventRegistry();
+        registry.register("swapped", event);
+        SingleObservationScheduler scheduler = new SingleObservationScheduler(registry);
+        scheduler.start();
+
+        EventMetrics eventMetrics = metrics.getEventMetrics(event);
+        ObjectName name = new ObjectName(AdaptiFlowMetrics.DOMAIN + ":type=Event,name="
+                + ObjectName.quote(eventMetrics.getEventName()));
+        Assert.assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+        // A replacement of the same name continues the same series
+        ConditionalEvent<Double> sameName =
+                new ConditionalEvent<>("swapped", () -> value, new GreaterThanEvaluator<>(80.0));
+        registry.replace("swapped", sameName);
+        scheduler.start();
+        Assert.assertSame(eventMetrics, metrics.getEventMetrics(sameName));
+        Assert.assertEquals(2, eventMetrics.getCollections());
+
+        registry.replace("swapped", new ConditionalEvent<>("renamed", () -> value, new GreaterThanEvaluator<>(80.0)));
+        Assert.assertNull(metrics.getEventMetrics(event));
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+        Assert.assertTrue(metrics.getAllEventMetrics().isEmpty());
+    }
+
+    @Test
+    public void testReinstallRegistersTheMBeansAgain() throws Exception {
+        ConditionalEvent<Double> event = new ConditionalEvent<>("reinstalled", () -> 90.0,
+                new GreaterThanEvaluator<>(80.0));
+        List<IAdaptationAction> actions = List.of(new ExampleAction("reinstalled-action", () -> { }));
+        event.subscribe(new EventSubscriber<>(actions));
+        new SingleObservationScheduler(List.of(event)).start();
+        ObjectName eventName = new ObjectName(AdaptiFlowMetrics.DOMAIN + ":type=Event,name="
+                + ObjectName.quote("reinstalled"));
+        ObjectName actionName = new ObjectName(AdaptiFlowMetrics.DOMAIN + ":type=Action,name="
+                + ObjectName.quote("reinstalled-action"));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Assert.assertTrue(server.isRegistered(eventName));
+        Assert.assertTrue(server.isRegistered(actionName));
+
+        metrics.uninstall();
+        Assert.assertFalse(server.isRegistered(eventName));
+        Assert.assertFalse(server.isRegistered(actionName));
+
+        metrics.install();
+        Assert.assertTrue(server.isRegistered(eventName));
+        Assert.assertTrue(server.isRegistered(actionName));
+        Assert.assertEquals(1L, server.getAttribute(eventName, "Collections"));
+    }
+
+    @Test
+    public void testUninstallDisablesInstrumentation() {
+        metrics.uninstall();
+        Assert.assertFalse(ObservationHooks.isActive());
+    }
+}
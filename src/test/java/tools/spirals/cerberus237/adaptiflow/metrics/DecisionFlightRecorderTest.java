@@ -0,0 +1,129 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.actions.ActionOutcome;
+import tools.spirals.cerberus237.adaptiflow.actions.RetryPolicy;
+import tools.spirals.cerberus237.adaptiflow.actions.RetryingActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.events.CorrelationContext;
+import tools.spirals.cerberus237.adaptiflow.metrics.DecisionFlightRecorder.Decision;
+import tools.spirals.cerberus237.adaptiflow.metrics.DecisionFlightRecorder.Kind;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class DecisionFlightRecorderTest {
+    private DecisionFlightRecorder recorder;
+
+    @Before
+    public void setUp() {
+        recorder = new DecisionFlightRecorder(64);
+        recorder.install();
+    }
+
+    @After
+    public void tearDown() {
+        recorder.uninstall();
+    }
+
+    @Test
+    public void testCorrelatesActionWithObservation() {
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 90.0, new GreaterThanEvaluator<>(80.0));
+        List<IAdaptationAction> actions = List.of(new ExampleAction("low-power-mode", () -> { }));
+        event.subscribe(new EventSubscriber<>(actions));
+        new SingleObservationScheduler(List.of(event)).start();
+
+        List<Decision> decisions = recorder.snapshot();
+        Decision observation = decisions.get(0);
+        Decision action = decisions.get(decisions.size() - 1);
+        Assert.assertEquals(Kind.OBSERVATION, observation.getKind());
+        Assert.assertEquals(event.getId(), observation.getEventId());
+        Assert.assertEquals(90.0, observation.getValue(), 0.0);
+        Assert.assertEquals(Kind.EVALUATION, decisions.get(1).getKind());
+        Assert.assertEquals(GreaterThanEvaluator.class.getName(), decisions.get(1).getSubject());
+        Assert.assertEquals("matched", decisions.get(1).getResult());
+        Assert.assertEquals(Kind.ACTION, action.getKind());
+        Assert.assertEquals("low-power-mode", action.getSubject());
+        Assert.assertEquals("SUCCESS", action.getResult());
+
+        Assert.assertNotEquals(CorrelationContext.NONE, observation.getCorrelationId());
+        for (Decision decision : decisions) {
+            Assert.assertEquals(observation.getCorrelationId(), decision.getCorrelationId());
+            Assert.assertEquals(observation.getTickId(), decision.getTickId());
+        }
+        Assert.assertEquals(CorrelationContext.NONE, CorrelationContext.currentId());
+    }
+
+    @Test
+    public void testDecisionsFollowTheGivenClock() {
+        recorder.uninstall();
+        recorder = new DecisionFlightRecorder(64, new ManualClock(1_000L));
+        recorder.install();
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 90.0, new GreaterThanEvaluator<>(80.0));
+        new SingleObservationScheduler(List.of(event)).start();
+
+        for (Decision decision : recorder.snapshot()) {
+            Assert.assertEquals(1_000L, decision.getTimestampMillis());
+        }
+    }
+
+    @Test
+    public void testCorrelationSurvivesAsynchronousExecution() throws Exception {
+        RetryingActionExecutor executor = new RetryingActionExecutor(1, RetryPolicy.noRetry(), null);
+        try {
+            long previous = CorrelationContext.enter(42L);
+            CompletableFuture<ActionOutcome> future;
+            try {
+                future = executor.submit(new ExampleAction("scale-out", () -> { }));
+            } finally {
+                CorrelationContext.exit(previous);
+            }
+            Assert.assertEquals(42L, future.get(5, TimeUnit.SECONDS).getCorrelationId());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testKeepsLatestDecisions() {
+        DecisionFlightRecorder small = new DecisionFlightRecorder(3);
+        Assert.assertEquals(4, small.getCapacity());
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 1.0, new GreaterThanEvaluator<>(80.0));
+        for (int i = 0; i < 10; i++) {
+            small.onCollected(event, (double) i, 0L);
+        }
+
+        List<Decision> decisions = small.snapshot();
+        Assert.assertEquals(10, small.getRecordedCount());
+        Assert.assertEquals(4, decisions.size());
+        Assert.assertEquals(6L, decisions.get(0).getSequence());
+        Assert.assertEquals(9.0, decisions.get(3).getValue(), 0.0);
+    }
+}
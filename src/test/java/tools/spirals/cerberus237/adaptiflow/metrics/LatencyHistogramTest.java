@@ -0,0 +1,59 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketsAreContiguous() {
+        for (int i = 0; i < 400; i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            Assert.assertEquals(i, LatencyHistogram.bucketIndex(upper));
+            Assert.assertEquals(i + 1, LatencyHistogram.bucketIndex(upper + 1));
+        }
+    }
+
+    @Test
+    public void testPercentilesAreWithinBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1_000_000, histogram.getMax());
+        Assert.assertEquals(500_500, histogram.getMean(), 0.01);
+        long p50 = histogram.getPercentile(50);
+        Assert.assertTrue(p50 >= 500_000 && p50 <= 500_000 * 1.125);
+        long p99 = histogram.getPercentile(99);
+        Assert.assertTrue(p99 >= 990_000 && p99 <= 1_000_000);
+    }
+
+    @Test
+    public void testEmptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentile(99));
+        histogram.record(42);
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMax());
+    }
+}
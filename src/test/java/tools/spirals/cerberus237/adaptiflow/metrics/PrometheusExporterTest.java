@@ -0,0 +1,103 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.metrics;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class PrometheusExporterTest {
+    private AdaptiFlowMetrics metrics;
+    private PrometheusExporter exporter;
+
+    @Before
+    public void setUp() {
+        metrics = new AdaptiFlowMetrics(false);
+        metrics.install();
+        exporter = new PrometheusExporter(metrics, 0);
+    }
+
+    @After
+    public void tearDown() {
+        exporter.stop();
+        metrics.uninstall();
+    }
+
+    @Test
+    public void testServesMetrics() throws Exception {
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu \"load\"", () -> 90.0,
+                new GreaterThanEvaluator<>(80.0));
+        List<IAdaptationAction> actions = List.of(new ExampleAction("low-power-mode", () -> { }));
+        event.subscribe(new EventSubscriber<>(actions));
+        new SingleObservationScheduler(List.of(event)).start();
+        exporter.addGauge("adaptiflow_actions_pending", "Actions waiting for an outcome", () -> 3);
+        exporter.start();
+
+        URL url = new URL("http://localhost:" + exporter.getPort() + PrometheusExporter.PATH);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        Assert.assertEquals(200, connection.getResponseCode());
+        Assert.assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+        String body;
+        try (InputStream in = connection.getInputStream()) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // The label is the event name, stable across restarts and replicas
+        String eventLabel = "event=\"cpu \\\"load\\\"\"";
+        Assert.assertTrue(body.contains("adaptiflow_tick_duration_seconds_count 1\n"));
+        Assert.assertTrue(body.contains("adaptiflow_tick_overruns_total 0\n"));
+        Assert.assertTrue(body.contains("adaptiflow_event_notifications_total{" + eventLabel + "} 1\n"));
+        Assert.assertTrue(body.contains("adaptiflow_event_evaluations_total{" + eventLabel + "} 2\n"));
+        Assert.assertTrue(body.contains("adaptiflow_event_evaluate_seconds_count{" + eventLabel + "} 2\n"));
+        Assert.assertTrue(body.contains("adaptiflow_action_successes_total{action=\"low-power-mode\"} 1\n"));
+        Assert.assertTrue(body.contains(
+                "adaptiflow_action_latency_seconds{action=\"low-power-mode\",quantile=\"0.99\"} "));
+        Assert.assertTrue(body.contains("# TYPE adaptiflow_actions_pending gauge\nadaptiflow_actions_pending 3\n"));
+    }
+
+    @Test
+    public void testScrapeReusesBuffer() {
+        String first = exporter.scrape();
+        Assert.assertEquals(first, exporter.scrape());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidGaugeName() {
+        exporter.addGauge("queue depth", "Invalid", () -> 0);
+    }
+
+    @Test
+    public void testFormatsSeconds() {
+        PrometheusBuffer buffer = new PrometheusBuffer(4);
+        buffer.appendSeconds(1_500_000_000L).append(' ').appendSeconds(42).append(' ').append(-17L);
+        Assert.assertEquals("1.500000000 0.000000042 -17", buffer.toString());
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.replay;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.actions.DirectActionExecutor;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.operators.DDoSEvaluator;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.SingleObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventSubscriber;
+import tools.spirals.cerberus237.adaptiflow.time.SystemClock;
+import tools.spirals.cerberus237.metricscollectorbase.models.ServiceMetrics;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ReplaySchedulerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testReplaysRecordedValues() throws IOException, InterruptedException {
+        Path file = folder.getRoot().toPath().resolve("cpu.rec");
+        Iterator<Double> live = List.of(10.0, 50.0, 90.0, 95.0, 20.0).iterator();
+        ConditionalEvent<Double> liveEvent = new ConditionalEvent<>("cpu", live::next, new GreaterThanEvaluator<>(0.0));
+        SingleObservationScheduler liveScheduler = new SingleObservationScheduler(List.of(liveEvent));
+        try (ObservationRecorder recorder = new ObservationRecorder(file)) {
+            recorder.install();
+            while (live.hasNext()) {
+                liveScheduler.start();
+                Thread.sleep(5);
+            }
+            Assert.assertEquals(5L, recorder.getRecordedCount());
+        }
+
+        Recording recording = Recording.read(file);
+        Assert.assertEquals(5, recording.getSampleCount("cpu"));
+        VirtualClock clock = new VirtualClock(recording.getStartMillis());
+        ReplayCollector<Double> collector = recording.collector("cpu", clock);
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", collector, new GreaterThanEvaluator<>(80.0));
+        AtomicInteger performed = new AtomicInteger();
+        List<IAdaptationAction> actions = List.of(new ExampleAction("scale-out", performed::incrementAndGet));
+        EventSubscriber<Double> subscriber = new EventSubscriber<>(actions);
+        event.subscribe(subscriber);
+
+        ReplayReport report = new ReplayScheduler(List.of(event), recording, clock, 1).replay();
+
+        Assert.assertEquals(recording.getEndMillis() - recording.getStartMillis() + 1,
+                report.getTicks() + report.getSkippedTicks());
+        Assert.assertEquals(0L, report.getFailedTicks());
+        Assert.assertFalse(report.getFiredActions().isEmpty());
+        for (ReplayReport.FiredAction fired : report.getFiredActions()) {
+            Assert.assertEquals("cpu", fired.getEventName());
+            Assert.assertEquals("scale-out", fired.getActionId());
+            VirtualClock at = new VirtualClock(fired.getTimeMillis());
+            Assert.assertTrue(recording.<Double>collector("cpu", at).get() > 80.0);
+        }
+        Assert.assertEquals(0, performed.get());
+        Assert.assertSame(DirectActionExecutor.INSTANCE, subscriber.getActionExecutor());
+        Assert.assertEquals(recording.getEndMillis(), event.getLastObservationTimestamp());
+        Assert.assertSame(SystemClock.INSTANCE, event.getClock());
+    }
+
+    @Test
+    public void testReplaysServiceMetricsRate() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("auth.rec");
+        ConditionalEvent<ServiceMetrics> liveEvent = new ConditionalEvent<>("auth",
+                () -> new RecordedServiceMetrics(400.0, 60000), new DDoSEvaluator(() -> 0.0, 60000));
+        try (ObservationRecorder recorder = new ObservationRecorder(file)) {
+            recorder.setCodec("auth", ValueCodec.serviceMetrics(60000));
+            recorder.install();
+            new SingleObservationScheduler(List.of(liveEvent)).start();
+        }
+
+        Recording recording = Recording.read(file);
+        VirtualClock clock = new VirtualClock(recording.getEndMillis());
+        ServiceMetrics replayed = recording.<ServiceMetrics>collector("auth", clock).get();
+        Assert.assertTrue(new DDoSEvaluator(() -> 300.0, 60000).test(replayed));
+        Assert.assertFalse(new DDoSEvaluator(() -> 500.0, 60000).test(replayed));
+        Assert.assertEquals(60000L, ((RecordedServiceMetrics) replayed).getWindowMillis());
+        try {
+            replayed.getRequestRatePerSecond(1000);
+            Assert.fail("A rate over another window must be rejected");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSkipsTicksBeforeTheFirstRecordedValue() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("cpu.rec");
+        ConditionalEvent<Double> liveEvent = new ConditionalEvent<>("cpu", () -> 90.0, new GreaterThanEvaluator<>(0.0));
+        try (ObservationRecorder recorder = new ObservationRecorder(file)) {
+            recorder.install();
+            new SingleObservationScheduler(List.of(liveEvent)).start();
+        }
+
+        Recording recording = Recording.read(file);
+        long firstMillis = recording.getEndMillis();
+        VirtualClock clock = new VirtualClock(firstMillis - 10);
+        ReplayCollector<Double> collector = recording.collector("cpu", clock);
+        Assert.assertNull(collector.get());
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", collector, new GreaterThanEvaluator<>(80.0));
+        event.subscribe(new EventSubscriber<>(List.<IAdaptationAction>of(new ExampleAction("scale-out", () -> { }))));
+
+        ReplayReport report = new ReplayScheduler(List.of(event), clock, firstMillis - 10, firstMillis, 1).replay();
+
+        Assert.assertEquals(10L, report.getSkippedTicks());
+        Assert.assertEquals(1L, report.getTicks());
+        Assert.assertEquals(0L, report.getFailedTicks());
+        Assert.assertEquals(1, report.getFiredActions().size());
+        Assert.assertEquals(firstMillis, report.getFiredActions().get(0).getTimeMillis());
+    }
+
+    @Test
+    public void testReadsTruncatedRecording() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("cpu.rec");
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 42.0, new GreaterThanEvaluator<>(0.0));
+        SingleObservationScheduler scheduler = new SingleObservationScheduler(List.of(event));
+        try (ObservationRecorder recorder = new ObservationRecorder(file)) {
+            recorder.install();
+            scheduler.start();
+            scheduler.start();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        Assert.assertEquals(1, Recording.read(file).getSampleCount("cpu"));
+    }
+}
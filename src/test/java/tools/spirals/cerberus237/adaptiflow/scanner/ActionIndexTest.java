@@ -0,0 +1,137 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionIndexTest {
+
+    private static final String ACTION_METHODS =
+            "  public tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult perform() { return null; }\n"
+                    + "  public String getActionId() { return \"action\"; }\n"
+                    + "  public String getDescription() { return \"\"; }\n"
+                    + "  public boolean canPerform() { return true; }\n"
+                    + "  public tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult rollback() { return null; }\n"
+                    + "  public boolean supportsRollback() { return false; }\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testIndexListsTheActionsOfThisModule() {
+        ActionIndex index = ActionIndex.load(getClass().getClassLoader());
+        Map<String, Class<? extends IAdaptationAction>> actions =
+                index.getActions("tools.spirals.cerberus237.adaptiflow.scanner");
+
+        Assert.assertEquals(ExampleAction.class, actions.get("exampleaction"));
+        Assert.assertTrue(index.getActions("tools.spirals.cerberus237.adaptiflow.unknown").isEmpty());
+    }
+
+    @Test
+    public void testProcessorIndexesEveryActionType() throws IOException {
+        Path sources = folder.newFolder("src").toPath();
+        Path classes = folder.newFolder("classes").toPath();
+        Path base = write(sources, "BaseAction",
+                "public abstract class BaseAction implements tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction {}");
+        Path scale = write(sources, "ScaleOut", "class ScaleOut extends BaseAction {\n" + ACTION_METHODS + "}");
+        Path other = write(sources, "NotAnAction", "public class NotAnAction {}");
+
+        compile(classes, base, scale, other);
+
+        List<String> lines = Files.readAllLines(classes.resolve(ActionIndex.RESOURCE));
+        Assert.assertTrue(lines.get(0).startsWith("#"));
+        Assert.assertEquals(List.of("baseaction=com.example.actions.BaseAction", "scaleout=com.example.actions.ScaleOut"),
+                lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void testProcessorMergesThePreviousIndex() throws IOException {
+        Path sources = folder.newFolder("src").toPath();
+        Path classes = folder.newFolder("classes").toPath();
+        Path base = write(sources, "BaseAction",
+                "public abstract class BaseAction implements tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction {}");
+        Path scale = write(sources, "ScaleOut", "public class ScaleOut extends BaseAction {\n" + ACTION_METHODS + "}");
+        compile(classes, base, scale);
+
+        // An incremental build recompiles ScaleOut only, which is no longer an action
+        scale = write(sources, "ScaleOut", "public class ScaleOut {}");
+        Path drain = write(sources, "Drain", "public class Drain extends BaseAction {\n" + ACTION_METHODS + "}");
+        compile(classes, scale, drain);
+
+        List<String> lines = Files.readAllLines(classes.resolve(ActionIndex.RESOURCE));
+        Assert.assertEquals(List.of("baseaction=com.example.actions.BaseAction", "drain=com.example.actions.Drain"),
+                lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void testIndexIsCompleteOnlyWhenEveryLocationIsIndexed() throws IOException {
+        Path indexed = folder.newFolder("indexed").toPath();
+        Files.createDirectories(indexed.resolve("com/example/actions"));
+        Files.createDirectories(indexed.resolve(ActionIndex.RESOURCE).getParent());
+        Files.write(indexed.resolve(ActionIndex.RESOURCE), List.of("scaleout=com.example.actions.ScaleOut"));
+        Path plain = folder.newFolder("plain").toPath();
+        Files.createDirectories(plain.resolve("com/example/actions"));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{indexed.toUri().toURL()}, null)) {
+            ActionIndex index = ActionIndex.load(loader);
+            Assert.assertTrue(index.isComplete("com.example.actions"));
+            Assert.assertTrue(index.isComplete("com.example"));
+            Assert.assertFalse(index.isComplete("com.example.unknown"));
+            Assert.assertFalse(index.isComplete(""));
+        }
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[]{indexed.toUri().toURL(), plain.toUri().toURL()}, null)) {
+            Assert.assertFalse(ActionIndex.load(loader).isComplete("com.example.actions"));
+        }
+    }
+
+    private static void compile(Path classes, Path... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, null,
+                    List.of("-d", classes.toString(), "-cp", classes + File.pathSeparator + System.getProperty("java.class.path")),
+                    null, files.getJavaFileObjects(Arrays.stream(sources).map(Path::toFile).toArray(File[]::new)));
+            task.setProcessors(List.of(new ActionIndexProcessor()));
+            Assert.assertTrue(task.call());
+        }
+    }
+
+    private static Path write(Path sources, String name, String body) throws IOException {
+        Path file = sources.resolve(name + ".java");
+        Files.write(file, ("package com.example.actions;\n" + body).getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
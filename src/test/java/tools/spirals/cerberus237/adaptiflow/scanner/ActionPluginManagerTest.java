@@ -0,0 +1,206 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.time.SystemTimer;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionPluginManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ActionRegistry registry;
+    private ActionPluginManager plugins;
+
+    @Before
+    public void setUp() throws IOException {
+        registry = new ActionRegistry();
+        plugins = new ActionPluginManager(folder.newFolder("plugins").toPath(), registry);
+    }
+
+    @After
+    public void tearDown() {
+        plugins.close();
+    }
+
+    @Test
+    public void testLoadsReloadsAndUnloadsPlugins() throws IOException {
+        Path jar = plugins.getDirectory().resolve("scaling.jar");
+        buildPlugin(jar, "scale-out-v1", false);
+
+        Assert.assertEquals(Set.of("scaleout"), plugins.load(jar));
+        IAdaptationAction first = registry.get("ScaleOut");
+        Assert.assertEquals("scale-out-v1", first.getActionId());
+        Assert.assertNotSame(getClass().getClassLoader(), first.getClass().getClassLoader());
+
+        buildPlugin(jar, "scale-out-v2", true);
+        plugins.load(jar);
+        IAdaptationAction second = registry.get("scaleout");
+        Assert.assertEquals("scale-out-v2", second.getActionId());
+        Assert.assertNotSame(first.getClass(), second.getClass());
+
+        Assert.assertTrue(plugins.unload(jar));
+        Assert.assertNull(registry.get("scaleout"));
+        Assert.assertTrue(plugins.getPlugins().isEmpty());
+    }
+
+    @Test
+    public void testClosesTheOldClassLoaderAfterTheGracePeriod() throws Exception {
+        SystemTimer timer = SystemTimer.singleThread("plugins-test");
+        try (ActionPluginManager delayed = new ActionPluginManager(folder.newFolder("delayed").toPath(), registry,
+                timer, 200L)) {
+            Path jar = delayed.getDirectory().resolve("scaling.jar");
+            buildPlugin(jar, "scale-out-v1", true);
+            delayed.load(jar);
+            ClassLoader old = registry.get("scaleout").getClass().getClassLoader();
+            String resource = "com/example/plugin/ScaleOut.class";
+
+            buildPlugin(jar, "scale-out-v2", true);
+            delayed.load(jar);
+            Assert.assertEquals("scale-out-v2", registry.get("scaleout").getActionId());
+            Assert.assertNotNull(old.getResource(resource));
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (old.getResource(resource) != null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertNull(old.getResource(resource));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    public void testPicksUpJarsDroppedInTheWatchedDirectory() throws Exception {
+        plugins.watch();
+        Path staged = folder.getRoot().toPath().resolve("staged.jar");
+        buildPlugin(staged, "scale-out-watched", true);
+        Path jar = plugins.getDirectory().resolve("scaling.jar");
+        Files.move(staged, jar, StandardCopyOption.ATOMIC_MOVE);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!registry.contains("scaleout") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals("scale-out-watched", registry.get("scaleout").getActionId());
+
+        Files.delete(jar);
+        deadline = System.currentTimeMillis() + 10_000;
+        while (registry.contains("scaleout") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertFalse(registry.contains("scaleout"));
+    }
+
+    @Test
+    public void testUnloadingRestoresShadowedActions() throws IOException {
+        registry.register("scaleout", () -> new ExampleAction("scale-out-base", () -> { }));
+        Path first = plugins.getDirectory().resolve("first.jar");
+        Path second = plugins.getDirectory().resolve("second.jar");
+        buildPlugin(first, "ScaleOut", "scale-out-first", true);
+        buildPlugin(second, "ScaleOut", "scale-out-second", true);
+
+        plugins.load(first);
+        plugins.load(second);
+        Assert.assertEquals("scale-out-second", registry.get("scaleout").getActionId());
+        plugins.unload(second);
+        Assert.assertEquals("scale-out-first", registry.get("scaleout").getActionId());
+
+        plugins.load(second);
+        plugins.unload(first);
+        Assert.assertEquals("scale-out-second", registry.get("scaleout").getActionId());
+
+        buildPlugin(second, "ScaleIn", "scale-in-second", true);
+        Assert.assertEquals(Set.of("scalein"), plugins.load(second));
+        Assert.assertEquals("scale-out-base", registry.get("scaleout").getActionId());
+        Assert.assertEquals("scale-in-second", registry.get("scalein").getActionId());
+
+        plugins.unload(second);
+        Assert.assertEquals("scale-out-base", registry.get("scaleout").getActionId());
+        Assert.assertFalse(registry.contains("scalein"));
+    }
+
+    private void buildPlugin(Path jar, String actionId, boolean indexed) throws IOException {
+        buildPlugin(jar, "ScaleOut", actionId, indexed);
+    }
+
+    private void buildPlugin(Path jar, String className, String actionId, boolean indexed) throws IOException {
+        Path sources = Files.createTempDirectory(folder.getRoot().toPath(), "src");
+        Path classes = Files.createTempDirectory(folder.getRoot().toPath(), "classes");
+        Path source = sources.resolve(className + ".java");
+        Files.write(source, ("package com.example.plugin;\n"
+                + "import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;\n"
+                + "public class " + className + " implements tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction {\n"
+                + "  public AdaptationActionResult perform() { return AdaptationActionResult.SUCCESS; }\n"
+                + "  public String getActionId() { return \"" + actionId + "\"; }\n"
+                + "  public String getDescription() { return \"\"; }\n"
+                + "  public boolean canPerform() { return true; }\n"
+                + "  public AdaptationActionResult rollback() { return AdaptationActionResult.NOT_SUPPORTED; }\n"
+                + "  public boolean supportsRollback() { return false; }\n"
+                + "}\n").getBytes(StandardCharsets.UTF_8));
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<String> options = new ArrayList<>(List.of("-d", classes.toString(),
+                    "-cp", System.getProperty("java.class.path")));
+            if (!indexed) {
+                options.add("-proc:none");
+            }
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, null, options, null,
+                    files.getJavaFileObjects(source.toFile()));
+            if (indexed) {
+                task.setProcessors(List.of(new ActionIndexProcessor()));
+            }
+            Assert.assertTrue(task.call());
+        }
+        Assert.assertEquals(indexed, Files.exists(classes.resolve(ActionIndex.RESOURCE)));
+
+        try (OutputStream out = Files.newOutputStream(jar);
+             JarOutputStream jarOut = new JarOutputStream(out);
+             Stream<Path> entries = Files.walk(classes)) {
+            for (Path entry : (Iterable<Path>) entries.filter(Files::isRegularFile)::iterator) {
+                jarOut.putNextEntry(new JarEntry(classes.relativize(entry).toString().replace('\\', '/')));
+                jarOut.write(Files.readAllBytes(entry));
+                jarOut.closeEntry();
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.scanner;
+
+import org.junit.Assert;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptationactionsbase.enums.AdaptationActionResult;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ActionRegistryTest {
+
+    public static class ScaleOutAction implements IAdaptationAction {
+        static final AtomicInteger CREATED = new AtomicInteger();
+
+        public ScaleOutAction() {
+            CREATED.incrementAndGet();
+        }
+
+        @Override
+        public AdaptationActionResult perform() {
+            return AdaptationActionResult.SUCCESS;
+        }
+
+        @Override
+        public String getActionId() {
+            return "scale-out";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Adds a replica";
+        }
+
+        @Override
+        public boolean canPerform() {
+            return true;
+        }
+
+        @Override
+        public AdaptationActionResult rollback() {
+            return AdaptationActionResult.NOT_SUPPORTED;
+        }
+
+        @Override
+        public boolean supportsRollback() {
+            return false;
+        }
+    }
+
+    @Test
+    public void testResolvesNamesCaseInsensitivelyToCachedInstances() {
+        ActionRegistry registry = new ActionRegistry(Map.of("scaleoutaction", ScaleOutAction.class));
+        int created = ScaleOutAction.CREATED.get();
+
+        IAdaptationAction action = registry.get("ScaleOutAction");
+        Assert.assertTrue(action instanceof ScaleOutAction);
+        Assert.assertSame(action, registry.get("scaleoutaction"));
+        Assert.assertEquals(created + 1, ScaleOutAction.CREATED.get());
+
+        IAdaptationAction fresh = registry.newInstance("SCALEOUTACTION");
+        Assert.assertNotSame(action, fresh);
+        Assert.assertEquals(created + 2, ScaleOutAction.CREATED.get());
+        Assert.assertNull(registry.get("unknown"));
+    }
+
+    @Test
+    public void testSkipsClassesWithoutNoArgConstructor() {
+        ActionRegistry registry = new ActionRegistry(Map.of(
+                "exampleaction", ExampleAction.class,
+                "scaleoutaction", ScaleOutAction.class));
+
+        Assert.assertFalse(registry.contains("exampleaction"));
+        registry.register("ExampleAction", () -> new ExampleAction("example", () -> { }));
+        Assert.assertEquals("example", registry.get("exampleaction").getActionId());
+        Assert.assertEquals(2, registry.getNames().size());
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.snapshot;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import tools.spirals.cerberus237.adaptationactionsbase.core.IAdaptationAction;
+import tools.spirals.cerberus237.adaptiflow.events.ConditionalEvent;
+import tools.spirals.cerberus237.adaptiflow.operators.GreaterThanEvaluator;
+import tools.spirals.cerberus237.adaptiflow.scanner.ExampleAction;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.ContinuousObservationScheduler;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.EventRegistry;
+import tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers.EventCounterSubscriber;
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class SnapshotManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger performed = new AtomicInteger();
+
+    private EventCounterSubscriber<Double> subscribe(EventRegistry registry) {
+        List<IAdaptationAction> actions = List.of(new ExampleAction(performed::incrementAndGet));
+        EventCounterSubscriber<Double> subscriber = new EventCounterSubscriber<>(actions, 5);
+        ConditionalEvent<Double> event = new ConditionalEvent<>("cpu", () -> 90.0, new GreaterThanEvaluator<>(80.0));
+        event.subscribe(subscriber);
+        registry.register(event);
+        return subscriber;
+    }
+
+    @Test
+    public void testCounterSurvivesRestart() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("state.snapshot");
+        ManualClock clock = new ManualClock(0L);
+        EventRegistry registry = new EventRegistry();
+        EventCounterSubscriber<Double> subscriber = subscribe(registry);
+        ContinuousObservationScheduler scheduler = new ContinuousObservationScheduler(registry, 100, clock);
+        SnapshotManager snapshots = new SnapshotManager(file, registry, 250, clock);
+        scheduler.addTickListener(snapshots);
+        scheduler.start();
+
+        clock.advance(300, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(3, subscriber.getCounter());
+        Assert.assertEquals(1L, snapshots.getSnapshotCount());
+        Assert.assertEquals(300L, snapshots.getLastSnapshotMillis());
+        Assert.assertFalse(Files.exists(file.resolveSibling("state.snapshot.tmp")));
+        scheduler.stop();
+
+        EventRegistry restarted = new EventRegistry();
+        EventCounterSubscriber<Double> restored = subscribe(restarted);
+        Assert.assertEquals(1, new SnapshotManager(file, restarted, 250).restore());
+        Assert.assertEquals(3, restored.getCounter());
+        ContinuousObservationScheduler resumed = new ContinuousObservationScheduler(restarted, 100, clock);
+        resumed.start();
+        clock.advance(200, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, performed.get());
+    }
+
+    @Test
+    public void testMissingFileRestoresNothing() throws IOException {
+        EventRegistry registry = new EventRegistry();
+        EventCounterSubscriber<Double> subscriber = subscribe(registry);
+        SnapshotManager snapshots = new SnapshotManager(folder.getRoot().toPath().resolve("none"), registry, 1000);
+
+        Assert.assertEquals(0, snapshots.restore());
+        Assert.assertEquals(0, subscriber.getCounter());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignFile() throws IOException {
+        Path file = folder.newFile("foreign").toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+        new SnapshotManager(file, new EventRegistry(), 1000).restore();
+    }
+}
@@ -17,12 +17,17 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.Assert;
 import tools.spirals.cerberus237.adaptiflow.events.Event;
+import tools.spirals.cerberus237.adaptiflow.interfaces.TickListener;
+import tools.spirals.cerberus237.adaptiflow.time.ManualClock;
 import tools.spirals.cerberus237.metricscollectorbase.IMetricsCollector;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  *
@@ -99,4 +104,57 @@ public class ContinuousEventSchedulerTest {
         Assert.assertTrue(scheduler.events.contains(event1));
         Assert.assertTrue(scheduler.events.contains(event2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testObservationThreadIsReleasedByStop() throws InterruptedException {
+        AtomicReference<Thread> tickThread = new AtomicReference<>();
+        CountDownLatch ticked = new CountDownLatch(1);
+        scheduler.addTickListener(new TickListener() {
+            @Override
+            public void onTickStart(long tick) {
+                tickThread.set(Thread.currentThread());
+                ticked.countDown();
+            }
+
+            @Override
+            public void onTickEnd(long tick) {
+            }
+        });
+        scheduler.start();
+        Assert.assertTrue(ticked.await(2, TimeUnit.SECONDS));
+        Assert.assertFalse(tickThread.get().isDaemon());
+
+        scheduler.stop();
+        tickThread.get().join(2000);
+        Assert.assertFalse(tickThread.get().isAlive());
+    }
+
+    @Test
+    public void testTicksFollowTheTimerClock() {
+        ManualClock clock = new ManualClock(0L);
+        ContinuousObservationScheduler manual = new ContinuousObservationScheduler(EventRegistry.of(events), 100, clock);
+        AtomicInteger ticks = new AtomicInteger();
+        manual.addTickListener(new TickListener() {
+            @Override
+            public void onTickStart(long tick) {
+                ticks.incrementAndGet();
+            }
+
+            @Override
+            public void onTickEnd(long tick) {
+            }
+        });
+        manual.start();
+
+        clock.advance(99, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(0, ticks.get());
+        clock.advance(1, TimeUnit.SECONDS);
+        Assert.assertEquals(10, ticks.get());
+        Assert.assertTrue(event1.isListened());
+
+        manual.stop();
+        clock.advance(1, TimeUnit.SECONDS);
+        Assert.assertEquals(10, ticks.get());
+        Assert.assertEquals(0, clock.getPendingCount());
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.subscriptions;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import tools.spirals.cerberus237.adaptiflow.events.Event;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class EventRegistryTest {
+    private EventRegistry registry;
+
+    private static class CountingEvent extends Event<Double> {
+        private final AtomicInteger observations = new AtomicInteger();
+
+        CountingEvent(String name) {
+            super(name, () -> 1.0);
+        }
+
+        @Override
+        public void observe() {
+            observations.incrementAndGet();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        registry = new EventRegistry();
+    }
+
+    @Test
+    public void testRegisterAndLookup() {
+        CountingEvent cpu = new CountingEvent("cpu");
+        registry.register("cpu-high", cpu, "recommender", "global");
+
+        Assert.assertSame(cpu, registry.get("cpu-high"));
+        Assert.assertEquals(List.of(cpu), registry.getByTag("global"));
+        Assert.assertTrue(registry.getTags("cpu-high").contains("recommender"));
+        Assert.assertTrue(registry.getByTag("unknown").isEmpty());
+    }
+
+    @Test
+    public void testDefaultKeysAreUnique() {
+        CountingEvent first = new CountingEvent("increase");
+        CountingEvent second = new CountingEvent("increase");
+
+        Assert.assertEquals("increase", registry.register(first));
+        Assert.assertEquals("increase#" + second.getId(), registry.register(second));
+        Assert.assertEquals(2, registry.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegisterDuplicateKeyFails() {
+        registry.register("cpu", new CountingEvent("a"));
+        registry.register("cpu", new CountingEvent("b"));
+    }
+
+    @Test
+    public void testRegisterSameEventTwiceFails() {
+        CountingEvent cpu = new CountingEvent("cpu");
+        registry.register(cpu);
+        try {
+            registry.register(cpu);
+            Assert.fail("The event is already registered");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(1, registry.size());
+        }
+        try {
+            registry.register("cpu-again", cpu);
+            Assert.fail("The event is already registered");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(List.of("cpu"), registry.keys());
+        }
+        CountingEvent memory = new CountingEvent("memory");
+        registry.register(memory);
+        try {
+            registry.replace("memory", cpu);
+            Assert.fail("The event is already registered");
+        } catch (IllegalArgumentException e) {
+            Assert.assertSame(memory, registry.get("memory"));
+        }
+        Assert.assertSame(cpu, registry.replace("cpu", cpu));
+    }
+
+    @Test
+    public void testViewIteratesOneSnapshot() {
+        for (int i = 0; i < 10; i++) {
+            registry.register(new CountingEvent("event-" + i));
+        }
+        int seen = 0;
+        for (Event<?> event : registry.asList()) {
+            registry.unregister(event);
+            seen++;
+        }
+        Assert.assertEquals(10, seen);
+        Assert.assertTrue(registry.asList().isEmpty());
+    }
+
+    @Test
+    public void testReplaceKeepsTagsAndOrder() {
+        CountingEvent first = new CountingEvent("first");
+        CountingEvent second = new CountingEvent("second");
+        CountingEvent replacement = new CountingEvent("replacement");
+        registry.register("first", first, "global");
+        registry.register("second", second);
+
+        Assert.assertSame(first, registry.replace("first", replacement));
+        Assert.assertEquals(List.of(replacement, second), registry.asList());
+        Assert.assertEquals(List.of(replacement), registry.getByTag("global"));
+    }
+
+    @Test
+    public void testChangesApplyFromNextTick() {
+        CountingEvent kept = new CountingEvent("kept");
+        CountingEvent removed = new CountingEvent("removed");
+        CountingEvent added = new CountingEvent("added");
+        registry.register(kept);
+        registry.register(removed);
+        SingleObservationScheduler scheduler = new SingleObservationScheduler(registry);
+
+        scheduler.start();
+        registry.unregister("removed");
+        registry.register(added);
+        scheduler.start();
+
+        Assert.assertEquals(2, kept.observations.get());
+        Assert.assertEquals(1, removed.observations.get());
+        Assert.assertEquals(1, added.observations.get());
+        Assert.assertFalse(registry.unregister(removed));
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.subscriptions.subscribers;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class TriggerLogSamplerTest {
+
+    @Test
+    public void testLogsEveryTriggerWithoutInterval() {
+        TriggerLogSampler sampler = new TriggerLogSampler(0);
+        Assert.assertEquals(0, sampler.acquire());
+        Assert.assertEquals(0, sampler.acquire());
+    }
+
+    @Test
+    public void testSkipsTriggersWithinInterval() {
+        TriggerLogSampler sampler = new TriggerLogSampler(60_000);
+        Assert.assertEquals(0, sampler.acquire()); // First trigger is always logged
+        Assert.assertEquals(TriggerLogSampler.SKIP, sampler.acquire());
+        Assert.assertEquals(TriggerLogSampler.SKIP, sampler.acquire());
+
+        sampler.setIntervalMillis(0);
+        Assert.assertEquals(2, sampler.acquire()); // Reports the skipped triggers
+    }
+}
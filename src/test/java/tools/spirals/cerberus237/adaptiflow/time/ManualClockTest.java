@@ -0,0 +1,85 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tools.spirals.cerberus237.adaptiflow.time;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author Arléon Zemtsop (Cerberus)
+ */
+public class ManualClockTest {
+
+    @Test
+    public void testRunsDueTasksInOrderAtTheirTime() {
+        ManualClock clock = new ManualClock(1_000L);
+        List<String> runs = new CopyOnWriteArrayList<>();
+        clock.schedule(() -> runs.add("b@" + clock.currentTimeMillis()), 20, TimeUnit.MILLISECONDS);
+        clock.schedule(() -> runs.add("a@" + clock.currentTimeMillis()), 10, TimeUnit.MILLISECONDS);
+        clock.scheduleAtFixedRate(() -> runs.add("p@" + clock.currentTimeMillis()), 15, 15, TimeUnit.MILLISECONDS);
+
+        clock.advance(40, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(List.of("a@1010", "p@1015", "b@1020", "p@1030"), runs);
+        Assert.assertEquals(1_040L, clock.currentTimeMillis());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(40), clock.nanoTime());
+    }
+
+    @Test
+    public void testTasksScheduledByTasksRunInTheSameAdvance() {
+        ManualClock clock = new ManualClock(0L);
+        AtomicInteger chain = new AtomicInteger();
+        Runnable[] step = new Runnable[1];
+        step[0] = () -> {
+            if (chain.incrementAndGet() < 5) {
+                clock.schedule(step[0], 10, TimeUnit.MILLISECONDS);
+            }
+        };
+        clock.schedule(step[0], 10, TimeUnit.MILLISECONDS);
+
+        clock.advance(35, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(3, chain.get());
+        clock.advanceTo(100L);
+        Assert.assertEquals(5, chain.get());
+        Assert.assertEquals(0, clock.getPendingCount());
+    }
+
+    @Test
+    public void testFailingPeriodicTaskIsCancelled() {
+        ManualClock clock = new ManualClock(0L);
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledTask task = clock.scheduleAtFixedRate(() -> {
+            if (runs.incrementAndGet() == 2) {
+                throw new IllegalStateException("collector failed");
+            }
+        }, 10, 10, TimeUnit.MILLISECONDS);
+
+        clock.advance(100, TimeUnit.MILLISECONDS);
+
+        Assert.assertEquals(2, runs.get());
+        Assert.assertTrue(task.isCancelled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCannotGoBackwards() {
+        ManualClock clock = new ManualClock(1_000L);
+        clock.advanceTo(999L);
+    }
+}